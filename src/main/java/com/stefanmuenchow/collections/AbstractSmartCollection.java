@@ -11,7 +11,10 @@
 
 package com.stefanmuenchow.collections;
 
+import java.io.IOException;
 import java.lang.reflect.Array;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -19,8 +22,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import com.stefanmuenchow.functors.Accumulator;
 import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.CombineFunction;
 import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.Supplier;
 import com.stefanmuenchow.functors.UnaryFunction;
 import com.stefanmuenchow.functors.VoidFunction;
 
@@ -43,6 +49,16 @@ public abstract class AbstractSmartCollection<E> implements SmartCollection<E> {
     protected abstract <T> SmartCollection<T> createNewInstance(
             Collection<T> aColl);
 
+    /**
+     * Returns the elements that may match predicate, a range or a single 
+     * element if the predicate can be pushed down into the backing 
+     * collection, see {@link Pushdown}.
+     */
+    private Iterable<E> candidates(final Predicate<? super E> predicate, final boolean stored) {
+        Iterable<E> candidates = Pushdown.candidates(internalColl, predicate, stored);
+        return candidates != null ? candidates : internalColl;
+    }
+
     /** Collection methods */
     
 	@Override
@@ -144,7 +160,7 @@ public abstract class AbstractSmartCollection<E> implements SmartCollection<E> {
 
     @Override
     public E find(final Predicate<? super E> pred) {
-        for (E elem : internalColl) {
+        for (E elem : candidates(pred, true)) {
             if (pred.test(elem)) {
                 return elem;
             }
@@ -155,6 +171,10 @@ public abstract class AbstractSmartCollection<E> implements SmartCollection<E> {
 
     @Override
     public SmartCollection<E> filter(final Predicate<? super E> predicate) {
+        if (Pushdown.filter(internalColl, predicate)) {
+            return this;
+        }
+
         List<E> toRemove = new ArrayList<E>();
 
         for (E elem : internalColl) {
@@ -239,22 +259,160 @@ public abstract class AbstractSmartCollection<E> implements SmartCollection<E> {
         return result;
     }
 
+    @Override
+    public <K> SmartMap<K, SmartList<E>> groupBy(final UnaryFunction<K, ? super E> keyFunction) {
+        return Grouping.groupBy(internalColl, keyFunction, false);
+    }
+
+    @Override
+    public <K, R> SmartMap<K, R> groupBy(final UnaryFunction<K, ? super E> keyFunction, final R initial,
+            final BinaryFunction<R, ? super E> funct) {
+        return Grouping.groupBy(internalColl, keyFunction, initial, funct, false);
+    }
+
+    @Override
+    public <K> SmartMap<K, Integer> countBy(final UnaryFunction<K, ? super E> keyFunction) {
+        return Grouping.countBy(internalColl, keyFunction);
+    }
+
+    @Override
+    public <R> R collect(final Supplier<R> supplier, final Accumulator<R, ? super E> accumulator,
+            final Accumulator<R, R> combiner) {
+        return Collecting.collect(internalColl, supplier, accumulator);
+    }
+
+    @Override
+    public <A, R> R collect(final Collector<? super E, A, R> collector) {
+        return Collecting.collect(internalColl, collector);
+    }
+
+    @Override
+    public <R, K> SmartList<Tuple<E, R>> join(final Collection<R> other, final UnaryFunction<K, ? super E> keyFunction,
+            final UnaryFunction<K, ? super R> otherKeyFunction) {
+        return Joins.hashJoin(internalColl, other, keyFunction, otherKeyFunction, Joins.<E, R>tupleFn(), false);
+    }
+
+    @Override
+    public <R, K, T> SmartList<T> join(final Collection<R> other, final UnaryFunction<K, ? super E> keyFunction,
+            final UnaryFunction<K, ? super R> otherKeyFunction,
+            final CombineFunction<T, ? super E, ? super R> combiner) {
+        return Joins.hashJoin(internalColl, other, keyFunction, otherKeyFunction, combiner, false);
+    }
+
+    @Override
+    public <R, K> SmartList<Tuple<E, R>> leftOuterJoin(final Collection<R> other,
+            final UnaryFunction<K, ? super E> keyFunction, final UnaryFunction<K, ? super R> otherKeyFunction) {
+        return Joins.hashJoin(internalColl, other, keyFunction, otherKeyFunction, Joins.<E, R>tupleFn(), true);
+    }
+
+    @Override
+    public <R, K, T> SmartList<T> leftOuterJoin(final Collection<R> other,
+            final UnaryFunction<K, ? super E> keyFunction, final UnaryFunction<K, ? super R> otherKeyFunction,
+            final CombineFunction<T, ? super E, ? super R> combiner) {
+        return Joins.hashJoin(internalColl, other, keyFunction, otherKeyFunction, combiner, true);
+    }
+
+    @Override
+    public <K, V> SmartList<Tuple<E, V>> join(final Map<K, V> map, final UnaryFunction<K, ? super E> keyFunction) {
+        return Joins.mapJoin(internalColl, map, keyFunction, false);
+    }
+
+    @Override
+    public <K, V> SmartList<Tuple<E, V>> leftOuterJoin(final Map<K, V> map,
+            final UnaryFunction<K, ? super E> keyFunction) {
+        return Joins.mapJoin(internalColl, map, keyFunction, true);
+    }
+
+    @Override
+    public <R, K> SmartCollection<E> semiJoin(final Collection<R> other, final UnaryFunction<K, ? super E> keyFunction,
+            final UnaryFunction<K, ? super R> otherKeyFunction) {
+        return filter(Joins.matching(internalColl, other, keyFunction, otherKeyFunction, false));
+    }
+
+    @Override
+    public <R, K> SmartCollection<E> antiJoin(final Collection<R> other, final UnaryFunction<K, ? super E> keyFunction,
+            final UnaryFunction<K, ? super R> otherKeyFunction) {
+        return filter(Joins.matching(internalColl, other, keyFunction, otherKeyFunction, true));
+    }
+
+    @Override
+    public <K> SmartCollection<E> semiJoin(final Map<K, ?> map, final UnaryFunction<K, ? super E> keyFunction) {
+        return filter(Joins.<E, K>matching(map, keyFunction, false));
+    }
+
+    @Override
+    public <K> SmartCollection<E> antiJoin(final Map<K, ?> map, final UnaryFunction<K, ? super E> keyFunction) {
+        return filter(Joins.<E, K>matching(map, keyFunction, true));
+    }
+
+    @Override
+    public <R, K extends Comparable<? super K>> SmartList<Tuple<E, R>> mergeJoin(final Collection<R> other,
+            final UnaryFunction<K, ? super E> keyFunction, final UnaryFunction<K, ? super R> otherKeyFunction) {
+        return Joins.mergeJoin(internalColl, other, keyFunction, otherKeyFunction, Joins.<E, R>tupleFn());
+    }
+
+    @Override
+    public <R, K extends Comparable<? super K>, T> SmartList<T> mergeJoin(final Collection<R> other,
+            final UnaryFunction<K, ? super E> keyFunction, final UnaryFunction<K, ? super R> otherKeyFunction,
+            final CombineFunction<T, ? super E, ? super R> combiner) {
+        return Joins.mergeJoin(internalColl, other, keyFunction, otherKeyFunction, combiner);
+    }
+
+    @Override
+    public <K> SmartMap<K, SmartList<E>> parallelGroupBy(final UnaryFunction<K, ? super E> keyFunction) {
+        return Grouping.groupBy(internalColl, keyFunction, true);
+    }
+
+    @Override
+    public <K, R> SmartMap<K, R> parallelGroupBy(final UnaryFunction<K, ? super E> keyFunction, final R initial,
+            final BinaryFunction<R, ? super E> funct) {
+        return Grouping.groupBy(internalColl, keyFunction, initial, funct, true);
+    }
+
+    @Override
+    public <R> R parallelCollect(final Supplier<R> supplier, final Accumulator<R, ? super E> accumulator,
+            final Accumulator<R, R> combiner) {
+        return Collecting.parallelCollect(internalColl, supplier, accumulator, combiner);
+    }
+
+    @Override
+    public <A, R> R parallelCollect(final Collector<? super E, A, R> collector) {
+        return Collecting.parallelCollect(internalColl, collector);
+    }
+
     @Override
     public String join(final String delimiter) {
-        StringBuffer result = new StringBuffer();
-        for (E elem : internalColl) {
-            result.append(elem.toString());
-            result.append(delimiter);
+        try {
+            return joinTo(new StringBuilder(), delimiter).toString();
+        } catch (IOException e) {
+            throw new IllegalStateException("StringBuilder cannot throw IOException", e);
         }
+    }
 
-        result.setLength(result.length() - delimiter.length());
-        return result.toString();
+    @Override
+    public <A extends Appendable> A joinTo(final A out, final CharSequence delimiter) throws IOException {
+        return joinTo(out, delimiter, "", "", null);
+    }
+
+    @Override
+    public <A extends Appendable> A joinTo(final A out, final CharSequence delimiter, final CharSequence prefix,
+            final CharSequence suffix, final UnaryFunction<? extends CharSequence, ? super E> formatter)
+            throws IOException {
+        return Joining.join(internalColl, out, delimiter, prefix, suffix, formatter);
+    }
+
+    @Override
+    public long joinTo(final WritableByteChannel channel, final Charset charset, final CharSequence delimiter,
+            final CharSequence prefix, final CharSequence suffix,
+            final UnaryFunction<? extends CharSequence, ? super E> formatter) throws IOException {
+        return Joining.join(internalColl, Joining.toChannel(channel, charset), delimiter, prefix, suffix, formatter)
+                .finish();
     }
 
     @Override
     public int count(final Predicate<? super E> predicate) {
         int counter = 0;
-        for (E elem : internalColl) {
+        for (E elem : candidates(predicate, false)) {
             if (predicate.test(elem)) {
                 counter++;
             }
@@ -265,7 +423,7 @@ public abstract class AbstractSmartCollection<E> implements SmartCollection<E> {
 
     @Override
     public boolean exists(final Predicate<? super E> pred) {
-        for (E elem : internalColl) {
+        for (E elem : candidates(pred, false)) {
             if (pred.test(elem)) {
                 return true;
             }
@@ -14,13 +14,16 @@ package com.stefanmuenchow.collections;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.Comparator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import com.stefanmuenchow.functors.CombineFunction;
 import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.ToIntFunction;
+import com.stefanmuenchow.functors.ToLongFunction;
 import com.stefanmuenchow.functors.UnaryFunction;
 
 /**
@@ -247,14 +250,14 @@ public abstract class AbstractSmartList<E> extends AbstractSmartCollection<E> im
 
     @Override
     public <T> SmartList<Tuple<E, T>> zipWith(final List<T> anotherList) {
-    	SmartList<Tuple<E, T>> result = createNewInstance(new ArrayList<Tuple<E, T>>());
-        Iterator<E> left = iterator();
-        Iterator<T> right = anotherList.iterator();
-
-        while (left.hasNext() && right.hasNext()) {
-            result.add(new Tuple<E, T>(left.next(), right.next()));
-        }
+        return zipWith(anotherList, Joins.<E, T>tupleFn());
+    }
 
+    @Override
+    public <R, T> SmartList<R> zipWith(final List<T> anotherList,
+            final CombineFunction<R, ? super E, ? super T> function) {
+        SmartList<R> result = createNewInstance(new ArrayList<R>());
+        Zipping.zip(getInternalList(), anotherList, function, result);
         return result;
     }
 
@@ -288,6 +291,37 @@ public abstract class AbstractSmartList<E> extends AbstractSmartCollection<E> im
         return this;
     }
 
+    @Override
+    public SmartList<E> sortWith(final Comparator<? super E> comparator) {
+        Collections.sort(getInternalList(), comparator);
+        return this;
+    }
+
+    @Override
+    public <K extends Comparable<? super K>> SmartList<E> sortBy(final UnaryFunction<K, ? super E> keyExtractor) {
+        KeySort.sortBy(getInternalList(), keyExtractor, true, false);
+        return this;
+    }
+
+    @Override
+    public <K extends Comparable<? super K>> SmartList<E> parallelSortBy(
+            final UnaryFunction<K, ? super E> keyExtractor, final boolean stable) {
+        KeySort.sortBy(getInternalList(), keyExtractor, stable, true);
+        return this;
+    }
+
+    @Override
+    public SmartList<E> sortByIntKey(final ToIntFunction<? super E> keyExtractor) {
+        RadixSort.sortByIntKey(getInternalList(), keyExtractor);
+        return this;
+    }
+
+    @Override
+    public SmartList<E> sortByLongKey(final ToLongFunction<? super E> keyExtractor) {
+        RadixSort.sortByLongKey(getInternalList(), keyExtractor);
+        return this;
+    }
+
     @Override
     public int sizeWithoutNulls() {
     	int i = 0;
@@ -301,8 +335,13 @@ public abstract class AbstractSmartList<E> extends AbstractSmartCollection<E> im
     }
     
     @Override
-    public <R, T> SmartList<R> map(List<T> anotherList, UnaryFunction<R, Tuple<E, T>> function) {
-    	return zipWith(anotherList).map(function);
+    public <R, T> SmartList<R> map(final List<T> anotherList, final UnaryFunction<R, Tuple<E, T>> function) {
+        return zipWith(anotherList, new CombineFunction<R, E, T>() {
+            @Override
+            public R apply(final E input1, final T input2) {
+                return function.apply(new Tuple<E, T>(input1, input2));
+            }
+        });
     }
     
     /** Overridden methods from SmartCollection */
@@ -11,6 +11,9 @@
 
 package com.stefanmuenchow.collections;
 
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -18,11 +21,15 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
+import com.stefanmuenchow.functors.Accumulator;
 import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.KeyPredicate;
 import com.stefanmuenchow.functors.MapBinaryFunction;
 import com.stefanmuenchow.functors.MapPredicate;
 import com.stefanmuenchow.functors.MapUnaryFunction;
 import com.stefanmuenchow.functors.MapVoidFunction;
+import com.stefanmuenchow.functors.Supplier;
+import com.stefanmuenchow.functors.UnaryFunction;
 
 /**
  * Abstract base class for map types.
@@ -41,6 +48,16 @@ public abstract class AbstractSmartMap<K, V> implements SmartMap<K, V> {
     protected abstract SmartMap<K, V> createNewInstance();
     protected abstract <S, R> SmartMap<S, R> createNewInstance(final Map<S, R> aMap);
 
+    /**
+     * Returns the entries that may match predicate, a key range or a single 
+     * entry if the predicate can be pushed down into the backing map, see 
+     * {@link Pushdown}.
+     */
+    private Iterable<Map.Entry<K, V>> candidates(final MapPredicate<? super K, ? super V> predicate) {
+        Iterable<Map.Entry<K, V>> candidates = Pushdown.candidates(internalMap, predicate);
+        return candidates != null ? candidates : internalMap.entrySet();
+    }
+
     /** Map Methods */
     
 	@Override
@@ -169,7 +186,7 @@ public abstract class AbstractSmartMap<K, V> implements SmartMap<K, V> {
 
     @Override
     public V find(final MapPredicate<? super K, ? super V> predicate) {
-        for (Map.Entry<K, V> entry : entrySet()) {
+        for (Map.Entry<K, V> entry : candidates(predicate)) {
             if (predicate.test(entry.getKey(), entry.getValue())) {
                 return entry.getValue();
             }
@@ -179,7 +196,13 @@ public abstract class AbstractSmartMap<K, V> implements SmartMap<K, V> {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public SmartMap<K, V> filter(final MapPredicate<? super K, ? super V> predicate) {
+        if (predicate instanceof KeyPredicate
+                && Pushdown.filter(internalMap, (KeyPredicate<? super K, ? super V>) predicate)) {
+            return this;
+        }
+
         SmartMap<K, V> tempMap = createNewInstance(internalMap);
         clear();
 
@@ -242,23 +265,65 @@ public abstract class AbstractSmartMap<K, V> implements SmartMap<K, V> {
     }
 
     @Override
-    public String join(final String entryDelimiter, final String keyValDelimiter) {
-        StringBuffer sb = new StringBuffer();
+    public <R> R collect(final Supplier<R> supplier, final Accumulator<R, ? super Map.Entry<K, V>> accumulator,
+            final Accumulator<R, R> combiner) {
+        return Collecting.collect(internalMap.entrySet(), supplier, accumulator);
+    }
 
-        for (Map.Entry<K, V> entry : internalMap.entrySet()) {
-            sb.append(entry.getKey() + keyValDelimiter + entry.getValue());
-            sb.append(entryDelimiter);
+    @Override
+    public <A, R> R collect(final Collector<? super Map.Entry<K, V>, A, R> collector) {
+        return Collecting.collect(internalMap.entrySet(), collector);
+    }
+
+    @Override
+    public <R> R parallelCollect(final Supplier<R> supplier,
+            final Accumulator<R, ? super Map.Entry<K, V>> accumulator, final Accumulator<R, R> combiner) {
+        return Collecting.parallelCollect(internalMap.entrySet(), supplier, accumulator, combiner);
+    }
+
+    @Override
+    public <A, R> R parallelCollect(final Collector<? super Map.Entry<K, V>, A, R> collector) {
+        return Collecting.parallelCollect(internalMap.entrySet(), collector);
+    }
+
+    @Override
+    public String join(final String entryDelimiter, final String keyValDelimiter) {
+        try {
+            return joinTo(new StringBuilder(), entryDelimiter, keyValDelimiter).toString();
+        } catch (IOException e) {
+            throw new IllegalStateException("StringBuilder cannot throw IOException", e);
         }
-        sb.setLength(sb.length() - entryDelimiter.length());
+    }
+
+    @Override
+    public <A extends Appendable> A joinTo(final A out, final CharSequence entryDelimiter,
+            final CharSequence keyValDelimiter) throws IOException {
+        return joinTo(out, entryDelimiter, keyValDelimiter, "", "", null, null);
+    }
 
-        return sb.toString();
+    @Override
+    public <A extends Appendable> A joinTo(final A out, final CharSequence entryDelimiter,
+            final CharSequence keyValDelimiter, final CharSequence prefix, final CharSequence suffix,
+            final UnaryFunction<? extends CharSequence, ? super K> keyFormatter,
+            final UnaryFunction<? extends CharSequence, ? super V> valueFormatter) throws IOException {
+        return Joining.join(internalMap, out, entryDelimiter, keyValDelimiter, prefix, suffix, keyFormatter,
+                valueFormatter);
+    }
+
+    @Override
+    public long joinTo(final WritableByteChannel channel, final Charset charset, final CharSequence entryDelimiter,
+            final CharSequence keyValDelimiter, final CharSequence prefix, final CharSequence suffix,
+            final UnaryFunction<? extends CharSequence, ? super K> keyFormatter,
+            final UnaryFunction<? extends CharSequence, ? super V> valueFormatter) throws IOException {
+        return Joining.join(internalMap, Joining.toChannel(channel, charset), entryDelimiter, keyValDelimiter,
+                prefix, suffix, keyFormatter, valueFormatter).finish();
     }
 
     @Override
     public int count(final MapPredicate<? super K, ? super V> predicate) {
         int counter = 0;
 
-        for (Map.Entry<K, V> entry : internalMap.entrySet()) {
+        for (Map.Entry<K, V> entry : candidates(predicate)) {
             if (predicate.test(entry.getKey(), entry.getValue())) {
                 counter++;
             }
@@ -269,7 +334,7 @@ public abstract class AbstractSmartMap<K, V> implements SmartMap<K, V> {
 
     @Override
     public boolean exists(final MapPredicate<? super K, ? super V> predicate) {
-        for (Map.Entry<K, V> entry : internalMap.entrySet()) {
+        for (Map.Entry<K, V> entry : candidates(predicate)) {
             if (predicate.test(entry.getKey(), entry.getValue())) {
                 return true;
             }
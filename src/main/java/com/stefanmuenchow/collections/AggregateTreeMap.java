@@ -0,0 +1,728 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+
+/**
+ * Sorted map backed by an AVL tree whose nodes keep the size and the
+ * aggregate of their subtree. The aggregate is computed with an associative
+ * binary function, so range aggregates and rank queries can be answered in
+ * O(log n).
+ *
+ * Instances returned by {@link #subMap(Object, Object)},
+ * {@link #headMap(Object)} and {@link #tailMap(Object)} are live views on
+ * the same tree restricted to a key range.
+ *
+ * @see SmartAggregateTreeMap
+ *
+ * @author Stefan Münchow
+ */
+class AggregateTreeMap<K, V> extends AbstractMap<K, V> implements SortedMap<K, V> {
+    private final Tree<K, V> tree;
+    private final K lo;
+    private final boolean hasLo;
+    private final K hi;
+    private final boolean hasHi;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    AggregateTreeMap(final BinaryFunction<V, V> aggregator, final Comparator<? super K> comparator) {
+        this(new Tree<K, V>(aggregator, comparator), null, false, null, false);
+    }
+
+    private AggregateTreeMap(final Tree<K, V> tree, final K lo, final boolean hasLo, final K hi,
+            final boolean hasHi) {
+        this.tree = tree;
+        this.lo = lo;
+        this.hasLo = hasLo;
+        this.hi = hi;
+        this.hasHi = hasHi;
+    }
+
+    BinaryFunction<V, V> getAggregator() {
+        return tree.aggregator;
+    }
+
+    /** Aggregate methods */
+
+    /**
+     * Aggregates all values with keys in [fromKey, toKey) intersected with
+     * the range of this map. Returns <code>null</code> for an empty range.
+     */
+    V rangeReduce(final K fromKey, final boolean hasFrom, final K toKey, final boolean hasTo) {
+        K from = lo;
+        boolean fromSet = hasLo;
+        if (hasFrom && (!hasLo || tree.compare(fromKey, lo) > 0)) {
+            from = fromKey;
+            fromSet = true;
+        }
+
+        K to = hi;
+        boolean toSet = hasHi;
+        if (hasTo && (!hasHi || tree.compare(toKey, hi) < 0)) {
+            to = toKey;
+            toSet = true;
+        }
+
+        if (fromSet && toSet && tree.compare(from, to) >= 0) {
+            return null;
+        }
+
+        return tree.result(tree.range(tree.root, from, fromSet, to, toSet));
+    }
+
+    /**
+     * Number of keys in this map that are strictly less than key.
+     */
+    int rank(final K key) {
+        if (hasLo && tree.compare(key, lo) <= 0) {
+            return 0;
+        }
+
+        if (hasHi && tree.compare(key, hi) > 0) {
+            return size();
+        }
+
+        return tree.rank(key) - lowRank();
+    }
+
+    /**
+     * Key at the given position of this map in ascending order.
+     */
+    K keyAt(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+
+        return tree.select(lowRank() + index).key;
+    }
+
+    private int lowRank() {
+        return hasLo ? tree.rank(lo) : 0;
+    }
+
+    private int highRank() {
+        return hasHi ? tree.rank(hi) : Tree.size(tree.root);
+    }
+
+    private boolean inRange(final K key) {
+        return (!hasLo || tree.compare(key, lo) >= 0) && (!hasHi || tree.compare(key, hi) < 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean inRangeObject(final Object key) {
+        return key != null && inRange((K) key);
+    }
+
+    /** Map methods */
+
+    @Override
+    public int size() {
+        if (!hasLo && !hasHi) {
+            return Tree.size(tree.root);
+        }
+
+        return Math.max(0, highRank() - lowRank());
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return inRangeObject(key) && tree.find(key) != null;
+    }
+
+    @Override
+    public V get(final Object key) {
+        if (!inRangeObject(key)) {
+            return null;
+        }
+
+        Tree<K, V>.Node node = tree.find(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        if (key == null) {
+            throw new NullPointerException("Null keys are not supported");
+        }
+
+        if (!inRange(key)) {
+            throw new IllegalArgumentException("Key out of range: " + key);
+        }
+
+        return tree.put(key, value);
+    }
+
+    @Override
+    public V remove(final Object key) {
+        if (!inRangeObject(key)) {
+            return null;
+        }
+
+        return tree.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        if (!hasLo && !hasHi) {
+            tree.clear();
+        } else {
+            Iterator<Map.Entry<K, V>> it = entrySet().iterator();
+            while (it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return AggregateTreeMap.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    AggregateTreeMap.this.clear();
+                }
+            };
+        }
+
+        return entrySet;
+    }
+
+    /** SortedMap methods */
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return tree.comparator;
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(final K fromKey, final K toKey) {
+        if (tree.compare(fromKey, toKey) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+
+        return restrict(fromKey, true, toKey, true);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(final K toKey) {
+        return restrict(null, false, toKey, true);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(final K fromKey) {
+        return restrict(fromKey, true, null, false);
+    }
+
+    private SortedMap<K, V> restrict(final K fromKey, final boolean hasFrom, final K toKey,
+            final boolean hasTo) {
+        if (hasFrom && !inRangeOrHigh(fromKey)) {
+            throw new IllegalArgumentException("fromKey out of range: " + fromKey);
+        }
+
+        if (hasTo && !inRangeOrHigh(toKey)) {
+            throw new IllegalArgumentException("toKey out of range: " + toKey);
+        }
+
+        return new AggregateTreeMap<K, V>(tree,
+                hasFrom ? fromKey : lo, hasFrom || hasLo,
+                hasTo ? toKey : hi, hasTo || hasHi);
+    }
+
+    private boolean inRangeOrHigh(final K key) {
+        return inRange(key) || (hasHi && tree.compare(key, hi) == 0);
+    }
+
+    @Override
+    public K firstKey() {
+        Tree<K, V>.Node node = hasLo ? tree.ceiling(lo, true) : tree.first();
+        if (node == null || !inRange(node.key)) {
+            throw new NoSuchElementException();
+        }
+
+        return node.key;
+    }
+
+    @Override
+    public K lastKey() {
+        Tree<K, V>.Node node = hasHi ? tree.lower(hi) : tree.last();
+        if (node == null || !inRange(node.key)) {
+            throw new NoSuchElementException();
+        }
+
+        return node.key;
+    }
+
+    /**
+     * In-order iterator over the nodes within the range of this map. Keeps
+     * the path to the next node on a stack.
+     */
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        private final List<Tree<K, V>.Node> stack = new ArrayList<Tree<K, V>.Node>();
+        private Tree<K, V>.Node last;
+        private int expectedModCount = tree.modCount;
+
+        EntryIterator() {
+            seek(lo, hasLo, true);
+        }
+
+        private void seek(final K key, final boolean bounded, final boolean inclusive) {
+            stack.clear();
+            Tree<K, V>.Node node = tree.root;
+
+            while (node != null) {
+                int cmp = bounded ? tree.compare(node.key, key) : 1;
+                if (cmp > 0 || (cmp == 0 && inclusive)) {
+                    stack.add(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (stack.isEmpty()) {
+                return false;
+            }
+
+            return !hasHi || tree.compare(stack.get(stack.size() - 1).key, hi) < 0;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (tree.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Tree<K, V>.Node node = stack.remove(stack.size() - 1);
+            for (Tree<K, V>.Node n = node.right; n != null; n = n.left) {
+                stack.add(n);
+            }
+
+            last = node;
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+
+            if (tree.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            tree.remove(last.key);
+            seek(last.key, true, false);
+            expectedModCount = tree.modCount;
+            last = null;
+        }
+    }
+
+    /**
+     * The AVL tree shared by a map and all of its views.
+     */
+    static final class Tree<K, V> {
+        private static final Object NONE = new Object();
+
+        final BinaryFunction<V, V> aggregator;
+        final Comparator<? super K> comparator;
+        Node root;
+        int modCount;
+        private V oldValue;
+
+        Tree(final BinaryFunction<V, V> aggregator, final Comparator<? super K> comparator) {
+            this.aggregator = aggregator;
+            this.comparator = comparator;
+        }
+
+        final class Node implements Map.Entry<K, V> {
+            final K key;
+            V value;
+            Node left;
+            Node right;
+            int height = 1;
+            int size = 1;
+            Object agg;
+
+            Node(final K key, final V value) {
+                this.key = key;
+                this.value = value;
+                this.agg = value;
+            }
+
+            @Override
+            public K getKey() {
+                return key;
+            }
+
+            @Override
+            public V getValue() {
+                return value;
+            }
+
+            @Override
+            public V setValue(final V newValue) {
+                return put(key, newValue);
+            }
+
+            @Override
+            public boolean equals(final Object obj) {
+                if (!(obj instanceof Map.Entry)) {
+                    return false;
+                }
+
+                Map.Entry<?, ?> e = (Map.Entry<?, ?>) obj;
+                return eq(key, e.getKey()) && eq(value, e.getValue());
+            }
+
+            @Override
+            public int hashCode() {
+                return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+            }
+
+            @Override
+            public String toString() {
+                return key + "=" + value;
+            }
+        }
+
+        private static boolean eq(final Object o1, final Object o2) {
+            return o1 == null ? o2 == null : o1.equals(o2);
+        }
+
+        @SuppressWarnings("unchecked")
+        int compare(final Object k1, final Object k2) {
+            if (comparator == null) {
+                return ((Comparable<Object>) k1).compareTo(k2);
+            }
+
+            return comparator.compare((K) k1, (K) k2);
+        }
+
+        static int size(final Tree<?, ?>.Node node) {
+            return node == null ? 0 : node.size;
+        }
+
+        private static int height(final Tree<?, ?>.Node node) {
+            return node == null ? 0 : node.height;
+        }
+
+        private Object agg(final Node node) {
+            return node == null ? NONE : node.agg;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object combine(final Object a, final Object b) {
+            if (a == NONE) {
+                return b;
+            }
+
+            if (b == NONE) {
+                return a;
+            }
+
+            return aggregator.apply((V) a, (V) b);
+        }
+
+        @SuppressWarnings("unchecked")
+        V result(final Object agg) {
+            return agg == NONE ? null : (V) agg;
+        }
+
+        /** Lookup */
+
+        Node find(final Object key) {
+            Node node = root;
+            while (node != null) {
+                int cmp = compare(key, node.key);
+                if (cmp == 0) {
+                    return node;
+                }
+
+                node = cmp < 0 ? node.left : node.right;
+            }
+
+            return null;
+        }
+
+        Node first() {
+            Node node = root;
+            while (node != null && node.left != null) {
+                node = node.left;
+            }
+
+            return node;
+        }
+
+        Node last() {
+            Node node = root;
+            while (node != null && node.right != null) {
+                node = node.right;
+            }
+
+            return node;
+        }
+
+        Node ceiling(final K key, final boolean inclusive) {
+            Node node = root;
+            Node result = null;
+
+            while (node != null) {
+                int cmp = compare(node.key, key);
+                if (cmp > 0 || (cmp == 0 && inclusive)) {
+                    result = node;
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+
+            return result;
+        }
+
+        Node lower(final K key) {
+            Node node = root;
+            Node result = null;
+
+            while (node != null) {
+                if (compare(node.key, key) < 0) {
+                    result = node;
+                    node = node.right;
+                } else {
+                    node = node.left;
+                }
+            }
+
+            return result;
+        }
+
+        int rank(final K key) {
+            Node node = root;
+            int rank = 0;
+
+            while (node != null) {
+                if (compare(node.key, key) < 0) {
+                    rank += size(node.left) + 1;
+                    node = node.right;
+                } else {
+                    node = node.left;
+                }
+            }
+
+            return rank;
+        }
+
+        Node select(final int index) {
+            Node node = root;
+            int i = index;
+
+            while (node != null) {
+                int leftSize = size(node.left);
+                if (i < leftSize) {
+                    node = node.left;
+                } else if (i == leftSize) {
+                    return node;
+                } else {
+                    i -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+
+        /**
+         * Aggregate of all values in the subtree of node with keys in
+         * [from, to). Descends along at most two paths, combining whole
+         * subtrees that lie entirely within the range.
+         */
+        Object range(final Node node, final K from, final boolean hasFrom, final K to, final boolean hasTo) {
+            if (node == null) {
+                return NONE;
+            }
+
+            if (hasFrom && compare(node.key, from) < 0) {
+                return range(node.right, from, hasFrom, to, hasTo);
+            }
+
+            if (hasTo && compare(node.key, to) >= 0) {
+                return range(node.left, from, hasFrom, to, hasTo);
+            }
+
+            Object left = hasFrom ? range(node.left, from, true, null, false) : agg(node.left);
+            Object right = hasTo ? range(node.right, null, false, to, true) : agg(node.right);
+            return combine(combine(left, node.value), right);
+        }
+
+        /** Modification */
+
+        V put(final K key, final V value) {
+            oldValue = null;
+            root = put(root, key, value);
+            return oldValue;
+        }
+
+        private Node put(final Node node, final K key, final V value) {
+            if (node == null) {
+                modCount++;
+                return new Node(key, value);
+            }
+
+            int cmp = compare(key, node.key);
+            if (cmp < 0) {
+                node.left = put(node.left, key, value);
+            } else if (cmp > 0) {
+                node.right = put(node.right, key, value);
+            } else {
+                oldValue = node.value;
+                node.value = value;
+                update(node);
+                return node;
+            }
+
+            return balance(node);
+        }
+
+        V remove(final Object key) {
+            oldValue = null;
+            root = remove(root, key);
+            return oldValue;
+        }
+
+        private Node remove(final Node node, final Object key) {
+            if (node == null) {
+                return null;
+            }
+
+            int cmp = compare(key, node.key);
+            if (cmp < 0) {
+                node.left = remove(node.left, key);
+            } else if (cmp > 0) {
+                node.right = remove(node.right, key);
+            } else {
+                oldValue = node.value;
+                modCount++;
+
+                if (node.left == null) {
+                    return node.right;
+                }
+
+                if (node.right == null) {
+                    return node.left;
+                }
+
+                Node successor = node.right;
+                while (successor.left != null) {
+                    successor = successor.left;
+                }
+
+                successor.right = removeMin(node.right);
+                successor.left = node.left;
+                return balance(successor);
+            }
+
+            return balance(node);
+        }
+
+        private Node removeMin(final Node node) {
+            if (node.left == null) {
+                return node.right;
+            }
+
+            node.left = removeMin(node.left);
+            return balance(node);
+        }
+
+        void clear() {
+            root = null;
+            modCount++;
+        }
+
+        private void update(final Node node) {
+            node.height = Math.max(height(node.left), height(node.right)) + 1;
+            node.size = size(node.left) + size(node.right) + 1;
+            node.agg = combine(combine(agg(node.left), node.value), agg(node.right));
+        }
+
+        private Node balance(final Node node) {
+            update(node);
+            int balance = height(node.left) - height(node.right);
+
+            if (balance > 1) {
+                if (height(node.left.left) < height(node.left.right)) {
+                    node.left = rotateLeft(node.left);
+                }
+
+                return rotateRight(node);
+            }
+
+            if (balance < -1) {
+                if (height(node.right.right) < height(node.right.left)) {
+                    node.right = rotateRight(node.right);
+                }
+
+                return rotateLeft(node);
+            }
+
+            return node;
+        }
+
+        private Node rotateRight(final Node node) {
+            Node left = node.left;
+            node.left = left.right;
+            left.right = node;
+            update(node);
+            update(left);
+            return left;
+        }
+
+        private Node rotateLeft(final Node node) {
+            Node right = node.right;
+            node.right = right.left;
+            right.left = node;
+            update(node);
+            update(right);
+            return right;
+        }
+    }
+}
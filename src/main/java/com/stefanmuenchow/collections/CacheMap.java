@@ -0,0 +1,516 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.stefanmuenchow.collections.CachePolicy.Eviction;
+import com.stefanmuenchow.functors.MapPredicate;
+import com.stefanmuenchow.functors.MapUnaryFunction;
+
+/**
+ * Bounded map used by {@link SmartCacheMap}. Entries are indexed by a
+ * {@link HashMap} and linked into access ordered queues: a single queue for
+ * LRU, and window, probation and protected queues for TinyLFU. All methods
+ * synchronize on the map.
+ *
+ * {@link #entrySet()} returns a snapshot, iterating it neither changes the
+ * order of the entries nor the statistics.
+ *
+ * @author Stefan Münchow
+ */
+class CacheMap<K, V> extends AbstractMap<K, V> {
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final CachePolicy policy;
+    private final MapUnaryFunction<Integer, ? super K, ? super V> weigher;
+    private final Map<K, Node<K, V>> data = new HashMap<K, Node<K, V>>();
+    private final AccessQueue<K, V> window = new AccessQueue<K, V>();
+    private final AccessQueue<K, V> probation = new AccessQueue<K, V>();
+    private final AccessQueue<K, V> protectedQueue = new AccessQueue<K, V>();
+    private final FrequencySketch sketch;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private long weight;
+    private int writesSinceCleanUp;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long expirationCount;
+
+    CacheMap(final CachePolicy policy, final MapUnaryFunction<Integer, ? super K, ? super V> weigher) {
+        this.policy = policy;
+        this.weigher = weigher;
+
+        if (policy.eviction == Eviction.TINY_LFU) {
+            sketch = new FrequencySketch(policy.maximum);
+            windowMaximum = Math.max(1, policy.maximum / 100);
+            protectedMaximum = (policy.maximum - windowMaximum) * 8 / 10;
+        } else {
+            sketch = null;
+            windowMaximum = 0;
+            protectedMaximum = 0;
+        }
+    }
+
+    CachePolicy getPolicy() {
+        return policy;
+    }
+
+    synchronized CacheStats stats() {
+        return new CacheStats(hitCount, missCount, evictionCount, expirationCount);
+    }
+
+    /**
+     * Removes all expired entries.
+     */
+    synchronized void cleanUp() {
+        if (!policy.expires()) {
+            return;
+        }
+
+        long now = now();
+        List<Node<K, V>> expired = new ArrayList<Node<K, V>>();
+        for (Node<K, V> node : data.values()) {
+            if (isExpired(node, now)) {
+                expired.add(node);
+            }
+        }
+
+        for (Node<K, V> node : expired) {
+            removeNode(node);
+            expirationCount++;
+        }
+
+        writesSinceCleanUp = 0;
+    }
+
+    /**
+     * Removes all entries for which predicate returns matching, without
+     * changing the order of the remaining entries.
+     */
+    synchronized void removeAll(final MapPredicate<? super K, ? super V> predicate, final boolean matching) {
+        List<Node<K, V>> removed = new ArrayList<Node<K, V>>();
+        for (Node<K, V> node : data.values()) {
+            if (predicate.test(node.key, node.value) == matching) {
+                removed.add(node);
+            }
+        }
+
+        for (Node<K, V> node : removed) {
+            removeNode(node);
+        }
+    }
+
+    /** Map methods */
+
+    @Override
+    public synchronized int size() {
+        cleanUp();
+        return data.size();
+    }
+
+    @Override
+    public synchronized boolean containsKey(final Object key) {
+        Node<K, V> node = data.get(key);
+        return node != null && !isExpired(node, now());
+    }
+
+    @Override
+    public synchronized V get(final Object key) {
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+
+        long now = now();
+        if (isExpired(node, now)) {
+            removeNode(node);
+            expirationCount++;
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        node.accessTime = now;
+        onAccess(node);
+        return node.value;
+    }
+
+    @Override
+    public synchronized V put(final K key, final V value) {
+        long now = now();
+        int nodeWeight = weigh(key, value);
+        Node<K, V> node = data.get(key);
+        V old = null;
+
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+
+        if (node != null) {
+            if (!isExpired(node, now)) {
+                old = node.value;
+            }
+
+            queueOf(node).weight += nodeWeight - node.weight;
+            weight += nodeWeight - node.weight;
+            node.weight = nodeWeight;
+            node.value = value;
+            node.writeTime = now;
+            node.accessTime = now;
+            onAccess(node);
+        } else {
+            node = new Node<K, V>(key, value, nodeWeight, now);
+            data.put(key, node);
+            weight += nodeWeight;
+
+            if (sketch != null) {
+                node.queue = WINDOW;
+                window.addLast(node);
+            } else {
+                node.queue = PROBATION;
+                probation.addLast(node);
+            }
+        }
+
+        evict();
+
+        if (policy.expires() && ++writesSinceCleanUp >= Math.max(16, data.size())) {
+            cleanUp();
+        }
+
+        return old;
+    }
+
+    @Override
+    public synchronized V remove(final Object key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+
+        removeNode(node);
+        return isExpired(node, now()) ? null : node.value;
+    }
+
+    @Override
+    public synchronized void clear() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedQueue.clear();
+        weight = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        final List<Map.Entry<K, V>> snapshot = snapshot();
+
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                final Iterator<Map.Entry<K, V>> it = snapshot.iterator();
+
+                return new Iterator<Map.Entry<K, V>>() {
+                    private Map.Entry<K, V> last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        last = it.next();
+                        return last;
+                    }
+
+                    @Override
+                    public void remove() {
+                        it.remove();
+                        CacheMap.this.remove(last.getKey());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return snapshot.size();
+            }
+        };
+    }
+
+    /** Helper methods */
+
+    private synchronized List<Map.Entry<K, V>> snapshot() {
+        long now = now();
+        List<Map.Entry<K, V>> snapshot = new ArrayList<Map.Entry<K, V>>(data.size());
+        addLiveEntries(window, now, snapshot);
+        addLiveEntries(probation, now, snapshot);
+        addLiveEntries(protectedQueue, now, snapshot);
+        return snapshot;
+    }
+
+    private void addLiveEntries(final AccessQueue<K, V> queue, final long now,
+            final List<Map.Entry<K, V>> snapshot) {
+        for (Node<K, V> node = queue.head.next; node != queue.head; node = node.next) {
+            if (!isExpired(node, now)) {
+                snapshot.add(new AbstractMap.SimpleImmutableEntry<K, V>(node.key, node.value));
+            }
+        }
+    }
+
+    private long now() {
+        return policy.expires() ? policy.ticker.read() : 0;
+    }
+
+    private int weigh(final K key, final V value) {
+        if (weigher == null) {
+            return 1;
+        }
+
+        int result = weigher.apply(key, value);
+        if (result < 0) {
+            throw new IllegalArgumentException("Weight must not be negative: " + result);
+        }
+
+        return result;
+    }
+
+    private boolean isExpired(final Node<K, V> node, final long now) {
+        return (policy.expireAfterWriteNanos > 0 && now - node.writeTime >= policy.expireAfterWriteNanos)
+                || (policy.expireAfterAccessNanos > 0 && now - node.accessTime >= policy.expireAfterAccessNanos);
+    }
+
+    private AccessQueue<K, V> queueOf(final Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                return window;
+            case PROTECTED:
+                return protectedQueue;
+            default:
+                return probation;
+        }
+    }
+
+    private void onAccess(final Node<K, V> node) {
+        if (policy.eviction == Eviction.LRU) {
+            probation.moveToLast(node);
+        } else if (policy.eviction == Eviction.TINY_LFU) {
+            if (node.queue == PROBATION) {
+                probation.unlink(node);
+                node.queue = PROTECTED;
+                protectedQueue.addLast(node);
+
+                while (protectedQueue.weight > protectedMaximum) {
+                    Node<K, V> demoted = protectedQueue.head.next;
+                    protectedQueue.unlink(demoted);
+                    demoted.queue = PROBATION;
+                    probation.addLast(demoted);
+                }
+            } else {
+                queueOf(node).moveToLast(node);
+            }
+        }
+    }
+
+    private void evict() {
+        if (policy.eviction == Eviction.LRU) {
+            while (weight > policy.maximum) {
+                evictNode(probation.head.next);
+            }
+        } else if (policy.eviction == Eviction.TINY_LFU) {
+            while (window.weight > windowMaximum) {
+                Node<K, V> candidate = window.head.next;
+                window.unlink(candidate);
+                candidate.queue = PROBATION;
+                probation.addLast(candidate);
+            }
+
+            while (weight > policy.maximum) {
+                Node<K, V> victim = probation.head.next;
+                Node<K, V> candidate = probation.head.prev;
+
+                if (victim == probation.head) {
+                    evictNode(protectedQueue.isEmpty() ? window.head.next : protectedQueue.head.next);
+                } else if (victim == candidate || sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                    evictNode(victim);
+                } else {
+                    evictNode(candidate);
+                }
+            }
+        }
+    }
+
+    private void evictNode(final Node<K, V> node) {
+        removeNode(node);
+        evictionCount++;
+    }
+
+    private void removeNode(final Node<K, V> node) {
+        queueOf(node).unlink(node);
+        data.remove(node.key);
+        weight -= node.weight;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        int weight;
+        int queue;
+        long writeTime;
+        long accessTime;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(final K key, final V value, final int weight, final long now) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+    }
+
+    /**
+     * Doubly linked list of nodes with a sentinel head, from least to most
+     * recently used.
+     */
+    private static final class AccessQueue<K, V> {
+        final Node<K, V> head = new Node<K, V>(null, null, 0, 0);
+        long weight;
+
+        AccessQueue() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        boolean isEmpty() {
+            return head.next == head;
+        }
+
+        void addLast(final Node<K, V> node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+            weight += node.weight;
+        }
+
+        void unlink(final Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void moveToLast(final Node<K, V> node) {
+            if (head.prev != node) {
+                unlink(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            head.prev = head;
+            head.next = head;
+            weight = 0;
+        }
+    }
+
+    /**
+     * Count-min sketch with four rows of 4 bit counters (stored in bytes).
+     * All counters are halved after a number of increments proportional to
+     * the width, so that old popularity fades.
+     */
+    static final class FrequencySketch {
+        private static final int[] SEEDS = { 0x97cb3127, 0xb4b82e9d, 0x8a2fc8b3, 0xc2b2ae35 };
+        private static final int MAX_COUNT = 15;
+
+        private final byte[] table;
+        private final int width;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(final long maximum) {
+            int size = 16;
+            while (size < maximum && size < (1 << 22)) {
+                size <<= 1;
+            }
+
+            width = size;
+            table = new byte[SEEDS.length * width];
+            sampleSize = 10 * width;
+        }
+
+        void increment(final Object key) {
+            int hash = spread(key);
+            boolean added = false;
+
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = indexOf(hash, i);
+                if (table[index] < MAX_COUNT) {
+                    table[index]++;
+                    added = true;
+                }
+            }
+
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] >>= 1;
+                }
+
+                additions /= 2;
+            }
+        }
+
+        int frequency(final Object key) {
+            int hash = spread(key);
+            int result = MAX_COUNT;
+
+            for (int i = 0; i < SEEDS.length; i++) {
+                result = Math.min(result, table[indexOf(hash, i)]);
+            }
+
+            return result;
+        }
+
+        private int indexOf(final int hash, final int row) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> 17;
+            return row * width + (h & (width - 1));
+        }
+
+        private static int spread(final Object key) {
+            int h = key == null ? 0 : key.hashCode();
+            h ^= h >>> 16;
+            h *= 0x45d9f3b;
+            return h ^ (h >>> 16);
+        }
+    }
+}
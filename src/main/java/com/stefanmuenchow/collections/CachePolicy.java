@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable description of how a {@link SmartCacheMap} bounds its content.
+ * A policy limits the total weight of the entries (each entry weighs 1
+ * unless the cache has a weigher), selects the eviction strategy and
+ * optionally expires entries after a fixed time.
+ *
+ * <pre>
+ * CachePolicy policy = CachePolicy.tinyLfu(10000).expireAfterWrite(10, TimeUnit.MINUTES);
+ * </pre>
+ *
+ * @see SmartCacheMap
+ *
+ * @author Stefan Münchow
+ */
+public final class CachePolicy {
+
+    /**
+     * Source of the current time in nanoseconds. Replaced in tests.
+     */
+    interface Ticker {
+        long read();
+    }
+
+    static final Ticker SYSTEM_TICKER = new Ticker() {
+        @Override
+        public long read() {
+            return System.nanoTime();
+        }
+    };
+
+    enum Eviction {
+        NONE, LRU, TINY_LFU
+    }
+
+    final Eviction eviction;
+    final long maximum;
+    final long expireAfterWriteNanos;
+    final long expireAfterAccessNanos;
+    final Ticker ticker;
+
+    private CachePolicy(final Eviction eviction, final long maximum, final long expireAfterWriteNanos,
+            final long expireAfterAccessNanos, final Ticker ticker) {
+        this.eviction = eviction;
+        this.maximum = maximum;
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+        this.expireAfterAccessNanos = expireAfterAccessNanos;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Policy without a maximum. Entries are only removed explicitly or when
+     * they expire.
+     *
+     * @return				Unbounded policy
+     */
+    public static CachePolicy unbounded() {
+        return new CachePolicy(Eviction.NONE, Long.MAX_VALUE, 0, 0, SYSTEM_TICKER);
+    }
+
+    /**
+     * Policy evicting the least recently used entries as soon as the total
+     * weight exceeds maximum.
+     *
+     * @throws IllegalArgumentException	If maximum is negative
+     *
+     * @param maximum		Maximum total weight
+     * @return				LRU policy
+     */
+    public static CachePolicy lru(final long maximum) {
+        return new CachePolicy(Eviction.LRU, checkMaximum(maximum), 0, 0, SYSTEM_TICKER);
+    }
+
+    /**
+     * Policy in the style of W-TinyLFU: new entries enter a small LRU window
+     * and are only admitted to the main area if they have been requested more
+     * often than the entry they would replace. Access frequencies are
+     * estimated with a count-min sketch that is aged periodically. This keeps
+     * frequently used entries in the cache when scanning many keys that are
+     * used only once.
+     *
+     * @throws IllegalArgumentException	If maximum is negative
+     *
+     * @param maximum		Maximum total weight
+     * @return				Frequency based policy
+     */
+    public static CachePolicy tinyLfu(final long maximum) {
+        return new CachePolicy(Eviction.TINY_LFU, checkMaximum(maximum), 0, 0, SYSTEM_TICKER);
+    }
+
+    /**
+     * Returns a copy of this policy that expires entries once duration has
+     * passed since they were created or last replaced.
+     *
+     * @param duration		Time to live
+     * @param unit			Unit of duration
+     * @return				New policy
+     */
+    public CachePolicy expireAfterWrite(final long duration, final TimeUnit unit) {
+        return new CachePolicy(eviction, maximum, checkDuration(duration, unit), expireAfterAccessNanos, ticker);
+    }
+
+    /**
+     * Returns a copy of this policy that expires entries once duration has
+     * passed since they were last read or written.
+     *
+     * @param duration		Time to idle
+     * @param unit			Unit of duration
+     * @return				New policy
+     */
+    public CachePolicy expireAfterAccess(final long duration, final TimeUnit unit) {
+        return new CachePolicy(eviction, maximum, expireAfterWriteNanos, checkDuration(duration, unit), ticker);
+    }
+
+    CachePolicy withTicker(final Ticker aTicker) {
+        return new CachePolicy(eviction, maximum, expireAfterWriteNanos, expireAfterAccessNanos, aTicker);
+    }
+
+    /**
+     * @return				Maximum total weight
+     */
+    public long getMaximum() {
+        return maximum;
+    }
+
+    boolean expires() {
+        return expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+    }
+
+    private static long checkMaximum(final long maximum) {
+        if (maximum < 0) {
+            throw new IllegalArgumentException("Maximum must not be negative");
+        }
+
+        return maximum;
+    }
+
+    private static long checkDuration(final long duration, final TimeUnit unit) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+
+        return unit.toNanos(duration);
+    }
+
+    @Override
+    public String toString() {
+        return "CachePolicy[" + eviction + ", maximum=" + maximum + ", expireAfterWrite="
+                + expireAfterWriteNanos + "ns, expireAfterAccess=" + expireAfterAccessNanos + "ns]";
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+/**
+ * Immutable snapshot of the statistics of a {@link SmartCacheMap}.
+ *
+ * @author Stefan Münchow
+ */
+public final class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long expirationCount;
+
+    CacheStats(final long hitCount, final long missCount, final long evictionCount, final long expirationCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+    }
+
+    /**
+     * @return	Number of lookups that found a value
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return	Number of lookups that found no value
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return	Number of lookups
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return	Ratio of hits to lookups, 1.0 if there were no lookups
+     */
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * @return	Number of entries removed to stay below the maximum weight
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return	Number of entries removed because they expired
+     */
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj instanceof CacheStats) {
+            CacheStats other = (CacheStats) obj;
+            return hitCount == other.hitCount && missCount == other.missCount
+                    && evictionCount == other.evictionCount && expirationCount == other.expirationCount;
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hitCount ^ (missCount * 31) ^ (evictionCount * 961) ^ (expirationCount * 29791));
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats[hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount
+                + ", expirations=" + expirationCount + "]";
+    }
+}
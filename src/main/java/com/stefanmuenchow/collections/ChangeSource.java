@@ -0,0 +1,25 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+/**
+ * Source of change notifications whose current elements can be iterated, so
+ * that derived views can be initialized and then kept up to date.
+ *
+ * @author Stefan Münchow
+ */
+interface ChangeSource<E> extends Iterable<E> {
+
+    void addListener(CollectionListener<? super E> listener);
+
+    boolean removeListener(CollectionListener<? super E> listener);
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts elements to bytes and back, so that they can be stored outside of
+ * the heap, e.g. by {@link SmartSpillingList}. A codec only has to handle
+ * non-null elements. Implementations for common types are available from
+ * {@link Codecs}.
+ *
+ * @author Stefan Münchow
+ */
+public interface Codec<E> {
+
+    /**
+     * Writes elem to out.
+     *
+     * @param elem		Element to write, never <code>null</code>
+     * @param out		Output to write to
+     * @throws IOException	If writing fails
+     */
+    void write(E elem, DataOutput out) throws IOException;
+
+    /**
+     * Reads an element written by {@link #write(Object, DataOutput)}.
+     *
+     * @param in		Input to read from
+     * @return			Element read
+     * @throws IOException	If reading fails
+     */
+    E read(DataInput in) throws IOException;
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+
+/**
+ * Factory class for often used codecs.
+ *
+ * @author Stefan Münchow
+ */
+public class Codecs {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Codec for strings of any length, encoded as UTF-8.
+     *
+     * @return		String codec
+     */
+    public static final Codec<String> stringCodec() {
+        return new Codec<String>() {
+            @Override
+            public void write(final String elem, final DataOutput out) throws IOException {
+                byte[] bytes = elem.getBytes(UTF8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            @Override
+            public String read(final DataInput in) throws IOException {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return new String(bytes, UTF8);
+            }
+        };
+    }
+
+    /**
+     * Codec for integers.
+     *
+     * @return		Integer codec
+     */
+    public static final Codec<Integer> integerCodec() {
+        return new Codec<Integer>() {
+            @Override
+            public void write(final Integer elem, final DataOutput out) throws IOException {
+                out.writeInt(elem);
+            }
+
+            @Override
+            public Integer read(final DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+    }
+
+    /**
+     * Codec for longs.
+     *
+     * @return		Long codec
+     */
+    public static final Codec<Long> longCodec() {
+        return new Codec<Long>() {
+            @Override
+            public void write(final Long elem, final DataOutput out) throws IOException {
+                out.writeLong(elem);
+            }
+
+            @Override
+            public Long read(final DataInput in) throws IOException {
+                return in.readLong();
+            }
+        };
+    }
+
+    /**
+     * Codec for doubles.
+     *
+     * @return		Double codec
+     */
+    public static final Codec<Double> doubleCodec() {
+        return new Codec<Double>() {
+            @Override
+            public void write(final Double elem, final DataOutput out) throws IOException {
+                out.writeDouble(elem);
+            }
+
+            @Override
+            public Double read(final DataInput in) throws IOException {
+                return in.readDouble();
+            }
+        };
+    }
+
+    /**
+     * Codec for integers using a variable length encoding. Values of small
+     * magnitude, positive or negative, take one or two bytes instead of four.
+     *
+     * @return		Variable length integer codec
+     */
+    public static final Codec<Integer> varIntCodec() {
+        return new Codec<Integer>() {
+            @Override
+            public void write(final Integer elem, final DataOutput out) throws IOException {
+                writeVarInt((elem << 1) ^ (elem >> 31), out);
+            }
+
+            @Override
+            public Integer read(final DataInput in) throws IOException {
+                int zigzag = readVarInt(in);
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        };
+    }
+
+    /**
+     * Codec for longs using a variable length encoding. Values of small
+     * magnitude, positive or negative, take few bytes instead of eight.
+     *
+     * @return		Variable length long codec
+     */
+    public static final Codec<Long> varLongCodec() {
+        return new Codec<Long>() {
+            @Override
+            public void write(final Long elem, final DataOutput out) throws IOException {
+                writeVarLong((elem << 1) ^ (elem >> 63), out);
+            }
+
+            @Override
+            public Long read(final DataInput in) throws IOException {
+                long zigzag = readVarLong(in);
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        };
+    }
+
+    /**
+     * Codec for any serializable type using Java serialization. Each element
+     * is serialized on its own, so this is considerably slower and larger
+     * than a codec for the concrete type.
+     *
+     * @return		Serialization codec
+     */
+    public static final <T extends Serializable> Codec<T> serializableCodec() {
+        return new Codec<T>() {
+            @Override
+            public void write(final T elem, final DataOutput out) throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                ObjectOutputStream objects = new ObjectOutputStream(bytes);
+                objects.writeObject(elem);
+                objects.close();
+
+                out.writeInt(bytes.size());
+                out.write(bytes.toByteArray());
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T read(final DataInput in) throws IOException {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes));
+
+                try {
+                    return (T) objects.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException("Unknown class: " + e.getMessage());
+                } finally {
+                    objects.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Writes elem with codec, preceded by a flag so that <code>null</code>
+     * can be written as well.
+     */
+    static <E> void writeNullable(final Codec<E> codec, final E elem, final DataOutput out) throws IOException {
+        if (elem == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            codec.write(elem, out);
+        }
+    }
+
+    /**
+     * Reads an element written by {@link #writeNullable(Codec, Object, DataOutput)}.
+     */
+    static <E> E readNullable(final Codec<E> codec, final DataInput in) throws IOException {
+        return in.readBoolean() ? codec.read(in) : null;
+    }
+
+    /**
+     * Writes value as unsigned variable length integer, seven bits per byte
+     * with the high bit set on all but the last byte.
+     */
+    static void writeVarInt(final int value, final DataOutput out) throws IOException {
+        int rest = value;
+        while ((rest & ~0x7F) != 0) {
+            out.writeByte((rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+
+        out.writeByte(rest);
+    }
+
+    /**
+     * Reads a value written by {@link #writeVarInt(int, DataOutput)}.
+     */
+    static int readVarInt(final DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable length integer");
+    }
+
+    /**
+     * Writes value as unsigned variable length long, see
+     * {@link #writeVarInt(int, DataOutput)}.
+     */
+    static void writeVarLong(final long value, final DataOutput out) throws IOException {
+        long rest = value;
+        while ((rest & ~0x7FL) != 0) {
+            out.writeByte((int) (rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+
+        out.writeByte((int) rest);
+    }
+
+    /**
+     * Reads a value written by {@link #writeVarLong(long, DataOutput)}.
+     */
+    static long readVarLong(final DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable length long");
+    }
+}
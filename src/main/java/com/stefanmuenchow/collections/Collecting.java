@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.stefanmuenchow.functors.Accumulator;
+import com.stefanmuenchow.functors.Supplier;
+
+/**
+ * Mutable reductions of collections. Sequentially, all elements are folded
+ * into one container. In parallel mode, the elements are split into one
+ * contiguous chunk per thread, every chunk is folded into a container of
+ * its own and the containers are merged from left to right at the end, so
+ * neither the accumulator nor the containers need to be thread-safe.
+ *
+ * @author Stefan Münchow
+ */
+final class Collecting {
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    private Collecting() {
+    }
+
+    /**
+     * Folds all elements of coll into a container created by supplier.
+     * Elements are visited in iteration order.
+     */
+    static <E, R> R collect(final Iterable<E> coll, final Supplier<R> supplier,
+            final Accumulator<R, ? super E> accumulator) {
+        R container = supplier.get();
+        for (E elem : coll) {
+            accumulator.apply(container, elem);
+        }
+
+        return container;
+    }
+
+    /**
+     * Folds the elements of coll into one container per thread and merges
+     * the containers using combiner. Small collections are folded
+     * sequentially.
+     */
+    static <E, R> R parallelCollect(final Collection<E> coll, final Supplier<R> supplier,
+            final Accumulator<R, ? super E> accumulator, final Accumulator<R, R> combiner) {
+        if (coll.size() < PARALLEL_THRESHOLD || Parallel.parallelism() == 1) {
+            return collect(coll, supplier, accumulator);
+        }
+
+        final Object[] elems = coll.toArray();
+        final int[] bounds = Parallel.split(elems.length, Parallel.parallelism());
+        final List<R> containers = new ArrayList<R>();
+        List<Runnable> tasks = new ArrayList<Runnable>();
+
+        for (int i = 0; i < bounds.length - 1; i++) {
+            final int from = bounds[i];
+            final int to = bounds[i + 1];
+            containers.add(null);
+            final int index = containers.size() - 1;
+            tasks.add(new Runnable() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public void run() {
+                    R container = supplier.get();
+                    for (int j = from; j < to; j++) {
+                        accumulator.apply(container, (E) elems[j]);
+                    }
+
+                    synchronized (containers) {
+                        containers.set(index, container);
+                    }
+                }
+            });
+        }
+
+        Parallel.run(tasks);
+
+        R result = containers.get(0);
+        for (R container : containers.subList(1, containers.size())) {
+            combiner.apply(result, container);
+        }
+
+        return result;
+    }
+
+    static <E, A, R> R collect(final Iterable<E> coll, final Collector<? super E, A, R> collector) {
+        return collector.finisher().apply(collect(coll, collector.supplier(), collector.accumulator()));
+    }
+
+    static <E, A, R> R parallelCollect(final Collection<E> coll, final Collector<? super E, A, R> collector) {
+        return collector.finisher().apply(parallelCollect(coll, collector.supplier(), collector.accumulator(),
+                collector.combiner()));
+    }
+}
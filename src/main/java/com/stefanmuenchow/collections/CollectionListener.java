@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+/**
+ * Listener notified about changes of an observable collection, see
+ * {@link SmartObservableList#addListener(CollectionListener)}. Listeners are
+ * called synchronously after the change has been applied.
+ *
+ * @author Stefan Münchow
+ */
+public interface CollectionListener<E> {
+
+    /**
+     * Called after an element has been added.
+     *
+     * @param elem			Added element
+     */
+    void added(E elem);
+
+    /**
+     * Called after an element has been removed.
+     *
+     * @param elem			Removed element
+     */
+    void removed(E elem);
+
+    /**
+     * Called after an element has been replaced by another one.
+     *
+     * @param oldElem		Element that was replaced
+     * @param newElem		Element that replaced it
+     */
+    void replaced(E oldElem, E newElem);
+
+    /**
+     * Called after all elements have been removed at once, instead of
+     * {@link #removed(Object)} for each of them.
+     */
+    void cleared();
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import com.stefanmuenchow.functors.Accumulator;
+import com.stefanmuenchow.functors.Supplier;
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Mutable reduction to be passed to {@link SmartCollection#collect(Collector)}
+ * and {@link SmartCollection#parallelCollect(Collector)}. The elements are
+ * accumulated into a mutable container created by the supplier, which is
+ * converted to the result by the finisher at the end. In parallel mode, every
+ * thread accumulates a contiguous part of the elements into its own
+ * container and the containers are merged from left to right by the
+ * combiner, so the order of the elements is retained.
+ *
+ * Ready-made collectors are created by {@link Collectors}.
+ *
+ * @author Stefan Münchow
+ */
+public interface Collector<E, A, R> {
+
+    /**
+     * Returns the function creating a new, empty container.
+     *
+     * @return				Supplier of containers
+     */
+    Supplier<A> supplier();
+
+    /**
+     * Returns the function adding an element to a container.
+     *
+     * @return				Accumulator of elements
+     */
+    Accumulator<A, E> accumulator();
+
+    /**
+     * Returns the function merging the second container into the first. The
+     * second container holds elements that come after those of the first.
+     *
+     * @return				Combiner of containers
+     */
+    Accumulator<A, A> combiner();
+
+    /**
+     * Returns the function converting the final container to the result.
+     *
+     * @return				Finisher of containers
+     */
+    UnaryFunction<R, A> finisher();
+}
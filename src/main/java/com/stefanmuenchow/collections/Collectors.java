@@ -0,0 +1,385 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.stefanmuenchow.functors.Accumulator;
+import com.stefanmuenchow.functors.Supplier;
+import com.stefanmuenchow.functors.ToIntFunction;
+import com.stefanmuenchow.functors.ToLongFunction;
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Factory class for often used {@link Collector}s. All collectors can be
+ * used sequentially and in parallel.
+ *
+ * @author Stefan Münchow
+ */
+public class Collectors {
+
+    /**
+     * Creates a collector from its functions.
+     *
+     * @param supplier		Function creating an empty container
+     * @param accumulator	Function adding an element to a container
+     * @param combiner		Function merging the second container into the first
+     * @param finisher		Function converting the container to the result
+     * @return				Collector
+     */
+    public static <E, A, R> Collector<E, A, R> of(final Supplier<A> supplier, final Accumulator<A, E> accumulator,
+            final Accumulator<A, A> combiner, final UnaryFunction<R, A> finisher) {
+        return new SimpleCollector<E, A, R>(supplier, accumulator, combiner, finisher);
+    }
+
+    /**
+     * Creates a collector whose container is its result.
+     *
+     * @param supplier		Function creating an empty container
+     * @param accumulator	Function adding an element to a container
+     * @param combiner		Function merging the second container into the first
+     * @return				Collector
+     */
+    public static <E, A> Collector<E, A, A> of(final Supplier<A> supplier, final Accumulator<A, E> accumulator,
+            final Accumulator<A, A> combiner) {
+        return of(supplier, accumulator, combiner, Collectors.<A>identity());
+    }
+
+    /**
+     * Collector adding all elements to a {@link SmartArrayList}, in order.
+     *
+     * @return				toSmartList collector
+     */
+    public static <E> Collector<E, SmartList<E>, SmartList<E>> toSmartList() {
+        return toSmartList(10);
+    }
+
+    /**
+     * Collector adding all elements to a {@link SmartArrayList} created with
+     * the specified initial capacity, in order. In parallel mode, every
+     * thread's list is created with this capacity.
+     *
+     * @param capacity		Initial capacity of the list
+     * @return				toSmartList collector
+     */
+    public static <E> Collector<E, SmartList<E>, SmartList<E>> toSmartList(final int capacity) {
+        return of(new Supplier<SmartList<E>>() {
+            @Override
+            public SmartList<E> get() {
+                return SmartArrayList.withCapacity(capacity);
+            }
+        }, new Accumulator<SmartList<E>, E>() {
+            @Override
+            public void apply(final SmartList<E> container, final E input) {
+                container.add(input);
+            }
+        }, new Accumulator<SmartList<E>, SmartList<E>>() {
+            @Override
+            public void apply(final SmartList<E> container, final SmartList<E> input) {
+                container.addAll(input);
+            }
+        });
+    }
+
+    /**
+     * Collector adding all elements to a {@link SmartHashSet}.
+     *
+     * @return				toSmartSet collector
+     */
+    public static <E> Collector<E, SmartSet<E>, SmartSet<E>> toSmartSet() {
+        return of(new Supplier<SmartSet<E>>() {
+            @Override
+            public SmartSet<E> get() {
+                return new SmartHashSet<E>();
+            }
+        }, new Accumulator<SmartSet<E>, E>() {
+            @Override
+            public void apply(final SmartSet<E> container, final E input) {
+                container.add(input);
+            }
+        }, new Accumulator<SmartSet<E>, SmartSet<E>>() {
+            @Override
+            public void apply(final SmartSet<E> container, final SmartSet<E> input) {
+                container.addAll(input);
+            }
+        });
+    }
+
+    /**
+     * Collector concatenating the string representations of all elements,
+     * inserting delimiter between each two elements. Appends to one
+     * {@link StringBuilder} instead of creating a string per element.
+     *
+     * @param delimiter		Characters to insert between each two elements
+     * @return				joining collector
+     */
+    public static Collector<Object, ?, String> joining(final CharSequence delimiter) {
+        return joining(delimiter, "", "");
+    }
+
+    /**
+     * Collector concatenating the string representations of all elements,
+     * inserting delimiter between each two elements and enclosing the result
+     * in prefix and suffix.
+     *
+     * @param delimiter		Characters to insert between each two elements
+     * @param prefix		Characters to insert before the first element
+     * @param suffix		Characters to insert after the last element
+     * @return				joining collector
+     */
+    public static Collector<Object, ?, String> joining(final CharSequence delimiter, final CharSequence prefix,
+            final CharSequence suffix) {
+        return of(new Supplier<Joiner>() {
+            @Override
+            public Joiner get() {
+                return new Joiner(delimiter);
+            }
+        }, new Accumulator<Joiner, Object>() {
+            @Override
+            public void apply(final Joiner container, final Object input) {
+                container.next().append(input);
+            }
+        }, new Accumulator<Joiner, Joiner>() {
+            @Override
+            public void apply(final Joiner container, final Joiner input) {
+                if (input.count > 0) {
+                    container.next().append(input.builder);
+                    container.count += input.count - 1;
+                }
+            }
+        }, new UnaryFunction<String, Joiner>() {
+            @Override
+            public String apply(final Joiner input) {
+                return new StringBuilder(prefix.length() + input.builder.length() + suffix.length())
+                        .append(prefix).append(input.builder).append(suffix).toString();
+            }
+        });
+    }
+
+    /**
+     * Collector counting the elements.
+     *
+     * @return				counting collector
+     */
+    public static Collector<Object, long[], Long> counting() {
+        return summingLong(new ToLongFunction<Object>() {
+            @Override
+            public long apply(final Object input) {
+                return 1;
+            }
+        });
+    }
+
+    /**
+     * Collector summing the int values function returns for the elements.
+     * Sums into a primitive cell instead of boxing every intermediate sum.
+     *
+     * @param function		Function returning the value of an element
+     * @return				summingInt collector
+     */
+    public static <E> Collector<E, int[], Integer> summingInt(final ToIntFunction<? super E> function) {
+        return of(new Supplier<int[]>() {
+            @Override
+            public int[] get() {
+                return new int[1];
+            }
+        }, new Accumulator<int[], E>() {
+            @Override
+            public void apply(final int[] container, final E input) {
+                container[0] += function.apply(input);
+            }
+        }, new Accumulator<int[], int[]>() {
+            @Override
+            public void apply(final int[] container, final int[] input) {
+                container[0] += input[0];
+            }
+        }, new UnaryFunction<Integer, int[]>() {
+            @Override
+            public Integer apply(final int[] input) {
+                return input[0];
+            }
+        });
+    }
+
+    /**
+     * Collector summing the long values function returns for the elements.
+     * Sums into a primitive cell instead of boxing every intermediate sum.
+     *
+     * @param function		Function returning the value of an element
+     * @return				summingLong collector
+     */
+    public static <E> Collector<E, long[], Long> summingLong(final ToLongFunction<? super E> function) {
+        return of(new Supplier<long[]>() {
+            @Override
+            public long[] get() {
+                return new long[1];
+            }
+        }, new Accumulator<long[], E>() {
+            @Override
+            public void apply(final long[] container, final E input) {
+                container[0] += function.apply(input);
+            }
+        }, new Accumulator<long[], long[]>() {
+            @Override
+            public void apply(final long[] container, final long[] input) {
+                container[0] += input[0];
+            }
+        }, new UnaryFunction<Long, long[]>() {
+            @Override
+            public Long apply(final long[] input) {
+                return input[0];
+            }
+        });
+    }
+
+    /**
+     * Collector grouping the elements by the keys keyFunction returns for
+     * them. Returns a map containing a list of the elements for each key, in
+     * encounter order.
+     *
+     * @param keyFunction	Function returning the key of an element
+     * @return				groupingBy collector
+     */
+    public static <E, K> Collector<E, ?, SmartMap<K, SmartList<E>>> groupingBy(
+            final UnaryFunction<K, ? super E> keyFunction) {
+        return groupingBy(keyFunction, Collectors.<E>toSmartList());
+    }
+
+    /**
+     * Collector grouping the elements by the keys keyFunction returns for
+     * them and collecting the elements of each group with downstream, e.g.
+     * {@link #counting()} or {@link #summingInt(ToIntFunction)}. Every
+     * element is looked up in the map of groups only once.
+     *
+     * @param keyFunction	Function returning the key of an element
+     * @param downstream	Collector applied to the elements of each group
+     * @return				groupingBy collector
+     */
+    public static <E, K, A, R> Collector<E, ?, SmartMap<K, R>> groupingBy(
+            final UnaryFunction<K, ? super E> keyFunction, final Collector<? super E, A, R> downstream) {
+        final Supplier<A> supplier = downstream.supplier();
+        final Accumulator<A, ? super E> accumulator = downstream.accumulator();
+        final Accumulator<A, A> combiner = downstream.combiner();
+        final UnaryFunction<R, A> finisher = downstream.finisher();
+
+        return of(new Supplier<Map<K, A>>() {
+            @Override
+            public Map<K, A> get() {
+                return new HashMap<K, A>();
+            }
+        }, new Accumulator<Map<K, A>, E>() {
+            @Override
+            public void apply(final Map<K, A> container, final E input) {
+                K key = keyFunction.apply(input);
+                A group = container.get(key);
+                if (group == null) {
+                    group = supplier.get();
+                    container.put(key, group);
+                }
+
+                accumulator.apply(group, input);
+            }
+        }, new Accumulator<Map<K, A>, Map<K, A>>() {
+            @Override
+            public void apply(final Map<K, A> container, final Map<K, A> input) {
+                for (Map.Entry<K, A> entry : input.entrySet()) {
+                    A group = container.get(entry.getKey());
+                    if (group == null) {
+                        container.put(entry.getKey(), entry.getValue());
+                    } else {
+                        combiner.apply(group, entry.getValue());
+                    }
+                }
+            }
+        }, new UnaryFunction<SmartMap<K, R>, Map<K, A>>() {
+            @Override
+            public SmartMap<K, R> apply(final Map<K, A> input) {
+                SmartMap<K, R> result = new SmartHashMap<K, R>(input.size());
+                for (Map.Entry<K, A> entry : input.entrySet()) {
+                    result.put(entry.getKey(), finisher.apply(entry.getValue()));
+                }
+
+                return result;
+            }
+        });
+    }
+
+    private static <A> UnaryFunction<A, A> identity() {
+        return new UnaryFunction<A, A>() {
+            @Override
+            public A apply(final A input) {
+                return input;
+            }
+        };
+    }
+
+    /**
+     * Container of {@link #joining(CharSequence, CharSequence, CharSequence)}.
+     * Counts the joined elements, as elements may have empty representations.
+     */
+    private static final class Joiner {
+        private final StringBuilder builder = new StringBuilder();
+        private final CharSequence delimiter;
+        private int count;
+
+        Joiner(final CharSequence delimiter) {
+            this.delimiter = delimiter;
+        }
+
+        StringBuilder next() {
+            if (count++ > 0) {
+                builder.append(delimiter);
+            }
+
+            return builder;
+        }
+    }
+
+    /**
+     * Collector defined by its functions.
+     */
+    private static final class SimpleCollector<E, A, R> implements Collector<E, A, R> {
+        private final Supplier<A> supplier;
+        private final Accumulator<A, E> accumulator;
+        private final Accumulator<A, A> combiner;
+        private final UnaryFunction<R, A> finisher;
+
+        SimpleCollector(final Supplier<A> supplier, final Accumulator<A, E> accumulator,
+                final Accumulator<A, A> combiner, final UnaryFunction<R, A> finisher) {
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+            this.finisher = finisher;
+        }
+
+        @Override
+        public Supplier<A> supplier() {
+            return supplier;
+        }
+
+        @Override
+        public Accumulator<A, E> accumulator() {
+            return accumulator;
+        }
+
+        @Override
+        public Accumulator<A, A> combiner() {
+            return combiner;
+        }
+
+        @Override
+        public UnaryFunction<R, A> finisher() {
+            return finisher;
+        }
+    }
+}
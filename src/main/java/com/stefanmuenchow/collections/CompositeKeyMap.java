@@ -0,0 +1,400 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map from pairs of values to values, backed by an open addressing hash
+ * table with linear probing. The two parts of each key are stored in
+ * parallel arrays together with their combined hash code, so lookups by
+ * {@link #getAt(Object, Object)} and {@link #put(Object, Object, Object)} do
+ * not allocate. {@link Tuple}s are only created for the keys when the map
+ * is accessed through the {@link Map} interface.
+ *
+ * Removal shifts the following entries of a cluster back instead of leaving
+ * tombstones. The entry iterator walks the table backwards, starting at a
+ * free slot, so that entries shifted by {@link Iterator#remove()} have
+ * always been visited already.
+ *
+ * @see SmartCompositeKeyMap
+ *
+ * @author Stefan Münchow
+ */
+class CompositeKeyMap<A, B, V> extends AbstractMap<Tuple<A, B>, V> {
+    private static final Object NULL = new Object();
+    private static final int MIN_CAPACITY = 16;
+
+    private Object[] firsts;
+    private Object[] seconds;
+    private Object[] values;
+    private int[] hashes;
+    private int size;
+    private int modCount;
+    private Set<Map.Entry<Tuple<A, B>, V>> entrySet;
+
+    CompositeKeyMap(final int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /** Composite key methods */
+
+    @SuppressWarnings("unchecked")
+    V getAt(final A first, final B second) {
+        int slot = find(first, second, Tuple.hash(first, second));
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    boolean containsKey(final A first, final B second) {
+        return find(first, second, Tuple.hash(first, second)) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(final A first, final B second, final V value) {
+        int hash = Tuple.hash(first, second);
+        int slot = find(first, second, hash);
+        if (slot >= 0) {
+            V old = (V) values[slot];
+            values[slot] = value;
+            return old;
+        }
+
+        if ((size + 1) * 3 > firsts.length * 2) {
+            resize(firsts.length * 2);
+            slot = find(first, second, hash);
+        }
+
+        slot = -slot - 1;
+        firsts[slot] = mask(first);
+        seconds[slot] = mask(second);
+        values[slot] = value;
+        hashes[slot] = hash;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V removeAt(final A first, final B second) {
+        int slot = find(first, second, Tuple.hash(first, second));
+        if (slot < 0) {
+            return null;
+        }
+
+        V old = (V) values[slot];
+        delete(slot);
+        return old;
+    }
+
+    /**
+     * Puts the second part and value of all entries whose first part equals
+     * first into result.
+     */
+    @SuppressWarnings("unchecked")
+    void row(final A first, final Map<B, V> result) {
+        Object masked = mask(first);
+        for (int i = 0; i < firsts.length; i++) {
+            if (firsts[i] != null && firsts[i].equals(masked)) {
+                result.put((B) unmask(seconds[i]), (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * Puts the first part and value of all entries whose second part equals
+     * second into result.
+     */
+    @SuppressWarnings("unchecked")
+    void column(final B second, final Map<A, V> result) {
+        Object masked = mask(second);
+        for (int i = 0; i < seconds.length; i++) {
+            if (seconds[i] != null && seconds[i].equals(masked)) {
+                result.put((A) unmask(firsts[i]), (V) values[i]);
+            }
+        }
+    }
+
+    /** Map methods */
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        if (!(key instanceof Tuple)) {
+            return null;
+        }
+
+        Tuple<A, B> tuple = (Tuple<A, B>) key;
+        return getAt(tuple.getFirst(), tuple.getSecond());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(final Object key) {
+        if (!(key instanceof Tuple)) {
+            return false;
+        }
+
+        Tuple<A, B> tuple = (Tuple<A, B>) key;
+        return containsKey(tuple.getFirst(), tuple.getSecond());
+    }
+
+    @Override
+    public V put(final Tuple<A, B> key, final V value) {
+        return put(key.getFirst(), key.getSecond(), value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(final Object key) {
+        if (!(key instanceof Tuple)) {
+            return null;
+        }
+
+        Tuple<A, B> tuple = (Tuple<A, B>) key;
+        return removeAt(tuple.getFirst(), tuple.getSecond());
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            allocate(MIN_CAPACITY);
+            size = 0;
+            modCount++;
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<Tuple<A, B>, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+
+        return entrySet;
+    }
+
+    /** Hash table methods */
+
+    private static int capacityFor(final int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 2 < expectedSize * 3 + 3) {
+            capacity *= 2;
+        }
+
+        return capacity;
+    }
+
+    private void allocate(final int capacity) {
+        firsts = new Object[capacity];
+        seconds = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+    }
+
+    private static Object mask(final Object obj) {
+        return obj == null ? NULL : obj;
+    }
+
+    private static Object unmask(final Object obj) {
+        return obj == NULL ? null : obj;
+    }
+
+    /**
+     * Returns the slot holding the key, or -(slot + 1) of the free slot the
+     * key would be inserted at.
+     */
+    private int find(final Object first, final Object second, final int hash) {
+        Object maskedFirst = mask(first);
+        Object maskedSecond = mask(second);
+        int bits = firsts.length - 1;
+
+        for (int i = hash & bits;; i = (i + 1) & bits) {
+            Object current = firsts[i];
+            if (current == null) {
+                return -i - 1;
+            }
+
+            if (hashes[i] == hash && current.equals(maskedFirst) && seconds[i].equals(maskedSecond)) {
+                return i;
+            }
+        }
+    }
+
+    private void resize(final int capacity) {
+        Object[] oldFirsts = firsts;
+        Object[] oldSeconds = seconds;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        allocate(capacity);
+
+        int bits = capacity - 1;
+        for (int j = 0; j < oldFirsts.length; j++) {
+            if (oldFirsts[j] != null) {
+                int i = oldHashes[j] & bits;
+                while (firsts[i] != null) {
+                    i = (i + 1) & bits;
+                }
+
+                firsts[i] = oldFirsts[j];
+                seconds[i] = oldSeconds[j];
+                values[i] = oldValues[j];
+                hashes[i] = oldHashes[j];
+            }
+        }
+
+        modCount++;
+    }
+
+    /**
+     * Clears slot and shifts back the following entries of its cluster
+     * that would not be found anymore otherwise. Entries are only moved
+     * towards lower slots, modulo the capacity.
+     */
+    private void delete(final int slot) {
+        int bits = firsts.length - 1;
+        int free = slot;
+
+        for (int i = (slot + 1) & bits; firsts[i] != null; i = (i + 1) & bits) {
+            int home = hashes[i] & bits;
+            if (((i - home) & bits) >= ((i - free) & bits)) {
+                firsts[free] = firsts[i];
+                seconds[free] = seconds[i];
+                values[free] = values[i];
+                hashes[free] = hashes[i];
+                free = i;
+            }
+        }
+
+        firsts[free] = null;
+        seconds[free] = null;
+        values[free] = null;
+        size--;
+        modCount++;
+    }
+
+    /**
+     * View on the entries of the map.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<Tuple<A, B>, V>> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            CompositeKeyMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<Tuple<A, B>, V>> iterator() {
+            return new EntryIterator();
+        }
+    }
+
+    /**
+     * Iterator walking the table from a free slot backwards.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<Tuple<A, B>, V>> {
+        private final int stop;
+        private int next;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        EntryIterator() {
+            int free = 0;
+            while (firsts[free] != null) {
+                free++;
+            }
+
+            stop = free;
+            next = advance(stop);
+        }
+
+        private int advance(final int from) {
+            int bits = firsts.length - 1;
+            for (int i = (from - 1) & bits; i != stop; i = (i - 1) & bits) {
+                if (firsts[i] != null) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<Tuple<A, B>, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            if (next < 0) {
+                throw new NoSuchElementException();
+            }
+
+            last = next;
+            next = advance(next);
+            return new CompositeEntry(new Tuple<A, B>((A) unmask(firsts[last]), (B) unmask(seconds[last])),
+                    (V) values[last]);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            delete(last);
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * Entry returned by the iterator. Writes through to the map by key, as
+     * removals may move entries to other slots.
+     */
+    private final class CompositeEntry extends SimpleEntry<Tuple<A, B>, V> {
+        private static final long serialVersionUID = 1L;
+
+        CompositeEntry(final Tuple<A, B> key, final V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            put(getKey().getFirst(), getKey().getSecond(), value);
+            return super.setValue(value);
+        }
+    }
+}
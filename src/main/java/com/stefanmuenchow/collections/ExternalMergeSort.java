@@ -0,0 +1,412 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts inputs that do not fit into memory. The input is read in runs of at
+ * most maxRunSize elements, each run is sorted in memory and written to a
+ * temporary file with a {@link Codec}. The runs are then merged with a k-way
+ * merge; if there are more than 64 runs, they are first merged in several
+ * passes. Inputs that fit into a single run are sorted in memory without
+ * touching the disk. The sort is stable.
+ *
+ * <pre>
+ * ExternalMergeSort&lt;String&gt; sorter = new ExternalMergeSort&lt;String&gt;(
+ *         Codecs.stringCodec(), comparator, 1000000);
+ * ExternalMergeSort.MergeIterator&lt;String&gt; it = sorter.iterator(lines);
+ * try {
+ *     while (it.hasNext()) {
+ *         process(it.next());
+ *     }
+ * } finally {
+ *     it.close();
+ * }
+ * </pre>
+ *
+ * @see SmartSpillingList#sortWith(Comparator)
+ *
+ * @author Stefan Münchow
+ */
+public class ExternalMergeSort<E> {
+    private static final int MAX_FAN_IN = 64;
+
+    private final Codec<E> codec;
+    private final Comparator<? super E> comparator;
+    private final int maxRunSize;
+    private final File directory;
+
+    /**
+     * Creates a new sorter writing runs to the default temporary directory.
+     *
+     * @throws IllegalArgumentException	If maxRunSize is less than one
+     *
+     * @param codec			Codec to write elements with
+     * @param comparator	Comparator to order elements with, null for the
+     * 						natural ordering
+     * @param maxRunSize	Maximum number of elements sorted in memory at once
+     */
+    public ExternalMergeSort(final Codec<E> codec, final Comparator<? super E> comparator, final int maxRunSize) {
+        this(codec, comparator, maxRunSize, null);
+    }
+
+    /**
+     * Creates a new sorter.
+     *
+     * @throws IllegalArgumentException	If maxRunSize is less than one
+     *
+     * @param codec			Codec to write elements with
+     * @param comparator	Comparator to order elements with
+     * @param maxRunSize	Maximum number of elements sorted in memory at once
+     * @param directory		Directory for temporary files, null for the default
+     * 						temporary directory
+     */
+    public ExternalMergeSort(final Codec<E> codec, final Comparator<? super E> comparator, final int maxRunSize,
+            final File directory) {
+        if (maxRunSize < 1) {
+            throw new IllegalArgumentException("Run size must be positive");
+        }
+
+        this.codec = codec;
+        if (comparator != null) {
+            this.comparator = comparator;
+        } else {
+            this.comparator = ExternalMergeSort.<E>naturalOrder();
+        }
+        this.maxRunSize = maxRunSize;
+        this.directory = directory;
+    }
+
+    /**
+     * Sorts all elements of input and returns a lazy iterator over the sorted
+     * elements. Reading the input and writing the runs happens in this call,
+     * the final merge while iterating. The temporary files are deleted when
+     * the iterator is exhausted or closed.
+     *
+     * @param input			Elements to sort
+     * @return				Iterator over the sorted elements
+     */
+    public MergeIterator<E> iterator(final Iterator<? extends E> input) {
+        List<Run> runs = new ArrayList<Run>();
+        List<E> buffer = new ArrayList<E>();
+
+        try {
+            while (input.hasNext()) {
+                buffer.add(input.next());
+                if (buffer.size() >= maxRunSize) {
+                    runs.add(writeRun(buffer));
+                    buffer.clear();
+                }
+            }
+
+            if (runs.isEmpty()) {
+                Collections.sort(buffer, comparator);
+                return new MergeIterator<E>(buffer.iterator());
+            }
+
+            if (!buffer.isEmpty()) {
+                runs.add(writeRun(buffer));
+            }
+
+            buffer = null;
+            while (runs.size() > MAX_FAN_IN) {
+                runs = mergePass(runs);
+            }
+
+            return new MergeIterator<E>(codec, comparator, runs);
+        } catch (IOException e) {
+            deleteAll(runs);
+            throw new IllegalStateException("Could not write sorted run", e);
+        } catch (RuntimeException e) {
+            deleteAll(runs);
+            throw e;
+        }
+    }
+
+    /**
+     * Sorts all elements of input into a new {@link SmartSpillingList}.
+     *
+     * @param input			Elements to sort
+     * @return				New list containing the sorted elements
+     */
+    public SmartSpillingList<E> sort(final Iterable<? extends E> input) {
+        SmartSpillingList<E> result = new SmartSpillingList<E>(codec, Math.min(maxRunSize, 8192), 4, directory);
+        sortInto(input.iterator(), result);
+        return result;
+    }
+
+    /**
+     * Sorts all elements of input and adds them to target in order.
+     *
+     * @param input			Elements to sort
+     * @param target		Collection to add the sorted elements to
+     */
+    public void sortInto(final Iterator<? extends E> input, final Collection<? super E> target) {
+        MergeIterator<E> it = iterator(input);
+        try {
+            while (it.hasNext()) {
+                target.add(it.next());
+            }
+        } finally {
+            it.close();
+        }
+    }
+
+    /** Helper methods */
+
+    private Run writeRun(final List<E> buffer) throws IOException {
+        Collections.sort(buffer, comparator);
+
+        Run run = new Run(createTempFile());
+        try {
+            DataOutputStream out = openOutput(run.file);
+            try {
+                for (E elem : buffer) {
+                    Codecs.writeNullable(codec, elem, out);
+                }
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            run.file.delete();
+            throw e;
+        } catch (RuntimeException e) {
+            run.file.delete();
+            throw e;
+        }
+
+        run.count = buffer.size();
+        return run;
+    }
+
+    private List<Run> mergePass(final List<Run> runs) throws IOException {
+        List<Run> merged = new ArrayList<Run>();
+
+        try {
+            for (int from = 0; from < runs.size(); from += MAX_FAN_IN) {
+                List<Run> group = new ArrayList<Run>(runs.subList(from, Math.min(runs.size(), from + MAX_FAN_IN)));
+                Run run = new Run(createTempFile());
+                merged.add(run);
+
+                DataOutputStream out = openOutput(run.file);
+                try {
+                    MergeIterator<E> it = new MergeIterator<E>(codec, comparator, group);
+                    try {
+                        while (it.hasNext()) {
+                            Codecs.writeNullable(codec, it.next(), out);
+                            run.count++;
+                        }
+                    } finally {
+                        it.close();
+                    }
+                } finally {
+                    out.close();
+                }
+            }
+        } catch (IOException e) {
+            deleteAll(merged);
+            throw e;
+        } catch (RuntimeException e) {
+            deleteAll(merged);
+            throw e;
+        }
+
+        return merged;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Comparator<E> naturalOrder() {
+        return new Comparator<E>() {
+            @Override
+            public int compare(final E elem1, final E elem2) {
+                return ((Comparable<Object>) elem1).compareTo(elem2);
+            }
+        };
+    }
+
+    private File createTempFile() throws IOException {
+        return File.createTempFile("smart-sort", ".run", directory);
+    }
+
+    private static DataOutputStream openOutput(final File file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 65536));
+    }
+
+    private static void deleteAll(final List<Run> runs) {
+        for (Run run : runs) {
+            run.file.delete();
+        }
+    }
+
+    /**
+     * Sorted run written to a temporary file.
+     */
+    private static final class Run {
+        final File file;
+        long count;
+
+        Run(final File file) {
+            this.file = file;
+        }
+    }
+
+    /**
+     * Reads the elements of a run one by one.
+     */
+    private static final class RunReader<E> {
+        final Run run;
+        final int index;
+        final DataInputStream in;
+        long remaining;
+        E head;
+
+        RunReader(final Run run, final int index) throws IOException {
+            this.run = run;
+            this.index = index;
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(run.file), 65536));
+            this.remaining = run.count;
+        }
+
+        boolean advance(final Codec<E> codec) throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+
+            head = Codecs.readNullable(codec, in);
+            remaining--;
+            return true;
+        }
+
+        void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // Nothing left to do
+            }
+
+            run.file.delete();
+        }
+    }
+
+    /**
+     * Iterator over the result of an external sort, merging the sorted runs
+     * while iterating. Deletes its temporary files once it is exhausted or
+     * closed.
+     */
+    public static final class MergeIterator<E> implements Iterator<E>, Closeable {
+        private final Codec<E> codec;
+        private final Iterator<E> inMemory;
+        private final List<RunReader<E>> readers = new ArrayList<RunReader<E>>();
+        private final PriorityQueue<RunReader<E>> queue;
+
+        MergeIterator(final Iterator<E> inMemory) {
+            this.codec = null;
+            this.inMemory = inMemory;
+            this.queue = null;
+        }
+
+        MergeIterator(final Codec<E> codec, final Comparator<? super E> comparator, final List<Run> runs) {
+            this.codec = codec;
+            this.inMemory = null;
+            this.queue = new PriorityQueue<RunReader<E>>(Math.max(1, runs.size()), new Comparator<RunReader<E>>() {
+                @Override
+                public int compare(final RunReader<E> reader1, final RunReader<E> reader2) {
+                    int result = comparator.compare(reader1.head, reader2.head);
+                    return result != 0 ? result : reader1.index - reader2.index;
+                }
+            });
+
+            try {
+                for (int i = 0; i < runs.size(); i++) {
+                    RunReader<E> reader = new RunReader<E>(runs.get(i), i);
+                    readers.add(reader);
+                    if (reader.advance(codec)) {
+                        queue.add(reader);
+                    } else {
+                        reader.close();
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                deleteAll(runs);
+                throw new IllegalStateException("Could not read sorted run", e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return inMemory != null ? inMemory.hasNext() : !queue.isEmpty();
+        }
+
+        @Override
+        public E next() {
+            if (inMemory != null) {
+                return inMemory.next();
+            }
+
+            RunReader<E> reader = queue.poll();
+            if (reader == null) {
+                throw new NoSuchElementException();
+            }
+
+            E result = reader.head;
+            try {
+                if (reader.advance(codec)) {
+                    queue.add(reader);
+                } else {
+                    reader.close();
+                }
+            } catch (IOException e) {
+                close();
+                throw new IllegalStateException("Could not read sorted run", e);
+            }
+
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Stops the merge and deletes all remaining temporary files.
+         */
+        @Override
+        public void close() {
+            for (RunReader<E> reader : readers) {
+                reader.close();
+            }
+
+            if (queue != null) {
+                queue.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,343 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Groups the elements of collections by keys derived from them. Every
+ * element is looked up in a hash map only once: lists of groups are sized
+ * exactly by numbering the groups in a first pass and filling them in a
+ * second pass, reductions fold into mutable cells.
+ *
+ * In parallel mode, the keys are computed in parallel, then the elements
+ * are partitioned by the hash of their keys, so that every thread groups a
+ * disjoint set of keys without synchronization. The partial results are
+ * combined into one map at the end. Within a group, elements keep their
+ * order in both modes.
+ *
+ * @author Stefan Münchow
+ */
+final class Grouping {
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    private Grouping() {
+    }
+
+    /**
+     * Groups the elements of coll by the keys keyFunction returns for them.
+     */
+    static <E, K> SmartMap<K, SmartList<E>> groupBy(final Collection<E> coll,
+            final UnaryFunction<K, ? super E> keyFunction, final boolean parallel) {
+        final Object[] elems = coll.toArray();
+
+        if (!inParallel(parallel, elems.length)) {
+            return groupLists(elems, keys(elems, keyFunction, false), null);
+        }
+
+        final Object[] keys = keys(elems, keyFunction, true);
+        final int[][] partitions = partition(keys);
+        final List<SmartMap<K, SmartList<E>>> results = new ArrayList<SmartMap<K, SmartList<E>>>();
+        List<Runnable> tasks = new ArrayList<Runnable>();
+
+        for (final int[] partition : partitions) {
+            results.add(null);
+            final int index = results.size() - 1;
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    SmartMap<K, SmartList<E>> result = groupLists(elems, keys, partition);
+                    synchronized (results) {
+                        results.set(index, result);
+                    }
+                }
+            });
+        }
+
+        Parallel.run(tasks);
+        return combine(results);
+    }
+
+    /**
+     * Groups the elements of coll by the keys keyFunction returns for them
+     * and reduces each group from left to right, starting with initial.
+     */
+    static <E, K, R> SmartMap<K, R> groupBy(final Collection<E> coll, final UnaryFunction<K, ? super E> keyFunction,
+            final R initial, final BinaryFunction<R, ? super E> funct, final boolean parallel) {
+        if (!inParallel(parallel, coll.size())) {
+            Map<K, Cell<R>> cells = new HashMap<K, Cell<R>>();
+            for (E elem : coll) {
+                fold(cells, keyFunction.apply(elem), initial, funct, elem);
+            }
+
+            return results(cells);
+        }
+
+        final Object[] elems = coll.toArray();
+        final Object[] keys = keys(elems, keyFunction, true);
+        final int[][] partitions = partition(keys);
+        final List<SmartMap<K, R>> results = new ArrayList<SmartMap<K, R>>();
+        List<Runnable> tasks = new ArrayList<Runnable>();
+
+        for (final int[] partition : partitions) {
+            results.add(null);
+            final int index = results.size() - 1;
+            tasks.add(new Runnable() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public void run() {
+                    Map<K, Cell<R>> cells = new HashMap<K, Cell<R>>();
+                    for (int i : partition) {
+                        fold(cells, (K) keys[i], initial, funct, (E) elems[i]);
+                    }
+
+                    SmartMap<K, R> result = results(cells);
+                    synchronized (results) {
+                        results.set(index, result);
+                    }
+                }
+            });
+        }
+
+        Parallel.run(tasks);
+        return combine(results);
+    }
+
+    /**
+     * Counts the elements of coll per key keyFunction returns for them.
+     */
+    static <E, K> SmartMap<K, Integer> countBy(final Collection<E> coll,
+            final UnaryFunction<K, ? super E> keyFunction) {
+        Map<K, int[]> counts = new HashMap<K, int[]>();
+        for (E elem : coll) {
+            K key = keyFunction.apply(elem);
+            int[] count = counts.get(key);
+            if (count == null) {
+                counts.put(key, new int[] { 1 });
+            } else {
+                count[0]++;
+            }
+        }
+
+        SmartMap<K, Integer> result = new SmartHashMap<K, Integer>(counts.size());
+        for (Map.Entry<K, int[]> entry : counts.entrySet()) {
+            result.put(entry.getKey(), entry.getValue()[0]);
+        }
+
+        return result;
+    }
+
+    /** Helper methods */
+
+    private static boolean inParallel(final boolean parallel, final int size) {
+        return parallel && size >= PARALLEL_THRESHOLD && Parallel.parallelism() > 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E, K> Object[] keys(final Object[] elems, final UnaryFunction<K, ? super E> keyFunction,
+            final boolean parallel) {
+        final Object[] keys = new Object[elems.length];
+        if (!parallel) {
+            for (int i = 0; i < elems.length; i++) {
+                keys[i] = keyFunction.apply((E) elems[i]);
+            }
+
+            return keys;
+        }
+
+        final int[] bounds = Parallel.split(elems.length, Parallel.parallelism());
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int i = 0; i < bounds.length - 1; i++) {
+            final int from = bounds[i];
+            final int to = bounds[i + 1];
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = from; j < to; j++) {
+                        keys[j] = keyFunction.apply((E) elems[j]);
+                    }
+                }
+            });
+        }
+
+        Parallel.run(tasks);
+        return keys;
+    }
+
+    /**
+     * Splits the positions of keys into one partition per thread by the
+     * hash codes of the keys. Equal keys end up in the same partition,
+     * positions within a partition are ascending.
+     */
+    private static int[][] partition(final Object[] keys) {
+        final int parts = Parallel.parallelism();
+        final int[] bounds = Parallel.split(keys.length, parts);
+        final int chunks = bounds.length - 1;
+        final int[] owners = new int[keys.length];
+        final int[][] counts = new int[chunks][parts];
+        List<Runnable> tasks = new ArrayList<Runnable>();
+
+        for (int c = 0; c < chunks; c++) {
+            final int chunk = c;
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = bounds[chunk]; i < bounds[chunk + 1]; i++) {
+                        int owner = owner(keys[i], parts);
+                        owners[i] = owner;
+                        counts[chunk][owner]++;
+                    }
+                }
+            });
+        }
+        Parallel.run(tasks);
+
+        final int[][] partitions = new int[parts][];
+        final int[][] offsets = new int[chunks][parts];
+        for (int p = 0; p < parts; p++) {
+            int size = 0;
+            for (int c = 0; c < chunks; c++) {
+                offsets[c][p] = size;
+                size += counts[c][p];
+            }
+
+            partitions[p] = new int[size];
+        }
+
+        tasks = new ArrayList<Runnable>();
+        for (int c = 0; c < chunks; c++) {
+            final int chunk = c;
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    int[] offset = offsets[chunk];
+                    for (int i = bounds[chunk]; i < bounds[chunk + 1]; i++) {
+                        partitions[owners[i]][offset[owners[i]]++] = i;
+                    }
+                }
+            });
+        }
+        Parallel.run(tasks);
+
+        return partitions;
+    }
+
+    /**
+     * Maps the hash code of key to a partition. Uses the high bits of a
+     * multiplicative hash, so that the partitions do not share the low bits
+     * the hash maps of the partitions use to find buckets.
+     */
+    private static int owner(final Object key, final int parts) {
+        int hash = key == null ? 0 : key.hashCode();
+        return (int) (((hash * 0x9E3779B9L) & 0xFFFFFFFFL) * parts >>> 32);
+    }
+
+    /**
+     * Groups the elements at the given positions, or all elements if
+     * positions is null.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E, K> SmartMap<K, SmartList<E>> groupLists(final Object[] elems, final Object[] keys,
+            final int[] positions) {
+        int size = positions == null ? elems.length : positions.length;
+        Map<K, int[]> ordinals = new HashMap<K, int[]>();
+        int[] groupOf = new int[size];
+        int[] groupSizes = new int[16];
+        Object[] groupKeys = new Object[16];
+
+        for (int i = 0; i < size; i++) {
+            K key = (K) keys[positions == null ? i : positions[i]];
+            int[] ordinal = ordinals.get(key);
+            if (ordinal == null) {
+                int group = ordinals.size();
+                ordinal = new int[] { group };
+                ordinals.put(key, ordinal);
+                if (group == groupSizes.length) {
+                    groupSizes = Arrays.copyOf(groupSizes, group * 2);
+                    groupKeys = Arrays.copyOf(groupKeys, group * 2);
+                }
+
+                groupKeys[group] = key;
+            }
+
+            groupOf[i] = ordinal[0];
+            groupSizes[ordinal[0]]++;
+        }
+
+        int groups = ordinals.size();
+        List<SmartList<E>> lists = new ArrayList<SmartList<E>>(groups);
+        SmartMap<K, SmartList<E>> result = new SmartHashMap<K, SmartList<E>>(groups);
+        for (int group = 0; group < groups; group++) {
+            SmartList<E> list = SmartArrayList.withCapacity(groupSizes[group]);
+            lists.add(list);
+            result.put((K) groupKeys[group], list);
+        }
+
+        for (int i = 0; i < size; i++) {
+            lists.get(groupOf[i]).add((E) elems[positions == null ? i : positions[i]]);
+        }
+
+        return result;
+    }
+
+    private static <E, K, R> void fold(final Map<K, Cell<R>> cells, final K key, final R initial,
+            final BinaryFunction<R, ? super E> funct, final E elem) {
+        Cell<R> cell = cells.get(key);
+        if (cell == null) {
+            cells.put(key, new Cell<R>(funct.apply(initial, elem)));
+        } else {
+            cell.value = funct.apply(cell.value, elem);
+        }
+    }
+
+    private static <K, R> SmartMap<K, R> results(final Map<K, Cell<R>> cells) {
+        SmartMap<K, R> result = new SmartHashMap<K, R>(cells.size());
+        for (Map.Entry<K, Cell<R>> entry : cells.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().value);
+        }
+
+        return result;
+    }
+
+    private static <K, V> SmartMap<K, V> combine(final List<SmartMap<K, V>> results) {
+        int size = 0;
+        for (SmartMap<K, V> result : results) {
+            size += result.size();
+        }
+
+        SmartMap<K, V> combined = new SmartHashMap<K, V>(size);
+        for (SmartMap<K, V> result : results) {
+            combined.putAll(result);
+        }
+
+        return combined;
+    }
+
+    /**
+     * Mutable holder of the reduced value of a group.
+     */
+    private static final class Cell<R> {
+        private R value;
+
+        Cell(final R value) {
+            this.value = value;
+        }
+    }
+}
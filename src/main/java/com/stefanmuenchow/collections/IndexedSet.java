@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hash set reporting all modifications to its {@link Indexes}. Elements
+ * are mapped to themselves, so that removing an element reports the
+ * instance contained in the set. Iterates in insertion order.
+ *
+ * @author Stefan Münchow
+ */
+final class IndexedSet<E> extends AbstractSet<E> {
+    private final Map<E, E> elems = new LinkedHashMap<E, E>();
+    private final Indexes<E> indexes = new Indexes<E>();
+
+    Indexes<E> getIndexes() {
+        return indexes;
+    }
+
+    @Override
+    public int size() {
+        return elems.size();
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return elems.containsKey(o);
+    }
+
+    @Override
+    public boolean add(final E elem) {
+        if (elems.containsKey(elem)) {
+            return false;
+        }
+
+        elems.put(elem, elem);
+        indexes.added(elem);
+        return true;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        if (!elems.containsKey(o)) {
+            return false;
+        }
+
+        indexes.removed(elems.remove(o));
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        elems.clear();
+        indexes.cleared();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        final Iterator<E> it = elems.keySet().iterator();
+
+        return new Iterator<E>() {
+            private E last;
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                last = it.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+                indexes.removed(last);
+            }
+        };
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Named secondary indexes over the elements of a collection. Each index maps
+ * the keys its key function returns to the elements having them, either in
+ * a hash map or, to support range queries, in a sorted map. The owning
+ * collection reports every added and removed element as a
+ * {@link CollectionListener}, so the indexes stay consistent under mutation.
+ *
+ * @author Stefan Münchow
+ */
+final class Indexes<E> implements CollectionListener<E> {
+    private final Map<String, Index<E, ?>> indexes = new LinkedHashMap<String, Index<E, ?>>();
+
+    /**
+     * Adds a hash index over all elements of elems.
+     */
+    <K> void addHashIndex(final String name, final UnaryFunction<K, ? super E> keyFunction,
+            final Iterable<E> elems) {
+        addIndex(name, new Index<E, K>(keyFunction, new HashMap<K, List<E>>()), elems);
+    }
+
+    /**
+     * Adds a sorted index over all elements of elems.
+     */
+    <K extends Comparable<? super K>> void addSortedIndex(final String name,
+            final UnaryFunction<K, ? super E> keyFunction, final Iterable<E> elems) {
+        addIndex(name, new Index<E, K>(keyFunction, new TreeMap<K, List<E>>()), elems);
+    }
+
+    private void addIndex(final String name, final Index<E, ?> index, final Iterable<E> elems) {
+        if (indexes.containsKey(name)) {
+            throw new IllegalArgumentException("Index " + name + " already exists");
+        }
+
+        for (E elem : elems) {
+            index.add(elem);
+        }
+
+        indexes.put(name, index);
+    }
+
+    boolean removeIndex(final String name) {
+        return indexes.remove(name) != null;
+    }
+
+    boolean isEmpty() {
+        return indexes.isEmpty();
+    }
+
+    /** Mutation callbacks */
+
+    @Override
+    public void added(final E elem) {
+        for (Index<E, ?> index : indexes.values()) {
+            index.add(elem);
+        }
+    }
+
+    @Override
+    public void removed(final E elem) {
+        for (Index<E, ?> index : indexes.values()) {
+            index.remove(elem);
+        }
+    }
+
+    @Override
+    public void replaced(final E oldElem, final E newElem) {
+        removed(oldElem);
+        added(newElem);
+    }
+
+    @Override
+    public void cleared() {
+        for (Index<E, ?> index : indexes.values()) {
+            index.map.clear();
+        }
+    }
+
+    /** Queries */
+
+    /**
+     * Returns the elements whose key in the given index equals key.
+     */
+    SmartList<E> find(final String name, final Object key) {
+        List<E> bucket = getIndex(name).map.get(key);
+        return bucket == null ? new SmartArrayList<E>() : new SmartArrayList<E>(bucket);
+    }
+
+    /**
+     * Returns the elements whose key in the given sorted index is in the
+     * range from fromKey (inclusive) to toKey (exclusive), ordered by key.
+     */
+    @SuppressWarnings("unchecked")
+    <K> SmartList<E> range(final String name, final K fromKey, final K toKey) {
+        Index<E, ?> index = getIndex(name);
+        if (!(index.map instanceof NavigableMap)) {
+            throw new IllegalArgumentException("Index " + name + " is not sorted");
+        }
+
+        NavigableMap<K, List<E>> sorted = (NavigableMap<K, List<E>>) index.map;
+        SmartList<E> result = new SmartArrayList<E>();
+        if (((Comparable<K>) fromKey).compareTo(toKey) >= 0) {
+            return result;
+        }
+
+        for (List<E> bucket : sorted.subMap(fromKey, true, toKey, false).values()) {
+            result.addAll(bucket);
+        }
+
+        return result;
+    }
+
+    private Index<E, ?> getIndex(final String name) {
+        Index<E, ?> index = indexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("No index named " + name);
+        }
+
+        return index;
+    }
+
+    /**
+     * Single index, mapping keys to the elements having them.
+     */
+    private static final class Index<E, K> {
+        private final UnaryFunction<K, ? super E> keyFunction;
+        private final Map<K, List<E>> map;
+
+        Index(final UnaryFunction<K, ? super E> keyFunction, final Map<K, List<E>> map) {
+            this.keyFunction = keyFunction;
+            this.map = map;
+        }
+
+        void add(final E elem) {
+            K key = keyFunction.apply(elem);
+            List<E> bucket = map.get(key);
+            if (bucket == null) {
+                bucket = new ArrayList<E>(1);
+                map.put(key, bucket);
+            }
+
+            bucket.add(elem);
+        }
+
+        void remove(final E elem) {
+            K key = keyFunction.apply(elem);
+            List<E> bucket = map.get(key);
+            if (bucket != null && bucket.remove(elem) && bucket.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+}
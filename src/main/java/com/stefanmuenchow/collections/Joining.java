@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Map;
+
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Writes the elements of collections and the entries of maps to an
+ * {@link Appendable} one by one, so that joining never builds the complete
+ * output or any per-element concatenation in memory.
+ *
+ * @author Stefan Münchow
+ */
+final class Joining {
+    private static final int BUFFER_SIZE = 8192;
+
+    private Joining() {
+    }
+
+    static <A extends Appendable, E> A join(final Iterable<E> elems, final A out, final CharSequence delimiter,
+            final CharSequence prefix, final CharSequence suffix,
+            final UnaryFunction<? extends CharSequence, ? super E> formatter) throws IOException {
+        out.append(prefix);
+        boolean first = true;
+        for (E elem : elems) {
+            if (!first) {
+                out.append(delimiter);
+            }
+
+            append(out, elem, formatter);
+            first = false;
+        }
+
+        out.append(suffix);
+        return out;
+    }
+
+    static <A extends Appendable, K, V> A join(final Map<K, V> map, final A out, final CharSequence entryDelimiter,
+            final CharSequence keyValDelimiter, final CharSequence prefix, final CharSequence suffix,
+            final UnaryFunction<? extends CharSequence, ? super K> keyFormatter,
+            final UnaryFunction<? extends CharSequence, ? super V> valueFormatter) throws IOException {
+        out.append(prefix);
+        boolean first = true;
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            if (!first) {
+                out.append(entryDelimiter);
+            }
+
+            append(out, entry.getKey(), keyFormatter);
+            out.append(keyValDelimiter);
+            append(out, entry.getValue(), valueFormatter);
+            first = false;
+        }
+
+        out.append(suffix);
+        return out;
+    }
+
+    private static <T> void append(final Appendable out, final T value,
+            final UnaryFunction<? extends CharSequence, ? super T> formatter) throws IOException {
+        if (formatter != null) {
+            out.append(formatter.apply(value));
+        } else if (value instanceof CharSequence) {
+            out.append((CharSequence) value);
+        } else {
+            out.append(String.valueOf(value));
+        }
+    }
+
+    /**
+     * Creates an appendable encoding everything appended to it with charset
+     * into channel. It has to be finished with {@link ChannelAppendable#finish()}.
+     */
+    static ChannelAppendable toChannel(final WritableByteChannel channel, final Charset charset) {
+        return new ChannelAppendable(channel, charset);
+    }
+
+    /**
+     * Appendable encoding characters through one reused character buffer and
+     * one reused byte buffer. Malformed and unmappable characters are
+     * replaced, like {@link String#getBytes(Charset)} does.
+     */
+    static final class ChannelAppendable implements Appendable {
+        private final WritableByteChannel channel;
+        private final CharsetEncoder encoder;
+        private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        private final ByteBuffer bytes;
+        private long written;
+
+        private ChannelAppendable(final WritableByteChannel channel, final Charset charset) {
+            this.channel = channel;
+            this.encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.bytes = ByteBuffer.allocate((int) Math.ceil(BUFFER_SIZE * encoder.maxBytesPerChar()));
+        }
+
+        @Override
+        public Appendable append(final CharSequence csq) throws IOException {
+            CharSequence seq = csq == null ? "null" : csq;
+            return append(seq, 0, seq.length());
+        }
+
+        @Override
+        public Appendable append(final CharSequence csq, final int start, final int end) throws IOException {
+            CharSequence seq = csq == null ? "null" : csq;
+            int pos = start;
+            while (pos < end) {
+                int n = Math.min(chars.remaining(), end - pos);
+                for (int i = 0; i < n; i++) {
+                    chars.put(seq.charAt(pos + i));
+                }
+
+                pos += n;
+                if (!chars.hasRemaining()) {
+                    encode(false);
+                }
+            }
+
+            return this;
+        }
+
+        @Override
+        public Appendable append(final char c) throws IOException {
+            chars.put(c);
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+
+            return this;
+        }
+
+        /**
+         * Encodes and writes all remaining characters. Returns the number of
+         * bytes written in total.
+         */
+        long finish() throws IOException {
+            encode(true);
+            while (encoder.flush(bytes).isOverflow()) {
+                drain();
+            }
+
+            drain();
+            return written;
+        }
+
+        private void encode(final boolean endOfInput) throws IOException {
+            chars.flip();
+            CoderResult result;
+            do {
+                result = encoder.encode(chars, bytes, endOfInput);
+                drain();
+            } while (result.isOverflow());
+
+            chars.compact();
+        }
+
+        private void drain() throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                written += channel.write(bytes);
+            }
+
+            bytes.clear();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.stefanmuenchow.functors.CombineFunction;
+import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Joins two collections by keys extracted from their elements. Hash joins
+ * build a hash table on the smaller collection and probe it with the
+ * elements of the larger one, so they run in O(n + m). Merge joins need
+ * both collections sorted by key and keep only the elements of one key in
+ * memory.
+ *
+ * @author Stefan Münchow
+ */
+final class Joins {
+
+    private Joins() {
+    }
+
+    /**
+     * Combiner creating a tuple of the two joined elements.
+     */
+    static <L, R> CombineFunction<Tuple<L, R>, L, R> tupleFn() {
+        return new CombineFunction<Tuple<L, R>, L, R>() {
+            @Override
+            public Tuple<L, R> apply(final L input1, final R input2) {
+                return new Tuple<L, R>(input1, input2);
+            }
+        };
+    }
+
+    /**
+     * Combines each element of left with each element of right that has the
+     * same key. If outer is true, elements of left without a match are
+     * combined with <code>null</code>.
+     */
+    static <L, R, K, T> SmartList<T> hashJoin(final Collection<L> left, final Collection<R> right,
+            final UnaryFunction<K, ? super L> leftKeyFunction, final UnaryFunction<K, ? super R> rightKeyFunction,
+            final CombineFunction<T, ? super L, ? super R> combiner, final boolean outer) {
+        SmartList<T> result = new SmartArrayList<T>();
+
+        if (right.size() <= left.size()) {
+            Map<K, Group<R>> table = buildTable(right, rightKeyFunction);
+            for (L elem : left) {
+                Group<R> group = table.get(leftKeyFunction.apply(elem));
+                if (group != null) {
+                    for (R match : group.elems) {
+                        result.add(combiner.apply(elem, match));
+                    }
+                } else if (outer) {
+                    result.add(combiner.apply(elem, null));
+                }
+            }
+        } else {
+            Map<K, Group<L>> table = buildTable(left, leftKeyFunction);
+            for (R elem : right) {
+                Group<L> group = table.get(rightKeyFunction.apply(elem));
+                if (group != null) {
+                    group.matched = true;
+                    for (L match : group.elems) {
+                        result.add(combiner.apply(match, elem));
+                    }
+                }
+            }
+
+            if (outer) {
+                for (Group<L> group : table.values()) {
+                    if (!group.matched) {
+                        for (L elem : group.elems) {
+                            result.add(combiner.apply(elem, null));
+                        }
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Combines each element of left with the value map contains for its key.
+     * If outer is true, elements of left whose key is not contained are
+     * combined with <code>null</code>.
+     */
+    static <L, K, V> SmartList<Tuple<L, V>> mapJoin(final Collection<L> left, final Map<K, V> map,
+            final UnaryFunction<K, ? super L> keyFunction, final boolean outer) {
+        SmartList<Tuple<L, V>> result = new SmartArrayList<Tuple<L, V>>();
+        for (L elem : left) {
+            K key = keyFunction.apply(elem);
+            V value = map.get(key);
+            if (outer || value != null || map.containsKey(key)) {
+                result.add(new Tuple<L, V>(elem, value));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a predicate accepting the elements of left that have (or, if
+     * anti is true, do not have) an element with the same key in right.
+     */
+    static <L, R, K> Predicate<L> matching(final Collection<L> left, final Collection<R> right,
+            final UnaryFunction<K, ? super L> leftKeyFunction, final UnaryFunction<K, ? super R> rightKeyFunction,
+            final boolean anti) {
+        final Set<K> keys = new HashSet<K>();
+
+        if (right.size() <= left.size()) {
+            for (R elem : right) {
+                keys.add(rightKeyFunction.apply(elem));
+            }
+        } else {
+            Set<K> leftKeys = new HashSet<K>();
+            for (L elem : left) {
+                leftKeys.add(leftKeyFunction.apply(elem));
+            }
+
+            for (R elem : right) {
+                K key = rightKeyFunction.apply(elem);
+                if (leftKeys.contains(key)) {
+                    keys.add(key);
+                }
+            }
+        }
+
+        return new Predicate<L>() {
+            @Override
+            public boolean test(final L input) {
+                return keys.contains(leftKeyFunction.apply(input)) != anti;
+            }
+        };
+    }
+
+    /**
+     * Returns a predicate accepting the elements whose key is (or, if anti
+     * is true, is not) contained in map.
+     */
+    static <L, K> Predicate<L> matching(final Map<K, ?> map, final UnaryFunction<K, ? super L> keyFunction,
+            final boolean anti) {
+        return new Predicate<L>() {
+            @Override
+            public boolean test(final L input) {
+                return map.containsKey(keyFunction.apply(input)) != anti;
+            }
+        };
+    }
+
+    /**
+     * Combines each element of left with each element of right that has the
+     * same key. Both collections have to be sorted ascending by key. The
+     * result is ordered like left, matches of an element like right.
+     */
+    static <L, R, K extends Comparable<? super K>, T> SmartList<T> mergeJoin(final Iterable<L> left,
+            final Iterable<R> right, final UnaryFunction<K, ? super L> leftKeyFunction,
+            final UnaryFunction<K, ? super R> rightKeyFunction,
+            final CombineFunction<T, ? super L, ? super R> combiner) {
+        SmartList<T> result = new SmartArrayList<T>();
+        Iterator<R> it = right.iterator();
+        List<R> run = new ArrayList<R>();
+        K runKey = null;
+        R next = null;
+        K nextKey = null;
+        boolean hasNext = it.hasNext();
+
+        if (hasNext) {
+            next = it.next();
+            nextKey = rightKeyFunction.apply(next);
+        }
+
+        for (L elem : left) {
+            K key = leftKeyFunction.apply(elem);
+
+            if (run.isEmpty() || runKey.compareTo(key) != 0) {
+                run.clear();
+                while (hasNext && nextKey.compareTo(key) < 0) {
+                    hasNext = it.hasNext();
+                    if (hasNext) {
+                        next = it.next();
+                        nextKey = rightKeyFunction.apply(next);
+                    }
+                }
+
+                while (hasNext && nextKey.compareTo(key) == 0) {
+                    run.add(next);
+                    hasNext = it.hasNext();
+                    if (hasNext) {
+                        next = it.next();
+                        nextKey = rightKeyFunction.apply(next);
+                    }
+                }
+
+                runKey = key;
+            }
+
+            for (R match : run) {
+                result.add(combiner.apply(elem, match));
+            }
+        }
+
+        return result;
+    }
+
+    private static <E, K> Map<K, Group<E>> buildTable(final Collection<E> coll,
+            final UnaryFunction<K, ? super E> keyFunction) {
+        Map<K, Group<E>> table = new HashMap<K, Group<E>>();
+        for (E elem : coll) {
+            K key = keyFunction.apply(elem);
+            Group<E> group = table.get(key);
+            if (group == null) {
+                group = new Group<E>();
+                table.put(key, group);
+            }
+
+            group.elems.add(elem);
+        }
+
+        return table;
+    }
+
+    /**
+     * Elements of the hash table sharing one key.
+     */
+    private static final class Group<E> {
+        private final List<E> elems = new ArrayList<E>(1);
+        private boolean matched;
+    }
+}
@@ -0,0 +1,356 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Sorts lists by keys derived from their elements. Each key is computed only
+ * once and stored in an array parallel to the elements, then both arrays are
+ * sorted together by the keys and the elements are written back
+ * (decorate-sort-undecorate).
+ *
+ * The stable mode uses a merge sort, the unstable mode an in-place
+ * quicksort that needs no second pair of arrays. In parallel mode, keys are
+ * computed in parallel, the merge sort sorts chunks in parallel and merges
+ * them pairwise in parallel rounds, and the quicksort partitions the upper
+ * levels in parallel before sorting the partitions in parallel.
+ *
+ * @author Stefan Münchow
+ */
+final class KeySort {
+    private static final int INSERTION_THRESHOLD = 32;
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    private KeySort() {
+    }
+
+    /**
+     * Comparator comparing elements by the keys keyExtractor returns for
+     * them, computing the keys on every comparison.
+     */
+    static <E, K extends Comparable<? super K>> Comparator<E> keyComparator(
+            final UnaryFunction<K, ? super E> keyExtractor) {
+        return new Comparator<E>() {
+            @Override
+            public int compare(final E elem1, final E elem2) {
+                return keyExtractor.apply(elem1).compareTo(keyExtractor.apply(elem2));
+            }
+        };
+    }
+
+    /**
+     * Sorts list by the keys keyExtractor returns for its elements.
+     */
+    @SuppressWarnings("unchecked")
+    static <E, K extends Comparable<? super K>> void sortBy(final List<E> list,
+            final UnaryFunction<K, ? super E> keyExtractor, final boolean stable, final boolean parallel) {
+        final Object[] elems = list.toArray();
+        final Object[] keys = new Object[elems.length];
+        boolean inParallel = parallel && elems.length >= PARALLEL_THRESHOLD;
+
+        if (inParallel) {
+            final int[] bounds = Parallel.split(elems.length, Parallel.parallelism());
+            List<Runnable> tasks = new ArrayList<Runnable>();
+            for (int i = 0; i < bounds.length - 1; i++) {
+                final int from = bounds[i];
+                final int to = bounds[i + 1];
+                tasks.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int j = from; j < to; j++) {
+                            keys[j] = keyExtractor.apply((E) elems[j]);
+                        }
+                    }
+                });
+            }
+
+            Parallel.run(tasks);
+        } else {
+            for (int i = 0; i < elems.length; i++) {
+                keys[i] = keyExtractor.apply((E) elems[i]);
+            }
+        }
+
+        sort(keys, elems, stable, inParallel);
+
+        ListIterator<E> it = list.listIterator();
+        for (Object elem : elems) {
+            it.next();
+            it.set((E) elem);
+        }
+    }
+
+    /**
+     * Sorts keys and reorders elems the same way.
+     */
+    static void sort(final Object[] keys, final Object[] elems, final boolean stable, final boolean parallel) {
+        int size = keys.length;
+
+        if (!parallel || size < PARALLEL_THRESHOLD || Parallel.parallelism() == 1) {
+            if (stable) {
+                mergeSort(keys.clone(), elems.clone(), keys, elems, 0, size);
+            } else {
+                quickSort(keys, elems, 0, size);
+            }
+        } else if (stable) {
+            parallelMergeSort(keys, elems);
+        } else {
+            parallelQuickSort(keys, elems);
+        }
+    }
+
+    /** Merge sort */
+
+    /**
+     * Sorts the range of dstKeys and dstElems, using the same range of
+     * srcKeys and srcElems, which must contain the same elements, as buffer.
+     */
+    private static void mergeSort(final Object[] srcKeys, final Object[] srcElems, final Object[] dstKeys,
+            final Object[] dstElems, final int low, final int high) {
+        if (high - low < INSERTION_THRESHOLD) {
+            insertionSort(dstKeys, dstElems, low, high);
+            return;
+        }
+
+        int mid = (low + high) >>> 1;
+        mergeSort(dstKeys, dstElems, srcKeys, srcElems, low, mid);
+        mergeSort(dstKeys, dstElems, srcKeys, srcElems, mid, high);
+
+        if (compare(srcKeys[mid - 1], srcKeys[mid]) <= 0) {
+            System.arraycopy(srcKeys, low, dstKeys, low, high - low);
+            System.arraycopy(srcElems, low, dstElems, low, high - low);
+            return;
+        }
+
+        merge(srcKeys, srcElems, dstKeys, dstElems, low, mid, high);
+    }
+
+    private static void merge(final Object[] srcKeys, final Object[] srcElems, final Object[] dstKeys,
+            final Object[] dstElems, final int low, final int mid, final int high) {
+        int left = low;
+        int right = mid;
+
+        for (int i = low; i < high; i++) {
+            if (right >= high || (left < mid && compare(srcKeys[left], srcKeys[right]) <= 0)) {
+                dstKeys[i] = srcKeys[left];
+                dstElems[i] = srcElems[left++];
+            } else {
+                dstKeys[i] = srcKeys[right];
+                dstElems[i] = srcElems[right++];
+            }
+        }
+    }
+
+    private static void parallelMergeSort(final Object[] keys, final Object[] elems) {
+        final Object[] auxKeys = keys.clone();
+        final Object[] auxElems = elems.clone();
+        final int[] bounds = Parallel.split(keys.length, Parallel.parallelism());
+        final int chunks = bounds.length - 1;
+
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int i = 0; i < chunks; i++) {
+            final int from = bounds[i];
+            final int to = bounds[i + 1];
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    mergeSort(auxKeys, auxElems, keys, elems, from, to);
+                }
+            });
+        }
+        Parallel.run(tasks);
+
+        Object[] srcKeys = keys;
+        Object[] srcElems = elems;
+        Object[] dstKeys = auxKeys;
+        Object[] dstElems = auxElems;
+
+        for (int width = 1; width < chunks; width *= 2) {
+            tasks = new ArrayList<Runnable>();
+            for (int i = 0; i < chunks; i += 2 * width) {
+                final int low = bounds[i];
+                final int mid = bounds[Math.min(i + width, chunks)];
+                final int high = bounds[Math.min(i + 2 * width, chunks)];
+                final Object[] fromKeys = srcKeys;
+                final Object[] fromElems = srcElems;
+                final Object[] toKeys = dstKeys;
+                final Object[] toElems = dstElems;
+
+                tasks.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        merge(fromKeys, fromElems, toKeys, toElems, low, mid, high);
+                    }
+                });
+            }
+            Parallel.run(tasks);
+
+            Object[] swap = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = swap;
+            swap = srcElems;
+            srcElems = dstElems;
+            dstElems = swap;
+        }
+
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, 0, keys, 0, keys.length);
+            System.arraycopy(srcElems, 0, elems, 0, elems.length);
+        }
+    }
+
+    /** Quicksort */
+
+    private static void quickSort(final Object[] keys, final Object[] elems, final int low, final int high) {
+        int from = low;
+        int to = high;
+
+        while (to - from > INSERTION_THRESHOLD) {
+            int split = partition(keys, elems, from, to);
+            if (split - from < to - split) {
+                quickSort(keys, elems, from, split);
+                from = split;
+            } else {
+                quickSort(keys, elems, split, to);
+                to = split;
+            }
+        }
+
+        insertionSort(keys, elems, from, to);
+    }
+
+    /**
+     * Hoare partition around the median of three. Returns an index split
+     * with low < split < high, so that no key in the range from low to split
+     * is greater than any key in the range from split to high.
+     */
+    private static int partition(final Object[] keys, final Object[] elems, final int low, final int high) {
+        int mid = (low + high - 1) >>> 1;
+        if (compare(keys[mid], keys[low]) < 0) {
+            swap(keys, elems, mid, low);
+        }
+        if (compare(keys[high - 1], keys[mid]) < 0) {
+            swap(keys, elems, high - 1, mid);
+            if (compare(keys[mid], keys[low]) < 0) {
+                swap(keys, elems, mid, low);
+            }
+        }
+
+        Object pivot = keys[mid];
+        int i = low - 1;
+        int j = high;
+
+        while (true) {
+            do {
+                i++;
+            } while (compare(keys[i], pivot) < 0);
+
+            do {
+                j--;
+            } while (compare(keys[j], pivot) > 0);
+
+            if (i >= j) {
+                return j + 1;
+            }
+
+            swap(keys, elems, i, j);
+        }
+    }
+
+    private static void parallelQuickSort(final Object[] keys, final Object[] elems) {
+        List<int[]> ranges = new ArrayList<int[]>();
+        ranges.add(new int[] { 0, keys.length });
+
+        while (ranges.size() < Parallel.parallelism() * 2) {
+            final List<int[]> next = new ArrayList<int[]>();
+            List<Runnable> tasks = new ArrayList<Runnable>();
+
+            for (final int[] range : ranges) {
+                if (range[1] - range[0] <= PARALLEL_THRESHOLD) {
+                    next.add(range);
+                    continue;
+                }
+
+                final int[] lower = new int[] { range[0], 0 };
+                final int[] upper = new int[] { 0, range[1] };
+                next.add(lower);
+                next.add(upper);
+                tasks.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        int split = partition(keys, elems, range[0], range[1]);
+                        lower[1] = split;
+                        upper[0] = split;
+                    }
+                });
+            }
+
+            if (tasks.isEmpty()) {
+                break;
+            }
+
+            Parallel.run(tasks);
+            ranges = next;
+        }
+
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (final int[] range : ranges) {
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    quickSort(keys, elems, range[0], range[1]);
+                }
+            });
+        }
+        Parallel.run(tasks);
+    }
+
+    /** Helper methods */
+
+    private static void insertionSort(final Object[] keys, final Object[] elems, final int low, final int high) {
+        for (int i = low + 1; i < high; i++) {
+            Object key = keys[i];
+            Object elem = elems[i];
+            int j = i - 1;
+
+            while (j >= low && compare(keys[j], key) > 0) {
+                keys[j + 1] = keys[j];
+                elems[j + 1] = elems[j];
+                j--;
+            }
+
+            keys[j + 1] = key;
+            elems[j + 1] = elem;
+        }
+    }
+
+    private static void swap(final Object[] keys, final Object[] elems, final int i, final int j) {
+        Object key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+
+        Object elem = elems[i];
+        elems[i] = elems[j];
+        elems[j] = elem;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(final Object key1, final Object key2) {
+        return ((Comparable<Object>) key1).compareTo(key2);
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Collection;
+
+/**
+ * Read-only collection derived from an observable collection that is updated
+ * on every change of the collection instead of being recomputed, e.g. by
+ * {@link SmartObservableList#liveFilter(com.stefanmuenchow.functors.Predicate)}.
+ * Equal elements are stored once together with their number of occurrences,
+ * so {@link #contains(Object)} runs in O(1). The iteration order is not
+ * specified.
+ *
+ * @author Stefan Münchow
+ */
+public interface LiveCollection<E> extends Collection<E> {
+
+    /**
+     * Stops updating this collection. Afterwards it keeps the elements it
+     * contained last.
+     */
+    void close();
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+/**
+ * Value derived from an observable collection that is updated on every
+ * change of the collection instead of being recomputed, e.g. by
+ * {@link SmartObservableList#liveCount(com.stefanmuenchow.functors.Predicate)}.
+ *
+ * @author Stefan Münchow
+ */
+public interface LiveValue<T> {
+
+    /**
+     * Returns the current value.
+     *
+     * @return				Current value
+     */
+    T get();
+
+    /**
+     * Stops updating this value. Afterwards {@link #get()} returns the last
+     * value computed.
+     */
+    void close();
+}
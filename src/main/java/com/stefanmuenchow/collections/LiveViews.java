@@ -0,0 +1,342 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractCollection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Views derived from a {@link ChangeSource} that are maintained incrementally.
+ * Each view is computed once from the current elements and afterwards only
+ * applies the reported changes, so keeping it up to date costs O(1) per
+ * changed element instead of a pass over the whole collection.
+ *
+ * @author Stefan Münchow
+ */
+final class LiveViews {
+
+    private LiveViews() {
+    }
+
+    static <E> LiveValue<Integer> count(final ChangeSource<E> source, final Predicate<? super E> pred) {
+        return register(source, new Count<E>(pred));
+    }
+
+    static <E, R> LiveValue<R> reduce(final ChangeSource<E> source, final R initial,
+            final BinaryFunction<R, ? super E> funct, final BinaryFunction<R, ? super E> inverse) {
+        return register(source, new Reduce<E, R>(initial, funct, inverse));
+    }
+
+    static <E> LiveCollection<E> filter(final ChangeSource<E> source, final Predicate<? super E> pred) {
+        return register(source, new Bag<E, E>(pred, null));
+    }
+
+    static <E, R> LiveCollection<R> map(final ChangeSource<E> source, final UnaryFunction<R, ? super E> funct) {
+        return register(source, new Bag<E, R>(null, funct));
+    }
+
+    static <E, K> LiveValue<Map<K, Integer>> countBy(final ChangeSource<E> source,
+            final UnaryFunction<K, ? super E> keyFunction) {
+        return register(source, new CountBy<E, K>(keyFunction));
+    }
+
+    private static <E, T extends View<E>> T register(final ChangeSource<E> source, final T view) {
+        for (E elem : source) {
+            view.added(elem);
+        }
+
+        view.attach(source);
+        source.addListener(view);
+        return view;
+    }
+
+    /**
+     * Listener maintaining a view, detached from its source on close.
+     */
+    private interface View<E> extends CollectionListener<E> {
+
+        void attach(ChangeSource<E> source);
+    }
+
+    /**
+     * Base class of the live values. A replacement is applied as a removal
+     * followed by an addition.
+     */
+    private abstract static class Value<E> implements View<E> {
+        private ChangeSource<E> source;
+
+        @Override
+        public void attach(final ChangeSource<E> source) {
+            this.source = source;
+        }
+
+        @Override
+        public void replaced(final E oldElem, final E newElem) {
+            removed(oldElem);
+            added(newElem);
+        }
+
+        public void close() {
+            if (source != null) {
+                source.removeListener(this);
+                source = null;
+            }
+        }
+    }
+
+    private static final class Count<E> extends Value<E> implements LiveValue<Integer> {
+        private final Predicate<? super E> pred;
+        private int count;
+
+        Count(final Predicate<? super E> pred) {
+            this.pred = pred;
+        }
+
+        @Override
+        public Integer get() {
+            return count;
+        }
+
+        @Override
+        public void added(final E elem) {
+            if (pred.test(elem)) {
+                count++;
+            }
+        }
+
+        @Override
+        public void removed(final E elem) {
+            if (pred.test(elem)) {
+                count--;
+            }
+        }
+
+        @Override
+        public void cleared() {
+            count = 0;
+        }
+    }
+
+    private static final class Reduce<E, R> extends Value<E> implements LiveValue<R> {
+        private final R initial;
+        private final BinaryFunction<R, ? super E> funct;
+        private final BinaryFunction<R, ? super E> inverse;
+        private R value;
+
+        Reduce(final R initial, final BinaryFunction<R, ? super E> funct, final BinaryFunction<R, ? super E> inverse) {
+            this.initial = initial;
+            this.funct = funct;
+            this.inverse = inverse;
+            this.value = initial;
+        }
+
+        @Override
+        public R get() {
+            return value;
+        }
+
+        @Override
+        public void added(final E elem) {
+            value = funct.apply(value, elem);
+        }
+
+        @Override
+        public void removed(final E elem) {
+            value = inverse.apply(value, elem);
+        }
+
+        @Override
+        public void cleared() {
+            value = initial;
+        }
+    }
+
+    /**
+     * Multiset of the elements accepted by pred (if any), mapped by funct (if
+     * any).
+     */
+    private static final class Bag<E, R> extends AbstractCollection<R> implements LiveCollection<R>, View<E> {
+        private final Predicate<? super E> pred;
+        private final UnaryFunction<R, ? super E> funct;
+        private final Map<R, int[]> counts = new LinkedHashMap<R, int[]>();
+        private ChangeSource<E> source;
+        private int size;
+        private int modCount;
+
+        Bag(final Predicate<? super E> pred, final UnaryFunction<R, ? super E> funct) {
+            this.pred = pred;
+            this.funct = funct;
+        }
+
+        @Override
+        public void attach(final ChangeSource<E> source) {
+            this.source = source;
+        }
+
+        @Override
+        public void close() {
+            if (source != null) {
+                source.removeListener(this);
+                source = null;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private R apply(final E elem) {
+            return funct == null ? (R) elem : funct.apply(elem);
+        }
+
+        @Override
+        public void added(final E elem) {
+            if (pred == null || pred.test(elem)) {
+                R value = apply(elem);
+                int[] count = counts.get(value);
+                if (count == null) {
+                    counts.put(value, new int[] { 1 });
+                } else {
+                    count[0]++;
+                }
+
+                size++;
+                modCount++;
+            }
+        }
+
+        @Override
+        public void removed(final E elem) {
+            if (pred == null || pred.test(elem)) {
+                R value = apply(elem);
+                int[] count = counts.get(value);
+                if (--count[0] == 0) {
+                    counts.remove(value);
+                }
+
+                size--;
+                modCount++;
+            }
+        }
+
+        @Override
+        public void replaced(final E oldElem, final E newElem) {
+            removed(oldElem);
+            added(newElem);
+        }
+
+        @Override
+        public void cleared() {
+            counts.clear();
+            size = 0;
+            modCount++;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return counts.containsKey(o);
+        }
+
+        @Override
+        public Iterator<R> iterator() {
+            return new Iterator<R>() {
+                private final Iterator<Map.Entry<R, int[]>> entries = counts.entrySet().iterator();
+                private final int expectedModCount = modCount;
+                private R current;
+                private int remaining;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0 || entries.hasNext();
+                }
+
+                @Override
+                public R next() {
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+
+                    if (remaining == 0) {
+                        if (!entries.hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+
+                        Map.Entry<R, int[]> entry = entries.next();
+                        current = entry.getKey();
+                        remaining = entry.getValue()[0];
+                    }
+
+                    remaining--;
+                    return current;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException("Live collections are read-only.");
+                }
+            };
+        }
+    }
+
+    /**
+     * Number of elements per key, keys without elements are removed.
+     */
+    private static final class CountBy<E, K> extends Value<E> implements LiveValue<Map<K, Integer>> {
+        private final UnaryFunction<K, ? super E> keyFunction;
+        private final Map<K, Integer> counts = new HashMap<K, Integer>();
+        private final Map<K, Integer> readOnly = Collections.unmodifiableMap(counts);
+
+        CountBy(final UnaryFunction<K, ? super E> keyFunction) {
+            this.keyFunction = keyFunction;
+        }
+
+        @Override
+        public Map<K, Integer> get() {
+            return readOnly;
+        }
+
+        @Override
+        public void added(final E elem) {
+            K key = keyFunction.apply(elem);
+            Integer count = counts.get(key);
+            counts.put(key, count == null ? 1 : count + 1);
+        }
+
+        @Override
+        public void removed(final E elem) {
+            K key = keyFunction.apply(elem);
+            int count = counts.get(key);
+            if (count == 1) {
+                counts.remove(key);
+            } else {
+                counts.put(key, count - 1);
+            }
+        }
+
+        @Override
+        public void cleared() {
+            counts.clear();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Map used by {@link SmartLoadingMap}. Loaded values are kept in a
+ * {@link ConcurrentHashMap}. Keys that are being loaded are registered with
+ * a pending result, so concurrent lookups of the same key wait for a single
+ * load. Missing keys are collected in batches; the thread that opens a batch
+ * waits until the batch window has passed or the batch is full and then
+ * calls the loader for all keys of the batch.
+ *
+ * @author Stefan Münchow
+ */
+class LoadingMap<K, V> extends AbstractMap<K, V> {
+    private final ConcurrentMap<K, V> values = new ConcurrentHashMap<K, V>();
+    private final ConcurrentMap<K, Pending<V>> inFlight = new ConcurrentHashMap<K, Pending<V>>();
+    private final UnaryFunction<Map<K, V>, Collection<K>> loader;
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+    private final Object lock = new Object();
+    private final AtomicLong loadCount = new AtomicLong();
+    private Batch<K, V> openBatch;
+
+    LoadingMap(final UnaryFunction<Map<K, V>, Collection<K>> loader, final long batchWindowNanos,
+            final int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Maximum batch size must be positive");
+        }
+
+        this.loader = loader;
+        this.batchWindowNanos = batchWindowNanos;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    long getLoadCount() {
+        return loadCount.get();
+    }
+
+    /**
+     * Returns the values for all keys, loading missing keys. Keys for which
+     * the loader returns no value are not contained in the result.
+     */
+    Map<K, V> getAll(final Collection<? extends K> keys) {
+        Map<K, V> result = new LinkedHashMap<K, V>();
+        Map<K, Pending<V>> waiting = new LinkedHashMap<K, Pending<V>>();
+        List<Batch<K, V>> ledBatches = new ArrayList<Batch<K, V>>();
+
+        for (K key : keys) {
+            V value = values.get(key);
+            if (value != null) {
+                result.put(key, value);
+                continue;
+            }
+
+            if (waiting.containsKey(key)) {
+                continue;
+            }
+
+            Pending<V> pending = new Pending<V>();
+            Pending<V> existing = inFlight.putIfAbsent(key, pending);
+            if (existing != null) {
+                waiting.put(key, existing);
+                continue;
+            }
+
+            value = values.get(key);
+            if (value != null) {
+                inFlight.remove(key, pending);
+                pending.complete(value);
+                result.put(key, value);
+                continue;
+            }
+
+            waiting.put(key, pending);
+            enqueue(key, pending, ledBatches);
+        }
+
+        for (Batch<K, V> batch : ledBatches) {
+            awaitAndLoad(batch);
+        }
+
+        for (Map.Entry<K, Pending<V>> entry : waiting.entrySet()) {
+            V value = entry.getValue().await();
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            }
+        }
+
+        return result;
+    }
+
+    /** Map methods */
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        V value = values.get(key);
+        if (value != null) {
+            return value;
+        }
+
+        return getAll(Collections.singleton((K) key)).get(key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return values.containsKey(key);
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        return values.put(key, value);
+    }
+
+    @Override
+    public V remove(final Object key) {
+        return values.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return values.entrySet();
+    }
+
+    /** Helper methods */
+
+    private void enqueue(final K key, final Pending<V> pending, final List<Batch<K, V>> ledBatches) {
+        synchronized (lock) {
+            if (openBatch == null) {
+                openBatch = new Batch<K, V>(System.nanoTime() + batchWindowNanos);
+                ledBatches.add(openBatch);
+            }
+
+            openBatch.pendings.put(key, pending);
+            if (openBatch.pendings.size() >= maxBatchSize) {
+                openBatch = null;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void awaitAndLoad(final Batch<K, V> batch) {
+        synchronized (lock) {
+            while (openBatch == batch) {
+                long remaining = batch.deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    openBatch = null;
+                    break;
+                }
+
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    openBatch = null;
+                    break;
+                }
+            }
+        }
+
+        load(batch);
+    }
+
+    private void load(final Batch<K, V> batch) {
+        loadCount.incrementAndGet();
+        Map<K, V> loaded = Collections.emptyMap();
+        RuntimeException failure = null;
+
+        try {
+            Map<K, V> result = loader.apply(Collections.unmodifiableCollection(batch.pendings.keySet()));
+            if (result != null) {
+                loaded = result;
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            for (Map.Entry<K, Pending<V>> entry : batch.pendings.entrySet()) {
+                V value = failure == null ? loaded.get(entry.getKey()) : null;
+                if (value != null) {
+                    values.put(entry.getKey(), value);
+                }
+
+                inFlight.remove(entry.getKey(), entry.getValue());
+                if (failure != null) {
+                    entry.getValue().fail(failure);
+                } else {
+                    entry.getValue().complete(value);
+                }
+            }
+        }
+    }
+
+    private static final class Batch<K, V> {
+        final Map<K, Pending<V>> pendings = new HashMap<K, Pending<V>>();
+        final long deadline;
+
+        Batch(final long deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Result of a load that other threads can wait for.
+     */
+    private static final class Pending<V> {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile V value;
+        private volatile RuntimeException failure;
+
+        void complete(final V aValue) {
+            value = aValue;
+            done.countDown();
+        }
+
+        void fail(final RuntimeException aFailure) {
+            failure = aFailure;
+            done.countDown();
+        }
+
+        V await() {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for load", e);
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+
+            return value;
+        }
+    }
+}
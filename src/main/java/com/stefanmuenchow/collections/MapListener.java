@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+/**
+ * Listener notified about changes of an observable map, see
+ * {@link SmartObservableMap#addListener(MapListener)}. Listeners are called
+ * synchronously after the change has been applied.
+ *
+ * @author Stefan Münchow
+ */
+public interface MapListener<K, V> {
+
+    /**
+     * Called after an entry has been added.
+     *
+     * @param key			Key of the added entry
+     * @param value			Value of the added entry
+     */
+    void added(K key, V value);
+
+    /**
+     * Called after an entry has been removed.
+     *
+     * @param key			Key of the removed entry
+     * @param value			Value of the removed entry
+     */
+    void removed(K key, V value);
+
+    /**
+     * Called after the value of an entry has been replaced.
+     *
+     * @param key			Key of the entry
+     * @param oldValue		Value that was replaced
+     * @param newValue		Value that replaced it
+     */
+    void replaced(K key, V oldValue, V newValue);
+
+    /**
+     * Called after all entries have been removed at once, instead of
+     * {@link #removed(Object, Object)} for each of them.
+     */
+    void cleared();
+}
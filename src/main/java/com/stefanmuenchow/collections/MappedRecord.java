@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight pointing at one record of a {@link SmartMappedRecordList}. Fields
+ * are read and written directly in the mapped file at an offset relative to
+ * the start of the record, without creating the element. Methods like
+ * {@link SmartMappedRecordList#recordIterator()} move a single instance from
+ * record to record, so a record must not be kept beyond the current step.
+ *
+ * Offsets are not checked against the record size. Multi-byte values use
+ * big-endian byte order.
+ *
+ * @author Stefan Münchow
+ */
+public final class MappedRecord {
+    private ByteBuffer buffer;
+    private int base;
+    private int index;
+
+    MappedRecord() {
+    }
+
+    MappedRecord moveTo(final ByteBuffer buffer, final int base, final int index) {
+        this.buffer = buffer;
+        this.base = base;
+        this.index = index;
+        return this;
+    }
+
+    /**
+     * Returns the position of this record in the list.
+     *
+     * @return			Index of the record
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public byte getByte(final int offset) {
+        return buffer.get(base + offset);
+    }
+
+    public short getShort(final int offset) {
+        return buffer.getShort(base + offset);
+    }
+
+    public int getInt(final int offset) {
+        return buffer.getInt(base + offset);
+    }
+
+    public long getLong(final int offset) {
+        return buffer.getLong(base + offset);
+    }
+
+    public float getFloat(final int offset) {
+        return buffer.getFloat(base + offset);
+    }
+
+    public double getDouble(final int offset) {
+        return buffer.getDouble(base + offset);
+    }
+
+    public void putByte(final int offset, final byte value) {
+        buffer.put(base + offset, value);
+    }
+
+    public void putShort(final int offset, final short value) {
+        buffer.putShort(base + offset, value);
+    }
+
+    public void putInt(final int offset, final int value) {
+        buffer.putInt(base + offset, value);
+    }
+
+    public void putLong(final int offset, final long value) {
+        buffer.putLong(base + offset, value);
+    }
+
+    public void putFloat(final int offset, final float value) {
+        buffer.putFloat(base + offset, value);
+    }
+
+    public void putDouble(final int offset, final double value) {
+        buffer.putDouble(base + offset, value);
+    }
+}
@@ -0,0 +1,380 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+import com.stefanmuenchow.functors.Predicate;
+
+/**
+ * List of fixed-size records stored in a memory-mapped file. The file starts
+ * with a header holding a magic number, the record size and the number of
+ * records, followed by the records. Since a single mapping is limited to
+ * 2 GB, the records are mapped in segments. The last segment is mapped with
+ * doubling size as records are appended, so the file grows with the list.
+ *
+ * @author Stefan Münchow
+ */
+final class MappedRecordList<E> extends AbstractList<E> implements RandomAccess {
+    private static final int MAGIC = 0x534D524C;
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT_OFFSET = 8;
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+    private static final int MIN_MAPPING_BYTES = 1 << 16;
+
+    private final File file;
+    private final RecordCodec<E> codec;
+    private final int recordSize;
+    private final int segmentRecords;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<MappedByteBuffer>();
+    private final MappedRecord scratch = new MappedRecord();
+    private final MappedRecord target = new MappedRecord();
+    private int lastSegmentRecords;
+    private int size;
+    private boolean closed;
+
+    MappedRecordList(final File file, final RecordCodec<E> codec) {
+        this(file, codec, MAX_SEGMENT_BYTES);
+    }
+
+    /**
+     * Creates a list with segments of at most segmentBytes bytes, rounded
+     * down to whole records.
+     */
+    MappedRecordList(final File file, final RecordCodec<E> codec, final int segmentBytes) {
+        this.file = file;
+        this.codec = codec;
+        this.recordSize = codec.recordSize();
+        if (recordSize < 1 || recordSize > segmentBytes) {
+            throw new IllegalArgumentException("Invalid record size: " + recordSize);
+        }
+
+        this.segmentRecords = segmentBytes / recordSize;
+
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            channel = raf.getChannel();
+            boolean created = channel.size() == 0;
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+            if (created) {
+                header.putInt(0, MAGIC);
+                header.putInt(4, recordSize);
+                header.putLong(COUNT_OFFSET, 0);
+            } else {
+                if (header.getInt(0) != MAGIC) {
+                    throw new IllegalArgumentException(file + " is not a record file");
+                }
+
+                if (header.getInt(4) != recordSize) {
+                    throw new IllegalArgumentException("Record size of " + file + " is " + header.getInt(4)
+                            + ", codec expects " + recordSize);
+                }
+
+                long count = header.getLong(COUNT_OFFSET);
+                if (count < 0 || count > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Invalid record count in " + file + ": " + count);
+                }
+
+                ensureCapacity((int) count);
+                size = (int) count;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not map " + file, e);
+        }
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    RecordCodec<E> getCodec() {
+        return codec;
+    }
+
+    /** Record access */
+
+    /**
+     * Moves record to the record at index, which must be within the mapped
+     * capacity.
+     */
+    private MappedRecord moveTo(final MappedRecord record, final int index) {
+        if (closed) {
+            throw new IllegalStateException("List is closed");
+        }
+
+        return record.moveTo(segments.get(index / segmentRecords), (index % segmentRecords) * recordSize, index);
+    }
+
+    MappedRecord record(final MappedRecord record, final int index) {
+        checkIndex(index, size);
+        return moveTo(record, index);
+    }
+
+    /**
+     * Returns an iterator moving a single record through the list.
+     */
+    Iterator<MappedRecord> recordIterator() {
+        return new Iterator<MappedRecord>() {
+            private final MappedRecord record = new MappedRecord();
+            private final int expectedModCount = modCount;
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public MappedRecord next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+
+                return moveTo(record, next++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Record iterators do not support remove");
+            }
+        };
+    }
+
+    /**
+     * Removes all records not accepted by pred in one pass, moving the
+     * remaining ones to the front.
+     */
+    boolean retainRecords(final Predicate<? super MappedRecord> pred) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (pred.test(moveTo(scratch, i))) {
+                if (kept != i) {
+                    copyRecord(i, kept);
+                }
+
+                kept++;
+            }
+        }
+
+        return truncate(kept);
+    }
+
+    /** List methods */
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public E get(final int index) {
+        return codec.read(record(scratch, index));
+    }
+
+    @Override
+    public E set(final int index, final E elem) {
+        E old = get(index);
+        codec.write(elem, moveTo(scratch, index));
+        return old;
+    }
+
+    @Override
+    public void add(final int index, final E elem) {
+        checkIndex(index, size + 1);
+        ensureCapacity(size + 1);
+        for (int i = size; i > index; i--) {
+            copyRecord(i - 1, i);
+        }
+
+        codec.write(elem, moveTo(scratch, index));
+        setSize(size + 1);
+    }
+
+    @Override
+    public E remove(final int index) {
+        E old = get(index);
+        for (int i = index + 1; i < size; i++) {
+            copyRecord(i, i - 1);
+        }
+
+        setSize(size - 1);
+        return old;
+    }
+
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+        int removed = toIndex - fromIndex;
+        for (int i = toIndex; i < size; i++) {
+            copyRecord(i, i - removed);
+        }
+
+        setSize(size - removed);
+    }
+
+    @Override
+    public void clear() {
+        setSize(0);
+    }
+
+    @Override
+    public boolean removeAll(final Collection<?> coll) {
+        return retainElements(coll, false);
+    }
+
+    @Override
+    public boolean retainAll(final Collection<?> coll) {
+        return retainElements(coll, true);
+    }
+
+    /** File methods */
+
+    /**
+     * Writes all changes to the storage device.
+     */
+    void sync() {
+        if (closed) {
+            throw new IllegalStateException("List is closed");
+        }
+
+        header.force();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Writes all changes, cuts off the capacity mapped beyond the last
+     * record and closes the file.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+
+        sync();
+        closed = true;
+        segments.clear();
+
+        try {
+            channel.truncate(HEADER_SIZE + (long) size * recordSize);
+            raf.close();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not close " + file, e);
+        }
+    }
+
+    /** Helper methods */
+
+    private boolean retainElements(final Collection<?> coll, final boolean contained) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (coll.contains(get(i)) == contained) {
+                if (kept != i) {
+                    copyRecord(i, kept);
+                }
+
+                kept++;
+            }
+        }
+
+        return truncate(kept);
+    }
+
+    private boolean truncate(final int newSize) {
+        if (newSize == size) {
+            return false;
+        }
+
+        setSize(newSize);
+        return true;
+    }
+
+    private void setSize(final int newSize) {
+        size = newSize;
+        header.putLong(COUNT_OFFSET, newSize);
+        modCount++;
+    }
+
+    private void copyRecord(final int from, final int to) {
+        moveTo(scratch, from);
+        moveTo(target, to);
+
+        int offset = 0;
+        for (; offset + 8 <= recordSize; offset += 8) {
+            target.putLong(offset, scratch.getLong(offset));
+        }
+
+        for (; offset < recordSize; offset++) {
+            target.putByte(offset, scratch.getByte(offset));
+        }
+    }
+
+    private void checkIndex(final int index, final int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Maps enough segments to hold records records, growing the last segment
+     * by doubling its size.
+     */
+    private void ensureCapacity(final int records) {
+        long capacity = segments.isEmpty() ? 0 : (long) (segments.size() - 1) * segmentRecords + lastSegmentRecords;
+        int minRecords = Math.min(segmentRecords, Math.max(1, MIN_MAPPING_BYTES / recordSize));
+
+        try {
+            while (capacity < records) {
+                int last = segments.size() - 1;
+                if (last >= 0 && lastSegmentRecords < segmentRecords) {
+                    long needed = records - (long) last * segmentRecords;
+                    long grown = Math.max(needed, lastSegmentRecords * 2L);
+                    lastSegmentRecords = (int) Math.min(segmentRecords, grown);
+                    segments.set(last, mapSegment(last, lastSegmentRecords));
+                } else {
+                    long needed = records - (long) segments.size() * segmentRecords;
+                    lastSegmentRecords = (int) Math.min(segmentRecords, Math.max(minRecords, needed));
+                    segments.add(mapSegment(segments.size(), lastSegmentRecords));
+                }
+
+                capacity = (long) (segments.size() - 1) * segmentRecords + lastSegmentRecords;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not grow " + file, e);
+        }
+    }
+
+    private MappedByteBuffer mapSegment(final int segment, final int records) throws IOException {
+        long position = HEADER_SIZE + (long) segment * segmentRecords * recordSize;
+        return channel.map(FileChannel.MapMode.READ_WRITE, position, (long) records * recordSize);
+    }
+}
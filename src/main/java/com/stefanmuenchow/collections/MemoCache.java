@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * 
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+/**
+ * Cache of computed results shared by the memoizing functors. Wraps a
+ * {@link SmartCacheMap} and masks <code>null</code> results, so that they
+ * are cached as well.
+ *
+ * @author Stefan Münchow
+ */
+class MemoCache {
+    static final Object MISSING = new Object();
+    private static final Object NULL = new Object();
+
+    private final SmartCacheMap<Object, Object> cache;
+
+    MemoCache(final CachePolicy policy) {
+        this.cache = new SmartCacheMap<Object, Object>(policy);
+    }
+
+    /**
+     * Returns the cached result for key, or {@link #MISSING} if there is
+     * none.
+     */
+    Object get(final Object key) {
+        Object value = cache.get(key);
+        if (value == null) {
+            return MISSING;
+        }
+
+        return value == NULL ? null : value;
+    }
+
+    void store(final Object key, final Object value) {
+        cache.put(key, value == null ? NULL : value);
+    }
+
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    void clear() {
+        cache.clear();
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * 
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+
+/**
+ * Binary function that caches the results of another function, keyed on a
+ * {@link Tuple} of both arguments, see
+ * {@link SmartCacheMap#memoize(BinaryFunction, CachePolicy)}. The wrapped
+ * function must be free of side effects.
+ *
+ * @author Stefan Münchow
+ */
+public class MemoizedBinaryFunction<R, E> implements BinaryFunction<R, E> {
+    private final BinaryFunction<R, E> function;
+    private final MemoCache cache;
+
+    MemoizedBinaryFunction(final BinaryFunction<R, E> function, final CachePolicy policy) {
+        this.function = function;
+        this.cache = new MemoCache(policy);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public R apply(final R input1, final E input2) {
+        Tuple<R, E> key = new Tuple<R, E>(input1, input2);
+        Object cached = cache.get(key);
+        if (cached != MemoCache.MISSING) {
+            return (R) cached;
+        }
+
+        R result = function.apply(input1, input2);
+        cache.store(key, result);
+        return result;
+    }
+
+    /**
+     * @return		Hit, miss and eviction statistics of the cache
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void clear() {
+        cache.clear();
+    }
+}
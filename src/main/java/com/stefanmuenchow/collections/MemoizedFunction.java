@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * 
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Unary function that caches the results of another function, see
+ * {@link SmartCacheMap#memoize(UnaryFunction, CachePolicy)}. The wrapped
+ * function must be free of side effects. Safe for concurrent use, but the
+ * wrapped function may be applied more than once to the same input if two
+ * threads miss the cache at the same time.
+ *
+ * @author Stefan Münchow
+ */
+public class MemoizedFunction<R, E> implements UnaryFunction<R, E> {
+    private final UnaryFunction<R, E> function;
+    private final MemoCache cache;
+
+    MemoizedFunction(final UnaryFunction<R, E> function, final CachePolicy policy) {
+        this.function = function;
+        this.cache = new MemoCache(policy);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public R apply(final E input) {
+        Object cached = cache.get(input);
+        if (cached != MemoCache.MISSING) {
+            return (R) cached;
+        }
+
+        R result = function.apply(input);
+        cache.store(input, result);
+        return result;
+    }
+
+    /**
+     * @return		Hit, miss and eviction statistics of the cache
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void clear() {
+        cache.clear();
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * 
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import com.stefanmuenchow.functors.Predicate;
+
+/**
+ * Predicate that caches the results of another predicate, see
+ * {@link SmartCacheMap#memoizePredicate(Predicate, CachePolicy)}. The wrapped
+ * predicate must be free of side effects.
+ *
+ * @author Stefan Münchow
+ */
+public class MemoizedPredicate<E> implements Predicate<E> {
+    private final Predicate<E> predicate;
+    private final MemoCache cache;
+
+    MemoizedPredicate(final Predicate<E> predicate, final CachePolicy policy) {
+        this.predicate = predicate;
+        this.cache = new MemoCache(policy);
+    }
+
+    @Override
+    public boolean test(final E input) {
+        Object cached = cache.get(input);
+        if (cached != MemoCache.MISSING) {
+            return (Boolean) cached;
+        }
+
+        boolean result = predicate.test(input);
+        cache.store(input, result);
+        return result;
+    }
+
+    /**
+     * @return		Hit, miss and eviction statistics of the cache
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void clear() {
+        cache.clear();
+    }
+}
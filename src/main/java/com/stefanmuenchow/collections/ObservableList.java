@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Array based list notifying {@link CollectionListener}s about all
+ * modifications. Iterators, list iterators and sub lists modify the list
+ * through {@link #set(int, Object)}, {@link #add(int, Object)} and
+ * {@link #remove(int)}, so they are reported as well.
+ *
+ * @author Stefan Münchow
+ */
+final class ObservableList<E> extends AbstractList<E> implements RandomAccess, ChangeSource<E> {
+    private final List<E> elems = new ArrayList<E>();
+    private final List<CollectionListener<? super E>> listeners = new ArrayList<CollectionListener<? super E>>();
+
+    @Override
+    public void addListener(final CollectionListener<? super E> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public boolean removeListener(final CollectionListener<? super E> listener) {
+        return listeners.remove(listener);
+    }
+
+    @Override
+    public E get(final int index) {
+        return elems.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elems.size();
+    }
+
+    @Override
+    public E set(final int index, final E elem) {
+        E old = elems.set(index, elem);
+        for (CollectionListener<? super E> listener : listeners) {
+            listener.replaced(old, elem);
+        }
+
+        return old;
+    }
+
+    @Override
+    public void add(final int index, final E elem) {
+        elems.add(index, elem);
+        modCount++;
+        for (CollectionListener<? super E> listener : listeners) {
+            listener.added(elem);
+        }
+    }
+
+    @Override
+    public E remove(final int index) {
+        E old = elems.remove(index);
+        modCount++;
+        removed(old);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        elems.clear();
+        modCount++;
+        for (CollectionListener<? super E> listener : listeners) {
+            listener.cleared();
+        }
+    }
+
+    @Override
+    public boolean removeAll(final Collection<?> coll) {
+        return removeMatching(coll, true);
+    }
+
+    @Override
+    public boolean retainAll(final Collection<?> coll) {
+        return removeMatching(coll, false);
+    }
+
+    /**
+     * Removes all elements that are (or are not) contained in coll in one
+     * pass, instead of shifting the remaining elements once per removal.
+     */
+    private boolean removeMatching(final Collection<?> coll, final boolean contained) {
+        List<E> kept = new ArrayList<E>(elems.size());
+        List<E> dropped = new ArrayList<E>();
+        for (E elem : elems) {
+            if (coll.contains(elem) == contained) {
+                dropped.add(elem);
+            } else {
+                kept.add(elem);
+            }
+        }
+
+        if (dropped.isEmpty()) {
+            return false;
+        }
+
+        elems.clear();
+        elems.addAll(kept);
+        modCount++;
+        for (E elem : dropped) {
+            removed(elem);
+        }
+
+        return true;
+    }
+
+    private void removed(final E elem) {
+        for (CollectionListener<? super E> listener : listeners) {
+            listener.removed(elem);
+        }
+    }
+}
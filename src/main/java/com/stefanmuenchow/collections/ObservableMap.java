@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hash map notifying {@link MapListener}s about all modifications, including
+ * those through its entry set, key set, values and their iterators.
+ *
+ * @author Stefan Münchow
+ */
+final class ObservableMap<K, V> extends AbstractMap<K, V> {
+    private final Map<K, V> entries = new HashMap<K, V>();
+    private final List<MapListener<? super K, ? super V>> listeners = new ArrayList<MapListener<? super K, ? super V>>();
+    private Set<Map.Entry<K, V>> entrySet;
+
+    void addListener(final MapListener<? super K, ? super V> listener) {
+        listeners.add(listener);
+    }
+
+    boolean removeListener(final MapListener<? super K, ? super V> listener) {
+        return listeners.remove(listener);
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public V get(final Object key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        boolean existed = entries.containsKey(key);
+        V old = entries.put(key, value);
+        if (existed) {
+            replaced(key, old, value);
+        } else {
+            for (MapListener<? super K, ? super V> listener : listeners) {
+                listener.added(key, value);
+            }
+        }
+
+        return old;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V remove(final Object key) {
+        if (!entries.containsKey(key)) {
+            return null;
+        }
+
+        V old = entries.remove(key);
+        removed((K) key, old);
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+        for (MapListener<? super K, ? super V> listener : listeners) {
+            listener.cleared();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+
+        return entrySet;
+    }
+
+    private void removed(final K key, final V value) {
+        for (MapListener<? super K, ? super V> listener : listeners) {
+            listener.removed(key, value);
+        }
+    }
+
+    private void replaced(final K key, final V oldValue, final V newValue) {
+        for (MapListener<? super K, ? super V> listener : listeners) {
+            listener.replaced(key, oldValue, newValue);
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        @Override
+        public void clear() {
+            ObservableMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            final Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+            return new Iterator<Map.Entry<K, V>>() {
+                private Map.Entry<K, V> last;
+
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Map.Entry<K, V> next() {
+                    last = it.next();
+                    return new Entry(last);
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                    removed(last.getKey(), last.getValue());
+                }
+            };
+        }
+    }
+
+    private final class Entry extends SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+        private final Map.Entry<K, V> backing;
+
+        Entry(final Map.Entry<K, V> backing) {
+            super(backing);
+            this.backing = backing;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            V old = backing.setValue(value);
+            super.setValue(value);
+            replaced(getKey(), old, value);
+            return old;
+        }
+    }
+}
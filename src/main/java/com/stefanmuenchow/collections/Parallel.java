@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs independent tasks on a shared pool of daemon threads, one per
+ * processor. Tasks submitted from a pool thread run in the submitting
+ * thread, so nested parallel operations cannot exhaust the pool.
+ *
+ * @author Stefan Münchow
+ */
+final class Parallel {
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private static final ThreadLocal<Boolean> IN_POOL = new ThreadLocal<Boolean>();
+
+    private static ExecutorService executor;
+
+    private Parallel() {
+    }
+
+    /**
+     * Number of threads tasks are distributed to.
+     */
+    static int parallelism() {
+        return PARALLELISM;
+    }
+
+    /**
+     * Splits the range from 0 (inclusive) to size (exclusive) into at most
+     * parts chunks of nearly equal size and returns their boundaries.
+     */
+    static int[] split(final int size, final int parts) {
+        int chunks = Math.max(1, Math.min(parts, size));
+        int[] bounds = new int[chunks + 1];
+        for (int i = 0; i <= chunks; i++) {
+            bounds[i] = (int) ((long) size * i / chunks);
+        }
+
+        return bounds;
+    }
+
+    /**
+     * Runs all tasks and waits for them to finish. The first task runs in the
+     * calling thread. Exceptions thrown by a task are rethrown.
+     */
+    static void run(final List<? extends Runnable> tasks) {
+        if (tasks.size() <= 1 || PARALLELISM == 1 || Boolean.TRUE.equals(IN_POOL.get())) {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+
+            return;
+        }
+
+        List<Future<?>> futures = new ArrayList<Future<?>>(tasks.size() - 1);
+        for (Runnable task : tasks.subList(1, tasks.size())) {
+            futures.add(getExecutor().submit(task));
+        }
+
+        RuntimeException failure = null;
+        try {
+            tasks.get(0).run();
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for parallel tasks", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else if (failure == null) {
+                    failure = cause instanceof RuntimeException ? (RuntimeException) cause
+                            : new IllegalStateException(cause);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(PARALLELISM, new ThreadFactory() {
+                private int count;
+
+                @Override
+                public synchronized Thread newThread(final Runnable runnable) {
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            IN_POOL.set(Boolean.TRUE);
+                            runnable.run();
+                        }
+                    }, "smart-collections-" + (++count));
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        return executor;
+    }
+}
@@ -0,0 +1,410 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+import com.stefanmuenchow.functors.CompoundPredicate;
+import com.stefanmuenchow.functors.EqualsPredicate;
+import com.stefanmuenchow.functors.KeyPredicate;
+import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.RangePredicate;
+
+/**
+ * Pushes predicates built by {@link com.stefanmuenchow.functors.Predicates}
+ * down into the structure backing a collection or map. A range or equality
+ * predicate, or a conjunction containing one, is answered from a view of
+ * the range on naturally ordered sorted sets and maps. An equality
+ * predicate is answered by a lookup on hash sets and maps. All other
+ * combinations return <code>null</code>, and callers scan as before. On
+ * bounded views, e.g. {@link java.util.TreeSet#subSet(Object, Object)},
+ * the range is clamped to the elements present first, as views reject
+ * bounds outside their own range. Bounds of another class than the
+ * elements, e.g. a {@link Long} compared to {@link Integer} elements, are
+ * not pushed down, as they are not comparable to the elements.
+ *
+ * The candidates returned are a superset of the matching elements in the
+ * order of the backing structure, so callers still test the predicate on
+ * each of them. This keeps the results identical to a full scan.
+ *
+ * @author Stefan Münchow
+ */
+final class Pushdown {
+
+    private Pushdown() {
+    }
+
+    /**
+     * Returns the elements of coll that may match predicate, or
+     * <code>null</code> if all elements have to be scanned. If stored is
+     * <code>true</code>, the candidates must be the instances contained in
+     * coll rather than equal ones, so hash sets are not probed by lookup.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static <E> Iterable<E> candidates(final Collection<E> coll, final Predicate<?> predicate,
+            final boolean stored) {
+        Object constraint = constraint(predicate);
+        if (constraint == null) {
+            return null;
+        }
+
+        if (coll instanceof SortedSet && ((SortedSet<E>) coll).comparator() == null) {
+            final Range range = Range.of(constraint);
+            if (range == null) {
+                return null;
+            }
+
+            final SortedSet<E> set = (SortedSet<E>) coll;
+            return new Iterable<E>() {
+                @Override
+                public Iterator<E> iterator() {
+                    if (set.isEmpty()) {
+                        return Collections.<E>emptySet().iterator();
+                    }
+                    if (!range.fits(set.first())) {
+                        return set.iterator();
+                    }
+                    if (range.isEmpty() || range.below((Comparable) set.last())) {
+                        return Collections.<E>emptySet().iterator();
+                    }
+
+                    SortedSet<E> tail = range.lower == null || range.lower.compareTo(set.first()) <= 0 ? set
+                            : set.tailSet((E) range.lower);
+                    return new BoundedIterator<E>(tail.iterator(), range) {
+                        @Override
+                        Comparable key(final E elem) {
+                            return (Comparable) elem;
+                        }
+                    };
+                }
+            };
+        }
+
+        if (!stored && coll instanceof HashSet && constraint instanceof EqualsPredicate) {
+            Object value = ((EqualsPredicate<?>) constraint).getValue();
+            return coll.contains(value) ? Collections.singleton((E) value) : Collections.<E>emptySet();
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the entries of map that may match predicate, or
+     * <code>null</code> if all entries have to be scanned.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static <K, V> Iterable<Map.Entry<K, V>> candidates(final Map<K, V> map, final Object predicate) {
+        if (!(predicate instanceof KeyPredicate)) {
+            return null;
+        }
+
+        Object constraint = constraint(((KeyPredicate<?, ?>) predicate).getKeyPredicate());
+        if (constraint == null) {
+            return null;
+        }
+
+        if (map instanceof SortedMap && ((SortedMap<K, V>) map).comparator() == null) {
+            final Range range = Range.of(constraint);
+            if (range == null) {
+                return null;
+            }
+
+            final SortedMap<K, V> sorted = (SortedMap<K, V>) map;
+            return new Iterable<Map.Entry<K, V>>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    if (sorted.isEmpty()) {
+                        return Collections.<Map.Entry<K, V>>emptySet().iterator();
+                    }
+                    if (!range.fits(sorted.firstKey())) {
+                        return sorted.entrySet().iterator();
+                    }
+                    if (range.isEmpty() || range.below((Comparable) sorted.lastKey())) {
+                        return Collections.<Map.Entry<K, V>>emptySet().iterator();
+                    }
+
+                    SortedMap<K, V> tail = range.lower == null || range.lower.compareTo(sorted.firstKey()) <= 0
+                            ? sorted : sorted.tailMap((K) range.lower);
+                    return new BoundedIterator<Map.Entry<K, V>>(tail.entrySet().iterator(), range) {
+                        @Override
+                        Comparable key(final Map.Entry<K, V> entry) {
+                            return (Comparable) entry.getKey();
+                        }
+                    };
+                }
+            };
+        }
+
+        if (map instanceof HashMap && constraint instanceof EqualsPredicate) {
+            K key = ((EqualsPredicate<K>) constraint).getValue();
+            if (!map.containsKey(key)) {
+                return Collections.emptySet();
+            }
+
+            Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<K, V>(key, map.get(key));
+            return Collections.singleton(entry);
+        }
+
+        return null;
+    }
+
+    /**
+     * Retains the elements of coll matching predicate, removing the
+     * elements outside its range through views. The remaining elements are
+     * tested unless predicate is a plain range, as elements comparing equal
+     * to a value need not be equal to it. Returns <code>false</code> without
+     * modifying coll if the predicate cannot be pushed down.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static <E> boolean filter(final Collection<E> coll, final Predicate<? super E> predicate) {
+        Object constraint = constraint(predicate);
+        if (constraint == null || !(coll instanceof NavigableSet) || ((NavigableSet<E>) coll).comparator() != null) {
+            return false;
+        }
+
+        Range range = Range.of(constraint);
+        if (range == null) {
+            return false;
+        }
+
+        NavigableSet<E> set = (NavigableSet<E>) coll;
+        if (!set.isEmpty() && !range.fits(set.first())) {
+            return false;
+        }
+        if (range.isEmpty() || set.isEmpty() || range.below((Comparable) set.last())
+                || range.above((Comparable) set.first())) {
+            set.clear();
+            return true;
+        }
+
+        if (range.lower != null && range.lower.compareTo(set.first()) >= 0) {
+            set.headSet((E) range.lower, !range.lowerInclusive).clear();
+        }
+        if (range.upper != null && range.upper.compareTo(set.last()) <= 0) {
+            set.tailSet((E) range.upper, !range.upperInclusive).clear();
+        }
+
+        if (predicate != constraint || !(constraint instanceof RangePredicate)) {
+            for (Iterator<E> it = set.iterator(); it.hasNext();) {
+                if (!predicate.test(it.next())) {
+                    it.remove();
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Retains the entries of map matching predicate, removing the entries
+     * outside its key range through views. The remaining keys are tested
+     * as in {@link #filter(Collection, Predicate)}. Returns
+     * <code>false</code> without modifying map if the predicate cannot be
+     * pushed down.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static <K, V> boolean filter(final Map<K, V> map, final KeyPredicate<? super K, ? super V> predicate) {
+        Object constraint = constraint(predicate.getKeyPredicate());
+        if (constraint == null || !(map instanceof NavigableMap) || ((NavigableMap<K, V>) map).comparator() != null) {
+            return false;
+        }
+
+        Range range = Range.of(constraint);
+        if (range == null) {
+            return false;
+        }
+
+        NavigableMap<K, V> sorted = (NavigableMap<K, V>) map;
+        if (!sorted.isEmpty() && !range.fits(sorted.firstKey())) {
+            return false;
+        }
+        if (range.isEmpty() || sorted.isEmpty() || range.below((Comparable) sorted.lastKey())
+                || range.above((Comparable) sorted.firstKey())) {
+            sorted.clear();
+            return true;
+        }
+
+        if (range.lower != null && range.lower.compareTo(sorted.firstKey()) >= 0) {
+            sorted.headMap((K) range.lower, !range.lowerInclusive).clear();
+        }
+        if (range.upper != null && range.upper.compareTo(sorted.lastKey()) <= 0) {
+            sorted.tailMap((K) range.upper, !range.upperInclusive).clear();
+        }
+
+        if (predicate.getKeyPredicate() != constraint || !(constraint instanceof RangePredicate)) {
+            for (Iterator<K> it = sorted.keySet().iterator(); it.hasNext();) {
+                if (!predicate.test(it.next(), null)) {
+                    it.remove();
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the predicate restricting the accepted elements to a range or
+     * to a single value: predicate itself, or a clause of a conjunction,
+     * preferring equality. Returns <code>null</code> if there is none.
+     */
+    private static Object constraint(final Object predicate) {
+        if (predicate instanceof EqualsPredicate || predicate instanceof RangePredicate) {
+            return predicate;
+        }
+
+        if (predicate instanceof CompoundPredicate && ((CompoundPredicate<?>) predicate).isConjunction()) {
+            Object found = null;
+            for (Object clause : ((CompoundPredicate<?>) predicate).getClauses()) {
+                if (clause instanceof EqualsPredicate) {
+                    return clause;
+                } else if (found == null && clause instanceof RangePredicate) {
+                    found = clause;
+                }
+            }
+
+            return found;
+        }
+
+        return null;
+    }
+
+    /**
+     * Bounds of the accepted range in natural ordering.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static final class Range {
+        private final Comparable lower;
+        private final boolean lowerInclusive;
+        private final Comparable upper;
+        private final boolean upperInclusive;
+
+        private Range(final Comparable lower, final boolean lowerInclusive, final Comparable upper,
+                final boolean upperInclusive) {
+            this.lower = lower;
+            this.lowerInclusive = lowerInclusive;
+            this.upper = upper;
+            this.upperInclusive = upperInclusive;
+        }
+
+        static Range of(final Object constraint) {
+            if (constraint instanceof RangePredicate) {
+                RangePredicate<?> pred = (RangePredicate<?>) constraint;
+                return new Range(pred.getLower(), pred.isLowerInclusive(), pred.getUpper(), pred.isUpperInclusive());
+            }
+
+            Object value = ((EqualsPredicate<?>) constraint).getValue();
+            return value instanceof Comparable ? new Range((Comparable) value, true, (Comparable) value, true) : null;
+        }
+
+        /**
+         * Returns true if the bounds are of the same class as elem, so they
+         * can be compared to the elements.
+         */
+        boolean fits(final Object elem) {
+            return (lower == null || lower.getClass() == elem.getClass())
+                    && (upper == null || upper.getClass() == elem.getClass());
+        }
+
+        boolean isEmpty() {
+            if (lower == null || upper == null) {
+                return false;
+            }
+
+            int cmp = lower.compareTo(upper);
+            return cmp > 0 || (cmp == 0 && !(lowerInclusive && upperInclusive));
+        }
+
+        /**
+         * Returns true if key is below the lower bound.
+         */
+        boolean below(final Comparable key) {
+            if (lower == null) {
+                return false;
+            }
+
+            int cmp = key.compareTo(lower);
+            return cmp < 0 || (cmp == 0 && !lowerInclusive);
+        }
+
+        /**
+         * Returns true if key is above the upper bound.
+         */
+        boolean above(final Comparable key) {
+            if (upper == null) {
+                return false;
+            }
+
+            int cmp = key.compareTo(upper);
+            return cmp > 0 || (cmp == 0 && !upperInclusive);
+        }
+    }
+
+    /**
+     * Iterator stopping at the first element above the upper bound of a
+     * range.
+     */
+    @SuppressWarnings("rawtypes")
+    private abstract static class BoundedIterator<T> implements Iterator<T> {
+        private final Iterator<T> it;
+        private final Range range;
+        private T next;
+        private boolean hasNext;
+
+        BoundedIterator(final Iterator<T> it, final Range range) {
+            this.it = it;
+            this.range = range;
+            advance();
+        }
+
+        abstract Comparable key(T elem);
+
+        private void advance() {
+            hasNext = it.hasNext();
+            if (hasNext) {
+                next = it.next();
+                hasNext = !range.above(key(next));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+
+            T result = next;
+            advance();
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+
+import com.stefanmuenchow.functors.ToIntFunction;
+import com.stefanmuenchow.functors.ToLongFunction;
+
+/**
+ * Sorts lists by primitive int or long keys with a stable LSD radix sort,
+ * processing the keys one byte per pass. Passes in which all keys share the
+ * same byte are skipped, so small key ranges need fewer passes. The key and
+ * index arrays are kept per thread and reused by the following sorts as long
+ * as memory permits. Small lists are sorted by comparison instead.
+ *
+ * @author Stefan Münchow
+ */
+final class RadixSort {
+    private static final int COMPARISON_THRESHOLD = 256;
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    private static final ThreadLocal<SoftReference<Buffers>> BUFFERS = new ThreadLocal<SoftReference<Buffers>>();
+
+    private RadixSort() {
+    }
+
+    /**
+     * Sorts list by the int keys keyExtractor returns for its elements.
+     */
+    static <E> void sortByIntKey(final List<E> list, final ToIntFunction<? super E> keyExtractor) {
+        Object[] elems = list.toArray();
+        int size = elems.length;
+        Buffers buffers = buffers(size);
+
+        // Key in the upper, position in the lower half: sorting these values
+        // sorts by key, and equal keys keep their order
+        long[] packed = buffers.keys;
+        for (int i = 0; i < size; i++) {
+            @SuppressWarnings("unchecked")
+            E elem = (E) elems[i];
+            packed[i] = ((long) keyExtractor.apply(elem) << 32) | i;
+        }
+
+        if (size < COMPARISON_THRESHOLD) {
+            Arrays.sort(packed, 0, size);
+        } else {
+            radixSort(packed, buffers.auxKeys, null, null, size, 4);
+        }
+
+        writeBack(list, elems, packed, null);
+    }
+
+    /**
+     * Sorts list by the long keys keyExtractor returns for its elements.
+     */
+    static <E> void sortByLongKey(final List<E> list, final ToLongFunction<? super E> keyExtractor) {
+        Object[] elems = list.toArray();
+        int size = elems.length;
+
+        if (size < COMPARISON_THRESHOLD) {
+            Object[] keys = new Object[size];
+            for (int i = 0; i < size; i++) {
+                @SuppressWarnings("unchecked")
+                E elem = (E) elems[i];
+                keys[i] = Long.valueOf(keyExtractor.apply(elem));
+            }
+
+            KeySort.sort(keys, elems, true, false);
+            writeBack(list, elems, null, null);
+            return;
+        }
+
+        Buffers buffers = buffers(size);
+        buffers.ensureIndexes(size);
+        long[] keys = buffers.keys;
+        int[] indexes = buffers.indexes;
+        for (int i = 0; i < size; i++) {
+            @SuppressWarnings("unchecked")
+            E elem = (E) elems[i];
+            keys[i] = keyExtractor.apply(elem);
+            indexes[i] = i;
+        }
+
+        radixSort(keys, buffers.auxKeys, indexes, buffers.auxIndexes, size, 0);
+        writeBack(list, elems, null, indexes);
+    }
+
+    /**
+     * Sorts the first size keys by their bytes from firstByte up to the most
+     * significant byte, which is compared signed. If indexes is not null, it
+     * is reordered the same way.
+     */
+    private static void radixSort(final long[] keys, final long[] auxKeys, final int[] indexes,
+            final int[] auxIndexes, final int size, final int firstByte) {
+        int passes = 8 - firstByte;
+        int[][] counts = new int[passes][RADIX];
+
+        for (int i = 0; i < size; i++) {
+            long key = keys[i];
+            for (int pass = 0; pass < passes; pass++) {
+                counts[pass][digit(key, firstByte + pass)]++;
+            }
+        }
+
+        long[] srcKeys = keys;
+        long[] dstKeys = auxKeys;
+        int[] srcIndexes = indexes;
+        int[] dstIndexes = auxIndexes;
+
+        for (int pass = 0; pass < passes; pass++) {
+            int[] count = counts[pass];
+            if (count[digit(srcKeys[0], firstByte + pass)] == size) {
+                continue;
+            }
+
+            int offset = 0;
+            for (int d = 0; d < RADIX; d++) {
+                int c = count[d];
+                count[d] = offset;
+                offset += c;
+            }
+
+            for (int i = 0; i < size; i++) {
+                long key = srcKeys[i];
+                int pos = count[digit(key, firstByte + pass)]++;
+                dstKeys[pos] = key;
+                if (srcIndexes != null) {
+                    dstIndexes[pos] = srcIndexes[i];
+                }
+            }
+
+            long[] swapKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = swapKeys;
+            int[] swapIndexes = srcIndexes;
+            srcIndexes = dstIndexes;
+            dstIndexes = swapIndexes;
+        }
+
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, 0, keys, 0, size);
+            if (indexes != null) {
+                System.arraycopy(srcIndexes, 0, indexes, 0, size);
+            }
+        }
+    }
+
+    /**
+     * Returns the byte of key at position index, with the sign bit flipped
+     * for the most significant byte, so that digits ascend with the signed
+     * value.
+     */
+    private static int digit(final long key, final int index) {
+        int d = (int) (key >>> (index * RADIX_BITS)) & (RADIX - 1);
+        return index == 7 ? d ^ (RADIX >>> 1) : d;
+    }
+
+    /**
+     * Writes the elements back into list in sorted order. The position of
+     * the i-th element is taken from the lower half of packed[i], from
+     * indexes[i], or is i if both are null.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> void writeBack(final List<E> list, final Object[] elems, final long[] packed,
+            final int[] indexes) {
+        ListIterator<E> it = list.listIterator();
+        for (int i = 0; i < elems.length; i++) {
+            int pos = i;
+            if (packed != null) {
+                pos = (int) packed[i];
+            } else if (indexes != null) {
+                pos = indexes[i];
+            }
+
+            it.next();
+            it.set((E) elems[pos]);
+        }
+    }
+
+    private static Buffers buffers(final int size) {
+        SoftReference<Buffers> ref = BUFFERS.get();
+        Buffers buffers = ref == null ? null : ref.get();
+        if (buffers == null) {
+            buffers = new Buffers();
+            BUFFERS.set(new SoftReference<Buffers>(buffers));
+        }
+
+        buffers.ensureKeys(size);
+        return buffers;
+    }
+
+    /**
+     * Scratch arrays of one thread, grown on demand.
+     */
+    private static final class Buffers {
+        private long[] keys = new long[0];
+        private long[] auxKeys = new long[0];
+        private int[] indexes = new int[0];
+        private int[] auxIndexes = new int[0];
+
+        void ensureKeys(final int size) {
+            if (keys.length < size) {
+                keys = new long[capacity(size)];
+                auxKeys = new long[keys.length];
+            }
+        }
+
+        void ensureIndexes(final int size) {
+            if (indexes.length < size) {
+                indexes = new int[capacity(size)];
+                auxIndexes = new int[indexes.length];
+            }
+        }
+
+        private static int capacity(final int size) {
+            return (int) Math.min(Integer.MAX_VALUE - 8, size + (long) (size >> 2));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+/**
+ * Converts elements to records of a fixed size and back, so that they can be
+ * stored in a memory-mapped file by {@link SmartMappedRecordList}. Fields are
+ * read and written at fixed offsets within the record through a
+ * {@link MappedRecord}.
+ *
+ * @author Stefan Münchow
+ */
+public interface RecordCodec<E> {
+
+    /**
+     * Returns the size of each record in bytes.
+     *
+     * @return			Record size, at least one
+     */
+    int recordSize();
+
+    /**
+     * Writes the fields of elem to record.
+     *
+     * @param elem		Element to write
+     * @param record	Record to write to
+     */
+    void write(E elem, MappedRecord record);
+
+    /**
+     * Creates an element from the fields of record. The record must not be
+     * kept, it is reused for other positions.
+     *
+     * @param record	Record to read from
+     * @return			Element read
+     */
+    E read(MappedRecord record);
+}
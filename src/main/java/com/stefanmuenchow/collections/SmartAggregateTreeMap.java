@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.SortedMap;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.Functions;
+
+/**
+ * Implementation of the {@link SmartSortedMap} interface that keeps an
+ * aggregate of the values of each subtree in its tree nodes. Aggregates over
+ * key ranges ({@link #rangeReduce(Object, Object)}) and rank queries
+ * ({@link #rank(Object)}, {@link #keyAt(int)}) are answered in O(log n)
+ * instead of copying and reducing the range. The aggregates are kept
+ * correct under put and remove.
+ *
+ * The aggregator must be associative, e.g. {@link Functions#addFn()},
+ * {@link Functions#minFn()} or {@link Functions#maxFn()}. It does not need
+ * to be commutative, values are always combined in ascending key order.
+ *
+ * The maps returned by {@link #smartSubMap(Object, Object)},
+ * {@link #smartHeadMap(Object)} and {@link #smartTailMap(Object)} are live
+ * views on this map that support the same aggregate queries.
+ *
+ * @see SmartTreeMap
+ *
+ * @author Stefan Münchow
+ */
+public class SmartAggregateTreeMap<K, V> extends AbstractSmartMap<K, V> implements SmartSortedMap<K, V> {
+
+    /**
+     * Creates a new empty map, sorted according to the natural ordering of
+     * its keys.
+     *
+     * @param aggregator	Associative function to aggregate values with
+     */
+    public SmartAggregateTreeMap(final BinaryFunction<V, V> aggregator) {
+        this(aggregator, (Comparator<? super K>) null);
+    }
+
+    /**
+     * Creates a new empty map, sorted according to the specified comparator.
+     *
+     * @param aggregator	Associative function to aggregate values with
+     * @param comparator	Comparator used to order the keys
+     */
+    public SmartAggregateTreeMap(final BinaryFunction<V, V> aggregator, final Comparator<? super K> comparator) {
+        super(new AggregateTreeMap<K, V>(aggregator, comparator));
+    }
+
+    /**
+     * Creates a new instance containing all entries of the specified map. If
+     * map is a {@link SortedMap}, its ordering is retained.
+     *
+     * @param aggregator	Associative function to aggregate values with
+     * @param map			Entries to be contained
+     */
+    public SmartAggregateTreeMap(final BinaryFunction<V, V> aggregator, final Map<K, V> map) {
+        this(aggregator, map instanceof SortedMap ? ((SortedMap<K, V>) map).comparator() : null);
+        putAll(map);
+    }
+
+    private SmartAggregateTreeMap(final AggregateTreeMap<K, V> view) {
+        super(view);
+    }
+
+    private AggregateTreeMap<K, V> getInternalMap() {
+        return (AggregateTreeMap<K, V>) internalMap;
+    }
+
+    @Override
+    protected SmartSortedMap<K, V> createNewInstance() {
+        return new SmartAggregateTreeMap<K, V>(getInternalMap().getAggregator(), comparator());
+    }
+
+    @Override
+    protected <S, R> SmartMap<S, R> createNewInstance(final Map<S, R> aMap) {
+        return new SmartTreeMap<S, R>(aMap);
+    }
+
+    /** Aggregate methods */
+
+    /**
+     * Returns the aggregate of all values in the map, or <code>null</code> if
+     * the map is empty.
+     *
+     * @return				Aggregate of all values
+     */
+    public V aggregate() {
+        return getInternalMap().rangeReduce(null, false, null, false);
+    }
+
+    /**
+     * Returns the aggregate of all values whose keys are in the range from
+     * fromKey (inclusive) to toKey (exclusive), or <code>null</code> if the
+     * range is empty. Runs in O(log n).
+     *
+     * @param fromKey		Low endpoint (inclusive)
+     * @param toKey			High endpoint (exclusive)
+     * @return				Aggregate of the values in range
+     */
+    public V rangeReduce(final K fromKey, final K toKey) {
+        return getInternalMap().rangeReduce(fromKey, true, toKey, true);
+    }
+
+    /**
+     * Returns the aggregate of all values whose keys are strictly less than
+     * toKey, or <code>null</code> if there are none. Runs in O(log n).
+     *
+     * @param toKey			High endpoint (exclusive)
+     * @return				Aggregate of the values in range
+     */
+    public V headReduce(final K toKey) {
+        return getInternalMap().rangeReduce(null, false, toKey, true);
+    }
+
+    /**
+     * Returns the aggregate of all values whose keys are greater than or equal
+     * to fromKey, or <code>null</code> if there are none. Runs in O(log n).
+     *
+     * @param fromKey		Low endpoint (inclusive)
+     * @return				Aggregate of the values in range
+     */
+    public V tailReduce(final K fromKey) {
+        return getInternalMap().rangeReduce(fromKey, true, null, false);
+    }
+
+    /**
+     * Returns the number of keys that are strictly less than key. The key
+     * does not need to be contained in the map. Runs in O(log n).
+     *
+     * @param key			Key to get rank of
+     * @return				Number of smaller keys
+     */
+    public int rank(final K key) {
+        return getInternalMap().rank(key);
+    }
+
+    /**
+     * Returns the number of keys in the range from fromKey (inclusive) to
+     * toKey (exclusive). Runs in O(log n).
+     *
+     * @param fromKey		Low endpoint (inclusive)
+     * @param toKey			High endpoint (exclusive)
+     * @return				Number of keys in range
+     */
+    public int rangeCount(final K fromKey, final K toKey) {
+        return Math.max(0, rank(toKey) - rank(fromKey));
+    }
+
+    /**
+     * Returns the key at the given position in ascending key order. Runs in
+     * O(log n).
+     *
+     * @throws IndexOutOfBoundsException	If index is not a valid position
+     *
+     * @param index			Position of the key
+     * @return				Key at position index
+     */
+    public K keyAt(final int index) {
+        return getInternalMap().keyAt(index);
+    }
+
+    /** SortedMap methods */
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return getInternalMap().comparator();
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(final K fromKey, final K toKey) {
+        return getInternalMap().subMap(fromKey, toKey);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(final K toKey) {
+        return getInternalMap().headMap(toKey);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(final K fromKey) {
+        return getInternalMap().tailMap(fromKey);
+    }
+
+    @Override
+    public K firstKey() {
+        return getInternalMap().firstKey();
+    }
+
+    @Override
+    public K lastKey() {
+        return getInternalMap().lastKey();
+    }
+
+    @Override
+    public SmartAggregateTreeMap<K, V> smartSubMap(final K fromKey, final K toKey) {
+        return new SmartAggregateTreeMap<K, V>((AggregateTreeMap<K, V>) subMap(fromKey, toKey));
+    }
+
+    @Override
+    public SmartAggregateTreeMap<K, V> smartHeadMap(final K toKey) {
+        return new SmartAggregateTreeMap<K, V>((AggregateTreeMap<K, V>) headMap(toKey));
+    }
+
+    @Override
+    public SmartAggregateTreeMap<K, V> smartTailMap(final K fromKey) {
+        return new SmartAggregateTreeMap<K, V>((AggregateTreeMap<K, V>) tailMap(fromKey));
+    }
+
+    @Override
+    public SmartAggregateTreeMap<K, V> copy() {
+        return new SmartAggregateTreeMap<K, V>(getInternalMap().getAggregator(), internalMap);
+    }
+
+    /** Overridden methods from SmartMap */
+
+    @Override
+    public SmartMap<K, V> tail() {
+        if (isEmpty()) {
+            throw new UnsupportedOperationException("Map is empty. No tail map available.");
+        }
+
+        SmartAggregateTreeMap<K, V> result = copy();
+        result.remove(firstKey());
+        return result;
+    }
+
+    @Override
+    public SortedMap<K, V> toStandardMap() {
+        return getInternalMap();
+    }
+}
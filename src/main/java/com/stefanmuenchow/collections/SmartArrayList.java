@@ -51,6 +51,19 @@ public class SmartArrayList<E> extends AbstractSmartList<E> implements SmartList
         this(Arrays.asList(elems));
     }
 
+    /**
+     * Creates a new empty list that can hold the specified number of
+     * elements without growing.
+     *
+     * @param capacity	Initial capacity of the list
+     * @return			New empty list
+     */
+    public static <E> SmartArrayList<E> withCapacity(final int capacity) {
+        SmartArrayList<E> list = new SmartArrayList<E>();
+        ((ArrayList<E>) list.internalColl).ensureCapacity(capacity);
+        return list;
+    }
+
     @Override
     protected SmartList<E> createNewInstance() {
         return new SmartArrayList<E>();
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Map;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.MapPredicate;
+import com.stefanmuenchow.functors.MapUnaryFunction;
+import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Implementation of the {@link SmartMap} interface for caching. The content
+ * is bounded by a {@link CachePolicy}, which limits the total weight of the
+ * entries, selects LRU or TinyLFU eviction and optionally expires entries.
+ * Hits, misses, evictions and expirations are counted, see {@link #stats()}.
+ * The memoize methods wrap functions and predicates in such a cache.
+ *
+ * All operations are thread-safe. Lookups with {@link #get(Object)} count as
+ * accesses. The bulk operations of {@link SmartMap} (foreach, reduce, map,
+ * ...) as well as {@link #entrySet()}, {@link #keySet()} and
+ * {@link #values()} work on a consistent snapshot of the cache taken under
+ * its lock; they neither change the eviction order nor the statistics.
+ * {@link #filter(MapPredicate)} and {@link #remove(MapPredicate)} remove
+ * entries in place.
+ *
+ * Maps created by operations like {@link #tail()} or {@link #swap()} are
+ * {@link SmartHashMap}s.
+ *
+ * @see CachePolicy
+ *
+ * @author Stefan Münchow
+ */
+public class SmartCacheMap<K, V> extends AbstractSmartMap<K, V> implements SmartMap<K, V> {
+
+    /**
+     * Creates a new empty cache in which each entry weighs 1, so the maximum
+     * of the policy is the maximum number of entries.
+     *
+     * @param policy	Policy bounding the cache
+     */
+    public SmartCacheMap(final CachePolicy policy) {
+        this(policy, null);
+    }
+
+    /**
+     * Creates a new empty cache using weigher to determine the weight of
+     * each entry when it is put into the cache.
+     *
+     * @throws IllegalArgumentException	If weigher returns a negative weight
+     *
+     * @param policy	Policy bounding the cache
+     * @param weigher	Function computing the weight of an entry
+     */
+    public SmartCacheMap(final CachePolicy policy, final MapUnaryFunction<Integer, ? super K, ? super V> weigher) {
+        super(new CacheMap<K, V>(policy, weigher));
+    }
+
+    private CacheMap<K, V> getInternalMap() {
+        return (CacheMap<K, V>) internalMap;
+    }
+
+    @Override
+    protected SmartMap<K, V> createNewInstance() {
+        return new SmartHashMap<K, V>();
+    }
+
+    @Override
+    protected <S, R> SmartMap<S, R> createNewInstance(final Map<S, R> aMap) {
+        return new SmartHashMap<S, R>(aMap);
+    }
+
+    /** Cache methods */
+
+    /**
+     * @return			Policy of this cache
+     */
+    public CachePolicy getPolicy() {
+        return getInternalMap().getPolicy();
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     *
+     * @return			Current statistics
+     */
+    public CacheStats stats() {
+        return getInternalMap().stats();
+    }
+
+    /**
+     * Removes all expired entries. Expired entries are never returned or
+     * counted by {@link #size()}, but are otherwise only removed
+     * periodically when writing to the cache.
+     */
+    public void cleanUp() {
+        getInternalMap().cleanUp();
+    }
+
+    /** Memoization */
+
+    /**
+     * Wraps function in a cache of its results, bounded by policy. Applying
+     * the returned function to an input it has seen before returns the
+     * cached result instead of applying function again. Only use for
+     * functions without side effects whose inputs implement equals and
+     * hashCode.
+     *
+     * <pre>
+     * MemoizedFunction&lt;Date, String&gt; parse = SmartCacheMap.memoize(parseFn, CachePolicy.lru(1000));
+     * SmartList&lt;Date&gt; dates = strings.map(parse);
+     * double hitRate = parse.stats().getHitRate();
+     * </pre>
+     *
+     * @param function	Function to memoize
+     * @param policy	Bounds of the cache
+     * @return			Memoizing function
+     */
+    public static <R, E> MemoizedFunction<R, E> memoize(final UnaryFunction<R, E> function,
+            final CachePolicy policy) {
+        return new MemoizedFunction<R, E>(function, policy);
+    }
+
+    /**
+     * Wraps function in a cache of its results, bounded by policy. Results
+     * are cached per pair of arguments.
+     *
+     * @see #memoize(UnaryFunction, CachePolicy)
+     *
+     * @param function	Function to memoize
+     * @param policy	Bounds of the cache
+     * @return			Memoizing function
+     */
+    public static <R, E> MemoizedBinaryFunction<R, E> memoize(final BinaryFunction<R, E> function,
+            final CachePolicy policy) {
+        return new MemoizedBinaryFunction<R, E>(function, policy);
+    }
+
+    /**
+     * Wraps predicate in a cache of its results, bounded by policy. Useful
+     * for expensive predicates passed to count, filter or exists on
+     * collections with many equal elements.
+     *
+     * @see #memoize(UnaryFunction, CachePolicy)
+     *
+     * @param predicate	Predicate to memoize
+     * @param policy	Bounds of the cache
+     * @return			Memoizing predicate
+     */
+    public static <T> MemoizedPredicate<T> memoizePredicate(final Predicate<T> predicate,
+            final CachePolicy policy) {
+        return new MemoizedPredicate<T>(predicate, policy);
+    }
+
+    /** Overridden methods from SmartMap */
+
+    @Override
+    public SmartCacheMap<K, V> filter(final MapPredicate<? super K, ? super V> predicate) {
+        getInternalMap().removeAll(predicate, false);
+        return this;
+    }
+
+    @Override
+    public SmartCacheMap<K, V> remove(final MapPredicate<? super K, ? super V> predicate) {
+        getInternalMap().removeAll(predicate, true);
+        return this;
+    }
+}
@@ -11,12 +11,18 @@
 
 package com.stefanmuenchow.collections;
 
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import com.stefanmuenchow.functors.Accumulator;
 import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.CombineFunction;
 import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.Supplier;
 import com.stefanmuenchow.functors.UnaryFunction;
 import com.stefanmuenchow.functors.VoidFunction;
 
@@ -184,15 +190,325 @@ public interface SmartCollection<E> extends Collection<E> {
      */
     E reduce(BinaryFunction<? super E, ? super E> funct);
 
+    /**
+     * Groups the elements of the collection by the keys keyFunction returns
+     * for them. Returns a map containing a list of the elements for each key,
+     * in the order of the collection. The original collection remains
+     * unmodified.
+     *
+     * @param keyFunction      	Function returning the key of an element
+     * @return                 	Map from keys to lists of elements
+     */
+    <K> SmartMap<K, SmartList<E>> groupBy(UnaryFunction<K, ? super E> keyFunction);
+
+    /**
+     * Groups the elements of the collection by the keys keyFunction returns
+     * for them and combines the elements of each group like 
+     * {@link #reduce(Object, BinaryFunction)}, without creating lists of 
+     * the groups. initial is used as initial value for every group, so it 
+     * should not be modified by funct. The original collection remains 
+     * unmodified.
+     *
+     * @param keyFunction      	Function returning the key of an element
+     * @param initial        	Initial value of each group
+     * @param funct            	Binary Function to combine two values a time
+     * @return                 	Map from keys to the values of their groups
+     */
+    <K, R> SmartMap<K, R> groupBy(UnaryFunction<K, ? super E> keyFunction, R initial, 
+            BinaryFunction<R, ? super E> funct);
+
+    /**
+     * Counts the elements of the collection per key keyFunction returns for
+     * them. The original collection remains unmodified.
+     *
+     * @param keyFunction      	Function returning the key of an element
+     * @return                 	Map from keys to the number of their elements
+     */
+    <K> SmartMap<K, Integer> countBy(UnaryFunction<K, ? super E> keyFunction);
+
+    /**
+     * Folds the elements of the collection from left to right into a mutable
+     * container created by supplier. In contrast to 
+     * {@link #reduce(Object, BinaryFunction)}, accumulator modifies the 
+     * container in place, e.g. by adding to a list or appending to a 
+     * {@link StringBuilder}, so no intermediate results are created. The 
+     * combiner is only used by 
+     * {@link #parallelCollect(Supplier, Accumulator, Accumulator)}. The 
+     * original collection remains unmodified.
+     *
+     * @see Collectors
+     *
+     * @param supplier         	Function creating an empty container
+     * @param accumulator      	Function adding an element to a container
+     * @param combiner         	Function merging the second container into the first
+     * @return                 	Container holding all elements
+     */
+    <R> R collect(Supplier<R> supplier, Accumulator<R, ? super E> accumulator, Accumulator<R, R> combiner);
+
+    /**
+     * Folds the elements of the collection from left to right using 
+     * collector, e.g. one of the collectors created by {@link Collectors}. 
+     * The original collection remains unmodified.
+     *
+     * @param collector        	Mutable reduction to perform
+     * @return                 	Result of the collector
+     */
+    <A, R> R collect(Collector<? super E, A, R> collector);
+
+    /**
+     * Joins the collection with another collection. Returns a list of tuples
+     * of all pairs of elements whose keys are equal. Builds a hash table on 
+     * the smaller collection and probes it with the elements of the larger 
+     * one. The order of the result is not specified. Both collections remain 
+     * unmodified.
+     *
+     * @param other             Collection to join with
+     * @param keyFunction       Function returning the key of an element
+     * @param otherKeyFunction  Function returning the key of an element of other
+     * @return                  List of matching pairs
+     */
+    <R, K> SmartList<Tuple<E, R>> join(Collection<R> other, UnaryFunction<K, ? super E> keyFunction,
+            UnaryFunction<K, ? super R> otherKeyFunction);
+
+    /**
+     * Same as {@link #join(Collection, UnaryFunction, UnaryFunction)}, but
+     * returns the results of combiner for all pairs instead of tuples.
+     *
+     * @param other             Collection to join with
+     * @param keyFunction       Function returning the key of an element
+     * @param otherKeyFunction  Function returning the key of an element of other
+     * @param combiner          Function combining a pair of matching elements
+     * @return                  List of combined pairs
+     */
+    <R, K, T> SmartList<T> join(Collection<R> other, UnaryFunction<K, ? super E> keyFunction,
+            UnaryFunction<K, ? super R> otherKeyFunction, CombineFunction<T, ? super E, ? super R> combiner);
+
+    /**
+     * Same as {@link #join(Collection, UnaryFunction, UnaryFunction)}, but
+     * additionally pairs each element without a match in other with 
+     * <code>null</code>.
+     *
+     * @param other             Collection to join with
+     * @param keyFunction       Function returning the key of an element
+     * @param otherKeyFunction  Function returning the key of an element of other
+     * @return                  List of matching pairs
+     */
+    <R, K> SmartList<Tuple<E, R>> leftOuterJoin(Collection<R> other, UnaryFunction<K, ? super E> keyFunction,
+            UnaryFunction<K, ? super R> otherKeyFunction);
+
+    /**
+     * Same as {@link #join(Collection, UnaryFunction, UnaryFunction, CombineFunction)},
+     * but additionally combines each element without a match in other with 
+     * <code>null</code>.
+     *
+     * @param other             Collection to join with
+     * @param keyFunction       Function returning the key of an element
+     * @param otherKeyFunction  Function returning the key of an element of other
+     * @param combiner          Function combining a pair of matching elements
+     * @return                  List of combined pairs
+     */
+    <R, K, T> SmartList<T> leftOuterJoin(Collection<R> other, UnaryFunction<K, ? super E> keyFunction,
+            UnaryFunction<K, ? super R> otherKeyFunction, CombineFunction<T, ? super E, ? super R> combiner);
+
+    /**
+     * Joins the collection with a map. Returns a list of tuples of each 
+     * element whose key is contained in the map and the value mapped to 
+     * that key, in the order of the collection. Both the collection and the
+     * map remain unmodified.
+     *
+     * @param map               Map to look up keys in
+     * @param keyFunction       Function returning the key of an element
+     * @return                  List of elements and their values
+     */
+    <K, V> SmartList<Tuple<E, V>> join(Map<K, V> map, UnaryFunction<K, ? super E> keyFunction);
+
+    /**
+     * Same as {@link #join(Map, UnaryFunction)}, but additionally pairs each
+     * element whose key is not contained in the map with <code>null</code>.
+     *
+     * @param map               Map to look up keys in
+     * @param keyFunction       Function returning the key of an element
+     * @return                  List of elements and their values
+     */
+    <K, V> SmartList<Tuple<E, V>> leftOuterJoin(Map<K, V> map, UnaryFunction<K, ? super E> keyFunction);
+
+    /**
+     * Retains all elements for which other contains an element with an equal
+     * key. Modifies the original collection.
+     *
+     * @param other             Collection to join with
+     * @param keyFunction       Function returning the key of an element
+     * @param otherKeyFunction  Function returning the key of an element of other
+     * @return                  Filtered collection
+     */
+    <R, K> SmartCollection<E> semiJoin(Collection<R> other, UnaryFunction<K, ? super E> keyFunction,
+            UnaryFunction<K, ? super R> otherKeyFunction);
+
+    /**
+     * Removes all elements for which other contains an element with an equal
+     * key. Modifies the original collection.
+     *
+     * @param other             Collection to join with
+     * @param keyFunction       Function returning the key of an element
+     * @param otherKeyFunction  Function returning the key of an element of other
+     * @return                  Filtered collection
+     */
+    <R, K> SmartCollection<E> antiJoin(Collection<R> other, UnaryFunction<K, ? super E> keyFunction,
+            UnaryFunction<K, ? super R> otherKeyFunction);
+
+    /**
+     * Retains all elements whose key is contained in map. Modifies the 
+     * original collection.
+     *
+     * @param map               Map to look up keys in
+     * @param keyFunction       Function returning the key of an element
+     * @return                  Filtered collection
+     */
+    <K> SmartCollection<E> semiJoin(Map<K, ?> map, UnaryFunction<K, ? super E> keyFunction);
+
+    /**
+     * Removes all elements whose key is contained in map. Modifies the 
+     * original collection.
+     *
+     * @param map               Map to look up keys in
+     * @param keyFunction       Function returning the key of an element
+     * @return                  Filtered collection
+     */
+    <K> SmartCollection<E> antiJoin(Map<K, ?> map, UnaryFunction<K, ? super E> keyFunction);
+
+    /**
+     * Same as {@link #join(Collection, UnaryFunction, UnaryFunction)} for 
+     * collections that are both sorted ascending by key. Instead of building 
+     * a hash table, both collections are scanned once in parallel, holding 
+     * only the elements of other sharing one key in memory. The result is 
+     * ordered like this collection. Keys must not be <code>null</code>.
+     *
+     * @param other             Collection to join with, sorted by key
+     * @param keyFunction       Function returning the key of an element
+     * @param otherKeyFunction  Function returning the key of an element of other
+     * @return                  List of matching pairs
+     */
+    <R, K extends Comparable<? super K>> SmartList<Tuple<E, R>> mergeJoin(Collection<R> other,
+            UnaryFunction<K, ? super E> keyFunction, UnaryFunction<K, ? super R> otherKeyFunction);
+
+    /**
+     * Same as {@link #mergeJoin(Collection, UnaryFunction, UnaryFunction)}, 
+     * but returns the results of combiner for all pairs instead of tuples.
+     *
+     * @param other             Collection to join with, sorted by key
+     * @param keyFunction       Function returning the key of an element
+     * @param otherKeyFunction  Function returning the key of an element of other
+     * @param combiner          Function combining a pair of matching elements
+     * @return                  List of combined pairs
+     */
+    <R, K extends Comparable<? super K>, T> SmartList<T> mergeJoin(Collection<R> other,
+            UnaryFunction<K, ? super E> keyFunction, UnaryFunction<K, ? super R> otherKeyFunction,
+            CombineFunction<T, ? super E, ? super R> combiner);
+
+    /**
+     * Same as {@link #groupBy(UnaryFunction)}, but groups large collections
+     * using one thread per processor. Each thread groups a distinct set of 
+     * keys. keyFunction must be thread-safe.
+     *
+     * @param keyFunction      	Function returning the key of an element
+     * @return                 	Map from keys to lists of elements
+     */
+    <K> SmartMap<K, SmartList<E>> parallelGroupBy(UnaryFunction<K, ? super E> keyFunction);
+
+    /**
+     * Same as {@link #groupBy(UnaryFunction, Object, BinaryFunction)}, but
+     * groups large collections using one thread per processor. Each thread 
+     * groups a distinct set of keys. keyFunction and funct must be 
+     * thread-safe.
+     *
+     * @param keyFunction      	Function returning the key of an element
+     * @param initial        	Initial value of each group
+     * @param funct            	Binary Function to combine two values a time
+     * @return                 	Map from keys to the values of their groups
+     */
+    <K, R> SmartMap<K, R> parallelGroupBy(UnaryFunction<K, ? super E> keyFunction, R initial, 
+            BinaryFunction<R, ? super E> funct);
+
+    /**
+     * Same as {@link #collect(Supplier, Accumulator, Accumulator)}, but 
+     * folds large collections using one thread per processor. Every thread 
+     * folds a contiguous part of the elements into a container of its own, 
+     * then the containers are merged from left to right by combiner. The 
+     * functions must be thread-safe, the containers need not be.
+     *
+     * @param supplier         	Function creating an empty container
+     * @param accumulator      	Function adding an element to a container
+     * @param combiner         	Function merging the second container into the first
+     * @return                 	Container holding all elements
+     */
+    <R> R parallelCollect(Supplier<R> supplier, Accumulator<R, ? super E> accumulator, 
+            Accumulator<R, R> combiner);
+
+    /**
+     * Same as {@link #collect(Collector)}, but folds large collections using
+     * one thread per processor.
+     *
+     * @param collector        	Mutable reduction to perform
+     * @return                 	Result of the collector
+     */
+    <A, R> R parallelCollect(Collector<? super E, A, R> collector);
+
     /**
      * Calls the toString-method of each element in the collection and inserts
-     * delimiter between each pair of elements. Returns the resulting String.
+     * delimiter between each pair of elements. Returns the resulting String,
+     * which is empty if the collection is empty.
      *
      * @param delimiter        	String to insert between each two elements
      * @return                 	Resulting string representation
      */
     String join(String delimiter);
 
+    /**
+     * Like {@link #join(String)}, but appends the elements one by one to out
+     * instead of building a string, e.g. to a {@link java.io.Writer}.
+     *
+     * @param out				Appendable to write to
+     * @param delimiter        	Characters to insert between each two elements
+     * @return                 	out
+     * @throws IOException		If out throws it
+     */
+    <A extends Appendable> A joinTo(A out, CharSequence delimiter) throws IOException;
+
+    /**
+     * Appends prefix, the elements separated by delimiter and suffix to out.
+     * Elements are converted by formatter, or by their toString-method if
+     * formatter is <code>null</code>.
+     *
+     * @param out				Appendable to write to
+     * @param delimiter        	Characters to insert between each two elements
+     * @param prefix			Characters to write before the first element
+     * @param suffix			Characters to write after the last element
+     * @param formatter			Function converting an element, or
+     * 							<code>null</code>
+     * @return                 	out
+     * @throws IOException		If out throws it
+     */
+    <A extends Appendable> A joinTo(A out, CharSequence delimiter, CharSequence prefix, CharSequence suffix,
+            UnaryFunction<? extends CharSequence, ? super E> formatter) throws IOException;
+
+    /**
+     * Like {@link #joinTo(Appendable, CharSequence, CharSequence, CharSequence, UnaryFunction)},
+     * but encodes the output with charset and writes it to channel through a
+     * fixed-size buffer.
+     *
+     * @param channel			Channel to write to
+     * @param charset			Charset to encode the characters with
+     * @param delimiter        	Characters to insert between each two elements
+     * @param prefix			Characters to write before the first element
+     * @param suffix			Characters to write after the last element
+     * @param formatter			Function converting an element, or
+     * 							<code>null</code>
+     * @return                 	Number of bytes written
+     * @throws IOException		If writing to channel fails
+     */
+    long joinTo(WritableByteChannel channel, Charset charset, CharSequence delimiter, CharSequence prefix,
+            CharSequence suffix, UnaryFunction<? extends CharSequence, ? super E> formatter) throws IOException;
+
     /**
      * Counts the number of entries for which the predicate evaluates to 
      * <code>true</code>.
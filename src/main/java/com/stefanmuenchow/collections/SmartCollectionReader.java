@@ -0,0 +1,291 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads smart collections written by {@link SmartCollectionWriter}. The
+ * collections have to be read in the order they were written, each with the
+ * method matching its type.
+ *
+ * Lists, sets and maps are created with enough capacity for all elements.
+ * Sorted sets and maps are built in linear time from the ascending elements
+ * if the comparator passed to the reader orders them the same way as the
+ * comparator they were written with. Otherwise the elements are inserted one
+ * by one.
+ *
+ * @see SmartCollectionWriter
+ *
+ * @author Stefan Münchow
+ */
+public class SmartCollectionReader implements Closeable {
+    private static final String[] TYPE_NAMES = { null, "list", "set", "sorted set", "queue", "map", "sorted map" };
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * Upper limit for pre-sizing, so that a corrupt size does not allocate
+     * more memory than the elements that can actually be read.
+     */
+    private static final int MAX_PRESIZE = 1 << 20;
+
+    private final DataInputStream in;
+    private final Inflater inflater;
+
+    /**
+     * Creates a new reader reading from in and checks the stream header.
+     *
+     * @param in		Stream to read from
+     * @throws IOException	If the stream was not written by a
+     * 						{@link SmartCollectionWriter}
+     */
+    public SmartCollectionReader(final InputStream in) throws IOException {
+        DataInputStream header = new DataInputStream(in);
+        if (header.readInt() != SmartCollectionWriter.MAGIC) {
+            throw new IOException("Not a smart collection stream");
+        }
+
+        int version = header.readUnsignedByte();
+        if (version != SmartCollectionWriter.VERSION) {
+            throw new IOException("Unsupported version: " + version);
+        }
+
+        if ((header.readUnsignedByte() & SmartCollectionWriter.FLAG_COMPRESSED) != 0) {
+            inflater = new Inflater();
+            this.in = new DataInputStream(new InflaterInputStream(in, inflater, BUFFER_SIZE));
+        } else {
+            inflater = null;
+            this.in = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+        }
+    }
+
+    /** Read methods */
+
+    /**
+     * Reads a list.
+     *
+     * @param codec		Codec to read elements with
+     * @return			New list
+     * @throws IOException	If reading fails or the next collection is no list
+     */
+    public <E> SmartList<E> readList(final Codec<E> codec) throws IOException {
+        int size = readHeader(SmartCollectionWriter.TAG_LIST);
+        boolean nulls = in.readBoolean();
+        SmartList<E> result = SmartArrayList.withCapacity(Math.min(size, MAX_PRESIZE));
+        for (int i = 0; i < size; i++) {
+            result.add(read(codec, nulls));
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads a set.
+     *
+     * @param codec		Codec to read elements with
+     * @return			New set
+     * @throws IOException	If reading fails or the next collection is no set
+     */
+    public <E> SmartSet<E> readSet(final Codec<E> codec) throws IOException {
+        int size = readHeader(SmartCollectionWriter.TAG_SET);
+        boolean nulls = in.readBoolean();
+        SmartSet<E> result = SmartHashSet.withExpectedSize(Math.min(size, MAX_PRESIZE));
+        for (int i = 0; i < size; i++) {
+            result.add(read(codec, nulls));
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads a sorted set, sorted according to the natural ordering of its
+     * elements.
+     *
+     * @param codec		Codec to read elements with
+     * @return			New sorted set
+     * @throws IOException	If reading fails or the next collection is no
+     * 						sorted set
+     */
+    public <E> SmartSortedSet<E> readSortedSet(final Codec<E> codec) throws IOException {
+        return readSortedSet(codec, null);
+    }
+
+    /**
+     * Reads a sorted set, sorted according to comparator.
+     *
+     * @param codec			Codec to read elements with
+     * @param comparator	Comparator to order the elements with
+     * @return				New sorted set
+     * @throws IOException	If reading fails or the next collection is no
+     * 						sorted set
+     */
+    @SuppressWarnings("unchecked")
+    public <E> SmartSortedSet<E> readSortedSet(final Codec<E> codec, final Comparator<? super E> comparator)
+            throws IOException {
+        int size = readHeader(SmartCollectionWriter.TAG_SORTED_SET);
+        boolean nulls = in.readBoolean();
+        Object[] elems = new Object[Math.min(size, MAX_PRESIZE)];
+        for (int i = 0; i < size; i++) {
+            if (i == elems.length) {
+                elems = Arrays.copyOf(elems, Math.min(size, elems.length * 2));
+            }
+
+            elems[i] = read(codec, nulls);
+        }
+
+        SmartTreeSet<E> result = new SmartTreeSet<E>(comparator);
+        if (SortedRuns.isStrictlyAscending(elems, size, comparator)) {
+            result.addAll(SortedRuns.<E>set(elems, size, comparator));
+        } else {
+            for (int i = 0; i < size; i++) {
+                result.add((E) elems[i]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads a queue.
+     *
+     * @param codec		Codec to read elements with
+     * @return			New queue
+     * @throws IOException	If reading fails or the next collection is no
+     * 						queue
+     */
+    public <E> SmartQueue<E> readQueue(final Codec<E> codec) throws IOException {
+        int size = readHeader(SmartCollectionWriter.TAG_QUEUE);
+        boolean nulls = in.readBoolean();
+        SmartQueue<E> result = new SmartLinkedQueue<E>();
+        for (int i = 0; i < size; i++) {
+            result.add(read(codec, nulls));
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads a map.
+     *
+     * @param keyCodec		Codec to read keys with
+     * @param valueCodec	Codec to read values with
+     * @return				New map
+     * @throws IOException	If reading fails or the next collection is no map
+     */
+    public <K, V> SmartMap<K, V> readMap(final Codec<K> keyCodec, final Codec<V> valueCodec) throws IOException {
+        int size = readHeader(SmartCollectionWriter.TAG_MAP);
+        boolean nulls = in.readBoolean();
+        SmartMap<K, V> result = new SmartHashMap<K, V>(Math.min(size, MAX_PRESIZE));
+        for (int i = 0; i < size; i++) {
+            K key = read(keyCodec, nulls);
+            result.put(key, read(valueCodec, nulls));
+        }
+
+        return result;
+    }
+
+    /**
+     * Reads a sorted map, sorted according to the natural ordering of its
+     * keys.
+     *
+     * @param keyCodec		Codec to read keys with
+     * @param valueCodec	Codec to read values with
+     * @return				New sorted map
+     * @throws IOException	If reading fails or the next collection is no
+     * 						sorted map
+     */
+    public <K, V> SmartSortedMap<K, V> readSortedMap(final Codec<K> keyCodec, final Codec<V> valueCodec)
+            throws IOException {
+        return readSortedMap(keyCodec, valueCodec, null);
+    }
+
+    /**
+     * Reads a sorted map, sorted according to comparator.
+     *
+     * @param keyCodec		Codec to read keys with
+     * @param valueCodec	Codec to read values with
+     * @param comparator	Comparator to order the keys with
+     * @return				New sorted map
+     * @throws IOException	If reading fails or the next collection is no
+     * 						sorted map
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> SmartSortedMap<K, V> readSortedMap(final Codec<K> keyCodec, final Codec<V> valueCodec,
+            final Comparator<? super K> comparator) throws IOException {
+        int size = readHeader(SmartCollectionWriter.TAG_SORTED_MAP);
+        boolean nulls = in.readBoolean();
+        Object[] keys = new Object[Math.min(size, MAX_PRESIZE)];
+        Object[] values = new Object[keys.length];
+        for (int i = 0; i < size; i++) {
+            if (i == keys.length) {
+                keys = Arrays.copyOf(keys, Math.min(size, keys.length * 2));
+                values = Arrays.copyOf(values, keys.length);
+            }
+
+            keys[i] = read(keyCodec, nulls);
+            values[i] = read(valueCodec, nulls);
+        }
+
+        SmartTreeMap<K, V> result = new SmartTreeMap<K, V>(comparator);
+        if (SortedRuns.isStrictlyAscending(keys, size, comparator)) {
+            result.putAll(SortedRuns.<K, V>map(keys, values, size, comparator));
+        } else {
+            for (int i = 0; i < size; i++) {
+                result.put((K) keys[i], (V) values[i]);
+            }
+        }
+
+        return result;
+    }
+
+    /** Stream methods */
+
+    @Override
+    public void close() throws IOException {
+        try {
+            in.close();
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+
+    /** Helper methods */
+
+    private int readHeader(final int expectedTag) throws IOException {
+        int tag = in.readUnsignedByte();
+        if (tag != expectedTag) {
+            String found = tag < TYPE_NAMES.length && tag > 0 ? TYPE_NAMES[tag] : "unknown tag " + tag;
+            throw new IOException("Expected a " + TYPE_NAMES[expectedTag] + " but found a " + found);
+        }
+
+        int size = Codecs.readVarInt(in);
+        if (size < 0) {
+            throw new IOException("Invalid size: " + size);
+        }
+
+        return size;
+    }
+
+    private <E> E read(final Codec<E> codec, final boolean nullable) throws IOException {
+        return nullable ? Codecs.readNullable(codec, in) : codec.read(in);
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes smart collections to a stream in a compact binary format that can be
+ * read back by {@link SmartCollectionReader}. Elements are written with
+ * {@link Codec}s, sizes are written as variable length integers, and the
+ * stream can optionally be compressed with Deflate.
+ *
+ * A stream starts with a magic number, a version and flags. Each collection
+ * is written as a type tag, its size, a flag telling whether it contains
+ * <code>null</code> and its elements in iteration order. Per element
+ * <code>null</code> markers are only written for collections that contain
+ * <code>null</code>. Sorted collections are written in ascending order, so
+ * that they can be rebuilt without comparing elements. Comparators are not
+ * written, they have to be passed to the reader.
+ *
+ * @see SmartCollectionReader
+ *
+ * @author Stefan Münchow
+ */
+public class SmartCollectionWriter implements Closeable, Flushable {
+    static final int MAGIC = 0x534D4354;
+    static final int VERSION = 1;
+    static final int FLAG_COMPRESSED = 1;
+
+    static final int TAG_LIST = 1;
+    static final int TAG_SET = 2;
+    static final int TAG_SORTED_SET = 3;
+    static final int TAG_QUEUE = 4;
+    static final int TAG_MAP = 5;
+    static final int TAG_SORTED_MAP = 6;
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final DataOutputStream out;
+    private final Deflater deflater;
+
+    /**
+     * Creates a new writer writing uncompressed data to out.
+     *
+     * @param out		Stream to write to
+     * @throws IOException	If the header cannot be written
+     */
+    public SmartCollectionWriter(final OutputStream out) throws IOException {
+        this(out, false);
+    }
+
+    /**
+     * Creates a new writer writing to out. Compressed data can only be read
+     * completely once the writer has been closed.
+     *
+     * @param out		Stream to write to
+     * @param compress	<code>true</code> to compress all collections
+     * @throws IOException	If the header cannot be written
+     */
+    public SmartCollectionWriter(final OutputStream out, final boolean compress) throws IOException {
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeByte(VERSION);
+        header.writeByte(compress ? FLAG_COMPRESSED : 0);
+
+        if (compress) {
+            deflater = new Deflater(Deflater.BEST_SPEED);
+            this.out = new DataOutputStream(new DeflaterOutputStream(out, deflater, BUFFER_SIZE));
+        } else {
+            deflater = null;
+            this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        }
+    }
+
+    /** Write methods */
+
+    /**
+     * Writes a list.
+     *
+     * @param list		List to write
+     * @param codec		Codec to write elements with
+     * @throws IOException	If writing fails
+     */
+    public <E> void writeList(final SmartList<E> list, final Codec<? super E> codec) throws IOException {
+        writeCollection(TAG_LIST, list, codec);
+    }
+
+    /**
+     * Writes a set.
+     *
+     * @param set		Set to write
+     * @param codec		Codec to write elements with
+     * @throws IOException	If writing fails
+     */
+    public <E> void writeSet(final SmartSet<E> set, final Codec<? super E> codec) throws IOException {
+        writeCollection(TAG_SET, set, codec);
+    }
+
+    /**
+     * Writes a sorted set in ascending order.
+     *
+     * @param set		Set to write
+     * @param codec		Codec to write elements with
+     * @throws IOException	If writing fails
+     */
+    public <E> void writeSortedSet(final SmartSortedSet<E> set, final Codec<? super E> codec) throws IOException {
+        writeCollection(TAG_SORTED_SET, set, codec);
+    }
+
+    /**
+     * Writes a queue in iteration order.
+     *
+     * @param queue		Queue to write
+     * @param codec		Codec to write elements with
+     * @throws IOException	If writing fails
+     */
+    public <E> void writeQueue(final SmartQueue<E> queue, final Codec<? super E> codec) throws IOException {
+        writeCollection(TAG_QUEUE, queue, codec);
+    }
+
+    /**
+     * Writes a map.
+     *
+     * @param map			Map to write
+     * @param keyCodec		Codec to write keys with
+     * @param valueCodec	Codec to write values with
+     * @throws IOException	If writing fails
+     */
+    public <K, V> void writeMap(final SmartMap<K, V> map, final Codec<? super K> keyCodec,
+            final Codec<? super V> valueCodec) throws IOException {
+        writeEntries(TAG_MAP, map, keyCodec, valueCodec);
+    }
+
+    /**
+     * Writes a sorted map in ascending key order.
+     *
+     * @param map			Map to write
+     * @param keyCodec		Codec to write keys with
+     * @param valueCodec	Codec to write values with
+     * @throws IOException	If writing fails
+     */
+    public <K, V> void writeSortedMap(final SmartSortedMap<K, V> map, final Codec<? super K> keyCodec,
+            final Codec<? super V> valueCodec) throws IOException {
+        writeEntries(TAG_SORTED_MAP, map, keyCodec, valueCodec);
+    }
+
+    /** Stream methods */
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    /** Helper methods */
+
+    private <E> void writeCollection(final int tag, final Collection<E> coll, final Codec<? super E> codec)
+            throws IOException {
+        boolean nulls = containsNull(coll);
+        out.writeByte(tag);
+        Codecs.writeVarInt(coll.size(), out);
+        out.writeBoolean(nulls);
+
+        for (E elem : coll) {
+            write(codec, elem, nulls);
+        }
+    }
+
+    private <K, V> void writeEntries(final int tag, final Map<K, V> map, final Codec<? super K> keyCodec,
+            final Codec<? super V> valueCodec) throws IOException {
+        boolean nulls = containsNull(map.keySet()) || containsNull(map.values());
+        out.writeByte(tag);
+        Codecs.writeVarInt(map.size(), out);
+        out.writeBoolean(nulls);
+
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            write(keyCodec, entry.getKey(), nulls);
+            write(valueCodec, entry.getValue(), nulls);
+        }
+    }
+
+    /**
+     * Scans for null instead of using contains, which sorted collections
+     * with natural ordering reject.
+     */
+    private static boolean containsNull(final Collection<?> coll) {
+        for (Object elem : coll) {
+            if (elem == null) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private <E> void write(final Codec<? super E> codec, final E elem, final boolean nullable) throws IOException {
+        if (nullable) {
+            Codecs.writeNullable(codec, elem, out);
+        } else {
+            codec.write(elem, out);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Map;
+
+/**
+ * Implementation of the {@link SmartMap} interface for keys composed of two
+ * values. Entries can be accessed by both parts of their key, e.g. 
+ * {@link #getAt(Object, Object)} and {@link #put(Object, Object, Object)},
+ * without allocating a {@link Tuple} per call. Through the {@link Map}
+ * interface, keys are represented as tuples.
+ *
+ * The parts of the keys are kept in an open addressing hash table together
+ * with a well mixed hash code combined from both parts, so keys whose parts
+ * are equal or swapped do not collide.
+ *
+ * {@link #row(Object)} and {@link #column(Object)} scan the whole table and
+ * return copies.
+ *
+ * @author Stefan Münchow
+ */
+public class SmartCompositeKeyMap<A, B, V> extends AbstractSmartMap<Tuple<A, B>, V> {
+
+    /**
+     * Creates a new empty map.
+     */
+    public SmartCompositeKeyMap() {
+        this(0);
+    }
+
+    /**
+     * Creates a new empty map that can hold the expected number of entries
+     * without being resized.
+     *
+     * @param expectedSize	Number of entries the map is expected to hold
+     */
+    public SmartCompositeKeyMap(final int expectedSize) {
+        super(new CompositeKeyMap<A, B, V>(expectedSize));
+    }
+
+    /**
+     * Creates a new instance containing all entries of the specified map.
+     *
+     * @param map			Entries to be contained
+     */
+    public SmartCompositeKeyMap(final Map<Tuple<A, B>, V> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompositeKeyMap<A, B, V> getInternalMap() {
+        return (CompositeKeyMap<A, B, V>) internalMap;
+    }
+
+    @Override
+    protected SmartMap<Tuple<A, B>, V> createNewInstance() {
+        return new SmartCompositeKeyMap<A, B, V>();
+    }
+
+    @Override
+    protected <S, R> SmartMap<S, R> createNewInstance(final Map<S, R> aMap) {
+        return new SmartHashMap<S, R>(aMap);
+    }
+
+    /** Composite key methods */
+
+    /**
+     * Returns the value mapped to the key composed of first and second, or
+     * <code>null</code> if there is none.
+     *
+     * @param first			First part of the key
+     * @param second		Second part of the key
+     * @return				Value mapped to the key
+     */
+    public V getAt(final A first, final B second) {
+        return getInternalMap().getAt(first, second);
+    }
+
+    /**
+     * Returns <code>true</code> if the map contains the key composed of
+     * first and second.
+     *
+     * @param first			First part of the key
+     * @param second		Second part of the key
+     * @return				<code>true</code> if the key is contained
+     */
+    public boolean containsKey(final A first, final B second) {
+        return getInternalMap().containsKey(first, second);
+    }
+
+    /**
+     * Maps the key composed of first and second to value and returns the
+     * value previously mapped to it.
+     *
+     * @param first			First part of the key
+     * @param second		Second part of the key
+     * @param value			Value to map the key to
+     * @return				Previous value, or <code>null</code>
+     */
+    public V put(final A first, final B second, final V value) {
+        return getInternalMap().put(first, second, value);
+    }
+
+    /**
+     * Removes the key composed of first and second and returns the value
+     * mapped to it.
+     *
+     * @param first			First part of the key
+     * @param second		Second part of the key
+     * @return				Removed value, or <code>null</code>
+     */
+    public V removeAt(final A first, final B second) {
+        return getInternalMap().removeAt(first, second);
+    }
+
+    /**
+     * Returns a map from the second parts of all keys whose first part
+     * equals first to their values. The original map remains unchanged.
+     *
+     * @param first			First part of the keys
+     * @return				Map from second parts to values
+     */
+    public SmartMap<B, V> row(final A first) {
+        SmartMap<B, V> result = new SmartHashMap<B, V>();
+        getInternalMap().row(first, result);
+        return result;
+    }
+
+    /**
+     * Returns a map from the first parts of all keys whose second part
+     * equals second to their values. The original map remains unchanged.
+     *
+     * @param second		Second part of the keys
+     * @return				Map from first parts to values
+     */
+    public SmartMap<A, V> column(final B second) {
+        SmartMap<A, V> result = new SmartHashMap<A, V>();
+        getInternalMap().column(second, result);
+        return result;
+    }
+}
@@ -41,6 +41,16 @@ public class SmartHashMap<K, V> extends AbstractSmartMap<K, V> implements
     public SmartHashMap() {
         this(new HashMap<K, V>());
     }
+
+    /**
+     * Creates a new empty map that can hold the expected number of entries
+     * without being resized.
+     *
+     * @param expectedSize	Number of entries the map is expected to hold
+     */
+    public SmartHashMap(final int expectedSize) {
+        super(new HashMap<K, V>(Math.max(16, (int) (expectedSize / 0.75f) + 1)));
+    }
     
     /**
      * Creates a new map from a list of tuples. Each tuple is converted to a map
@@ -50,7 +60,7 @@ public class SmartHashMap<K, V> extends AbstractSmartMap<K, V> implements
      * @param tupleColl		Collection of tuples
      */
     public SmartHashMap(Collection<Tuple<K, V>> tupleColl) {
-    	this(new HashMap<K, V>());
+    	this(tupleColl.size());
     	
     	for (Tuple<K, V> tuple : tupleColl) {
     		put(tuple.getFirst(), tuple.getSecond());
@@ -60,13 +70,15 @@ public class SmartHashMap<K, V> extends AbstractSmartMap<K, V> implements
     /**
      * Creates a new map from two lists, using each element of the first list 
      * as a key and the element at the corresponding position in the second 
-     * list as its value.
+     * list as its value. The map is sized for the shorter list and the 
+     * entries are inserted directly, without pairing them in tuples.
      * 
      * @param keys		List containing keys
      * @param vals		List containing values
      */
     public SmartHashMap(SmartList<K> keys, SmartList<V> vals) {
-    	this(keys.zipWith(vals));
+    	this(Math.min(keys.size(), vals.size()));
+    	Zipping.putAll(internalMap, keys, vals);
     }
 
     @Override
@@ -51,6 +51,21 @@ public class SmartHashSet<E> extends AbstractSmartSet<E> implements SmartSet<E>
         this(Arrays.asList(elems));
     }
 
+    private SmartHashSet(final HashSet<E> set) {
+        super(set);
+    }
+
+    /**
+     * Creates a new empty set that can hold the expected number of elements
+     * without being resized.
+     *
+     * @param expectedSize	Number of elements the set is expected to hold
+     * @return				New empty set
+     */
+    public static <E> SmartHashSet<E> withExpectedSize(final int expectedSize) {
+        return new SmartHashSet<E>(new HashSet<E>(Math.max(16, (int) (expectedSize / 0.75f) + 1)));
+    }
+
     @Override
     protected SmartSet<E> createNewInstance() {
         return new SmartHashSet<E>();
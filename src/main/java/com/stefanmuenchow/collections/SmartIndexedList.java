@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Collection;
+
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Implementation of the {@link SmartList} interface maintaining named secondary
+ * indexes over its elements. A hash index answers
+ * {@link #findBy(String, Object)} in O(1), a sorted index additionally
+ * answers {@link #rangeBy(String, Object, Object)} in O(log n) plus the
+ * size of the result. All modifications, including those through iterators,
+ * update the indexes. Keys of contained elements must not change.
+ *
+ * Removing an element from an index takes time linear in the number of
+ * elements sharing its key, so indexes should be built over selective keys.
+ *
+ * @author Stefan Münchow
+ */
+public class SmartIndexedList<E> extends AbstractSmartList<E> implements SmartList<E> {
+    private final Indexes<E> indexes = new Indexes<E>();
+
+    /**
+     * Creates a new empty list without indexes.
+     */
+    public SmartIndexedList() {
+        super(new ObservableList<E>());
+        ((ObservableList<E>) internalColl).addListener(indexes);
+    }
+
+    /**
+     * Creates a new instance containing all elements of the specified
+     * collection.
+     *
+     * @param coll		Elements to be contained
+     */
+    public SmartIndexedList(final Collection<E> coll) {
+        this();
+        addAll(coll);
+    }
+
+    @Override
+    protected SmartList<E> createNewInstance() {
+        return new SmartArrayList<E>();
+    }
+
+    @Override
+    protected <T> SmartList<T> createNewInstance(final Collection<T> aColl) {
+        return new SmartArrayList<T>(aColl);
+    }
+
+    /** Index methods */
+
+    /**
+     * Adds a hash index over the keys keyFunction returns for the elements.
+     *
+     * @throws IllegalArgumentException	If an index with this name exists
+     *
+     * @param name			Name of the index
+     * @param keyFunction	Function returning the key of an element
+     * @return				This list
+     */
+    public <K> SmartIndexedList<E> addHashIndex(final String name, final UnaryFunction<K, ? super E> keyFunction) {
+        indexes.addHashIndex(name, keyFunction, internalColl);
+        return this;
+    }
+
+    /**
+     * Adds a sorted index over the keys keyFunction returns for the elements,
+     * supporting {@link #rangeBy(String, Object, Object)}. Keys must not be
+     * <code>null</code>.
+     *
+     * @throws IllegalArgumentException	If an index with this name exists
+     *
+     * @param name			Name of the index
+     * @param keyFunction	Function returning the key of an element
+     * @return				This list
+     */
+    public <K extends Comparable<? super K>> SmartIndexedList<E> addSortedIndex(final String name,
+            final UnaryFunction<K, ? super E> keyFunction) {
+        indexes.addSortedIndex(name, keyFunction, internalColl);
+        return this;
+    }
+
+    /**
+     * Removes the index with the given name.
+     *
+     * @param name			Name of the index
+     * @return				<code>true</code> if the index existed
+     */
+    public boolean removeIndex(final String name) {
+        return indexes.removeIndex(name);
+    }
+
+    /**
+     * Returns all elements whose key in the given index equals key, in the
+     * order they were added.
+     *
+     * @throws IllegalArgumentException	If there is no index with this name
+     *
+     * @param name			Name of the index
+     * @param key			Key to look up
+     * @return				New list of matching elements
+     */
+    public SmartList<E> findBy(final String name, final Object key) {
+        return indexes.find(name, key);
+    }
+
+    /**
+     * Returns all elements whose key in the given sorted index is in the
+     * range from fromKey (inclusive) to toKey (exclusive), ordered by key.
+     *
+     * @throws IllegalArgumentException	If there is no sorted index with
+     * 									this name
+     *
+     * @param name			Name of the index
+     * @param fromKey		Low endpoint (inclusive)
+     * @param toKey			High endpoint (exclusive)
+     * @return				New list of matching elements
+     */
+    public <K> SmartList<E> rangeBy(final String name, final K fromKey, final K toKey) {
+        return indexes.range(name, fromKey, toKey);
+    }
+}
@@ -13,13 +13,15 @@ package com.stefanmuenchow.collections;
 
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
 
 /**
- * Implementation of the {@link SmartList} interface decorating a
- * standard {@link LinkedList}.
+ * Implementation of the {@link SmartList} interface backed by an unrolled
+ * linked list, whose nodes hold small arrays of elements. It keeps the O(1)
+ * insertion and removal at both ends and through iterators of a
+ * {@link java.util.LinkedList}, but iterates almost as fast as an array list
+ * and needs far less memory per element.
  * 
- * @see LinkedList
+ * @see java.util.LinkedList
  * 
  * @author Stefan Münchow
  */
@@ -32,14 +34,14 @@ public class SmartLinkedList<E> extends AbstractSmartList<E> implements SmartLis
 	 * @param coll		Elements to be contained
 	 */
     public SmartLinkedList(final Collection<E> coll) {
-        super(new LinkedList<E>(coll));
+        super(new UnrolledLinkedList<E>(coll));
     }
     
     /**
      * Creates a new empty list.
      */
     public SmartLinkedList() {
-        this(new LinkedList<E>());
+        this(new UnrolledLinkedList<E>());
     }
 
     /**
@@ -13,7 +13,6 @@ package com.stefanmuenchow.collections;
 
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.Map;
 import java.util.Queue;
 
@@ -21,10 +20,10 @@ import com.stefanmuenchow.functors.Predicate;
 import com.stefanmuenchow.functors.UnaryFunction;
 
 /**
- * Implementation of the {@link SmartQueue} interface decorating a
- * standard {@link LinkedList}.
+ * Implementation of the {@link SmartQueue} interface backed by an unrolled
+ * linked list, see {@link SmartLinkedList}.
  * 
- * @see LinkedList
+ * @see java.util.LinkedList
  * @see Queue
  * 
  * @author Stefan Münchow
@@ -38,14 +37,14 @@ public class SmartLinkedQueue<E> extends AbstractSmartCollection<E> implements S
 	 * @param coll		Elements to be contained
 	 */
     public SmartLinkedQueue(final Collection<E> coll) {
-        super(new LinkedList<E>(coll));
+        super(new UnrolledLinkedList<E>(coll));
     }
     
     /**
      * Creates a new empty queue.
      */
     public SmartLinkedQueue() {
-        this(new LinkedList<E>());
+        this(new UnrolledLinkedList<E>());
     }
 
     /**
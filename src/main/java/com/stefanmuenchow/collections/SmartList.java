@@ -12,11 +12,15 @@
 package com.stefanmuenchow.collections;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import com.stefanmuenchow.functors.CombineFunction;
 import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.ToIntFunction;
+import com.stefanmuenchow.functors.ToLongFunction;
 import com.stefanmuenchow.functors.UnaryFunction;
 
 /**
@@ -192,6 +196,20 @@ public interface SmartList<E> extends List<E>, SmartCollection<E> {
      * @return               {@link SmartList} build from the two lists
      */
     <T> SmartList<Tuple<E, T>> zipWith(List<T> anotherList);
+
+    /**
+     * Combines the elements of this list and anotherList at corresponding 
+     * positions using function and returns a list of the results. Both lists
+     * are walked in lockstep, by index if they support random access, and no
+     * tuples are created. If one list has less elements than the other one, 
+     * the surplus elements are discarded. The original lists remain 
+     * unchanged.
+     *
+     * @param anotherList    List to zip with
+     * @param function       Function combining two corresponding elements
+     * @return               List of combined elements
+     */
+    <R, T> SmartList<R> zipWith(List<T> anotherList, CombineFunction<R, ? super E, ? super T> function);
     
     /**
      * Returns a list of the list indices. The original list remains unchanged.
@@ -217,6 +235,60 @@ public interface SmartList<E> extends List<E>, SmartCollection<E> {
      */
     SmartList<E> reverse();
 
+    /**
+     * Sorts the elements of the list according to comparator and returns the
+     * list. The sort is stable, equal elements keep their order. Changes the 
+     * original list.
+     *
+     * @param comparator     Comparator to order elements with
+     * @return               Sorted list
+     */
+    SmartList<E> sortWith(Comparator<? super E> comparator);
+
+    /**
+     * Sorts the elements of the list by the natural ordering of the keys 
+     * keyExtractor returns for them and returns the list. The key of each
+     * element is computed only once. The sort is stable. Changes the 
+     * original list.
+     *
+     * @param keyExtractor   Function returning the sort key of an element
+     * @return               Sorted list
+     */
+    <K extends Comparable<? super K>> SmartList<E> sortBy(UnaryFunction<K, ? super E> keyExtractor);
+
+    /**
+     * Same as {@link #sortBy(UnaryFunction)}, but computes the keys and sorts
+     * using one thread per processor for large lists. If stable is false, 
+     * equal elements may be reordered, which saves a copy of the list during 
+     * the sort. keyExtractor must be thread-safe.
+     *
+     * @param keyExtractor   Function returning the sort key of an element
+     * @param stable         Whether equal elements have to keep their order
+     * @return               Sorted list
+     */
+    <K extends Comparable<? super K>> SmartList<E> parallelSortBy(UnaryFunction<K, ? super E> keyExtractor,
+            boolean stable);
+
+    /**
+     * Sorts the elements of the list by the int keys keyExtractor returns
+     * for them and returns the list. Uses a radix sort that runs in linear
+     * time, which pays off for large lists sorted by ids or similar keys.
+     * The sort is stable. Changes the original list.
+     *
+     * @param keyExtractor   Function returning the sort key of an element
+     * @return               Sorted list
+     */
+    SmartList<E> sortByIntKey(ToIntFunction<? super E> keyExtractor);
+
+    /**
+     * Same as {@link #sortByIntKey(ToIntFunction)} for long keys, e.g.
+     * timestamps.
+     *
+     * @param keyExtractor   Function returning the sort key of an element
+     * @return               Sorted list
+     */
+    SmartList<E> sortByLongKey(ToLongFunction<? super E> keyExtractor);
+
     /**
      * Returns the list size without null elements. If there are no null
      * elements, the result is equal to {@link List#size()}.
@@ -228,7 +300,9 @@ public interface SmartList<E> extends List<E>, SmartCollection<E> {
     /**
      * Zips this list with anotherList, so that the elements at corresponding
      * positions form a tuple and and performs a map operation on the resulting 
-     * list of tuples. 
+     * list of tuples. Does not build the list of tuples, but still creates 
+     * one tuple per pair, so 
+     * {@link #zipWith(List, CombineFunction)} should be preferred.
      * 
      * @see                  SmartList#zipWith(List)
      * @see                  SmartList#map(UnaryFunction)
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Implementation of the {@link SmartMap} interface that loads missing values
+ * with a bulk loader. {@link #get(Object)} and {@link #get(Object, Object)}
+ * load a missing key, {@link #getAll(Collection)} loads all missing keys of
+ * a collection with as few loader calls as possible.
+ *
+ * Concurrent lookups of a key that is being loaded wait for that load
+ * instead of loading it again. Missing keys requested by different threads
+ * within the batch window are combined into a single loader call of up to
+ * the maximum batch size.
+ *
+ * The loader receives the keys to load and returns a map with the values it
+ * found. Keys it does not return a value for are not cached and will be
+ * loaded again on the next lookup. If the loader throws an exception, all
+ * threads waiting for the batch receive it. Null keys and values are not
+ * supported. All other methods of {@link SmartMap} only see the values that
+ * have been loaded or put.
+ *
+ * @author Stefan Münchow
+ */
+public class SmartLoadingMap<K, V> extends AbstractSmartMap<K, V> implements SmartMap<K, V> {
+
+    /**
+     * Creates a new empty map that loads missing keys immediately, without
+     * waiting for other lookups to join the batch.
+     *
+     * @param loader		Function loading the values of a collection of keys
+     */
+    public SmartLoadingMap(final UnaryFunction<Map<K, V>, Collection<K>> loader) {
+        this(loader, 0, TimeUnit.MILLISECONDS, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new empty map that collects missing keys for the duration of
+     * batchWindow or until maxBatchSize keys are missing, and then loads them
+     * with a single call of loader.
+     *
+     * @throws IllegalArgumentException	If maxBatchSize is not positive
+     *
+     * @param loader		Function loading the values of a collection of keys
+     * @param batchWindow	Time to wait for further missing keys
+     * @param unit			Unit of batchWindow
+     * @param maxBatchSize	Maximum number of keys passed to loader at once
+     */
+    public SmartLoadingMap(final UnaryFunction<Map<K, V>, Collection<K>> loader, final long batchWindow,
+            final TimeUnit unit, final int maxBatchSize) {
+        super(new LoadingMap<K, V>(loader, unit.toNanos(batchWindow), maxBatchSize));
+    }
+
+    private LoadingMap<K, V> getInternalMap() {
+        return (LoadingMap<K, V>) internalMap;
+    }
+
+    @Override
+    protected SmartMap<K, V> createNewInstance() {
+        return new SmartHashMap<K, V>();
+    }
+
+    @Override
+    protected <S, R> SmartMap<S, R> createNewInstance(final Map<S, R> aMap) {
+        return new SmartHashMap<S, R>(aMap);
+    }
+
+    /**
+     * Returns the values of all keys, loading the missing ones. Keys for which
+     * no value could be loaded are not contained in the result.
+     *
+     * @param keys			Keys to look up
+     * @return				New map containing the values found
+     */
+    public SmartMap<K, V> getAll(final Collection<? extends K> keys) {
+        return new SmartHashMap<K, V>(getInternalMap().getAll(keys));
+    }
+
+    /**
+     * Returns the number of times the loader has been called.
+     *
+     * @return				Number of loader calls
+     */
+    public long getLoadCount() {
+        return getInternalMap().getLoadCount();
+    }
+}
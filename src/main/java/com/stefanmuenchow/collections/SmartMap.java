@@ -11,14 +11,20 @@
 
 package com.stefanmuenchow.collections;
 
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import com.stefanmuenchow.functors.Accumulator;
 import com.stefanmuenchow.functors.BinaryFunction;
 import com.stefanmuenchow.functors.MapBinaryFunction;
 import com.stefanmuenchow.functors.MapPredicate;
 import com.stefanmuenchow.functors.MapUnaryFunction;
 import com.stefanmuenchow.functors.MapVoidFunction;
+import com.stefanmuenchow.functors.Supplier;
+import com.stefanmuenchow.functors.UnaryFunction;
 
 /**
  * A SmartMap is an object that maps keys to values. There can be no duplicate
@@ -167,10 +173,57 @@ public interface SmartMap<K, V> extends Map<K, V> {
      */
     <R> R reduce(R initial, MapBinaryFunction<R, ? super K, ? super V> funct);
 
+    /**
+     * Folds the entries of this map into a mutable container created by 
+     * supplier, like {@link SmartCollection#collect(Supplier, Accumulator, Accumulator)}.
+     * The combiner is only used by 
+     * {@link #parallelCollect(Supplier, Accumulator, Accumulator)}. The 
+     * original map remains unchanged.
+     *
+     * @param supplier		Function creating an empty container
+     * @param accumulator	Function adding an entry to a container
+     * @param combiner		Function merging the second container into the first
+     * @return 				Container holding all entries
+     */
+    <R> R collect(Supplier<R> supplier, Accumulator<R, ? super Map.Entry<K, V>> accumulator,
+            Accumulator<R, R> combiner);
+
+    /**
+     * Folds the entries of this map using collector. The original map 
+     * remains unchanged.
+     *
+     * @param collector		Mutable reduction to perform
+     * @return 				Result of the collector
+     */
+    <A, R> R collect(Collector<? super Map.Entry<K, V>, A, R> collector);
+
+    /**
+     * Same as {@link #collect(Supplier, Accumulator, Accumulator)}, but folds
+     * large maps using one thread per processor, merging the containers of 
+     * the threads with combiner. The functions must be thread-safe.
+     *
+     * @param supplier		Function creating an empty container
+     * @param accumulator	Function adding an entry to a container
+     * @param combiner		Function merging the second container into the first
+     * @return 				Container holding all entries
+     */
+    <R> R parallelCollect(Supplier<R> supplier, Accumulator<R, ? super Map.Entry<K, V>> accumulator,
+            Accumulator<R, R> combiner);
+
+    /**
+     * Same as {@link #collect(Collector)}, but folds large maps using one 
+     * thread per processor.
+     *
+     * @param collector		Mutable reduction to perform
+     * @return 				Result of the collector
+     */
+    <A, R> R parallelCollect(Collector<? super Map.Entry<K, V>, A, R> collector);
+
     /**
      * Calls the toString() method for the key and value of each entry in the
      * map and inserts keyValDelimiter between them. Then entryDelimiter is 
-     * inserted between each two entries and the result is returned.
+     * inserted between each two entries and the result is returned. The
+     * result is empty if the map is empty.
      *
      * @param entryDelimiter	Delimiter to insert between each two entries
      * @param keyValDelimiter	Delimiter to insert between key and value of each 
@@ -179,6 +232,65 @@ public interface SmartMap<K, V> extends Map<K, V> {
      */
     String join(String entryDelimiter, String keyValDelimiter);
 
+    /**
+     * Like {@link #join(String, String)}, but appends keys, values and
+     * delimiters one by one to out instead of building a string, e.g. to a
+     * {@link java.io.Writer}.
+     *
+     * @param out				Appendable to write to
+     * @param entryDelimiter	Characters to insert between each two entries
+     * @param keyValDelimiter	Characters to insert between key and value of
+     * 							each entry
+     * @return 					out
+     * @throws IOException		If out throws it
+     */
+    <A extends Appendable> A joinTo(A out, CharSequence entryDelimiter, CharSequence keyValDelimiter)
+            throws IOException;
+
+    /**
+     * Appends prefix, the entries separated by entryDelimiter and suffix to
+     * out. Keys and values are converted by the formatters, or by their
+     * toString-method if the formatter is <code>null</code>.
+     *
+     * @param out				Appendable to write to
+     * @param entryDelimiter	Characters to insert between each two entries
+     * @param keyValDelimiter	Characters to insert between key and value of
+     * 							each entry
+     * @param prefix			Characters to write before the first entry
+     * @param suffix			Characters to write after the last entry
+     * @param keyFormatter		Function converting a key, or <code>null</code>
+     * @param valueFormatter	Function converting a value, or
+     * 							<code>null</code>
+     * @return 					out
+     * @throws IOException		If out throws it
+     */
+    <A extends Appendable> A joinTo(A out, CharSequence entryDelimiter, CharSequence keyValDelimiter,
+            CharSequence prefix, CharSequence suffix, UnaryFunction<? extends CharSequence, ? super K> keyFormatter,
+            UnaryFunction<? extends CharSequence, ? super V> valueFormatter) throws IOException;
+
+    /**
+     * Like {@link #joinTo(Appendable, CharSequence, CharSequence, CharSequence, CharSequence, UnaryFunction, UnaryFunction)},
+     * but encodes the output with charset and writes it to channel through a
+     * fixed-size buffer.
+     *
+     * @param channel			Channel to write to
+     * @param charset			Charset to encode the characters with
+     * @param entryDelimiter	Characters to insert between each two entries
+     * @param keyValDelimiter	Characters to insert between key and value of
+     * 							each entry
+     * @param prefix			Characters to write before the first entry
+     * @param suffix			Characters to write after the last entry
+     * @param keyFormatter		Function converting a key, or <code>null</code>
+     * @param valueFormatter	Function converting a value, or
+     * 							<code>null</code>
+     * @return 					Number of bytes written
+     * @throws IOException		If writing to channel fails
+     */
+    long joinTo(WritableByteChannel channel, Charset charset, CharSequence entryDelimiter,
+            CharSequence keyValDelimiter, CharSequence prefix, CharSequence suffix,
+            UnaryFunction<? extends CharSequence, ? super K> keyFormatter,
+            UnaryFunction<? extends CharSequence, ? super V> valueFormatter) throws IOException;
+
     /**
      * Counts all entries for which the predicate evaluates to true.
      *
@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.Collection;
+import java.util.Iterator;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.Predicate;
+
+/**
+ * Implementation of the {@link SmartList} interface for fixed-size records
+ * stored in a memory-mapped file rather than on the heap. A
+ * {@link RecordCodec} converts elements to records and back. Opening an
+ * existing file only maps it, the records are not read until they are
+ * accessed, and changes are written to the file directly.
+ *
+ * Element based methods create an element for each record they touch. The
+ * record based methods {@link #record(int)}, {@link #recordIterator()},
+ * {@link #countRecords(Predicate)}, {@link #reduceRecords(Object, BinaryFunction)}
+ * and {@link #filterRecords(Predicate)} read fields directly from the mapping
+ * through a reused {@link MappedRecord}, without creating any objects per
+ * record. Appending is amortized O(1), inserting or removing anywhere but at
+ * the end moves all following records. Results of methods returning new
+ * lists are kept on the heap.
+ *
+ * This class is not thread-safe. Call {@link #close()} once the list is no
+ * longer needed; afterwards it must not be used.
+ *
+ * @author Stefan Münchow
+ */
+public class SmartMappedRecordList<E> extends AbstractSmartList<E> implements SmartList<E>, Closeable {
+    private final MappedRecord record = new MappedRecord();
+
+    /**
+     * Opens the record list stored in file, or creates it if file does not
+     * exist or is empty.
+     *
+     * @throws IllegalArgumentException	If file holds records of another
+     * 									size or no records at all
+     * @throws IllegalStateException	If file cannot be mapped
+     *
+     * @param file		File to store the records in
+     * @param codec		Codec to convert elements to records and back
+     */
+    public SmartMappedRecordList(final File file, final RecordCodec<E> codec) {
+        super(new MappedRecordList<E>(file, codec));
+    }
+
+    SmartMappedRecordList(final File file, final RecordCodec<E> codec, final int segmentBytes) {
+        super(new MappedRecordList<E>(file, codec, segmentBytes));
+    }
+
+    /**
+     * Opens or creates the record list stored in file and appends all
+     * elements of coll.
+     *
+     * @param file		File to store the records in
+     * @param codec		Codec to convert elements to records and back
+     * @param coll		Elements to append
+     */
+    public SmartMappedRecordList(final File file, final RecordCodec<E> codec, final Collection<E> coll) {
+        this(file, codec);
+        addAll(coll);
+    }
+
+    private MappedRecordList<E> getInternalList() {
+        return (MappedRecordList<E>) internalColl;
+    }
+
+    @Override
+    protected SmartList<E> createNewInstance() {
+        return new SmartArrayList<E>();
+    }
+
+    @Override
+    protected <T> SmartList<T> createNewInstance(final Collection<T> aColl) {
+        return new SmartArrayList<T>(aColl);
+    }
+
+    /** Record methods */
+
+    /**
+     * Returns the record at index. The same instance is returned by every
+     * call, moved to the requested position.
+     *
+     * @throws IndexOutOfBoundsException	If index is not a valid position
+     *
+     * @param index		Position of the record
+     * @return			Record at index
+     */
+    public MappedRecord record(final int index) {
+        return getInternalList().record(record, index);
+    }
+
+    /**
+     * Returns an iterator over all records. It returns the same instance on
+     * every step, moved to the next position.
+     *
+     * @return			Iterator over the records
+     */
+    public Iterator<MappedRecord> recordIterator() {
+        return getInternalList().recordIterator();
+    }
+
+    /**
+     * Counts the records satisfying pred.
+     *
+     * @param pred		Predicate reading the fields of a record
+     * @return			Number of matching records
+     */
+    public int countRecords(final Predicate<? super MappedRecord> pred) {
+        int count = 0;
+        for (Iterator<MappedRecord> it = recordIterator(); it.hasNext();) {
+            if (pred.test(it.next())) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Reduces all records with funct, starting with initial.
+     *
+     * @param initial	Initial value
+     * @param funct		Function combining the value with the fields of a
+     * 					record
+     * @return			Result of the reduction
+     */
+    public <R> R reduceRecords(final R initial, final BinaryFunction<R, ? super MappedRecord> funct) {
+        R result = initial;
+        for (Iterator<MappedRecord> it = recordIterator(); it.hasNext();) {
+            result = funct.apply(result, it.next());
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes all records not satisfying pred in a single pass.
+     *
+     * @param pred		Predicate reading the fields of a record
+     * @return			This list
+     */
+    public SmartMappedRecordList<E> filterRecords(final Predicate<? super MappedRecord> pred) {
+        getInternalList().retainRecords(pred);
+        return this;
+    }
+
+    /**
+     * Writes all changes to the storage device.
+     */
+    public void sync() {
+        getInternalList().sync();
+    }
+
+    /**
+     * Writes all changes, trims the file to the records it holds and closes
+     * it.
+     */
+    @Override
+    public void close() {
+        getInternalList().close();
+    }
+
+    /** Overridden methods from SmartList */
+
+    @Override
+    public SmartMappedRecordList<E> filter(final Predicate<? super E> predicate) {
+        final RecordCodec<E> codec = getInternalList().getCodec();
+        getInternalList().retainRecords(new Predicate<MappedRecord>() {
+
+            @Override
+            public boolean test(final MappedRecord input) {
+                return predicate.test(codec.read(input));
+            }
+        });
+
+        return this;
+    }
+
+    @Override
+    public SmartMappedRecordList<E> remove(final Predicate<? super E> predicate) {
+        final RecordCodec<E> codec = getInternalList().getCodec();
+        getInternalList().retainRecords(new Predicate<MappedRecord>() {
+
+            @Override
+            public boolean test(final MappedRecord input) {
+                return !predicate.test(codec.read(input));
+            }
+        });
+
+        return this;
+    }
+}
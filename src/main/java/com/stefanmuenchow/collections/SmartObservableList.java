@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Implementation of the {@link SmartList} interface that reports all
+ * modifications to registered {@link CollectionListener}s, including those
+ * through iterators and sub lists. On top of that it offers live views,
+ * derived values and collections that are updated with each change in O(1)
+ * per changed element instead of being recomputed over the whole list.
+ *
+ * Live views stay registered until they are closed. Listeners and views are
+ * called synchronously, so they must not modify this list.
+ *
+ * @author Stefan Münchow
+ */
+public class SmartObservableList<E> extends AbstractSmartList<E> implements SmartList<E> {
+
+    /**
+     * Creates a new empty list.
+     */
+    public SmartObservableList() {
+        super(new ObservableList<E>());
+    }
+
+    /**
+     * Creates a new instance containing all elements of the specified
+     * collection.
+     *
+     * @param coll		Elements to be contained
+     */
+    public SmartObservableList(final Collection<E> coll) {
+        this();
+        addAll(coll);
+    }
+
+    private ObservableList<E> getInternalList() {
+        return (ObservableList<E>) internalColl;
+    }
+
+    @Override
+    protected SmartList<E> createNewInstance() {
+        return new SmartArrayList<E>();
+    }
+
+    @Override
+    protected <T> SmartList<T> createNewInstance(final Collection<T> aColl) {
+        return new SmartArrayList<T>(aColl);
+    }
+
+    /** Listener methods */
+
+    /**
+     * Registers a listener that is notified about all subsequent
+     * modifications.
+     *
+     * @param listener		Listener to add
+     */
+    public void addListener(final CollectionListener<? super E> listener) {
+        getInternalList().addListener(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener		Listener to remove
+     * @return				<code>true</code> if the listener was registered
+     */
+    public boolean removeListener(final CollectionListener<? super E> listener) {
+        return getInternalList().removeListener(listener);
+    }
+
+    /** Live views */
+
+    /**
+     * Returns the live number of elements satisfying pred.
+     *
+     * @param pred			Predicate to test elements with
+     * @return				Live count
+     */
+    public LiveValue<Integer> liveCount(final Predicate<? super E> pred) {
+        return LiveViews.count(getInternalList(), pred);
+    }
+
+    /**
+     * Returns the live result of reducing all elements with funct, starting
+     * with initial. Removed elements are taken out again with inverse, which
+     * must undo funct, e.g. subtraction for addition. The order in which
+     * elements are combined is the order of the changes, so funct must be
+     * commutative.
+     *
+     * @param initial		Initial value, also the value after clear
+     * @param funct			Function combining the value with an element
+     * @param inverse		Function removing an element from the value
+     * @return				Live result
+     */
+    public <R> LiveValue<R> liveReduce(final R initial, final BinaryFunction<R, ? super E> funct,
+            final BinaryFunction<R, ? super E> inverse) {
+        return LiveViews.reduce(getInternalList(), initial, funct, inverse);
+    }
+
+    /**
+     * Returns a live read-only collection of the elements satisfying pred.
+     *
+     * @param pred			Predicate to test elements with
+     * @return				Live filtered collection
+     */
+    public LiveCollection<E> liveFilter(final Predicate<? super E> pred) {
+        return LiveViews.filter(getInternalList(), pred);
+    }
+
+    /**
+     * Returns a live read-only collection of the results of funct applied to
+     * each element. funct must return equal results for equal elements.
+     *
+     * @param funct			Function to apply to elements
+     * @return				Live mapped collection
+     */
+    public <R> LiveCollection<R> liveMap(final UnaryFunction<R, ? super E> funct) {
+        return LiveViews.map(getInternalList(), funct);
+    }
+
+    /**
+     * Returns the live number of elements per key keyFunction returns. The
+     * map is read-only and contains no keys without elements.
+     *
+     * @param keyFunction	Function returning the key of an element
+     * @return				Live map from keys to counts
+     */
+    public <K> LiveValue<Map<K, Integer>> liveCountBy(final UnaryFunction<K, ? super E> keyFunction) {
+        return LiveViews.countBy(getInternalList(), keyFunction);
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.MapBinaryFunction;
+import com.stefanmuenchow.functors.MapPredicate;
+import com.stefanmuenchow.functors.Predicate;
+
+/**
+ * Implementation of the {@link SmartMap} interface decorating a hash map that
+ * reports all modifications to registered {@link MapListener}s, including
+ * those through its views and their iterators. On top of that it offers live
+ * values that are updated with each change in O(1) instead of being
+ * recomputed over the whole map.
+ *
+ * Live values stay registered until they are closed. Listeners and values
+ * are called synchronously, so they must not modify this map.
+ *
+ * @see SmartObservableList
+ *
+ * @author Stefan Münchow
+ */
+public class SmartObservableMap<K, V> extends AbstractSmartMap<K, V> implements SmartMap<K, V> {
+    private final EntrySource entrySource = new EntrySource();
+
+    /**
+     * Creates a new empty map.
+     */
+    public SmartObservableMap() {
+        super(new ObservableMap<K, V>());
+    }
+
+    /**
+     * Creates a new instance containing all entries of the specified map.
+     *
+     * @param map	Entries to be contained
+     */
+    public SmartObservableMap(final Map<K, V> map) {
+        this();
+        putAll(map);
+    }
+
+    private ObservableMap<K, V> getInternalMap() {
+        return (ObservableMap<K, V>) internalMap;
+    }
+
+    @Override
+    protected SmartMap<K, V> createNewInstance() {
+        return new SmartHashMap<K, V>();
+    }
+
+    @Override
+    protected <S, R> SmartMap<S, R> createNewInstance(final Map<S, R> aMap) {
+        return new SmartHashMap<S, R>(aMap);
+    }
+
+    /** Listener methods */
+
+    /**
+     * Registers a listener that is notified about all subsequent
+     * modifications.
+     *
+     * @param listener		Listener to add
+     */
+    public void addListener(final MapListener<? super K, ? super V> listener) {
+        getInternalMap().addListener(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener		Listener to remove
+     * @return				<code>true</code> if the listener was registered
+     */
+    public boolean removeListener(final MapListener<? super K, ? super V> listener) {
+        return getInternalMap().removeListener(listener);
+    }
+
+    /** Live values */
+
+    /**
+     * Returns the live number of entries satisfying pred.
+     *
+     * @param pred			Predicate to test entries with
+     * @return				Live count
+     */
+    public LiveValue<Integer> liveCount(final MapPredicate<? super K, ? super V> pred) {
+        return LiveViews.count(entrySource, new Predicate<Map.Entry<K, V>>() {
+
+            @Override
+            public boolean test(final Map.Entry<K, V> entry) {
+                return pred.test(entry.getKey(), entry.getValue());
+            }
+        });
+    }
+
+    /**
+     * Returns the live result of reducing all entries with funct, starting
+     * with initial. Removed entries are taken out again with inverse, which
+     * must undo funct. A replaced value is taken out with inverse before the
+     * new one is added with funct. The order in which entries are combined
+     * is the order of the changes, so funct must be commutative.
+     *
+     * @param initial		Initial value, also the value after clear
+     * @param funct			Function combining the value with an entry
+     * @param inverse		Function removing an entry from the value
+     * @return				Live result
+     */
+    public <R> LiveValue<R> liveReduce(final R initial, final MapBinaryFunction<R, ? super K, ? super V> funct,
+            final MapBinaryFunction<R, ? super K, ? super V> inverse) {
+        return LiveViews.reduce(entrySource, initial, entryFunction(funct), entryFunction(inverse));
+    }
+
+    private <R> BinaryFunction<R, Map.Entry<K, V>> entryFunction(
+            final MapBinaryFunction<R, ? super K, ? super V> funct) {
+        return new BinaryFunction<R, Map.Entry<K, V>>() {
+
+            @Override
+            public R apply(final R value, final Map.Entry<K, V> entry) {
+                return funct.apply(value, entry.getKey(), entry.getValue());
+            }
+        };
+    }
+
+    /**
+     * Entries of this map as a {@link ChangeSource}, translating map events
+     * into events on immutable entries.
+     */
+    private final class EntrySource implements ChangeSource<Map.Entry<K, V>> {
+        private final Map<CollectionListener<? super Map.Entry<K, V>>, MapListener<K, V>> adapters =
+                new IdentityHashMap<CollectionListener<? super Map.Entry<K, V>>, MapListener<K, V>>();
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return internalMap.entrySet().iterator();
+        }
+
+        @Override
+        public void addListener(final CollectionListener<? super Map.Entry<K, V>> listener) {
+            MapListener<K, V> adapter = new MapListener<K, V>() {
+
+                @Override
+                public void added(final K key, final V value) {
+                    listener.added(new SimpleImmutableEntry<K, V>(key, value));
+                }
+
+                @Override
+                public void removed(final K key, final V value) {
+                    listener.removed(new SimpleImmutableEntry<K, V>(key, value));
+                }
+
+                @Override
+                public void replaced(final K key, final V oldValue, final V newValue) {
+                    listener.replaced(new SimpleImmutableEntry<K, V>(key, oldValue),
+                            new SimpleImmutableEntry<K, V>(key, newValue));
+                }
+
+                @Override
+                public void cleared() {
+                    listener.cleared();
+                }
+            };
+
+            adapters.put(listener, adapter);
+            getInternalMap().addListener(adapter);
+        }
+
+        @Override
+        public boolean removeListener(final CollectionListener<? super Map.Entry<K, V>> listener) {
+            MapListener<K, V> adapter = adapters.remove(listener);
+            return adapter != null && getInternalMap().removeListener(adapter);
+        }
+    }
+}
@@ -0,0 +1,456 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * Factory class for n-ary set operations. In contrast to
+ * {@link SmartSet#union(Set)} and {@link SmartSet#intersection(Set)} the
+ * operations of this class leave all operands unmodified and do not build
+ * intermediate sets.
+ *
+ * If all operands are {@link SortedSet}s sharing the same ordering, the
+ * operations walk the sets in ascending order and seek forward in each set
+ * instead of probing every element. Otherwise the elements of the smallest
+ * set are probed against the hashed lookups of the other sets.
+ *
+ * @author Stefan Münchow
+ */
+public class SmartSets {
+
+    /**
+     * Creates the intersection of all given sets. The operands are visited
+     * smallest-first, none of them is changed. The result is a
+     * {@link SmartTreeSet} if all operands are sorted by the same ordering,
+     * otherwise a {@link SmartHashSet}.
+     *
+     * @param sets		Sets to intersect
+     * @return			New set containing all elements contained in each set
+     */
+    public static <E> SmartSet<E> intersectAll(final Collection<? extends Set<E>> sets) {
+        return fill(createResult(sets), intersectAllIterator(sets));
+    }
+
+    /**
+     * Creates the union of all given sets. None of the operands is changed.
+     * The result is a {@link SmartTreeSet} if all operands are sorted by the
+     * same ordering, otherwise a {@link SmartHashSet}.
+     *
+     * @param sets		Sets to unite
+     * @return			New set containing all elements contained in any set
+     */
+    public static <E> SmartSet<E> unionAll(final Collection<? extends Set<E>> sets) {
+        return fill(createResult(sets), unionAllIterator(sets));
+    }
+
+    /**
+     * Streams the intersection of all given sets without materializing it.
+     * If all operands are sorted by the same ordering, the elements are
+     * returned in ascending order. The sets must not be modified while the
+     * iterator is in use.
+     *
+     * @param sets		Sets to intersect
+     * @return			Iterator over all elements contained in each set
+     */
+    public static <E> Iterator<E> intersectAllIterator(final Collection<? extends Set<E>> sets) {
+        if (sets.isEmpty()) {
+            return Collections.<E>emptySet().iterator();
+        }
+
+        List<SortedSet<E>> sortedSets = getSortedOperands(sets);
+        if (sortedSets != null) {
+            return new SortedIntersectionIterator<E>(sortedSets);
+        }
+
+        return new HashIntersectionIterator<E>(bySize(new ArrayList<Set<E>>(sets), true));
+    }
+
+    /**
+     * Streams the union of all given sets without materializing it. Each
+     * element is returned exactly once. If all operands are sorted by the
+     * same ordering, the elements are returned in ascending order. The sets
+     * must not be modified while the iterator is in use.
+     *
+     * @param sets		Sets to unite
+     * @return			Iterator over all elements contained in any set
+     */
+    public static <E> Iterator<E> unionAllIterator(final Collection<? extends Set<E>> sets) {
+        if (sets.isEmpty()) {
+            return Collections.<E>emptySet().iterator();
+        }
+
+        List<SortedSet<E>> sortedSets = getSortedOperands(sets);
+        if (sortedSets != null) {
+            return new SortedUnionIterator<E>(sortedSets);
+        }
+
+        return new HashUnionIterator<E>(bySize(new ArrayList<Set<E>>(sets), false));
+    }
+
+    /** Helper methods */
+
+    private static <E> SmartSet<E> createResult(final Collection<? extends Set<E>> sets) {
+        List<SortedSet<E>> sortedSets = sets.isEmpty() ? null : getSortedOperands(sets);
+        if (sortedSets != null) {
+            return new SmartTreeSet<E>(sortedSets.get(0).comparator());
+        }
+
+        return new SmartHashSet<E>();
+    }
+
+    private static <E> SmartSet<E> fill(final SmartSet<E> result, final Iterator<E> it) {
+        while (it.hasNext()) {
+            result.add(it.next());
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the operands as sorted sets (unwrapping smart sets), ordered
+     * smallest-first, or <code>null</code> if not all operands are sorted by
+     * the same ordering.
+     */
+    private static <E> List<SortedSet<E>> getSortedOperands(final Collection<? extends Set<E>> sets) {
+        List<SortedSet<E>> result = new ArrayList<SortedSet<E>>(sets.size());
+        Comparator<? super E> comparator = null;
+
+        for (Set<E> set : sets) {
+            if (!(set instanceof SortedSet)) {
+                return null;
+            }
+
+            SortedSet<E> sortedSet = (SortedSet<E>) set;
+            if (sortedSet instanceof SmartSortedSet) {
+                sortedSet = ((SmartSortedSet<E>) sortedSet).toStandardCollection();
+            }
+
+            if (result.isEmpty()) {
+                comparator = sortedSet.comparator();
+            } else if (!sameComparator(comparator, sortedSet.comparator())) {
+                return null;
+            }
+
+            result.add(sortedSet);
+        }
+
+        return bySize(result, true);
+    }
+
+    private static boolean sameComparator(final Comparator<?> c1, final Comparator<?> c2) {
+        return c1 == null ? c2 == null : c1.equals(c2);
+    }
+
+    private static <S extends Set<?>> List<S> bySize(final List<S> sets, final boolean ascending) {
+        Collections.sort(sets, new Comparator<S>() {
+            @Override
+            public int compare(final S s1, final S s2) {
+                int diff = s1.size() < s2.size() ? -1 : (s1.size() == s2.size() ? 0 : 1);
+                return ascending ? diff : -diff;
+            }
+        });
+
+        return sets;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> int compare(final Comparator<? super E> comparator, final E e1, final E e2) {
+        if (comparator == null) {
+            return ((Comparable<? super E>) e1).compareTo(e2);
+        }
+
+        return comparator.compare(e1, e2);
+    }
+
+    /**
+     * Returns the least element greater than or equal to elem, or
+     * <code>null</code> if there is none. Runs in O(log n) for tree-based
+     * sets.
+     */
+    private static <E> E ceiling(final SortedSet<E> set, final E elem) {
+        if (set instanceof NavigableSet) {
+            return ((NavigableSet<E>) set).ceiling(elem);
+        }
+
+        Iterator<E> it = set.tailSet(elem).iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+
+    /**
+     * Returns the least element strictly greater than elem, or
+     * <code>null</code> if there is none.
+     */
+    private static <E> E higher(final SortedSet<E> set, final E elem) {
+        if (set instanceof NavigableSet) {
+            return ((NavigableSet<E>) set).higher(elem);
+        }
+
+        Iterator<E> it = set.tailSet(elem).iterator();
+        while (it.hasNext()) {
+            E next = it.next();
+            if (compare(set.comparator(), next, elem) > 0) {
+                return next;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Base class for iterators that compute their next element in advance.
+     */
+    private abstract static class LookaheadIterator<E> implements Iterator<E> {
+        private E next;
+        private boolean hasNext;
+        private boolean computed;
+
+        protected abstract boolean computeNext();
+
+        protected void setNext(final E elem) {
+            next = elem;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!computed) {
+                hasNext = computeNext();
+                computed = true;
+            }
+
+            return hasNext;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            computed = false;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Result of set operation is read-only");
+        }
+    }
+
+    /**
+     * Intersects sorted sets by leapfrogging: the current candidate is
+     * searched in each set; whenever a set has no exact match, its next
+     * greater element becomes the new candidate. Elements of the smallest
+     * set that cannot be contained in the result are skipped by seeking.
+     */
+    private static class SortedIntersectionIterator<E> extends LookaheadIterator<E> {
+        private final List<SortedSet<E>> sets;
+        private final Comparator<? super E> comparator;
+        private E candidate;
+        private boolean started;
+
+        SortedIntersectionIterator(final List<SortedSet<E>> sets) {
+            this.sets = sets;
+            this.comparator = sets.get(0).comparator();
+        }
+
+        @Override
+        protected boolean computeNext() {
+            SortedSet<E> smallest = sets.get(0);
+
+            if (!started) {
+                started = true;
+                candidate = smallest.isEmpty() ? null : smallest.first();
+            } else if (candidate != null) {
+                candidate = higher(smallest, candidate);
+            }
+
+            int i = 1;
+            while (candidate != null && i < sets.size()) {
+                E found = ceiling(sets.get(i), candidate);
+
+                if (found == null) {
+                    candidate = null;
+                } else if (compare(comparator, found, candidate) == 0) {
+                    i++;
+                } else {
+                    candidate = ceiling(smallest, found);
+                    i = 1;
+                }
+            }
+
+            setNext(candidate);
+            return candidate != null;
+        }
+    }
+
+    /**
+     * Intersects sets by probing each element of the smallest set against
+     * the other sets, smallest (and therefore most selective) first.
+     */
+    private static class HashIntersectionIterator<E> extends LookaheadIterator<E> {
+        private final Iterator<E> driver;
+        private final List<Set<E>> probes;
+
+        HashIntersectionIterator(final List<Set<E>> sets) {
+            this.driver = sets.get(0).iterator();
+            this.probes = sets.subList(1, sets.size());
+        }
+
+        @Override
+        protected boolean computeNext() {
+            while (driver.hasNext()) {
+                E elem = driver.next();
+
+                if (containedInAll(elem)) {
+                    setNext(elem);
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private boolean containedInAll(final E elem) {
+            for (Set<E> probe : probes) {
+                if (!probe.contains(elem)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Unites sorted sets by a k-way merge of their iterators, skipping
+     * elements equal to the previously returned one.
+     */
+    private static class SortedUnionIterator<E> extends LookaheadIterator<E> {
+        private final Comparator<? super E> comparator;
+        private final PriorityQueue<Cursor<E>> queue;
+        private E last;
+        private boolean started;
+
+        SortedUnionIterator(final List<SortedSet<E>> sets) {
+            this.comparator = sets.get(0).comparator();
+            this.queue = new PriorityQueue<Cursor<E>>(sets.size(), new Comparator<Cursor<E>>() {
+                @Override
+                public int compare(final Cursor<E> c1, final Cursor<E> c2) {
+                    return SmartSets.compare(comparator, c1.head, c2.head);
+                }
+            });
+
+            for (SortedSet<E> set : sets) {
+                Iterator<E> it = set.iterator();
+                if (it.hasNext()) {
+                    queue.add(new Cursor<E>(it));
+                }
+            }
+        }
+
+        @Override
+        protected boolean computeNext() {
+            while (!queue.isEmpty()) {
+                Cursor<E> cursor = queue.poll();
+                E elem = cursor.head;
+
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+
+                if (!started || compare(comparator, elem, last) != 0) {
+                    started = true;
+                    last = elem;
+                    setNext(elem);
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    private static class Cursor<E> {
+        private final Iterator<E> it;
+        private E head;
+
+        Cursor(final Iterator<E> it) {
+            this.it = it;
+            this.head = it.next();
+        }
+
+        boolean advance() {
+            if (it.hasNext()) {
+                head = it.next();
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Unites sets by streaming each set in turn, largest first, and skipping
+     * all elements that are contained in one of the previously streamed sets.
+     */
+    private static class HashUnionIterator<E> extends LookaheadIterator<E> {
+        private final List<Set<E>> sets;
+        private int current;
+        private Iterator<E> it;
+
+        HashUnionIterator(final List<Set<E>> sets) {
+            this.sets = sets;
+            this.it = sets.get(0).iterator();
+        }
+
+        @Override
+        protected boolean computeNext() {
+            while (true) {
+                while (it.hasNext()) {
+                    E elem = it.next();
+
+                    if (!containedInPrevious(elem)) {
+                        setNext(elem);
+                        return true;
+                    }
+                }
+
+                if (++current >= sets.size()) {
+                    return false;
+                }
+
+                it = sets.get(current).iterator();
+            }
+        }
+
+        private boolean containedInPrevious(final E elem) {
+            for (int i = 0; i < current; i++) {
+                if (sets.get(i).contains(elem)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
@@ -28,7 +28,9 @@ public interface SmartSortedMap<K, V> extends SortedMap<K, V>, SmartMap<K, V> {
 	
 	/**
 	 * Same as {@link SortedMap#subMap(Object, Object)}, but returns
-	 * a SmartSortedMap.
+	 * a SmartSortedMap. The result is a live view backed by this map, no
+	 * entries are copied. Changes to the view are written through to this 
+	 * map and vice versa. Use {@link #copy()} to get an independent map.
 	 * 
 	 * @see SortedMap#subMap(Object, Object)
 	 */
@@ -36,7 +38,7 @@ public interface SmartSortedMap<K, V> extends SortedMap<K, V>, SmartMap<K, V> {
 	
 	/**
 	 * Same as {@link SortedMap#headMap(Object)}, but returns
-	 * a SmartSortedMap.
+	 * a SmartSortedMap. The result is a live view backed by this map.
 	 * 
 	 * @see SortedMap#headMap(Object)
 	 */
@@ -44,12 +46,22 @@ public interface SmartSortedMap<K, V> extends SortedMap<K, V>, SmartMap<K, V> {
 	
 	/**
 	 * Same as {@link SortedMap#tailMap(Object)}, but returns
-	 * a SmartSortedMap.
+	 * a SmartSortedMap. The result is a live view backed by this map.
 	 * 
 	 * @see SortedMap#tailMap(Object)
 	 */
 	public SmartSortedMap<K, V> smartTailMap(final K fromKey);
 	
+	/**
+	 * Creates an independent copy of this map with the same ordering. Can be
+	 * used to detach a view returned by {@link #smartSubMap(Object, Object)},
+	 * {@link #smartHeadMap(Object)} or {@link #smartTailMap(Object)} from
+	 * its backing map.
+	 * 
+	 * @return			New map containing all entries of this map
+	 */
+	public SmartSortedMap<K, V> copy();
+	
 	/**
 	 * @see SmartMap#toStandardMap()
 	 */
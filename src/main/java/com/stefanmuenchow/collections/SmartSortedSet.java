@@ -28,7 +28,9 @@ public interface SmartSortedSet<E> extends SortedSet<E>, SmartSet<E> {
 
 	/**
 	 * Same as {@link SortedSet#subSet(Object, Object)}, but returns
-	 * a SmartSortedSet.
+	 * a SmartSortedSet. The result is a live view backed by this set, no
+	 * elements are copied. Changes to the view are written through to this
+	 * set and vice versa. Use {@link #copy()} to get an independent set.
 	 * 
 	 * @see SortedSet#subSet(Object, Object)
 	 */
@@ -36,7 +38,7 @@ public interface SmartSortedSet<E> extends SortedSet<E>, SmartSet<E> {
 	
 	/**
 	 * Same as {@link SortedSet#headSet(Object)}, but returns
-	 * a SmartSortedSet.
+	 * a SmartSortedSet. The result is a live view backed by this set.
 	 * 
 	 * @see SortedSet#headSet(Object)
 	 */
@@ -44,12 +46,22 @@ public interface SmartSortedSet<E> extends SortedSet<E>, SmartSet<E> {
 	
 	/**
 	 * Same as {@link SortedSet#tailSet(Object)}, but returns
-	 * a SmartSortedSet.
+	 * a SmartSortedSet. The result is a live view backed by this set.
 	 * 
 	 * @see SortedSet#tailSet(Object)
 	 */
 	public SmartSortedSet<E> smartTailSet(final E fromElement);
 	
+	/**
+	 * Creates an independent copy of this set with the same ordering. Can be
+	 * used to detach a view returned by {@link #smartSubSet(Object, Object)},
+	 * {@link #smartHeadSet(Object)} or {@link #smartTailSet(Object)} from
+	 * its backing set.
+	 * 
+	 * @return			New set containing all elements of this set
+	 */
+	public SmartSortedSet<E> copy();
+	
 	/**
 	 * @see SmartCollection#toStandardCollection()
 	 */
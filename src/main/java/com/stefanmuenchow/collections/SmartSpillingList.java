@@ -0,0 +1,293 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.ToIntFunction;
+import com.stefanmuenchow.functors.ToLongFunction;
+import com.stefanmuenchow.functors.UnaryFunction;
+
+/**
+ * Implementation of the {@link SmartList} interface for lists that do not
+ * fit into the heap. The elements are kept in segments of a fixed size. The
+ * segment receiving appended elements and a bounded number of recently used
+ * segments stay in memory, all others are spilled to temporary files using
+ * a {@link Codec}.
+ *
+ * Appending, sequential iteration and the methods based on it (reduce,
+ * count, exists, foreach, ...) stream over the segments. Access by index
+ * loads the segment containing the element into the segment cache.
+ * {@link #filter(Predicate)}, {@link #remove(Predicate)}, the replace
+ * methods, {@link #take(int)} and {@link #drop(int)} are rewritten to stream
+ * as well, {@link #sortWith(Comparator)} uses an external merge sort.
+ * Inserting or removing single elements anywhere but at the end rewrites
+ * the whole list. Use {@link #map(UnaryFunction, Codec)} to map
+ * into another spilling list, {@link #map(UnaryFunction)} collects its
+ * result in memory.
+ *
+ * The iterator does not support remove. Call {@link #close()} to delete the
+ * temporary files once the list is no longer needed.
+ *
+ * @see Codecs
+ *
+ * @author Stefan Münchow
+ */
+public class SmartSpillingList<E> extends AbstractSmartList<E> implements SmartList<E>, Closeable {
+    private static final int DEFAULT_SEGMENT_SIZE = 8192;
+    private static final int DEFAULT_CACHED_SEGMENTS = 4;
+
+    /**
+     * Creates a new empty list with segments of 8192 elements, keeping up to
+     * four segments in memory, spilling to the default temporary directory.
+     *
+     * @param codec				Codec to write elements with
+     */
+    public SmartSpillingList(final Codec<E> codec) {
+        this(codec, DEFAULT_SEGMENT_SIZE, DEFAULT_CACHED_SEGMENTS);
+    }
+
+    /**
+     * Creates a new empty list spilling to the default temporary directory.
+     *
+     * @throws IllegalArgumentException	If segmentSize or maxCachedSegments
+     * 									is less than one
+     *
+     * @param codec				Codec to write elements with
+     * @param segmentSize		Number of elements per segment
+     * @param maxCachedSegments	Number of full segments kept in memory
+     */
+    public SmartSpillingList(final Codec<E> codec, final int segmentSize, final int maxCachedSegments) {
+        this(codec, segmentSize, maxCachedSegments, null);
+    }
+
+    /**
+     * Creates a new empty list.
+     *
+     * @throws IllegalArgumentException	If segmentSize or maxCachedSegments
+     * 									is less than one
+     *
+     * @param codec				Codec to write elements with
+     * @param segmentSize		Number of elements per segment
+     * @param maxCachedSegments	Number of full segments kept in memory
+     * @param directory			Directory for temporary files, null for the
+     * 							default temporary directory
+     */
+    public SmartSpillingList(final Codec<E> codec, final int segmentSize, final int maxCachedSegments,
+            final File directory) {
+        super(new SpillingList<E>(codec, segmentSize, maxCachedSegments, directory));
+    }
+
+    /**
+     * Creates a new list containing all elements of coll.
+     *
+     * @param codec				Codec to write elements with
+     * @param coll				Elements to be contained
+     */
+    public SmartSpillingList(final Codec<E> codec, final Collection<E> coll) {
+        this(codec);
+        addAll(coll);
+    }
+
+    private SpillingList<E> getInternalList() {
+        return (SpillingList<E>) internalColl;
+    }
+
+    @Override
+    protected SmartSpillingList<E> createNewInstance() {
+        return newSpillingList(getInternalList().getCodec());
+    }
+
+    @Override
+    protected <T> SmartList<T> createNewInstance(final Collection<T> aColl) {
+        return new SmartArrayList<T>(aColl);
+    }
+
+    private <T> SmartSpillingList<T> newSpillingList(final Codec<T> codec) {
+        SpillingList<E> list = getInternalList();
+        return new SmartSpillingList<T>(codec, list.getSegmentSize(), list.getMaxCachedSegments(),
+                list.getDirectory());
+    }
+
+    /**
+     * Maps each element with function into a new spilling list using codec
+     * to spill the results.
+     *
+     * @param function		Function to apply to each element
+     * @param codec			Codec to write the results with
+     * @return				New list containing the results
+     */
+    public <R> SmartSpillingList<R> map(final UnaryFunction<R, ? super E> function, final Codec<R> codec) {
+        SmartSpillingList<R> result = newSpillingList(codec);
+        for (E elem : internalColl) {
+            result.add(function.apply(elem));
+        }
+
+        return result;
+    }
+
+    /**
+     * Deletes all temporary files and empties the list.
+     */
+    @Override
+    public void close() {
+        getInternalList().close();
+    }
+
+    /** Overridden methods from SmartList */
+
+    @Override
+    public SmartSpillingList<E> take(final int n) {
+        SmartSpillingList<E> result = createNewInstance();
+        Iterator<E> it = iterator();
+        for (int i = 0; i < n && it.hasNext(); i++) {
+            result.add(it.next());
+        }
+
+        return result;
+    }
+
+    @Override
+    public SmartSpillingList<E> drop(final int n) {
+        SmartSpillingList<E> result = createNewInstance();
+        Iterator<E> it = iterator();
+        for (int i = 0; it.hasNext(); i++) {
+            E elem = it.next();
+            if (i >= n) {
+                result.add(elem);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Sorts the list with an {@link ExternalMergeSort}, using runs as large
+     * as the segments that may be held in memory.
+     */
+    @Override
+    public SmartSpillingList<E> sortWith(final Comparator<? super E> comparator) {
+        SpillingList<E> list = getInternalList();
+        ExternalMergeSort<E> sorter = new ExternalMergeSort<E>(list.getCodec(), comparator,
+                list.getSegmentSize() * (list.getMaxCachedSegments() + 1), list.getDirectory());
+        sorter.sortInto(list.detach(), list);
+        return this;
+    }
+
+    /**
+     * Sorts with an external merge sort like {@link #sortWith(Comparator)}.
+     * Unlike other lists, the keys are computed on each comparison, as they
+     * cannot be spilled without a codec.
+     */
+    @Override
+    public <K extends Comparable<? super K>> SmartSpillingList<E> sortBy(
+            final UnaryFunction<K, ? super E> keyExtractor) {
+        return sortWith(KeySort.keyComparator(keyExtractor));
+    }
+
+    /**
+     * Same as {@link #sortBy(UnaryFunction)}, the external sort does not run
+     * in parallel.
+     */
+    @Override
+    public <K extends Comparable<? super K>> SmartSpillingList<E> parallelSortBy(
+            final UnaryFunction<K, ? super E> keyExtractor, final boolean stable) {
+        return sortBy(keyExtractor);
+    }
+
+    /**
+     * Sorts with an external merge sort like {@link #sortWith(Comparator)},
+     * comparing the keys computed on each comparison.
+     */
+    @Override
+    public SmartSpillingList<E> sortByIntKey(final ToIntFunction<? super E> keyExtractor) {
+        return sortWith(new Comparator<E>() {
+            @Override
+            public int compare(final E elem1, final E elem2) {
+                int key1 = keyExtractor.apply(elem1);
+                int key2 = keyExtractor.apply(elem2);
+                return key1 < key2 ? -1 : (key1 == key2 ? 0 : 1);
+            }
+        });
+    }
+
+    /**
+     * Sorts with an external merge sort like {@link #sortWith(Comparator)},
+     * comparing the keys computed on each comparison.
+     */
+    @Override
+    public SmartSpillingList<E> sortByLongKey(final ToLongFunction<? super E> keyExtractor) {
+        return sortWith(new Comparator<E>() {
+            @Override
+            public int compare(final E elem1, final E elem2) {
+                long key1 = keyExtractor.apply(elem1);
+                long key2 = keyExtractor.apply(elem2);
+                return key1 < key2 ? -1 : (key1 == key2 ? 0 : 1);
+            }
+        });
+    }
+
+    @Override
+    public SmartSpillingList<E> filter(final Predicate<? super E> predicate) {
+        Iterator<E> it = getInternalList().detach();
+        while (it.hasNext()) {
+            E elem = it.next();
+            if (predicate.test(elem)) {
+                add(elem);
+            }
+        }
+
+        return this;
+    }
+
+    @Override
+    public SmartSpillingList<E> remove(final Predicate<? super E> predicate) {
+        Iterator<E> it = getInternalList().detach();
+        while (it.hasNext()) {
+            E elem = it.next();
+            if (!predicate.test(elem)) {
+                add(elem);
+            }
+        }
+
+        return this;
+    }
+
+    @Override
+    public SmartSpillingList<E> replace(final Predicate<? super E> predicate, final E replacement) {
+        Iterator<E> it = getInternalList().detach();
+        while (it.hasNext()) {
+            E elem = it.next();
+            add(predicate.test(elem) ? replacement : elem);
+        }
+
+        return this;
+    }
+
+    @Override
+    public SmartSpillingList<E> replace(final Map<E, E> replacements) {
+        Iterator<E> it = getInternalList().detach();
+        while (it.hasNext()) {
+            E elem = it.next();
+            E replacement = replacements.get(elem);
+            add(replacement != null ? replacement : elem);
+        }
+
+        return this;
+    }
+}
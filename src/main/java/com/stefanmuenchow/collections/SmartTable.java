@@ -0,0 +1,713 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.DoublePredicate;
+import com.stefanmuenchow.functors.IntPredicate;
+import com.stefanmuenchow.functors.LongPredicate;
+import com.stefanmuenchow.functors.Predicate;
+
+/**
+ * Table storing records column by column. Each int, long and double column
+ * is a primitive array, all other columns are object arrays. Filtering,
+ * counting and reducing a single column scan one contiguous array instead of
+ * pulling whole objects through the cache, and primitive columns are never
+ * boxed.
+ *
+ * Filtering returns a view on the same columns together with a selection
+ * vector, the positions of the matching rows, which the next filter only has
+ * to scan. {@link #select(String...)} returns a view on a subset of the
+ * columns. Neither copies any column. Views see modifications of the values
+ * of their rows, but rows can only be added to the table the views were
+ * created from.
+ *
+ * @author Stefan Münchow
+ */
+public class SmartTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final SmartTable base;
+    private final Map<String, Column> columns;
+    private final int[] selection;
+    private final int selectionSize;
+    private int rowCount;
+
+    /**
+     * Creates a new empty table without columns.
+     */
+    public SmartTable() {
+        this.base = this;
+        this.columns = new LinkedHashMap<String, Column>();
+        this.selection = null;
+        this.selectionSize = 0;
+    }
+
+    private SmartTable(final SmartTable base, final Map<String, Column> columns, final int[] selection,
+            final int selectionSize) {
+        this.base = base;
+        this.columns = columns;
+        this.selection = selection;
+        this.selectionSize = selectionSize;
+    }
+
+    /** Schema methods */
+
+    /**
+     * Adds a column of primitive ints. Existing rows get the value 0.
+     *
+     * @throws IllegalArgumentException	If a column with this name exists
+     *
+     * @param name		Name of the column
+     * @return			This table
+     */
+    public SmartTable addIntColumn(final String name) {
+        return addColumn(name, new IntColumn());
+    }
+
+    /**
+     * Adds a column of primitive longs. Existing rows get the value 0.
+     *
+     * @throws IllegalArgumentException	If a column with this name exists
+     *
+     * @param name		Name of the column
+     * @return			This table
+     */
+    public SmartTable addLongColumn(final String name) {
+        return addColumn(name, new LongColumn());
+    }
+
+    /**
+     * Adds a column of primitive doubles. Existing rows get the value 0.
+     *
+     * @throws IllegalArgumentException	If a column with this name exists
+     *
+     * @param name		Name of the column
+     * @return			This table
+     */
+    public SmartTable addDoubleColumn(final String name) {
+        return addColumn(name, new DoubleColumn());
+    }
+
+    /**
+     * Adds a column of objects. Existing rows get the value
+     * <code>null</code>.
+     *
+     * @throws IllegalArgumentException	If a column with this name exists
+     *
+     * @param name		Name of the column
+     * @return			This table
+     */
+    public SmartTable addObjectColumn(final String name) {
+        return addColumn(name, new ObjectColumn());
+    }
+
+    private SmartTable addColumn(final String name, final Column column) {
+        checkModifiable();
+        if (columns.containsKey(name)) {
+            throw new IllegalArgumentException("Column " + name + " already exists");
+        }
+
+        column.ensureCapacity(rowCount);
+        columns.put(name, column);
+        return this;
+    }
+
+    /**
+     * Returns the names of the columns in the order they were added.
+     *
+     * @return			New list of column names
+     */
+    public SmartList<String> columnNames() {
+        return new SmartArrayList<String>(columns.keySet());
+    }
+
+    /** Row methods */
+
+    /**
+     * Appends a row. Values for primitive columns must be numbers.
+     *
+     * @throws IllegalArgumentException	If the number of values differs from
+     * 									the number of columns
+     * @throws UnsupportedOperationException	If this table is a view
+     *
+     * @param values	One value per column, in column order
+     * @return			This table
+     */
+    public SmartTable addRow(final Object... values) {
+        checkModifiable();
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " values but got " + values.length);
+        }
+
+        int i = 0;
+        for (Column column : columns.values()) {
+            column.ensureCapacity(rowCount + 1);
+            column.set(rowCount, values[i++]);
+        }
+
+        rowCount++;
+        return this;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return			Number of rows
+     */
+    public int size() {
+        return selection == null ? base.rowCount : selectionSize;
+    }
+
+    /**
+     * Returns <code>true</code> if the table has no rows.
+     *
+     * @return			<code>true</code> if the table is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns a list of views on the rows of this table.
+     *
+     * @return			New list of row views
+     */
+    public SmartList<TableRow> rows() {
+        int size = size();
+        SmartList<TableRow> rows = SmartArrayList.withCapacity(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(new TableRow(this, i));
+        }
+
+        return rows;
+    }
+
+    /** Value access */
+
+    /**
+     * Returns the value of an int column.
+     *
+     * @throws IllegalArgumentException	If there is no such int column
+     * @throws IndexOutOfBoundsException	If row is not a valid position
+     *
+     * @param row		Position of the row
+     * @param column	Name of the column
+     * @return			Value
+     */
+    public int getInt(final int row, final String column) {
+        return intColumn(column).values[position(row)];
+    }
+
+    /**
+     * Returns the value of a long column.
+     *
+     * @throws IllegalArgumentException	If there is no such long column
+     * @throws IndexOutOfBoundsException	If row is not a valid position
+     *
+     * @param row		Position of the row
+     * @param column	Name of the column
+     * @return			Value
+     */
+    public long getLong(final int row, final String column) {
+        return longColumn(column).values[position(row)];
+    }
+
+    /**
+     * Returns the value of a double column.
+     *
+     * @throws IllegalArgumentException	If there is no such double column
+     * @throws IndexOutOfBoundsException	If row is not a valid position
+     *
+     * @param row		Position of the row
+     * @param column	Name of the column
+     * @return			Value
+     */
+    public double getDouble(final int row, final String column) {
+        return doubleColumn(column).values[position(row)];
+    }
+
+    /**
+     * Returns the value of a column of any type, primitive values are boxed.
+     *
+     * @throws IllegalArgumentException	If there is no such column
+     * @throws IndexOutOfBoundsException	If row is not a valid position
+     *
+     * @param row		Position of the row
+     * @param column	Name of the column
+     * @return			Value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(final int row, final String column) {
+        return (T) column(column).get(position(row));
+    }
+
+    /**
+     * Sets the value of an int column.
+     *
+     * @throws IllegalArgumentException	If there is no such int column
+     * @throws IndexOutOfBoundsException	If row is not a valid position
+     *
+     * @param row		Position of the row
+     * @param column	Name of the column
+     * @param value		New value
+     */
+    public void setInt(final int row, final String column, final int value) {
+        intColumn(column).values[position(row)] = value;
+    }
+
+    /**
+     * Sets the value of a long column.
+     *
+     * @throws IllegalArgumentException	If there is no such long column
+     * @throws IndexOutOfBoundsException	If row is not a valid position
+     *
+     * @param row		Position of the row
+     * @param column	Name of the column
+     * @param value		New value
+     */
+    public void setLong(final int row, final String column, final long value) {
+        longColumn(column).values[position(row)] = value;
+    }
+
+    /**
+     * Sets the value of a double column.
+     *
+     * @throws IllegalArgumentException	If there is no such double column
+     * @throws IndexOutOfBoundsException	If row is not a valid position
+     *
+     * @param row		Position of the row
+     * @param column	Name of the column
+     * @param value		New value
+     */
+    public void setDouble(final int row, final String column, final double value) {
+        doubleColumn(column).values[position(row)] = value;
+    }
+
+    /**
+     * Sets the value of a column of any type. Values for primitive columns
+     * must be numbers.
+     *
+     * @throws IllegalArgumentException	If there is no such column
+     * @throws IndexOutOfBoundsException	If row is not a valid position
+     *
+     * @param row		Position of the row
+     * @param column	Name of the column
+     * @param value		New value
+     */
+    public void set(final int row, final String column, final Object value) {
+        column(column).set(position(row), value);
+    }
+
+    /** Column operations */
+
+    /**
+     * Returns a view on the rows whose value in an int column satisfies pred.
+     *
+     * @param column	Name of the column
+     * @param pred		Predicate to test values with
+     * @return			View on the matching rows
+     */
+    public SmartTable filterInt(final String column, final IntPredicate pred) {
+        int[] values = intColumn(column).values;
+        int size = size();
+        int[] result = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int row = selection == null ? i : selection[i];
+            if (pred.test(values[row])) {
+                result[count++] = row;
+            }
+        }
+
+        return view(columns, result, count);
+    }
+
+    /**
+     * Returns a view on the rows whose value in a long column satisfies pred.
+     *
+     * @param column	Name of the column
+     * @param pred		Predicate to test values with
+     * @return			View on the matching rows
+     */
+    public SmartTable filterLong(final String column, final LongPredicate pred) {
+        long[] values = longColumn(column).values;
+        int size = size();
+        int[] result = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int row = selection == null ? i : selection[i];
+            if (pred.test(values[row])) {
+                result[count++] = row;
+            }
+        }
+
+        return view(columns, result, count);
+    }
+
+    /**
+     * Returns a view on the rows whose value in a double column satisfies
+     * pred.
+     *
+     * @param column	Name of the column
+     * @param pred		Predicate to test values with
+     * @return			View on the matching rows
+     */
+    public SmartTable filterDouble(final String column, final DoublePredicate pred) {
+        double[] values = doubleColumn(column).values;
+        int size = size();
+        int[] result = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int row = selection == null ? i : selection[i];
+            if (pred.test(values[row])) {
+                result[count++] = row;
+            }
+        }
+
+        return view(columns, result, count);
+    }
+
+    /**
+     * Returns a view on the rows whose value in a column satisfies pred.
+     * Values of primitive columns are boxed.
+     *
+     * @param column	Name of the column
+     * @param pred		Predicate to test values with
+     * @return			View on the matching rows
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SmartTable filter(final String column, final Predicate<? super T> pred) {
+        Column col = column(column);
+        int size = size();
+        int[] result = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int row = selection == null ? i : selection[i];
+            if (pred.test((T) col.get(row))) {
+                result[count++] = row;
+            }
+        }
+
+        return view(columns, result, count);
+    }
+
+    /**
+     * Counts the rows whose value in an int column satisfies pred.
+     *
+     * @param column	Name of the column
+     * @param pred		Predicate to test values with
+     * @return			Number of matching rows
+     */
+    public int countInt(final String column, final IntPredicate pred) {
+        int[] values = intColumn(column).values;
+        int size = size();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (pred.test(values[selection == null ? i : selection[i]])) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Counts the rows whose value in a long column satisfies pred.
+     *
+     * @param column	Name of the column
+     * @param pred		Predicate to test values with
+     * @return			Number of matching rows
+     */
+    public int countLong(final String column, final LongPredicate pred) {
+        long[] values = longColumn(column).values;
+        int size = size();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (pred.test(values[selection == null ? i : selection[i]])) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Counts the rows whose value in a double column satisfies pred.
+     *
+     * @param column	Name of the column
+     * @param pred		Predicate to test values with
+     * @return			Number of matching rows
+     */
+    public int countDouble(final String column, final DoublePredicate pred) {
+        double[] values = doubleColumn(column).values;
+        int size = size();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (pred.test(values[selection == null ? i : selection[i]])) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the sum of an int column.
+     *
+     * @param column	Name of the column
+     * @return			Sum of all values
+     */
+    public long sumInt(final String column) {
+        int[] values = intColumn(column).values;
+        int size = size();
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[selection == null ? i : selection[i]];
+        }
+
+        return sum;
+    }
+
+    /**
+     * Returns the sum of a long column.
+     *
+     * @param column	Name of the column
+     * @return			Sum of all values
+     */
+    public long sumLong(final String column) {
+        long[] values = longColumn(column).values;
+        int size = size();
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[selection == null ? i : selection[i]];
+        }
+
+        return sum;
+    }
+
+    /**
+     * Returns the sum of a double column.
+     *
+     * @param column	Name of the column
+     * @return			Sum of all values
+     */
+    public double sumDouble(final String column) {
+        double[] values = doubleColumn(column).values;
+        int size = size();
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[selection == null ? i : selection[i]];
+        }
+
+        return sum;
+    }
+
+    /**
+     * Reduces the values of a column with funct, starting with initial.
+     * Values of primitive columns are boxed.
+     *
+     * @param column	Name of the column
+     * @param initial	Initial value
+     * @param funct		Function combining the result with a value
+     * @return			Result of the reduction
+     */
+    @SuppressWarnings("unchecked")
+    public <T, R> R reduce(final String column, final R initial, final BinaryFunction<R, ? super T> funct) {
+        Column col = column(column);
+        int size = size();
+        R result = initial;
+        for (int i = 0; i < size; i++) {
+            result = funct.apply(result, (T) col.get(selection == null ? i : selection[i]));
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns a view on the given columns of all rows, without copying them.
+     *
+     * @throws IllegalArgumentException	If a column does not exist
+     *
+     * @param names		Names of the columns to keep, in the order of the view
+     * @return			View on the columns
+     */
+    public SmartTable select(final String... names) {
+        Map<String, Column> selected = new LinkedHashMap<String, Column>();
+        for (String name : names) {
+            selected.put(name, column(name));
+        }
+
+        return view(selected, selection, selectionSize);
+    }
+
+    /** Helper methods */
+
+    private SmartTable view(final Map<String, Column> viewColumns, final int[] viewSelection, final int size) {
+        return new SmartTable(base, new LinkedHashMap<String, Column>(viewColumns), viewSelection, size);
+    }
+
+    private void checkModifiable() {
+        if (base != this) {
+            throw new UnsupportedOperationException("Table views cannot be extended");
+        }
+    }
+
+    private int position(final int row) {
+        if (row < 0 || row >= size()) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size());
+        }
+
+        return selection == null ? row : selection[row];
+    }
+
+    private Column column(final String name) {
+        Column column = columns.get(name);
+        if (column == null) {
+            throw new IllegalArgumentException("Unknown column: " + name);
+        }
+
+        return column;
+    }
+
+    private IntColumn intColumn(final String name) {
+        Column column = column(name);
+        if (!(column instanceof IntColumn)) {
+            throw new IllegalArgumentException("Column " + name + " is not an int column");
+        }
+
+        return (IntColumn) column;
+    }
+
+    private LongColumn longColumn(final String name) {
+        Column column = column(name);
+        if (!(column instanceof LongColumn)) {
+            throw new IllegalArgumentException("Column " + name + " is not a long column");
+        }
+
+        return (LongColumn) column;
+    }
+
+    private DoubleColumn doubleColumn(final String name) {
+        Column column = column(name);
+        if (!(column instanceof DoubleColumn)) {
+            throw new IllegalArgumentException("Column " + name + " is not a double column");
+        }
+
+        return (DoubleColumn) column;
+    }
+
+    /**
+     * Column of a table. All columns of a table hold a value for each row of
+     * the table, their arrays may be longer.
+     */
+    private abstract static class Column {
+
+        abstract void ensureCapacity(int capacity);
+
+        abstract Object get(int row);
+
+        abstract void set(int row, Object value);
+
+        static int grow(final int length, final int capacity) {
+            return Math.max(capacity, Math.max(INITIAL_CAPACITY, length + (length >> 1)));
+        }
+    }
+
+    private static final class IntColumn extends Column {
+        int[] values = new int[0];
+
+        @Override
+        void ensureCapacity(final int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+
+        @Override
+        Object get(final int row) {
+            return values[row];
+        }
+
+        @Override
+        void set(final int row, final Object value) {
+            values[row] = ((Number) value).intValue();
+        }
+    }
+
+    private static final class LongColumn extends Column {
+        long[] values = new long[0];
+
+        @Override
+        void ensureCapacity(final int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+
+        @Override
+        Object get(final int row) {
+            return values[row];
+        }
+
+        @Override
+        void set(final int row, final Object value) {
+            values[row] = ((Number) value).longValue();
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+        double[] values = new double[0];
+
+        @Override
+        void ensureCapacity(final int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+
+        @Override
+        Object get(final int row) {
+            return values[row];
+        }
+
+        @Override
+        void set(final int row, final Object value) {
+            values[row] = ((Number) value).doubleValue();
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+        Object[] values = new Object[0];
+
+        @Override
+        void ensureCapacity(final int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+
+        @Override
+        Object get(final int row) {
+            return values[row];
+        }
+
+        @Override
+        void set(final int row, final Object value) {
+            values[row] = value;
+        }
+    }
+}
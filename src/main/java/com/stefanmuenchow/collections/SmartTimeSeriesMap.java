@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Implementation of the {@link SmartSortedMap} interface specialized for
+ * time series, mapping long timestamps to double values. Points are kept in
+ * compressed blocks: timestamps as delta-of-deltas, values as XOR with the
+ * previous value. Regularly sampled series with slowly changing values need
+ * only a few bytes per point, compared to more than 80 bytes per entry in a
+ * {@link SmartTreeMap}.
+ *
+ * Points should be added with {@link #append(long, double)} in ascending
+ * timestamp order, which is O(1). Out of order points are supported but
+ * re-encode the block they are inserted into. Use {@link #cursor(long, long)}
+ * for range scans and {@link #downsample(long, long, long)} for bucket
+ * aggregates, both work on primitives. The methods of {@link SmartMap} box
+ * each point they visit.
+ *
+ * The maps returned by {@link #smartSubMap(Long, Long)},
+ * {@link #smartHeadMap(Long)} and {@link #smartTailMap(Long)} are live views
+ * on this map. Null values are not supported.
+ *
+ * @see SmartTreeMap
+ *
+ * @author Stefan Münchow
+ */
+public class SmartTimeSeriesMap extends AbstractSmartMap<Long, Double> implements SmartSortedMap<Long, Double> {
+
+    /**
+     * Creates a new empty time series.
+     */
+    public SmartTimeSeriesMap() {
+        super(new TimeSeriesMap());
+    }
+
+    /**
+     * Creates a new time series containing all entries of the specified map.
+     *
+     * @param map	Entries to be contained
+     */
+    public SmartTimeSeriesMap(final Map<Long, Double> map) {
+        this();
+        putAll(map);
+    }
+
+    private SmartTimeSeriesMap(final TimeSeriesMap view) {
+        super(view);
+    }
+
+    private TimeSeriesMap getInternalMap() {
+        return (TimeSeriesMap) internalMap;
+    }
+
+    @Override
+    protected SmartTimeSeriesMap createNewInstance() {
+        return new SmartTimeSeriesMap();
+    }
+
+    @Override
+    protected <S, R> SmartMap<S, R> createNewInstance(final Map<S, R> aMap) {
+        return new SmartTreeMap<S, R>(aMap);
+    }
+
+    /** Time series methods */
+
+    /**
+     * Adds a point to the series, replacing the value of an existing point
+     * with the same timestamp. O(1) if timestamp is greater than all other
+     * timestamps.
+     *
+     * @param timestamp		Timestamp of the point
+     * @param value			Value of the point
+     */
+    public void append(final long timestamp, final double value) {
+        getInternalMap().append(timestamp, value);
+    }
+
+    /**
+     * Returns the value of the point at timestamp, or defaultVal if there is
+     * no such point. Does not box.
+     *
+     * @param timestamp		Timestamp of the point
+     * @param defaultVal	Value to return if there is no point
+     * @return				Value at timestamp or defaultVal
+     */
+    public double valueAt(final long timestamp, final double defaultVal) {
+        Double value = getInternalMap().get(timestamp);
+        return value == null ? defaultVal : value;
+    }
+
+    /**
+     * Returns a cursor over all points in ascending order.
+     *
+     * @return				Cursor over all points
+     */
+    public TimeSeriesCursor cursor() {
+        return getInternalMap().cursor();
+    }
+
+    /**
+     * Returns a cursor over the points with timestamps from fromTimestamp
+     * (inclusive) to toTimestamp (exclusive) in ascending order.
+     *
+     * @param fromTimestamp	Low endpoint (inclusive)
+     * @param toTimestamp	High endpoint (exclusive)
+     * @return				Cursor over the points in range
+     */
+    public TimeSeriesCursor cursor(final long fromTimestamp, final long toTimestamp) {
+        if (toTimestamp == Long.MIN_VALUE) {
+            return getInternalMap().cursor(Long.MAX_VALUE, Long.MIN_VALUE);
+        }
+
+        return getInternalMap().cursor(fromTimestamp, toTimestamp - 1);
+    }
+
+    /**
+     * Aggregates the points with timestamps from fromTimestamp (inclusive) to
+     * toTimestamp (exclusive) into buckets of width bucketWidth, starting at
+     * fromTimestamp. Each bucket holds count, min, max, sum and average of
+     * its values. Buckets without points are omitted.
+     *
+     * @throws IllegalArgumentException	If bucketWidth is not positive
+     *
+     * @param fromTimestamp	Low endpoint (inclusive), start of the first bucket
+     * @param toTimestamp	High endpoint (exclusive)
+     * @param bucketWidth	Width of each bucket
+     * @return				Non-empty buckets in ascending order
+     */
+    public SmartList<TimeSeriesBucket> downsample(final long fromTimestamp, final long toTimestamp,
+            final long bucketWidth) {
+        return getInternalMap().downsample(fromTimestamp, toTimestamp, bucketWidth);
+    }
+
+    /**
+     * Returns count, min, max, sum and average of the points with timestamps
+     * from fromTimestamp (inclusive) to toTimestamp (exclusive). The width
+     * of the summary is the length of the range, limited to Long.MAX_VALUE
+     * for wider ranges.
+     *
+     * @param fromTimestamp	Low endpoint (inclusive)
+     * @param toTimestamp	High endpoint (exclusive)
+     * @return				Summary of the points in range
+     */
+    public TimeSeriesBucket summarize(final long fromTimestamp, final long toTimestamp) {
+        long width = toTimestamp - fromTimestamp;
+        if (toTimestamp <= fromTimestamp) {
+            width = 0;
+        } else if (width < 0) {
+            width = Long.MAX_VALUE;
+        }
+
+        TimeSeriesBucket bucket = new TimeSeriesBucket(fromTimestamp, width);
+        TimeSeriesCursor cursor = cursor(fromTimestamp, toTimestamp);
+        while (cursor.next()) {
+            bucket.add(cursor.value());
+        }
+
+        return bucket;
+    }
+
+    /**
+     * Returns the number of bytes used by the compressed points of the whole
+     * series, not counting per block overhead.
+     *
+     * @return				Compressed size in bytes
+     */
+    public long compressedSize() {
+        return getInternalMap().compressedBytes();
+    }
+
+    /** SortedMap methods */
+
+    @Override
+    public Comparator<? super Long> comparator() {
+        return null;
+    }
+
+    @Override
+    public SortedMap<Long, Double> subMap(final Long fromKey, final Long toKey) {
+        return getInternalMap().subMap(fromKey, toKey);
+    }
+
+    @Override
+    public SortedMap<Long, Double> headMap(final Long toKey) {
+        return getInternalMap().headMap(toKey);
+    }
+
+    @Override
+    public SortedMap<Long, Double> tailMap(final Long fromKey) {
+        return getInternalMap().tailMap(fromKey);
+    }
+
+    @Override
+    public Long firstKey() {
+        return getInternalMap().firstKey();
+    }
+
+    @Override
+    public Long lastKey() {
+        return getInternalMap().lastKey();
+    }
+
+    @Override
+    public SmartTimeSeriesMap smartSubMap(final Long fromKey, final Long toKey) {
+        return new SmartTimeSeriesMap((TimeSeriesMap) subMap(fromKey, toKey));
+    }
+
+    @Override
+    public SmartTimeSeriesMap smartHeadMap(final Long toKey) {
+        return new SmartTimeSeriesMap((TimeSeriesMap) headMap(toKey));
+    }
+
+    @Override
+    public SmartTimeSeriesMap smartTailMap(final Long fromKey) {
+        return new SmartTimeSeriesMap((TimeSeriesMap) tailMap(fromKey));
+    }
+
+    @Override
+    public SmartTimeSeriesMap copy() {
+        SmartTimeSeriesMap result = new SmartTimeSeriesMap();
+        TimeSeriesCursor cursor = cursor();
+        while (cursor.next()) {
+            result.append(cursor.timestamp(), cursor.value());
+        }
+
+        return result;
+    }
+
+    /** Overridden methods from SmartMap */
+
+    @Override
+    public SmartMap<Long, Double> tail() {
+        if (isEmpty()) {
+            throw new UnsupportedOperationException("Map is empty. No tail map available.");
+        }
+
+        SmartTimeSeriesMap result = copy();
+        result.remove(firstKey());
+        return result;
+    }
+
+    @Override
+    public SortedMap<Long, Double> toStandardMap() {
+        return getInternalMap();
+    }
+}
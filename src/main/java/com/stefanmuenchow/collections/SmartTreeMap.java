@@ -42,23 +42,34 @@ public class SmartTreeMap<K, V> extends AbstractSmartMap<K, V> implements SmartS
     public SmartTreeMap() {
         this(new TreeMap<K, V>());
     }
+
+    /**
+     * Creates a new empty map, sorted according to the specified comparator.
+     * 
+     * @param comparator	Comparator used to order the keys
+     */
+    public SmartTreeMap(final Comparator<? super K> comparator) {
+        super(new TreeMap<K, V>(comparator));
+    }
     
     /**
-     * Creates a new map from a list of tuples. Each tuple is converted to a map
-     * entry by using the first value as entry key and the second value as entry 
-     * value.
+     * Creates a new map from two lists, using each element of the first list 
+     * as a key and the element at the corresponding position in the second 
+     * list as its value. The entries are inserted directly, without pairing
+     * them in tuples.
      * 
      * @param keys		List containing keys
      * @param vals		List containing values
      */
     public SmartTreeMap(SmartList<K> keys, SmartList<V> vals) {
-    	this(keys.zipWith(vals));
+    	this(new TreeMap<K, V>());
+    	Zipping.putAll(internalMap, keys, vals);
     }
     
     /**
-     * Creates a new map from two lists, using each element of the first list 
-     * as a key and the element at the corresponding position in the second 
-     * list as its value.
+     * Creates a new map from a list of tuples. Each tuple is converted to a map
+     * entry by using the first value as entry key and the second value as entry 
+     * value.
      * 
      * @param tupleColl		Collection of tuples
      */
@@ -70,6 +81,18 @@ public class SmartTreeMap<K, V> extends AbstractSmartMap<K, V> implements SmartS
     	}
     }
 
+    /**
+     * Creates a new instance decorating sortedMap. If copy is 
+     * <code>false</code>, sortedMap is used as backing map directly, which
+     * is used to create live views on sub maps.
+     * 
+     * @param sortedMap		Map to decorate or copy
+     * @param copy			Whether to copy sortedMap
+     */
+    private SmartTreeMap(final SortedMap<K, V> sortedMap, final boolean copy) {
+        super(copy ? new TreeMap<K, V>(sortedMap) : sortedMap);
+    }
+
     private SortedMap<K, V> getInternalMap() {
         return (SortedMap<K, V>) internalMap;
     }
@@ -118,17 +141,22 @@ public class SmartTreeMap<K, V> extends AbstractSmartMap<K, V> implements SmartS
 
 	@Override
 	public SmartSortedMap<K, V> smartSubMap(K fromKey, K toKey) {
-		return createNewInstance(subMap(fromKey, toKey));
+		return new SmartTreeMap<K, V>(subMap(fromKey, toKey), false);
 	}
 
 	@Override
 	public SmartSortedMap<K, V> smartHeadMap(K toKey) {
-		return createNewInstance(headMap(toKey));
+		return new SmartTreeMap<K, V>(headMap(toKey), false);
 	}
 
 	@Override
 	public SmartSortedMap<K, V> smartTailMap(K fromKey) {
-		return createNewInstance(tailMap(fromKey));
+		return new SmartTreeMap<K, V>(tailMap(fromKey), false);
+	}
+	
+	@Override
+	public SmartSortedMap<K, V> copy() {
+		return new SmartTreeMap<K, V>(getInternalMap(), true);
 	}
     
     @Override
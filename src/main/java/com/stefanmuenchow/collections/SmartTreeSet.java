@@ -44,6 +44,15 @@ public class SmartTreeSet<E> extends AbstractSmartSet<E> implements SmartSortedS
         this(new TreeSet<E>());
     }
 
+    /**
+     * Creates a new empty set, sorted according to the specified comparator.
+     * 
+     * @param comparator	Comparator used to order the elements
+     */
+    public SmartTreeSet(final Comparator<? super E> comparator) {
+        super(new TreeSet<E>(comparator));
+    }
+
     /**
      * Creates a new instance containing all specified elements.
      * 
@@ -53,6 +62,18 @@ public class SmartTreeSet<E> extends AbstractSmartSet<E> implements SmartSortedS
         this(Arrays.asList(elems));
     }
 
+    /**
+     * Creates a new instance decorating sortedSet. If copy is 
+     * <code>false</code>, sortedSet is used as backing set directly, which
+     * is used to create live views on subsets.
+     * 
+     * @param sortedSet		Set to decorate or copy
+     * @param copy			Whether to copy sortedSet
+     */
+    private SmartTreeSet(final SortedSet<E> sortedSet, final boolean copy) {
+        super(copy ? new TreeSet<E>(sortedSet) : sortedSet);
+    }
+
     private SortedSet<E> getInternalSet() {
         return (SortedSet<E>) internalColl;
     }
@@ -101,17 +122,22 @@ public class SmartTreeSet<E> extends AbstractSmartSet<E> implements SmartSortedS
     
 	@Override
 	public SmartSortedSet<E> smartSubSet(E fromElement, E toElement) {
-		return createNewInstance(subSet(fromElement, toElement));
+		return new SmartTreeSet<E>(subSet(fromElement, toElement), false);
 	}
 
 	@Override
 	public SmartSortedSet<E> smartHeadSet(E toElement) {
-		return createNewInstance(headSet(toElement));
+		return new SmartTreeSet<E>(headSet(toElement), false);
 	}
 
 	@Override
 	public SmartSortedSet<E> smartTailSet(E fromElement) {
-		return createNewInstance(tailSet(fromElement));
+		return new SmartTreeSet<E>(tailSet(fromElement), false);
+	}
+	
+	@Override
+	public SmartSortedSet<E> copy() {
+		return new SmartTreeSet<E>(getInternalSet(), true);
 	}
     
     @Override
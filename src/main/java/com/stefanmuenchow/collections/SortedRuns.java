@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * Minimal sorted set and sorted map over arrays of elements that are already
+ * in ascending order. {@link java.util.TreeSet#addAll(java.util.Collection)}
+ * and {@link java.util.TreeMap#putAll(Map)} build their tree from such a
+ * source in linear time, without a comparison per element, if the tree is
+ * empty and uses the same comparator. Only iteration and size are
+ * supported.
+ *
+ * @author Stefan Münchow
+ */
+final class SortedRuns {
+
+    private SortedRuns() {
+    }
+
+    /**
+     * Returns <code>true</code> if the first size elements are strictly
+     * ascending according to comparator, or natural ordering if it is
+     * <code>null</code>.
+     */
+    @SuppressWarnings("unchecked")
+    static boolean isStrictlyAscending(final Object[] elems, final int size, final Comparator<?> comparator) {
+        Comparator<Object> cmp = (Comparator<Object>) comparator;
+        for (int i = 1; i < size; i++) {
+            int c = cmp == null ? ((Comparable<Object>) elems[i - 1]).compareTo(elems[i])
+                    : cmp.compare(elems[i - 1], elems[i]);
+            if (c >= 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    static <E> SortedSet<E> set(final Object[] elems, final int size, final Comparator<? super E> comparator) {
+        return new RunSet<E>(elems, size, comparator);
+    }
+
+    static <K, V> SortedMap<K, V> map(final Object[] keys, final Object[] values, final int size,
+            final Comparator<? super K> comparator) {
+        return new RunMap<K, V>(keys, values, size, comparator);
+    }
+
+    private static final class RunSet<E> extends AbstractSet<E> implements SortedSet<E> {
+        private final Object[] elems;
+        private final int size;
+        private final Comparator<? super E> comparator;
+
+        RunSet(final Object[] elems, final int size, final Comparator<? super E> comparator) {
+            this.elems = elems;
+            this.size = size;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Iterator<E> iterator() {
+            return (Iterator<E>) Arrays.asList(elems).subList(0, size).iterator();
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            return comparator;
+        }
+
+        @Override
+        public SortedSet<E> subSet(final E fromElement, final E toElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<E> headSet(final E toElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedSet<E> tailSet(final E fromElement) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E first() {
+            if (size == 0) {
+                throw new NoSuchElementException();
+            }
+
+            return (E) elems[0];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E last() {
+            if (size == 0) {
+                throw new NoSuchElementException();
+            }
+
+            return (E) elems[size - 1];
+        }
+    }
+
+    private static final class RunMap<K, V> extends AbstractMap<K, V> implements SortedMap<K, V> {
+        private final Object[] keys;
+        private final Object[] values;
+        private final int size;
+        private final Comparator<? super K> comparator;
+
+        RunMap(final Object[] keys, final Object[] values, final int size, final Comparator<? super K> comparator) {
+            this.keys = keys;
+            this.values = values;
+            this.size = size;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new AbstractSet<Map.Entry<K, V>>() {
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new Iterator<Map.Entry<K, V>>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < size;
+                        }
+
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        public Map.Entry<K, V> next() {
+                            if (next >= size) {
+                                throw new NoSuchElementException();
+                            }
+
+                            Map.Entry<K, V> entry = new SimpleImmutableEntry<K, V>((K) keys[next], (V) values[next]);
+                            next++;
+                            return entry;
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return comparator;
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(final K fromKey, final K toKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(final K toKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(final K fromKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K firstKey() {
+            if (size == 0) {
+                throw new NoSuchElementException();
+            }
+
+            return (K) keys[0];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K lastKey() {
+            if (size == 0) {
+                throw new NoSuchElementException();
+            }
+
+            return (K) keys[size - 1];
+        }
+    }
+}
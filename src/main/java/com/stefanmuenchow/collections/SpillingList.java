@@ -0,0 +1,455 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * List used by {@link SmartSpillingList}. Elements are kept in segments of a
+ * fixed number of elements. Only the last segment, which receives appended
+ * elements, and a bounded number of recently used segments are held in
+ * memory. All other segments are written to temporary files with a
+ * {@link Codec} and read back when needed.
+ *
+ * Appending and reading by index work on single segments. Inserting or
+ * removing elements anywhere else than at the end rewrites the whole list
+ * segment by segment, see {@link #detach()}.
+ *
+ * @author Stefan Münchow
+ */
+class SpillingList<E> extends AbstractList<E> implements RandomAccess, Closeable {
+    private final Codec<E> codec;
+    private final int segmentSize;
+    private final int maxCachedSegments;
+    private final File directory;
+    private List<Segment<E>> segments = new ArrayList<Segment<E>>();
+    private final LinkedHashMap<Segment<E>, Segment<E>> cache =
+            new LinkedHashMap<Segment<E>, Segment<E>>(16, 0.75f, true);
+    private int size;
+
+    SpillingList(final Codec<E> codec, final int segmentSize, final int maxCachedSegments, final File directory) {
+        if (segmentSize < 1 || maxCachedSegments < 1) {
+            throw new IllegalArgumentException("Invalid segment size or cache size");
+        }
+
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.maxCachedSegments = maxCachedSegments;
+        this.directory = directory;
+    }
+
+    Codec<E> getCodec() {
+        return codec;
+    }
+
+    int getSegmentSize() {
+        return segmentSize;
+    }
+
+    int getMaxCachedSegments() {
+        return maxCachedSegments;
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Number of segments that are currently held on disk only.
+     */
+    int spilledSegments() {
+        int result = 0;
+        for (Segment<E> segment : segments) {
+            if (segment.elements == null) {
+                result++;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Empties this list and returns an iterator over its former elements.
+     * Each segment is released as soon as the iterator has passed it, so
+     * elements can be appended to this list while iterating without holding
+     * both versions in memory or on disk.
+     */
+    Iterator<E> detach() {
+        final List<Segment<E>> detached = segments;
+        segments = new ArrayList<Segment<E>>();
+        cache.clear();
+        size = 0;
+        modCount++;
+
+        return new SegmentIterator(detached, true);
+    }
+
+    /** List methods */
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public E get(final int index) {
+        checkIndex(index);
+        return load(segments.get(index / segmentSize)).get(index % segmentSize);
+    }
+
+    @Override
+    public E set(final int index, final E element) {
+        checkIndex(index);
+        Segment<E> segment = segments.get(index / segmentSize);
+        E old = load(segment).set(index % segmentSize, element);
+        segment.dirty = true;
+        return old;
+    }
+
+    @Override
+    public boolean add(final E element) {
+        Segment<E> tail = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+
+        if (tail == null || tail.elements.size() >= segmentSize) {
+            if (tail != null) {
+                tail.dirty = true;
+                cache(tail);
+            }
+
+            tail = new Segment<E>();
+            tail.elements = new ArrayList<E>(Math.min(segmentSize, 1024));
+            segments.add(tail);
+        }
+
+        tail.elements.add(element);
+        tail.count++;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(final int index, final E element) {
+        if (index == size) {
+            add(element);
+            return;
+        }
+
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        Iterator<E> it = detach();
+        for (int i = 0; it.hasNext(); i++) {
+            if (i == index) {
+                add(element);
+            }
+
+            add(it.next());
+        }
+    }
+
+    @Override
+    public E remove(final int index) {
+        checkIndex(index);
+        E removed = null;
+
+        Iterator<E> it = detach();
+        for (int i = 0; it.hasNext(); i++) {
+            E elem = it.next();
+            if (i == index) {
+                removed = elem;
+            } else {
+                add(elem);
+            }
+        }
+
+        return removed;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(final Collection<?> c) {
+        return retain(c, false);
+    }
+
+    @Override
+    public boolean retainAll(final Collection<?> c) {
+        return retain(c, true);
+    }
+
+    @Override
+    public void clear() {
+        for (Segment<E> segment : segments) {
+            segment.delete();
+        }
+
+        segments.clear();
+        cache.clear();
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new SegmentIterator(segments, false);
+    }
+
+    /**
+     * Deletes all temporary files. The list is empty afterwards.
+     */
+    @Override
+    public void close() {
+        clear();
+    }
+
+    /** Helper methods */
+
+    private boolean retain(final Collection<?> c, final boolean contained) {
+        int oldSize = size;
+        Iterator<E> it = detach();
+
+        while (it.hasNext()) {
+            E elem = it.next();
+            if (c.contains(elem) == contained) {
+                add(elem);
+            }
+        }
+
+        return size != oldSize;
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private boolean isTail(final Segment<E> segment) {
+        return segment == segments.get(segments.size() - 1);
+    }
+
+    private List<E> load(final Segment<E> segment) {
+        List<E> elements = segment.elements;
+
+        if (elements == null) {
+            elements = readSegment(segment);
+            segment.elements = elements;
+            cache(segment);
+        } else if (!isTail(segment)) {
+            cache.get(segment);
+        }
+
+        return elements;
+    }
+
+    private void cache(final Segment<E> segment) {
+        cache.put(segment, segment);
+
+        while (cache.size() > maxCachedSegments) {
+            Segment<E> eldest = cache.keySet().iterator().next();
+            cache.remove(eldest);
+            if (eldest.dirty) {
+                writeSegment(eldest);
+            }
+
+            eldest.elements = null;
+        }
+    }
+
+    private void writeSegment(final Segment<E> segment) {
+        try {
+            if (segment.file == null) {
+                segment.file = File.createTempFile("smart-spill", ".seg", directory);
+            }
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(segment.file), 65536));
+            try {
+                for (E elem : segment.elements) {
+                    Codecs.writeNullable(codec, elem, out);
+                }
+            } finally {
+                out.close();
+            }
+
+            segment.dirty = false;
+        } catch (IOException e) {
+            if (segment.file != null) {
+                segment.file.delete();
+                segment.file = null;
+            }
+
+            throw new IllegalStateException("Could not spill segment to disk", e);
+        }
+    }
+
+    private List<E> readSegment(final Segment<E> segment) {
+        List<E> elements = new ArrayList<E>(segment.count);
+        DataInputStream in = openSegment(segment);
+
+        try {
+            for (int i = 0; i < segment.count; i++) {
+                elements.add(readElement(in));
+            }
+        } finally {
+            closeQuietly(in);
+        }
+
+        return elements;
+    }
+
+    private DataInputStream openSegment(final Segment<E> segment) {
+        try {
+            return new DataInputStream(new BufferedInputStream(new FileInputStream(segment.file), 65536));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read spilled segment", e);
+        }
+    }
+
+    private E readElement(final DataInputStream in) {
+        try {
+            return Codecs.readNullable(codec, in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read spilled segment", e);
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing left to do
+        }
+    }
+
+    private static final class Segment<E> {
+        File file;
+        int count;
+        List<E> elements;
+        boolean dirty;
+
+        void delete() {
+            if (file != null) {
+                file.delete();
+                file = null;
+            }
+
+            elements = null;
+        }
+    }
+
+    /**
+     * Iterates over segments, reading spilled segments as a stream without
+     * loading them into the cache. If release is set, each segment is
+     * deleted once it has been passed.
+     */
+    private class SegmentIterator implements Iterator<E> {
+        private final List<Segment<E>> iterated;
+        private final boolean release;
+        private final int expectedModCount = modCount;
+        private int segmentIndex;
+        private int position;
+        private Segment<E> current;
+        private List<E> elements;
+        private DataInputStream in;
+
+        SegmentIterator(final List<Segment<E>> iterated, final boolean release) {
+            this.iterated = iterated;
+            this.release = release;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (current == null || position >= current.count) {
+                finishSegment();
+                if (segmentIndex >= iterated.size()) {
+                    return false;
+                }
+
+                current = iterated.get(segmentIndex++);
+                position = 0;
+                elements = current.elements;
+                if (elements == null) {
+                    in = openSegment(current);
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public E next() {
+            if (!release && modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            E elem = elements != null ? elements.get(position) : readElement(in);
+            position++;
+            if (position >= current.count) {
+                finishSegment();
+            }
+
+            return elem;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Use filter or remove(Predicate) on spilling lists");
+        }
+
+        private void finishSegment() {
+            if (in != null) {
+                closeQuietly(in);
+                in = null;
+            }
+
+            if (current != null && release) {
+                current.delete();
+            }
+
+            current = null;
+            elements = null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+/**
+ * View on one row of a {@link SmartTable}, as returned by
+ * {@link SmartTable#rows()}. Values are read from and written to the columns
+ * of the table; the accessors are those of {@link SmartTable} with the row
+ * fixed.
+ *
+ * @author Stefan Münchow
+ */
+public final class TableRow {
+    private final SmartTable table;
+    private final int row;
+
+    TableRow(final SmartTable table, final int row) {
+        this.table = table;
+        this.row = row;
+    }
+
+    /**
+     * Returns the position of this row in its table.
+     *
+     * @return			Row index
+     */
+    public int getIndex() {
+        return row;
+    }
+
+    public int getInt(final String column) {
+        return table.getInt(row, column);
+    }
+
+    public long getLong(final String column) {
+        return table.getLong(row, column);
+    }
+
+    public double getDouble(final String column) {
+        return table.getDouble(row, column);
+    }
+
+    public <T> T get(final String column) {
+        return table.<T>get(row, column);
+    }
+
+    public void set(final String column, final Object value) {
+        table.set(row, column, value);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        for (String column : table.columnNames()) {
+            if (result.length() > 1) {
+                result.append(", ");
+            }
+
+            Object value = table.get(row, column);
+            result.append(column).append('=').append(value);
+        }
+
+        return result.append(']').toString();
+    }
+}
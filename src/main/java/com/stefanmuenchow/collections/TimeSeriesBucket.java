@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+/**
+ * Summary of the points of a {@link SmartTimeSeriesMap} whose timestamps
+ * fall into one bucket of a fixed width. Returned by
+ * {@link SmartTimeSeriesMap#downsample(long, long, long)}.
+ *
+ * @author Stefan Münchow
+ */
+public class TimeSeriesBucket {
+    private final long start;
+    private final long width;
+    private int count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private double sum;
+
+    TimeSeriesBucket(final long start, final long width) {
+        this.start = start;
+        this.width = width;
+    }
+
+    void add(final double value) {
+        if (count == 0 || value < min) {
+            min = value;
+        }
+
+        if (count == 0 || value > max) {
+            max = value;
+        }
+
+        sum += value;
+        count++;
+    }
+
+    /**
+     * @return	First timestamp of the bucket (inclusive)
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return	Width of the bucket
+     */
+    public long getWidth() {
+        return width;
+    }
+
+    /**
+     * @return	Number of points in the bucket
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return	Smallest value in the bucket
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return	Greatest value in the bucket
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @return	Sum of the values in the bucket
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return	Average of the values in the bucket
+     */
+    public double getAverage() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ": count=" + count + ", min=" + min + ", max=" + max + ", avg=" + getAverage() + "]";
+    }
+}
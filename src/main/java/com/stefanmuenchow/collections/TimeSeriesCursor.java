@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import com.stefanmuenchow.collections.TimeSeriesMap.Block;
+import com.stefanmuenchow.collections.TimeSeriesMap.BlockReader;
+import com.stefanmuenchow.collections.TimeSeriesMap.Store;
+
+/**
+ * Cursor over the points of a {@link SmartTimeSeriesMap} in ascending
+ * timestamp order. Points are decoded one by one, timestamps and values are
+ * returned as primitives without creating any objects per point.
+ *
+ * <pre>
+ * TimeSeriesCursor cursor = series.cursor(from, to);
+ * while (cursor.next()) {
+ *     process(cursor.timestamp(), cursor.value());
+ * }
+ * </pre>
+ *
+ * The cursor must not be used after the map has been modified.
+ *
+ * @author Stefan Münchow
+ */
+public final class TimeSeriesCursor {
+    private final Store store;
+    private final long max;
+    private int blockIndex;
+    private BlockReader reader;
+    private long timestamp;
+    private double value;
+    private boolean positioned;
+    private boolean done;
+
+    TimeSeriesCursor(final Store store, final long min, final long max) {
+        this.store = store;
+        this.max = max;
+        this.done = min > max;
+
+        if (!done) {
+            blockIndex = Math.max(0, store.floorBlock(min));
+            while (nextPoint()) {
+                if (timestamp >= min) {
+                    positioned = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the cursor to the next point.
+     *
+     * @return			<code>true</code> if there was another point in range
+     */
+    public boolean next() {
+        if (positioned) {
+            positioned = false;
+            return true;
+        }
+
+        if (done || !nextPoint()) {
+            done = true;
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return			Timestamp of the current point
+     */
+    public long timestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return			Value of the current point
+     */
+    public double value() {
+        return value;
+    }
+
+    private boolean nextPoint() {
+        while (reader == null || !reader.next()) {
+            if (blockIndex >= store.blocks.size()) {
+                done = true;
+                return false;
+            }
+
+            Block block = store.blocks.get(blockIndex++);
+            reader = new BlockReader(block);
+        }
+
+        timestamp = reader.timestamp;
+        value = reader.value();
+        if (timestamp > max) {
+            done = true;
+            return false;
+        }
+
+        return true;
+    }
+}
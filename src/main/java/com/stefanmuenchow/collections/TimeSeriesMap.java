@@ -0,0 +1,742 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * Sorted map from primitive long timestamps to primitive double values.
+ * Points are stored in blocks of up to {@link #BLOCK_SIZE} points. Each
+ * block encodes its timestamps as delta-of-deltas and its values as XORs
+ * with the previous value (as described for Facebook's Gorilla time series
+ * database), so regular series need only a few bits per point.
+ *
+ * Appending a point with a timestamp after the last one is O(1). Inserting
+ * or removing other points re-encodes the affected block.
+ *
+ * Instances returned by {@link #subMap(Long, Long)}, {@link #headMap(Long)}
+ * and {@link #tailMap(Long)} are live views on the same blocks restricted
+ * to a range of timestamps.
+ *
+ * @see SmartTimeSeriesMap
+ *
+ * @author Stefan Münchow
+ */
+class TimeSeriesMap extends AbstractMap<Long, Double> implements SortedMap<Long, Double> {
+    static final int BLOCK_SIZE = 1024;
+
+    private final Store store;
+    private final long min;
+    private final long max;
+    private Set<Map.Entry<Long, Double>> entrySet;
+
+    TimeSeriesMap() {
+        this(new Store(), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    private TimeSeriesMap(final Store store, final long min, final long max) {
+        this.store = store;
+        this.min = min;
+        this.max = max;
+    }
+
+    private boolean isRestricted() {
+        return min != Long.MIN_VALUE || max != Long.MAX_VALUE;
+    }
+
+    private boolean inRange(final long timestamp) {
+        return timestamp >= min && timestamp <= max;
+    }
+
+    /** Primitive access */
+
+    void append(final long timestamp, final double value) {
+        if (!inRange(timestamp)) {
+            throw new IllegalArgumentException("Timestamp out of range: " + timestamp);
+        }
+
+        if (!store.appendLast(timestamp, value)) {
+            store.put(timestamp, value);
+        }
+    }
+
+    TimeSeriesCursor cursor(final long from, final long to) {
+        long lower = Math.max(min, from);
+        long upper = Math.min(max, to);
+        return new TimeSeriesCursor(store, lower, upper);
+    }
+
+    TimeSeriesCursor cursor() {
+        return new TimeSeriesCursor(store, min, max);
+    }
+
+    SmartList<TimeSeriesBucket> downsample(final long from, final long to, final long bucketWidth) {
+        if (bucketWidth <= 0) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+
+        SmartList<TimeSeriesBucket> result = new SmartArrayList<TimeSeriesBucket>();
+        if (to == Long.MIN_VALUE) {
+            return result;
+        }
+
+        TimeSeriesCursor cursor = cursor(from, to - 1);
+        TimeSeriesBucket bucket = null;
+
+        while (cursor.next()) {
+            long timestamp = cursor.timestamp();
+            if (bucket == null || unsignedCompare(timestamp - bucket.getStart(), bucketWidth) >= 0) {
+                long start = timestamp - unsignedRemainder(timestamp - from, bucketWidth);
+                bucket = new TimeSeriesBucket(start, bucketWidth);
+                result.add(bucket);
+            }
+
+            bucket.add(cursor.value());
+        }
+
+        return result;
+    }
+
+    /**
+     * Compares two longs as unsigned values. The distance between two
+     * timestamps may exceed Long.MAX_VALUE, e.g. when the range starts at
+     * Long.MIN_VALUE, but always fits into an unsigned long.
+     */
+    private static int unsignedCompare(final long a, final long b) {
+        long x = a + Long.MIN_VALUE;
+        long y = b + Long.MIN_VALUE;
+        return x < y ? -1 : (x == y ? 0 : 1);
+    }
+
+    /**
+     * Returns the remainder of the unsigned value dividend divided by the
+     * positive divisor.
+     */
+    private static long unsignedRemainder(final long dividend, final long divisor) {
+        if (dividend >= 0) {
+            return dividend % divisor;
+        }
+
+        long remainder = dividend - (((dividend >>> 1) / divisor) << 1) * divisor;
+        return unsignedCompare(remainder, divisor) >= 0 ? remainder - divisor : remainder;
+    }
+
+    long compressedBytes() {
+        long bits = 0;
+        for (Block block : store.blocks) {
+            bits += block.bitPos;
+        }
+
+        return (bits + 7) / 8;
+    }
+
+    /** Map methods */
+
+    @Override
+    public int size() {
+        if (!isRestricted()) {
+            return store.size;
+        }
+
+        int size = 0;
+        int first = Math.max(0, store.floorBlock(min));
+        for (int i = first; i < store.blocks.size(); i++) {
+            Block block = store.blocks.get(i);
+            if (block.firstTs > max) {
+                break;
+            }
+
+            if (block.firstTs >= min && block.lastTs <= max) {
+                size += block.count;
+            } else {
+                BlockReader reader = new BlockReader(block);
+                while (reader.next()) {
+                    if (inRange(reader.timestamp)) {
+                        size++;
+                    }
+                }
+            }
+        }
+
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Double get(final Object key) {
+        if (!(key instanceof Long) || !inRange((Long) key)) {
+            return null;
+        }
+
+        return store.get((Long) key);
+    }
+
+    @Override
+    public Double put(final Long key, final Double value) {
+        if (!inRange(key)) {
+            throw new IllegalArgumentException("Timestamp out of range: " + key);
+        }
+
+        if (store.appendLast(key, value)) {
+            return null;
+        }
+
+        return store.put(key, value);
+    }
+
+    @Override
+    public Double remove(final Object key) {
+        if (!(key instanceof Long) || !inRange((Long) key)) {
+            return null;
+        }
+
+        return store.remove((Long) key);
+    }
+
+    @Override
+    public void clear() {
+        if (!isRestricted()) {
+            store.clear();
+        } else {
+            Iterator<Map.Entry<Long, Double>> it = entrySet().iterator();
+            while (it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<Long, Double>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<Long, Double>>() {
+                @Override
+                public Iterator<Map.Entry<Long, Double>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return TimeSeriesMap.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    TimeSeriesMap.this.clear();
+                }
+            };
+        }
+
+        return entrySet;
+    }
+
+    /** SortedMap methods */
+
+    @Override
+    public Comparator<? super Long> comparator() {
+        return null;
+    }
+
+    @Override
+    public SortedMap<Long, Double> subMap(final Long fromKey, final Long toKey) {
+        if (fromKey > toKey) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+
+        return restrict(fromKey, toKey);
+    }
+
+    @Override
+    public SortedMap<Long, Double> headMap(final Long toKey) {
+        return restrict(Long.MIN_VALUE, toKey);
+    }
+
+    @Override
+    public SortedMap<Long, Double> tailMap(final Long fromKey) {
+        return new TimeSeriesMap(store, Math.max(min, fromKey), max);
+    }
+
+    private SortedMap<Long, Double> restrict(final long fromKey, final long toKey) {
+        if (toKey == Long.MIN_VALUE) {
+            return new TimeSeriesMap(store, Long.MAX_VALUE, Long.MIN_VALUE);
+        }
+
+        return new TimeSeriesMap(store, Math.max(min, fromKey), Math.min(max, toKey - 1));
+    }
+
+    @Override
+    public Long firstKey() {
+        TimeSeriesCursor cursor = cursor();
+        if (!cursor.next()) {
+            throw new NoSuchElementException();
+        }
+
+        return cursor.timestamp();
+    }
+
+    @Override
+    public Long lastKey() {
+        int index = store.floorBlock(max);
+        if (index >= 0) {
+            BlockReader reader = new BlockReader(store.blocks.get(index));
+            long last = 0;
+            boolean found = false;
+
+            while (reader.next() && reader.timestamp <= max) {
+                last = reader.timestamp;
+                found = true;
+            }
+
+            if (found && last >= min) {
+                return last;
+            }
+        }
+
+        throw new NoSuchElementException();
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<Long, Double>> {
+        private TimeSeriesCursor cursor = cursor();
+        private boolean hasNext;
+        private boolean computed;
+        private boolean canRemove;
+        private int expectedModCount = store.modCount;
+
+        @Override
+        public boolean hasNext() {
+            if (!computed) {
+                hasNext = cursor.next();
+                computed = true;
+            }
+
+            return hasNext;
+        }
+
+        @Override
+        public Map.Entry<Long, Double> next() {
+            if (store.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            computed = false;
+            canRemove = true;
+            return new AbstractMap.SimpleImmutableEntry<Long, Double>(cursor.timestamp(), cursor.value());
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+
+            long last = cursor.timestamp();
+            store.remove(last);
+            expectedModCount = store.modCount;
+            canRemove = false;
+            computed = false;
+
+            if (last == max) {
+                cursor = new TimeSeriesCursor(store, Long.MAX_VALUE, Long.MIN_VALUE);
+            } else {
+                cursor = new TimeSeriesCursor(store, last + 1, max);
+            }
+        }
+    }
+
+    /**
+     * The blocks shared by a map and all of its views, ordered by their
+     * first timestamp and not overlapping.
+     */
+    static final class Store {
+        final List<Block> blocks = new ArrayList<Block>();
+        int size;
+        int modCount;
+
+        /**
+         * Index of the last block whose first timestamp is less than or equal
+         * to timestamp, or -1 if there is none.
+         */
+        int floorBlock(final long timestamp) {
+            int low = 0;
+            int high = blocks.size() - 1;
+            int result = -1;
+
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (blocks.get(mid).firstTs <= timestamp) {
+                    result = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * Appends the point if its timestamp is after all others. Returns
+         * <code>false</code> if the point has to be inserted.
+         */
+        boolean appendLast(final long timestamp, final double value) {
+            Block last = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+            if (last != null && timestamp <= last.lastTs) {
+                return false;
+            }
+
+            if (last == null || last.count >= BLOCK_SIZE) {
+                if (last != null) {
+                    last.trim();
+                }
+
+                last = new Block();
+                blocks.add(last);
+            }
+
+            last.append(timestamp, value);
+            size++;
+            modCount++;
+            return true;
+        }
+
+        Double get(final long timestamp) {
+            int index = floorBlock(timestamp);
+            if (index < 0 || timestamp > blocks.get(index).lastTs) {
+                return null;
+            }
+
+            BlockReader reader = new BlockReader(blocks.get(index));
+            while (reader.next()) {
+                if (reader.timestamp == timestamp) {
+                    return reader.value();
+                } else if (reader.timestamp > timestamp) {
+                    break;
+                }
+            }
+
+            return null;
+        }
+
+        Double put(final long timestamp, final double value) {
+            if (appendLast(timestamp, value)) {
+                return null;
+            }
+
+            int index = Math.max(0, floorBlock(timestamp));
+            Block block = blocks.get(index);
+            long[] timestamps = new long[block.count + 1];
+            double[] values = new double[block.count + 1];
+            block.decode(timestamps, values);
+
+            int pos = Arrays.binarySearch(timestamps, 0, block.count, timestamp);
+            if (pos >= 0) {
+                Double old = values[pos];
+                values[pos] = value;
+                blocks.set(index, Block.encode(timestamps, values, 0, block.count));
+                return old;
+            }
+
+            int insert = -pos - 1;
+            int count = block.count;
+            System.arraycopy(timestamps, insert, timestamps, insert + 1, count - insert);
+            System.arraycopy(values, insert, values, insert + 1, count - insert);
+            timestamps[insert] = timestamp;
+            values[insert] = value;
+            count++;
+
+            if (count > BLOCK_SIZE) {
+                int half = count / 2;
+                blocks.set(index, Block.encode(timestamps, values, 0, half));
+                blocks.add(index + 1, Block.encode(timestamps, values, half, count));
+            } else {
+                blocks.set(index, Block.encode(timestamps, values, 0, count));
+            }
+
+            size++;
+            modCount++;
+            return null;
+        }
+
+        Double remove(final long timestamp) {
+            int index = floorBlock(timestamp);
+            if (index < 0 || timestamp > blocks.get(index).lastTs) {
+                return null;
+            }
+
+            Block block = blocks.get(index);
+            long[] timestamps = new long[block.count];
+            double[] values = new double[block.count];
+            block.decode(timestamps, values);
+
+            int pos = Arrays.binarySearch(timestamps, timestamp);
+            if (pos < 0) {
+                return null;
+            }
+
+            Double old = values[pos];
+            int count = block.count - 1;
+            System.arraycopy(timestamps, pos + 1, timestamps, pos, count - pos);
+            System.arraycopy(values, pos + 1, values, pos, count - pos);
+
+            if (count == 0) {
+                blocks.remove(index);
+            } else {
+                Block encoded = Block.encode(timestamps, values, 0, count);
+                if (index < blocks.size() - 1) {
+                    encoded.trim();
+                }
+
+                blocks.set(index, encoded);
+            }
+
+            size--;
+            modCount++;
+            return old;
+        }
+
+        void clear() {
+            blocks.clear();
+            size = 0;
+            modCount++;
+        }
+    }
+
+    /**
+     * A compressed block of points. Timestamps are written as
+     * delta-of-deltas with variable length prefixes, values as XOR with the
+     * previous value, storing only the meaningful bits.
+     */
+    static final class Block {
+        long[] words = new long[4];
+        int bitPos;
+        int count;
+        long firstTs;
+        long lastTs;
+        private long prevDelta;
+        private long prevBits;
+        private int prevLeading = -1;
+        private int prevTrailing;
+
+        static Block encode(final long[] timestamps, final double[] values, final int from, final int to) {
+            Block block = new Block();
+            for (int i = from; i < to; i++) {
+                block.append(timestamps[i], values[i]);
+            }
+
+            return block;
+        }
+
+        void decode(final long[] timestamps, final double[] values) {
+            BlockReader reader = new BlockReader(this);
+            for (int i = 0; reader.next(); i++) {
+                timestamps[i] = reader.timestamp;
+                values[i] = reader.value();
+            }
+        }
+
+        void append(final long timestamp, final double value) {
+            long bits = Double.doubleToRawLongBits(value);
+
+            if (count == 0) {
+                firstTs = timestamp;
+                writeBits(bits, 64);
+            } else {
+                long delta = timestamp - lastTs;
+                writeDeltaOfDelta(delta - prevDelta);
+                writeValue(bits);
+                prevDelta = delta;
+            }
+
+            prevBits = bits;
+            lastTs = timestamp;
+            count++;
+        }
+
+        void trim() {
+            words = Arrays.copyOf(words, (bitPos + 63) >>> 6);
+        }
+
+        private void writeDeltaOfDelta(final long dod) {
+            if (dod == 0) {
+                writeBits(0, 1);
+            } else if (dod >= -63 && dod <= 64) {
+                writeBits(0x2, 2);
+                writeBits(dod + 63, 7);
+            } else if (dod >= -255 && dod <= 256) {
+                writeBits(0x6, 3);
+                writeBits(dod + 255, 9);
+            } else if (dod >= -2047 && dod <= 2048) {
+                writeBits(0xE, 4);
+                writeBits(dod + 2047, 12);
+            } else {
+                writeBits(0xF, 4);
+                writeBits(dod, 64);
+            }
+        }
+
+        private void writeValue(final long bits) {
+            long xor = bits ^ prevBits;
+
+            if (xor == 0) {
+                writeBits(0, 1);
+                return;
+            }
+
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+
+            if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+                writeBits(0x2, 2);
+                writeBits(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+            } else {
+                int length = 64 - leading - trailing;
+                writeBits(0x3, 2);
+                writeBits(leading, 5);
+                writeBits(length - 1, 6);
+                writeBits(xor >>> trailing, length);
+                prevLeading = leading;
+                prevTrailing = trailing;
+            }
+        }
+
+        /**
+         * Writes the lowest n bits of value, most significant bit first.
+         */
+        private void writeBits(final long value, final int n) {
+            if (bitPos + n > words.length * 64) {
+                words = Arrays.copyOf(words, Math.max(words.length * 2, (bitPos + n + 63) >>> 6));
+            }
+
+            long bits = n < 64 ? value & ((1L << n) - 1) : value;
+            int index = bitPos >>> 6;
+            int free = 64 - (bitPos & 63);
+
+            if (n <= free) {
+                words[index] |= bits << (free - n);
+            } else {
+                int rest = n - free;
+                words[index] |= bits >>> rest;
+                words[index + 1] |= bits << (64 - rest);
+            }
+
+            bitPos += n;
+        }
+
+        long readBits(final int pos, final int n) {
+            int index = pos >>> 6;
+            int offset = pos & 63;
+            int available = 64 - offset;
+
+            if (n <= available) {
+                return (words[index] << offset) >>> (64 - n);
+            }
+
+            int rest = n - available;
+            long high = words[index] & ((1L << available) - 1);
+            return (high << rest) | (words[index + 1] >>> (64 - rest));
+        }
+    }
+
+    /**
+     * Sequential decoder for the points of a block.
+     */
+    static final class BlockReader {
+        private final Block block;
+        private int pos;
+        private int index;
+        long timestamp;
+        private long delta;
+        private long bits;
+        private int leading;
+        private int trailing;
+
+        BlockReader(final Block block) {
+            this.block = block;
+        }
+
+        double value() {
+            return Double.longBitsToDouble(bits);
+        }
+
+        boolean next() {
+            if (index >= block.count) {
+                return false;
+            }
+
+            if (index == 0) {
+                timestamp = block.firstTs;
+                bits = read(64);
+            } else {
+                delta += readDeltaOfDelta();
+                timestamp += delta;
+                readValue();
+            }
+
+            index++;
+            return true;
+        }
+
+        private long read(final int n) {
+            long result = block.readBits(pos, n);
+            pos += n;
+            return result;
+        }
+
+        private long readDeltaOfDelta() {
+            if (read(1) == 0) {
+                return 0;
+            } else if (read(1) == 0) {
+                return read(7) - 63;
+            } else if (read(1) == 0) {
+                return read(9) - 255;
+            } else if (read(1) == 0) {
+                return read(12) - 2047;
+            }
+
+            return read(64);
+        }
+
+        private void readValue() {
+            if (read(1) == 0) {
+                return;
+            }
+
+            if (read(1) == 0) {
+                bits ^= read(64 - leading - trailing) << trailing;
+            } else {
+                leading = (int) read(5);
+                int length = (int) read(6) + 1;
+                trailing = 64 - leading - length;
+                bits ^= read(length) << trailing;
+            }
+        }
+    }
+}
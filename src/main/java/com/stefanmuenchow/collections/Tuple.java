@@ -15,12 +15,18 @@ package com.stefanmuenchow.collections;
 /**
  * Simple tuple implementation. A tuple is a pair of two values of any desired 
  * type.
+ * 
+ * The hash code depends on the order of the values and is mixed, so that 
+ * tuples of equal or swapped values do not collide, and it is cached after
+ * it has been computed once. Values should therefore not be modified in a 
+ * way that changes their hash codes while the tuple is in use.
  *  
  * @author Stefan Münchow
  */
 public class Tuple<K, V> {
     private final K first;
     private final V second;
+    private int hash;
 
     public Tuple(final K key, final V value) {
         this.first = key;
@@ -50,8 +56,8 @@ public class Tuple<K, V> {
     	if (obj instanceof Tuple) {
     		@SuppressWarnings("rawtypes")
 			Tuple tuple = (Tuple) obj;
-    		return getFirst().equals(tuple.getFirst())
-    				&& getSecond().equals(tuple.getSecond());
+    		return equal(getFirst(), tuple.getFirst())
+    				&& equal(getSecond(), tuple.getSecond());
     		
     	}
     	
@@ -60,7 +66,35 @@ public class Tuple<K, V> {
     
     @Override
     public int hashCode() {
-    	return getFirst().hashCode() ^ getSecond().hashCode();
+    	int h = hash;
+    	if (h == 0) {
+    		h = hash(getFirst(), getSecond());
+    		hash = h;
+    	}
+    	
+    	return h;
+    }
+    
+    /**
+     * Combines the hash codes of first and second in an order dependent way
+     * and mixes the bits with the finalizer of MurmurHash3, so that similar
+     * pairs spread over all bits.
+     */
+    static int hash(final Object first, final Object second) {
+    	int h = hash(first) * 0x9E3779B9 + hash(second);
+    	h ^= h >>> 16;
+    	h *= 0x85EBCA6B;
+    	h ^= h >>> 13;
+    	h *= 0xC2B2AE35;
+    	return h ^ (h >>> 16);
+    }
+    
+    private static boolean equal(final Object obj1, final Object obj2) {
+    	return obj1 == null ? obj2 == null : obj1.equals(obj2);
+    }
+    
+    private static int hash(final Object obj) {
+    	return obj == null ? 0 : obj.hashCode();
     }
     
     @Override
@@ -0,0 +1,601 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.AbstractSequentialList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Doubly linked list whose nodes hold up to 32 elements in an array instead
+ * of a single one. Iteration reads consecutive array slots, most steps
+ * without a cache miss, and the per-element overhead is close to that of an
+ * array list. Adding and removing at both ends is O(1), as is removing or
+ * inserting through an iterator, which moves at most half the elements of one
+ * node. Access by index walks the nodes from the nearer end.
+ *
+ * The elements of a node occupy a contiguous range of its array that can
+ * grow in both directions, so a node at the head has room for elements added
+ * in front. A full node is split in halves when an element is inserted into
+ * it, and a node is merged with its successor once both together are at
+ * most half full.
+ *
+ * @author Stefan Münchow
+ */
+final class UnrolledLinkedList<E> extends AbstractSequentialList<E> implements Deque<E> {
+    static final int NODE_CAPACITY = 32;
+
+    private Node head;
+    private Node tail;
+    private int size;
+
+    UnrolledLinkedList() {
+    }
+
+    UnrolledLinkedList(final Collection<? extends E> coll) {
+        addAll(coll);
+    }
+
+    /**
+     * Node holding the elements items[start] to items[start + count - 1].
+     */
+    private static final class Node {
+        final Object[] items = new Object[NODE_CAPACITY];
+        int start;
+        int count;
+        Node prev;
+        Node next;
+
+        Node(final int start) {
+            this.start = start;
+        }
+    }
+
+    /** Structural helpers */
+
+    private void linkFirst(final E elem) {
+        if (head == null || head.start == 0) {
+            Node node = new Node(NODE_CAPACITY);
+            linkBefore(node, head);
+        }
+
+        head.items[--head.start] = elem;
+        head.count++;
+        size++;
+        modCount++;
+    }
+
+    private void linkLast(final E elem) {
+        if (tail == null || tail.start + tail.count == NODE_CAPACITY) {
+            Node node = new Node(0);
+            linkAfter(node, tail);
+        }
+
+        tail.items[tail.start + tail.count++] = elem;
+        size++;
+        modCount++;
+    }
+
+    private void linkBefore(final Node node, final Node succ) {
+        if (succ == null) {
+            head = node;
+            tail = node;
+        } else {
+            node.next = succ;
+            node.prev = succ.prev;
+            if (succ.prev == null) {
+                head = node;
+            } else {
+                succ.prev.next = node;
+            }
+
+            succ.prev = node;
+        }
+    }
+
+    private void linkAfter(final Node node, final Node pred) {
+        if (pred == null) {
+            head = node;
+            tail = node;
+        } else {
+            node.prev = pred;
+            node.next = pred.next;
+            if (pred.next == null) {
+                tail = node;
+            } else {
+                pred.next.prev = node;
+            }
+
+            pred.next = node;
+        }
+    }
+
+    private void unlink(final Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E item(final Node node, final int offset) {
+        return (E) node.items[node.start + offset];
+    }
+
+    /**
+     * Inserts elem at offset into node, splitting the node if it is full.
+     * Returns the node that holds elem afterwards and stores the offset of
+     * elem in that node in position[0].
+     */
+    private Node insert(final Node target, final int offset, final E elem, final int[] position) {
+        Node node = target;
+        int at = offset;
+        if (node.count == NODE_CAPACITY) {
+            int half = NODE_CAPACITY / 2;
+            Node upper = new Node(0);
+            System.arraycopy(node.items, node.start + half, upper.items, 0, NODE_CAPACITY - half);
+            for (int i = node.start + half; i < node.start + NODE_CAPACITY; i++) {
+                node.items[i] = null;
+            }
+
+            upper.count = NODE_CAPACITY - half;
+            node.count = half;
+            linkAfter(upper, node);
+
+            if (at > half) {
+                node = upper;
+                at -= half;
+            }
+        }
+
+        boolean roomAtEnd = node.start + node.count < NODE_CAPACITY;
+        if (roomAtEnd && (node.start == 0 || at >= node.count / 2)) {
+            System.arraycopy(node.items, node.start + at, node.items, node.start + at + 1, node.count - at);
+        } else {
+            System.arraycopy(node.items, node.start, node.items, node.start - 1, at);
+            node.start--;
+        }
+
+        node.items[node.start + at] = elem;
+        node.count++;
+        size++;
+        modCount++;
+        position[0] = at;
+        return node;
+    }
+
+    /**
+     * Removes the element at offset from node. Returns the node holding the
+     * element that followed it at the same offset, the first node after it if
+     * node became empty and was unlinked, or <code>null</code> if there is no
+     * following node.
+     */
+    private Node removeAt(final Node node, final int offset) {
+        if (offset < node.count / 2) {
+            System.arraycopy(node.items, node.start, node.items, node.start + 1, offset);
+            node.items[node.start++] = null;
+        } else {
+            System.arraycopy(node.items, node.start + offset + 1, node.items, node.start + offset,
+                    node.count - offset - 1);
+            node.items[node.start + node.count - 1] = null;
+        }
+
+        node.count--;
+        size--;
+        modCount++;
+
+        if (node.count == 0) {
+            unlink(node);
+            return node.next;
+        }
+
+        Node next = node.next;
+        if (next != null && node.count + next.count <= NODE_CAPACITY / 2) {
+            if (node.start + node.count + next.count > NODE_CAPACITY) {
+                System.arraycopy(node.items, node.start, node.items, 0, node.count);
+                for (int i = Math.max(node.count, node.start); i < node.start + node.count; i++) {
+                    node.items[i] = null;
+                }
+
+                node.start = 0;
+            }
+
+            System.arraycopy(next.items, next.start, node.items, node.start + node.count, next.count);
+            node.count += next.count;
+            unlink(next);
+        }
+
+        return node;
+    }
+
+    /** List methods */
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(final E elem) {
+        linkLast(elem);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (Node node = head; node != null;) {
+            Node next = node.next;
+            node.prev = null;
+            node.next = null;
+            node = next;
+        }
+
+        head = null;
+        tail = null;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new ListItr(0);
+    }
+
+    @Override
+    public ListIterator<E> listIterator(final int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return new ListItr(index);
+    }
+
+    /** Deque methods */
+
+    @Override
+    public void addFirst(final E elem) {
+        linkFirst(elem);
+    }
+
+    @Override
+    public void addLast(final E elem) {
+        linkLast(elem);
+    }
+
+    @Override
+    public boolean offerFirst(final E elem) {
+        linkFirst(elem);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(final E elem) {
+        linkLast(elem);
+        return true;
+    }
+
+    @Override
+    public E removeFirst() {
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+
+        return pollFirst();
+    }
+
+    @Override
+    public E removeLast() {
+        if (tail == null) {
+            throw new NoSuchElementException();
+        }
+
+        return pollLast();
+    }
+
+    @Override
+    public E pollFirst() {
+        if (head == null) {
+            return null;
+        }
+
+        E elem = item(head, 0);
+        removeAt(head, 0);
+        return elem;
+    }
+
+    @Override
+    public E pollLast() {
+        if (tail == null) {
+            return null;
+        }
+
+        E elem = item(tail, tail.count - 1);
+        removeAt(tail, tail.count - 1);
+        return elem;
+    }
+
+    @Override
+    public E getFirst() {
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+
+        return item(head, 0);
+    }
+
+    @Override
+    public E getLast() {
+        if (tail == null) {
+            throw new NoSuchElementException();
+        }
+
+        return item(tail, tail.count - 1);
+    }
+
+    @Override
+    public E peekFirst() {
+        return head == null ? null : UnrolledLinkedList.<E>item(head, 0);
+    }
+
+    @Override
+    public E peekLast() {
+        return tail == null ? null : UnrolledLinkedList.<E>item(tail, tail.count - 1);
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(final Object o) {
+        return remove(o);
+    }
+
+    @Override
+    public boolean removeLastOccurrence(final Object o) {
+        for (ListIterator<E> it = listIterator(size); it.hasPrevious();) {
+            E elem = it.previous();
+            if (o == null ? elem == null : o.equals(elem)) {
+                it.remove();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean offer(final E elem) {
+        linkLast(elem);
+        return true;
+    }
+
+    @Override
+    public E remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public E poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public E element() {
+        return getFirst();
+    }
+
+    @Override
+    public E peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(final E elem) {
+        linkFirst(elem);
+    }
+
+    @Override
+    public E pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        final ListIterator<E> it = listIterator(size);
+        return new Iterator<E>() {
+
+            @Override
+            public boolean hasNext() {
+                return it.hasPrevious();
+            }
+
+            @Override
+            public E next() {
+                return it.previous();
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+            }
+        };
+    }
+
+    /**
+     * List iterator with a cursor before the element at offset in node.
+     * The offset may equal the count of the node, then the next element is
+     * the first one of the following node.
+     */
+    private final class ListItr implements ListIterator<E> {
+        private final int[] position = new int[1];
+        private Node node;
+        private int offset;
+        private int nextIndex;
+        private Node lastNode;
+        private int lastOffset;
+        private boolean lastWasNext;
+        private int expectedModCount = modCount;
+
+        ListItr(final int index) {
+            nextIndex = index;
+            if (index == size) {
+                node = tail;
+                offset = tail == null ? 0 : tail.count;
+            } else if (index < size / 2) {
+                node = head;
+                int remaining = index;
+                while (remaining >= node.count) {
+                    remaining -= node.count;
+                    node = node.next;
+                }
+
+                offset = remaining;
+            } else {
+                node = tail;
+                int remaining = size - index;
+                while (remaining > node.count) {
+                    remaining -= node.count;
+                    node = node.prev;
+                }
+
+                offset = node.count - remaining;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public E next() {
+            checkForComodification();
+            if (nextIndex >= size) {
+                throw new NoSuchElementException();
+            }
+
+            if (offset == node.count) {
+                node = node.next;
+                offset = 0;
+            }
+
+            lastNode = node;
+            lastOffset = offset;
+            lastWasNext = true;
+            nextIndex++;
+            return item(node, offset++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public E previous() {
+            checkForComodification();
+            if (nextIndex <= 0) {
+                throw new NoSuchElementException();
+            }
+
+            if (offset == 0) {
+                node = node.prev;
+                offset = node.count;
+            }
+
+            offset--;
+            lastNode = node;
+            lastOffset = offset;
+            lastWasNext = false;
+            nextIndex--;
+            return item(node, offset);
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            if (lastNode == null) {
+                throw new IllegalStateException();
+            }
+
+            checkForComodification();
+            Node after = removeAt(lastNode, lastOffset);
+            if (after == lastNode) {
+                node = lastNode;
+                offset = lastOffset;
+            } else if (after != null) {
+                node = after;
+                offset = 0;
+            } else {
+                node = tail;
+                offset = tail == null ? 0 : tail.count;
+            }
+
+            if (lastWasNext) {
+                nextIndex--;
+            }
+
+            lastNode = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void set(final E elem) {
+            if (lastNode == null) {
+                throw new IllegalStateException();
+            }
+
+            checkForComodification();
+            lastNode.items[lastNode.start + lastOffset] = elem;
+        }
+
+        @Override
+        public void add(final E elem) {
+            checkForComodification();
+            if (node == null) {
+                linkLast(elem);
+                node = tail;
+                offset = 1;
+            } else {
+                node = insert(node, offset, elem, position);
+                offset = position[0] + 1;
+            }
+
+            nextIndex++;
+            lastNode = null;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ *
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import com.stefanmuenchow.functors.CombineFunction;
+
+/**
+ * Walks two lists in lockstep, combining the elements at corresponding
+ * positions directly instead of pairing them in tuples first. Lists that
+ * both support {@link RandomAccess} are walked by index, all others by
+ * iterators. Smart lists are unwrapped to the lists they decorate, so that
+ * e.g. a {@link SmartArrayList} is walked by index as well. Surplus
+ * elements of the longer list are ignored.
+ *
+ * @author Stefan Münchow
+ */
+final class Zipping {
+
+    private Zipping() {
+    }
+
+    /**
+     * Adds the results of function for all pairs of corresponding elements
+     * of left and right to target.
+     */
+    static <L, R, T> void zip(final List<L> leftList, final List<R> rightList,
+            final CombineFunction<T, ? super L, ? super R> function, final Collection<? super T> target) {
+        List<L> left = unwrap(leftList);
+        List<R> right = unwrap(rightList);
+        if (left instanceof RandomAccess && right instanceof RandomAccess) {
+            int size = Math.min(left.size(), right.size());
+            for (int i = 0; i < size; i++) {
+                target.add(function.apply(left.get(i), right.get(i)));
+            }
+        } else {
+            Iterator<L> leftIt = left.iterator();
+            Iterator<R> rightIt = right.iterator();
+            while (leftIt.hasNext() && rightIt.hasNext()) {
+                target.add(function.apply(leftIt.next(), rightIt.next()));
+            }
+        }
+    }
+
+    /**
+     * Puts each element of keys into map, mapped to the element of vals at
+     * the same position.
+     */
+    static <K, V> void putAll(final Map<K, V> map, final List<K> keyList, final List<V> valList) {
+        List<K> keys = unwrap(keyList);
+        List<V> vals = unwrap(valList);
+        if (keys instanceof RandomAccess && vals instanceof RandomAccess) {
+            int size = Math.min(keys.size(), vals.size());
+            for (int i = 0; i < size; i++) {
+                map.put(keys.get(i), vals.get(i));
+            }
+        } else {
+            Iterator<K> keyIt = keys.iterator();
+            Iterator<V> valIt = vals.iterator();
+            while (keyIt.hasNext() && valIt.hasNext()) {
+                map.put(keyIt.next(), valIt.next());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> List<E> unwrap(final List<E> list) {
+        return list instanceof AbstractSmartList ? (List<E>) ((AbstractSmartList<E>) list).internalColl : list;
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * 
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.functors;
+
+/**
+ * Function folding an input into a mutable container, e.g. adding an element
+ * to a list or appending it to a {@link StringBuilder}. In contrast to
+ * {@link BinaryFunction}, the container is modified in place instead of
+ * returning a new result. Used by
+ * {@link com.stefanmuenchow.collections.SmartCollection#collect(Supplier, Accumulator, Accumulator)}.
+ *
+ * @author Stefan Münchow
+ */
+public interface Accumulator<R, E> {
+
+    /**
+     * Executes this function.
+     *
+     * @param container		Container to modify
+     * @param input			Input parameter
+     */
+    void apply(R container, E input);
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * 
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.functors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Conjunction or disjunction of predicates, see
+ * {@link Predicates#allOf(Collection)} and {@link Predicates#anyOf(Collection)}.
+ * The clauses are evaluated left to right and evaluation stops as soon as
+ * the result is known.
+ *
+ * The predicate adapts the order of its clauses to the inputs it sees. For
+ * a sample of the calls, it measures the time each evaluated clause takes
+ * and whether it passes. Periodically the clauses are reordered, so that
+ * those deciding the result cheaply come first: a conjunction sorts them by
+ * cost per rejected input, a disjunction by cost per accepted input. The
+ * statistics decay with each reordering, so the order follows changes in
+ * the input.
+ *
+ * Reordering does not change the result as long as the clauses are free of
+ * side effects and do not throw exceptions. The statistics are updated
+ * without locking; concurrent calls may lose samples, but always return the
+ * correct result.
+ *
+ * @author Stefan Münchow
+ */
+public class CompoundPredicate<E> implements Predicate<E> {
+    private static final int SAMPLE_INTERVAL = 16;
+    private static final int REORDER_INTERVAL = 1024;
+
+    private final boolean conjunction;
+    private volatile Clause<E>[] clauses;
+    private int calls;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    CompoundPredicate(final boolean conjunction, final Collection<? extends Predicate<? super E>> predicates) {
+        this.conjunction = conjunction;
+
+        List<Clause<E>> flattened = new ArrayList<Clause<E>>();
+        for (Predicate<? super E> predicate : predicates) {
+            if (predicate instanceof CompoundPredicate
+                    && ((CompoundPredicate<?>) predicate).conjunction == conjunction) {
+                for (Clause<?> clause : ((CompoundPredicate<?>) predicate).clauses) {
+                    flattened.add(new Clause<E>((Predicate<? super E>) clause.predicate));
+                }
+            } else {
+                flattened.add(new Clause<E>(predicate));
+            }
+        }
+
+        this.clauses = flattened.toArray(new Clause[flattened.size()]);
+    }
+
+    @Override
+    public boolean test(final E input) {
+        int call = ++calls;
+        Clause<E>[] current = clauses;
+
+        if (call % SAMPLE_INTERVAL != 0) {
+            for (Clause<E> clause : current) {
+                if (clause.predicate.test(input) != conjunction) {
+                    return !conjunction;
+                }
+            }
+
+            return conjunction;
+        }
+
+        boolean result = conjunction;
+        for (Clause<E> clause : current) {
+            long start = System.nanoTime();
+            boolean passed = clause.predicate.test(input);
+            clause.record(System.nanoTime() - start, passed);
+
+            if (passed != conjunction) {
+                result = !conjunction;
+                break;
+            }
+        }
+
+        if (call % REORDER_INTERVAL == 0) {
+            reorder(current);
+        }
+
+        return result;
+    }
+
+    /**
+     * @return		<code>true</code> for a conjunction, <code>false</code> for
+     * 				a disjunction
+     */
+    public boolean isConjunction() {
+        return conjunction;
+    }
+
+    /**
+     * Returns the clauses in their current order of evaluation.
+     *
+     * @return		Clauses of this predicate
+     */
+    public List<Predicate<? super E>> getClauses() {
+        List<Predicate<? super E>> result = new ArrayList<Predicate<? super E>>();
+        for (Clause<E> clause : clauses) {
+            result.add(clause.predicate);
+        }
+
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Sorts the clauses by rank. The ranks are read once before sorting, as
+     * concurrent calls may update the statistics while the sort compares
+     * them.
+     */
+    private void reorder(final Clause<E>[] current) {
+        final double[] ranks = new double[current.length];
+        Integer[] order = new Integer[current.length];
+        for (int i = 0; i < current.length; i++) {
+            ranks[i] = current[i].rank(conjunction);
+            order[i] = i;
+        }
+
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(final Integer index1, final Integer index2) {
+                return Double.compare(ranks[index1], ranks[index2]);
+            }
+        });
+
+        Clause<E>[] reordered = Arrays.copyOf(current, current.length);
+        for (int i = 0; i < order.length; i++) {
+            reordered[i] = current[order[i]];
+            reordered[i].decay();
+        }
+
+        clauses = reordered;
+    }
+
+    /**
+     * Clause together with its sampled statistics.
+     */
+    private static final class Clause<E> {
+        private final Predicate<? super E> predicate;
+        private double samples;
+        private double passes;
+        private double nanos;
+
+        Clause(final Predicate<? super E> predicate) {
+            this.predicate = predicate;
+        }
+
+        void record(final long elapsed, final boolean passed) {
+            samples++;
+            nanos += elapsed;
+            if (passed) {
+                passes++;
+            }
+        }
+
+        /**
+         * Expected cost per input deciding the result of the compound
+         * predicate. Clauses without samples are ranked first, so that they
+         * get measured.
+         */
+        double rank(final boolean conjunction) {
+            if (samples == 0) {
+                return 0;
+            }
+
+            double cost = nanos / samples;
+            double deciding = (conjunction ? samples - passes : passes) / samples;
+            return cost / Math.max(deciding, 1.0 / (samples + 1));
+        }
+
+        void decay() {
+            samples /= 2;
+            passes /= 2;
+            nanos /= 2;
+        }
+    }
+}
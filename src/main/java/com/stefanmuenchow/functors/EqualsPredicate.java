@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * 
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.functors;
+
+/**
+ * Predicate testing whether a value equals another one according to the
+ * {@link Object#equals(Object)} method, see {@link Predicates#equalsPred(Object)}.
+ * The value can be inspected, which allows hashed and sorted collections
+ * to answer queries with this predicate by a lookup instead of testing
+ * every element.
+ *
+ * @author Stefan Münchow
+ */
+public class EqualsPredicate<T> implements Predicate<T> {
+    private final T value;
+
+    EqualsPredicate(final T value) {
+        this.value = value;
+    }
+
+    @Override
+    public boolean test(final T input) {
+        return input.equals(value);
+    }
+
+    /**
+     * @return		Value inputs are compared to
+     */
+    public T getValue() {
+        return value;
+    }
+}
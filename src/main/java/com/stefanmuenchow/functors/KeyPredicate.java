@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * 
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.functors;
+
+/**
+ * Map predicate testing only the key of an entry, see
+ * {@link Predicates#keyPred(Predicate)}. The predicate on the key can be
+ * inspected, which allows hashed and sorted maps to answer queries with
+ * this predicate by a lookup or from a view of a key range.
+ *
+ * @author Stefan Münchow
+ */
+public class KeyPredicate<K, V> implements MapPredicate<K, V> {
+    private final Predicate<? super K> keyPredicate;
+
+    KeyPredicate(final Predicate<? super K> keyPredicate) {
+        this.keyPredicate = keyPredicate;
+    }
+
+    @Override
+    public boolean test(final K key, final V val) {
+        return keyPredicate.test(key);
+    }
+
+    /**
+     * @return		Predicate keys are tested with
+     */
+    public Predicate<? super K> getKeyPredicate() {
+        return keyPredicate;
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * 
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.functors;
+
+/**
+ * Predicate on a primitive long, e.g. for filtering a long column of a
+ * {@link com.stefanmuenchow.collections.SmartTable}. Avoids boxing the value.
+ *
+ * @author Stefan Münchow
+ */
+public interface LongPredicate {
+
+    /**
+     * Checks a predicate based on a single value.
+     *
+     * @param input     Input value
+     * @return true / false
+     */
+    boolean test(long input);
+}
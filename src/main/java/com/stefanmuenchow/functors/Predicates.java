@@ -11,7 +11,10 @@
 
 package com.stefanmuenchow.functors;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Factory class for often used predicates.
@@ -87,76 +90,192 @@ public class Predicates {
      * @param obj	Object to check on equality
      * @return		Equals predicate
      */
-    public static final <T> Predicate<T> equalsPred(final T obj) {
-    	return new Predicate<T>() {
-			@Override
-			public boolean test(T input) {
-				return input.equals(obj);
-			}
-		};
+    public static final <T> EqualsPredicate<T> equalsPred(final T obj) {
+    	return new EqualsPredicate<T>(obj);
     }
     
     /**
      * Predicate to test if an object is less than another one according
      * to the {@link Comparable#compareTo(Object)} method.
      * 
+     * @throws NullPointerException	If obj is <code>null</code>
+     * 
      * @param obj	Object to compare to
      * @return		LessThan function
      */
-    public static final <T extends Comparable<T>> Predicate<T> lessThanPred(final T obj) {
-    	return new Predicate<T>() {
-			@Override
-			public boolean test(T input) {
-				return input.compareTo(obj) < 0;
-			}
-		};
+    public static final <T extends Comparable<T>> RangePredicate<T> lessThanPred(final T obj) {
+    	return new RangePredicate<T>(null, false, nonNull(obj), false);
     }
     
     /**
      * Predicate to test if an object is less or equal than another one 
      * according to the {@link Comparable#compareTo(Object)} method.
      * 
+     * @throws NullPointerException	If obj is <code>null</code>
+     * 
      * @param obj	Object to compare to
      * @return		LessEqualThan function
      */
-    public static final <T extends Comparable<T>> Predicate<T> lessEqualThanPred(final T obj) {
-    	return new Predicate<T>() {
-			@Override
-			public boolean test(T input) {
-				return input.compareTo(obj) <= 0;
-			}
-		};
+    public static final <T extends Comparable<T>> RangePredicate<T> lessEqualThanPred(final T obj) {
+    	return new RangePredicate<T>(null, false, nonNull(obj), true);
     }
     
     /**
      * Predicate to test if an object is greater than another one according
      * to the {@link Comparable#compareTo(Object)} method.
      * 
+     * @throws NullPointerException	If obj is <code>null</code>
+     * 
      * @param obj	Object to compare to
      * @return		GreaterThan function
      */
-    public static final <T extends Comparable<T>> Predicate<T> greaterThanPred(final T obj) {
-    	return new Predicate<T>() {
-			@Override
-			public boolean test(T input) {
-				return input.compareTo(obj) > 0;
-			}
-		};
+    public static final <T extends Comparable<T>> RangePredicate<T> greaterThanPred(final T obj) {
+    	return new RangePredicate<T>(nonNull(obj), false, null, false);
     }
     
     /**
      * Predicate to test if an object is greater or equal than another one 
      * according to the {@link Comparable#compareTo(Object)} method.
      * 
+     * @throws NullPointerException	If obj is <code>null</code>
+     * 
      * @param obj	Object to compare to
      * @return		GreaterEqualThan function
      */
-    public static final <T extends Comparable<T>> Predicate<T> greaterEqualThanPred(final T obj) {
+    public static final <T extends Comparable<T>> RangePredicate<T> greaterEqualThanPred(final T obj) {
+    	return new RangePredicate<T>(nonNull(obj), true, null, false);
+    }
+    
+    private static <T> T nonNull(final T obj) {
+    	if (obj == null) {
+    		throw new NullPointerException("Object to compare to must not be null");
+    	}
+    	
+    	return obj;
+    }
+    
+    /**
+     * Predicate to test if an object lies in a range according to the 
+     * {@link Comparable#compareTo(Object)} method. A <code>null</code> bound
+     * leaves the range unbounded on that side.
+     * 
+     * @param lower				Lower bound
+     * @param lowerInclusive	Whether the lower bound is part of the range
+     * @param upper				Upper bound
+     * @param upperInclusive	Whether the upper bound is part of the range
+     * @return					Range predicate
+     */
+    public static final <T extends Comparable<T>> RangePredicate<T> rangePred(final T lower, 
+    		final boolean lowerInclusive, final T upper, final boolean upperInclusive) {
+    	return new RangePredicate<T>(lower, lowerInclusive, upper, upperInclusive);
+    }
+    
+    /**
+     * Map predicate to test the key of an entry with pred. Sorted and hashed
+     * maps answer queries with a key predicate built from 
+     * {@link #equalsPred(Object)} or the range predicates by a lookup.
+     * 
+     * @param pred		Predicate to test keys with
+     * @return			Key predicate
+     */
+    public static final <K, V> KeyPredicate<K, V> keyPred(final Predicate<? super K> pred) {
+    	return new KeyPredicate<K, V>(pred);
+    }
+    
+    /**
+     * Predicate that is true if both predicates are true. The order in which
+     * the predicates are evaluated adapts to their cost and selectivity, see
+     * {@link CompoundPredicate}.
+     * 
+     * @param pred1		First predicate
+     * @param pred2		Second predicate
+     * @return			Conjunction of the predicates
+     */
+    public static final <T> CompoundPredicate<T> and(final Predicate<? super T> pred1, 
+    		final Predicate<? super T> pred2) {
+    	List<Predicate<? super T>> preds = new ArrayList<Predicate<? super T>>();
+    	preds.add(pred1);
+    	preds.add(pred2);
+    	return allOf(preds);
+    }
+    
+    /**
+     * Predicate that is true if at least one of the predicates is true. The 
+     * order in which the predicates are evaluated adapts to their cost and 
+     * selectivity, see {@link CompoundPredicate}.
+     * 
+     * @param pred1		First predicate
+     * @param pred2		Second predicate
+     * @return			Disjunction of the predicates
+     */
+    public static final <T> CompoundPredicate<T> or(final Predicate<? super T> pred1, 
+    		final Predicate<? super T> pred2) {
+    	List<Predicate<? super T>> preds = new ArrayList<Predicate<? super T>>();
+    	preds.add(pred1);
+    	preds.add(pred2);
+    	return anyOf(preds);
+    }
+    
+    /**
+     * Predicate that is true if pred is false.
+     * 
+     * @param pred		Predicate to negate
+     * @return			Negated predicate
+     */
+    public static final <T> Predicate<T> not(final Predicate<? super T> pred) {
     	return new Predicate<T>() {
 			@Override
 			public boolean test(T input) {
-				return input.compareTo(obj) >= 0;
+				return !pred.test(input);
 			}
 		};
     }
+    
+    /**
+     * Predicate that is true if all predicates are true, or if there are no
+     * predicates. Nested conjunctions are flattened. The order in which the 
+     * predicates are evaluated adapts to their cost and selectivity, see 
+     * {@link CompoundPredicate}.
+     * 
+     * @param preds		Predicates to combine
+     * @return			Conjunction of the predicates
+     */
+    public static final <T> CompoundPredicate<T> allOf(final Collection<? extends Predicate<? super T>> preds) {
+    	return new CompoundPredicate<T>(true, preds);
+    }
+    
+    /**
+     * Same as {@link #allOf(Collection)}.
+     * 
+     * @param preds		Predicates to combine
+     * @return			Conjunction of the predicates
+     */
+    @SuppressWarnings("unchecked")
+    public static final <T> CompoundPredicate<T> allOf(final Predicate<? super T>... preds) {
+    	return new CompoundPredicate<T>(true, Arrays.asList(preds));
+    }
+    
+    /**
+     * Predicate that is true if at least one of the predicates is true. It 
+     * is false if there are no predicates. Nested disjunctions are 
+     * flattened. The order in which the predicates are evaluated adapts to 
+     * their cost and selectivity, see {@link CompoundPredicate}.
+     * 
+     * @param preds		Predicates to combine
+     * @return			Disjunction of the predicates
+     */
+    public static final <T> CompoundPredicate<T> anyOf(final Collection<? extends Predicate<? super T>> preds) {
+    	return new CompoundPredicate<T>(false, preds);
+    }
+    
+    /**
+     * Same as {@link #anyOf(Collection)}.
+     * 
+     * @param preds		Predicates to combine
+     * @return			Disjunction of the predicates
+     */
+    @SuppressWarnings("unchecked")
+    public static final <T> CompoundPredicate<T> anyOf(final Predicate<? super T>... preds) {
+    	return new CompoundPredicate<T>(false, Arrays.asList(preds));
+    }
 }
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * 
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.functors;
+
+/**
+ * Predicate testing whether a value lies in a range according to the
+ * {@link Comparable#compareTo(Object)} method, see
+ * {@link Predicates#rangePred(Comparable, boolean, Comparable, boolean)}.
+ * The bounds can be inspected, which allows sorted collections to answer
+ * queries with this predicate from a view of the range instead of testing
+ * every element.
+ *
+ * @author Stefan Münchow
+ */
+public class RangePredicate<T extends Comparable<T>> implements Predicate<T> {
+    private final T lower;
+    private final boolean lowerInclusive;
+    private final T upper;
+    private final boolean upperInclusive;
+
+    RangePredicate(final T lower, final boolean lowerInclusive, final T upper, final boolean upperInclusive) {
+        this.lower = lower;
+        this.lowerInclusive = lowerInclusive;
+        this.upper = upper;
+        this.upperInclusive = upperInclusive;
+    }
+
+    @Override
+    public boolean test(final T input) {
+        if (lower != null) {
+            int cmp = input.compareTo(lower);
+            if (cmp < 0 || (cmp == 0 && !lowerInclusive)) {
+                return false;
+            }
+        }
+
+        if (upper != null) {
+            int cmp = input.compareTo(upper);
+            if (cmp > 0 || (cmp == 0 && !upperInclusive)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return		Lower bound, <code>null</code> if unbounded
+     */
+    public T getLower() {
+        return lower;
+    }
+
+    /**
+     * @return		Whether the lower bound is part of the range
+     */
+    public boolean isLowerInclusive() {
+        return lowerInclusive;
+    }
+
+    /**
+     * @return		Upper bound, <code>null</code> if unbounded
+     */
+    public T getUpper() {
+        return upper;
+    }
+
+    /**
+     * @return		Whether the upper bound is part of the range
+     */
+    public boolean isUpperInclusive() {
+        return upperInclusive;
+    }
+}
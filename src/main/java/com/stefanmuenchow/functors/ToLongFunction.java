@@ -0,0 +1,30 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * 
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.functors;
+
+/**
+ * Function computing a primitive long from an element, e.g. the sort key
+ * used by {@link com.stefanmuenchow.collections.SmartList#sortByLongKey(ToLongFunction)}.
+ * Avoids boxing the result.
+ *
+ * @author Stefan Münchow
+ */
+public interface ToLongFunction<E> {
+
+    /**
+     * Executes this function.
+     *
+     * @param input		Input parameter
+     * @return 			Result
+     */
+    long apply(E input);
+}
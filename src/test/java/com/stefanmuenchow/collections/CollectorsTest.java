@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.functors.Accumulator;
+import com.stefanmuenchow.functors.Supplier;
+import com.stefanmuenchow.functors.ToIntFunction;
+import com.stefanmuenchow.functors.UnaryFunction;
+
+public class CollectorsTest {
+    private static final UnaryFunction<Integer, Integer> MOD_3 = new UnaryFunction<Integer, Integer>() {
+        @Override
+        public Integer apply(final Integer input) {
+            return input % 3;
+        }
+    };
+
+    private static final ToIntFunction<Integer> IDENTITY = new ToIntFunction<Integer>() {
+        @Override
+        public int apply(final Integer input) {
+            return input;
+        }
+    };
+
+    private SmartList<Integer> small = null;
+    private SmartList<Integer> large = null;
+
+    @Before
+    public void setUp() throws Exception {
+        small = new SmartArrayList<Integer>(1, 2, 3, 4, 5);
+        large = SmartArrayList.withCapacity(50000);
+        for (int i = 0; i < 50000; i++) {
+            large.add(i);
+        }
+    }
+
+    @Test
+    public void testCollectWithFunctions() {
+        Supplier<StringBuilder> supplier = new Supplier<StringBuilder>() {
+            @Override
+            public StringBuilder get() {
+                return new StringBuilder();
+            }
+        };
+        Accumulator<StringBuilder, Integer> accumulator = new Accumulator<StringBuilder, Integer>() {
+            @Override
+            public void apply(final StringBuilder container, final Integer input) {
+                container.append(input % 10);
+            }
+        };
+        Accumulator<StringBuilder, StringBuilder> combiner = new Accumulator<StringBuilder, StringBuilder>() {
+            @Override
+            public void apply(final StringBuilder container, final StringBuilder input) {
+                container.append(input);
+            }
+        };
+
+        assertEquals("12345", small.collect(supplier, accumulator, combiner).toString());
+        assertEquals(large.collect(supplier, accumulator, combiner).toString(),
+                large.parallelCollect(supplier, accumulator, combiner).toString());
+    }
+
+    @Test
+    public void testToSmartList() {
+        assertEquals(small, new SmartArrayList<Integer>(small.collect(Collectors.<Integer>toSmartList(5))));
+        assertEquals(large, new SmartArrayList<Integer>(large.parallelCollect(Collectors.<Integer>toSmartList())));
+        assertEquals(new SmartHashSet<Integer>(1, 2, 3, 4, 5),
+                new SmartArrayList<Integer>(5, 1, 4, 2, 3, 1).collect(Collectors.<Integer>toSmartSet()));
+    }
+
+    @Test
+    public void testJoining() {
+        assertEquals("1, 2, 3, 4, 5", small.collect(Collectors.joining(", ")));
+        assertEquals("[]", new SmartArrayList<Integer>().collect(Collectors.joining(", ", "[", "]")));
+        assertEquals("<,a,>", new SmartArrayList<String>("", "a", "").collect(Collectors.joining(",", "<", ">")));
+        assertEquals(large.join(";"), large.parallelCollect(Collectors.joining(";")));
+    }
+
+    @Test
+    public void testSumming() {
+        assertEquals(Integer.valueOf(15), small.collect(Collectors.summingInt(IDENTITY)));
+        assertEquals(Long.valueOf(50000), large.parallelCollect(Collectors.counting()));
+        assertEquals(Integer.valueOf(1249975000), large.parallelCollect(Collectors.summingInt(IDENTITY)));
+    }
+
+    @Test
+    public void testGroupingBy() {
+        SmartMap<Integer, SmartList<Integer>> groups = small.collect(Collectors.groupingBy(MOD_3));
+        assertEquals(new SmartArrayList<Integer>(1, 4), new SmartArrayList<Integer>(groups.get(1)));
+        assertEquals(small.groupBy(MOD_3).size(), groups.size());
+
+        SmartMap<Integer, SmartList<Integer>> parallelGroups = large.parallelCollect(Collectors.groupingBy(MOD_3));
+        assertEquals(large.groupBy(MOD_3), parallelGroups);
+
+        SmartMap<Integer, Long> counts = large.parallelCollect(Collectors.groupingBy(MOD_3, Collectors.counting()));
+        assertEquals(Long.valueOf(16667), counts.get(0));
+        assertEquals(Long.valueOf(16667), counts.get(1));
+        assertEquals(Long.valueOf(16666), counts.get(2));
+    }
+
+    @Test
+    public void testMapCollect() {
+        SmartMap<Integer, String> map = new SmartTreeMap<Integer, String>();
+        for (int i = 0; i < 20000; i++) {
+            map.put(i, "v" + i);
+        }
+
+        Accumulator<long[], Map.Entry<Integer, String>> accumulator = new Accumulator<long[], Map.Entry<Integer, String>>() {
+            @Override
+            public void apply(final long[] container, final Map.Entry<Integer, String> input) {
+                container[0] += input.getKey() + input.getValue().length();
+            }
+        };
+        Supplier<long[]> supplier = new Supplier<long[]>() {
+            @Override
+            public long[] get() {
+                return new long[1];
+            }
+        };
+        Accumulator<long[], long[]> combiner = new Accumulator<long[], long[]>() {
+            @Override
+            public void apply(final long[] container, final long[] input) {
+                container[0] += input[0];
+            }
+        };
+
+        assertEquals(map.collect(supplier, accumulator, combiner)[0],
+                map.parallelCollect(supplier, accumulator, combiner)[0]);
+        assertEquals(map.size(), map.parallelCollect(Collectors.toSmartList()).size());
+        assertEquals("0=v0", map.collect(Collectors.joining(",")).substring(0, 4));
+    }
+}
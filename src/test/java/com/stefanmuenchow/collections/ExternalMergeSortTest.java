@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.stefanmuenchow.functors.UnaryFunction;
+
+public class ExternalMergeSortTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory = null;
+    private List<Long> input = null;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = folder.newFolder("sort");
+        input = new ArrayList<Long>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            input.add((long) random.nextInt(5000));
+        }
+    }
+
+    @Test
+    public void testSortManyRuns() {
+        ExternalMergeSort<Long> sorter = new ExternalMergeSort<Long>(Codecs.longCodec(),
+                new NaturalOrder<Long>(), 100, directory);
+        ExternalMergeSort.MergeIterator<Long> it = sorter.iterator(input.iterator());
+
+        List<Long> expected = new ArrayList<Long>(input);
+        Collections.sort(expected);
+        List<Long> actual = new ArrayList<Long>();
+        while (it.hasNext()) {
+            actual.add(it.next());
+        }
+
+        assertEquals(expected, actual);
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void testSortIsStable() {
+        List<String> words = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            words.add((char) ('a' + i % 7) + "-" + i);
+        }
+
+        SmartSpillingList<String> sorted = new ExternalMergeSort<String>(Codecs.stringCodec(),
+                new Comparator<String>() {
+                    @Override
+                    public int compare(String o1, String o2) {
+                        return o1.charAt(0) - o2.charAt(0);
+                    }
+                }, 64, directory).sort(words);
+
+        assertEquals(1000, sorted.size());
+        assertEquals("a-0", sorted.head());
+        assertEquals("a-7", sorted.get(1));
+        assertEquals("g-993", sorted.last());
+        sorted.close();
+    }
+
+    @Test
+    public void testCloseDeletesRuns() {
+        ExternalMergeSort.MergeIterator<Long> it = new ExternalMergeSort<Long>(Codecs.longCodec(),
+                new NaturalOrder<Long>(), 1000, directory).iterator(input.iterator());
+        assertEquals(20, directory.list().length);
+        it.next();
+        it.close();
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void testFailedMergeDeletesRuns() {
+        Codec<Long> failing = new Codec<Long>() {
+            private int written;
+
+            @Override
+            public void write(Long elem, DataOutput out) throws IOException {
+                if (++written > 25000) {
+                    throw new IOException("Disk full");
+                }
+                out.writeLong(elem);
+            }
+
+            @Override
+            public Long read(DataInput in) throws IOException {
+                return in.readLong();
+            }
+        };
+
+        try {
+            new ExternalMergeSort<Long>(failing, new NaturalOrder<Long>(), 100, directory).iterator(input.iterator());
+            fail("Merge should fail");
+        } catch (IllegalStateException e) {
+            assertEquals(0, directory.list().length);
+        }
+    }
+
+    @Test
+    public void testSpillingListSort() {
+        SmartSpillingList<Long> list = new SmartSpillingList<Long>(Codecs.longCodec(), 500, 2, directory);
+        list.addAll(input);
+
+        list.sortBy(new UnaryFunction<Long, Long>() {
+            @Override
+            public Long apply(Long input) {
+                return -input;
+            }
+        });
+
+        assertEquals(input.size(), list.size());
+        long previous = Long.MAX_VALUE;
+        for (Long elem : list) {
+            assertTrue(elem <= previous);
+            previous = elem;
+        }
+        list.close();
+        assertEquals(0, directory.list().length);
+    }
+
+    private static class NaturalOrder<T extends Comparable<T>> implements Comparator<T> {
+        @Override
+        public int compare(T o1, T o2) {
+            return o1.compareTo(o2);
+        }
+    }
+}
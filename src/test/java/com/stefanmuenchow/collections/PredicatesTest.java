@@ -6,6 +6,8 @@ import java.math.BigInteger;
 
 import org.junit.Test;
 
+import com.stefanmuenchow.functors.CompoundPredicate;
+import com.stefanmuenchow.functors.Predicate;
 import com.stefanmuenchow.functors.Predicates;
 
 public class PredicatesTest {
@@ -78,4 +80,78 @@ public class PredicatesTest {
 		assertTrue(Predicates.greaterEqualThanPred(3).test(3));
 		assertTrue(Predicates.greaterEqualThanPred(3).test(4));
 	}
+	
+	@Test
+	public void testComparisonPredsRejectNull() {
+		int rejected = 0;
+		try {
+			Predicates.lessThanPred((Integer) null);
+		} catch (NullPointerException e) {
+			rejected++;
+		}
+		try {
+			Predicates.lessEqualThanPred((Integer) null);
+		} catch (NullPointerException e) {
+			rejected++;
+		}
+		try {
+			Predicates.greaterThanPred((Integer) null);
+		} catch (NullPointerException e) {
+			rejected++;
+		}
+		try {
+			Predicates.greaterEqualThanPred((Integer) null);
+		} catch (NullPointerException e) {
+			rejected++;
+		}
+		
+		assertTrue(rejected == 4);
+		assertTrue(Predicates.rangePred(null, false, 3, false).test(-100));
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCombinators() {
+		Predicate<Integer> even = Predicates.evenPred();
+		Predicate<Integer> small = Predicates.lessThanPred(10);
+		
+		assertTrue(Predicates.and(even, small).test(4));
+		assertFalse(Predicates.and(even, small).test(12));
+		assertTrue(Predicates.or(even, small).test(12));
+		assertFalse(Predicates.or(even, small).test(13));
+		assertTrue(Predicates.not(even).test(3));
+		assertTrue(Predicates.<Integer>allOf().test(1));
+		assertFalse(Predicates.<Integer>anyOf().test(1));
+		
+		CompoundPredicate<Integer> nested = Predicates.allOf(Predicates.and(even, small), 
+				Predicates.greaterThanPred(2), Predicates.or(even, small));
+		assertTrue(nested.getClauses().size() == 4);
+		assertTrue(new SmartArrayList<Integer>(1, 2, 3, 4, 5, 6, 12).count(nested) == 2);
+	}
+	
+	@Test
+	public void testAdaptiveOrder() {
+		Predicate<Integer> expensive = new Predicate<Integer>() {
+			@Override
+			public boolean test(Integer input) {
+				double sum = 0;
+				for (int i = 1; i < 2000; i++) {
+					sum += Math.sqrt(i * input);
+				}
+				return sum >= 0;
+			}
+		};
+		Predicate<Integer> selective = Predicates.lessThanPred(10);
+		
+		CompoundPredicate<Integer> pred = Predicates.and(expensive, selective);
+		int passed = 0;
+		for (int i = 0; i < 20000; i++) {
+			if (pred.test(i % 1000)) {
+				passed++;
+			}
+		}
+		
+		assertTrue(passed == 200);
+		assertTrue(pred.getClauses().get(0) == selective);
+	}
 }
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.Functions;
+
+public class SmartAggregateTreeMapTest {
+    private SmartAggregateTreeMap<Integer, Integer> sumMap = null;
+
+    @Before
+    public void setUp() throws Exception {
+        sumMap = new SmartAggregateTreeMap<Integer, Integer>(Functions.<Integer>addFn());
+        for (int i = 1; i <= 10; i++) {
+            sumMap.put(i * 10, i);
+        }
+    }
+
+    @Test
+    public void testRangeReduce() {
+        assertEquals(Integer.valueOf(55), sumMap.aggregate());
+        assertEquals(Integer.valueOf(2 + 3 + 4), sumMap.rangeReduce(20, 50));
+        assertEquals(Integer.valueOf(2 + 3 + 4), sumMap.rangeReduce(15, 45));
+        assertEquals(Integer.valueOf(1 + 2), sumMap.headReduce(30));
+        assertEquals(Integer.valueOf(9 + 10), sumMap.tailReduce(90));
+        assertNull(sumMap.rangeReduce(41, 49));
+        assertNull(sumMap.rangeReduce(50, 20));
+    }
+
+    @Test
+    public void testRank() {
+        assertEquals(0, sumMap.rank(5));
+        assertEquals(2, sumMap.rank(30));
+        assertEquals(3, sumMap.rank(31));
+        assertEquals(10, sumMap.rank(1000));
+        assertEquals(3, sumMap.rangeCount(20, 50));
+        assertEquals(Integer.valueOf(40), sumMap.keyAt(3));
+    }
+
+    @Test
+    public void testAggregatesFollowModifications() {
+        sumMap.put(30, 100);
+        sumMap.remove(40);
+        sumMap.put(35, 7);
+
+        assertEquals(Integer.valueOf(2 + 100 + 7), sumMap.rangeReduce(20, 50));
+
+        Iterator<Map.Entry<Integer, Integer>> it = sumMap.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Integer> entry = it.next();
+            if (entry.getKey() < 30) {
+                it.remove();
+            } else {
+                entry.setValue(1);
+            }
+        }
+
+        assertEquals(Integer.valueOf(8), sumMap.aggregate());
+        assertEquals(Integer.valueOf(30), sumMap.firstKey());
+    }
+
+    @Test
+    public void testLiveSubMap() {
+        SmartAggregateTreeMap<Integer, Integer> sub = sumMap.smartSubMap(30, 70);
+        assertEquals(4, sub.size());
+        assertEquals(Integer.valueOf(3 + 4 + 5 + 6), sub.aggregate());
+        assertEquals(Integer.valueOf(4 + 5), sub.rangeReduce(40, 60));
+
+        sub.put(45, 10);
+        assertEquals(Integer.valueOf(10), sumMap.get(45));
+        assertEquals(Integer.valueOf(65), sumMap.aggregate());
+    }
+
+    @Test
+    public void testNonCommutativeAggregator() {
+        SmartAggregateTreeMap<Integer, String> concat = new SmartAggregateTreeMap<Integer, String>(
+                Functions.concatStringsFn());
+        String letters = "hgfedcba";
+        for (int i = 0; i < letters.length(); i++) {
+            concat.put(letters.length() - i, String.valueOf(letters.charAt(i)));
+        }
+
+        assertEquals("abcdefgh", concat.aggregate());
+        assertEquals("cde", concat.rangeReduce(3, 6));
+    }
+
+    @Test
+    public void testRandomizedAgainstTreeMap() {
+        BinaryFunction<Long, Long> sum = Functions.addFn();
+        SmartAggregateTreeMap<Integer, Long> map = new SmartAggregateTreeMap<Integer, Long>(sum);
+        TreeMap<Integer, Long> expected = new TreeMap<Integer, Long>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                long value = random.nextInt(1000);
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+
+            int from = random.nextInt(500);
+            int to = from + random.nextInt(100);
+            long expectedSum = 0;
+            for (Long value : expected.subMap(from, to).values()) {
+                expectedSum += value;
+            }
+
+            Long actual = map.rangeReduce(from, to);
+            assertEquals(expectedSum, actual == null ? 0 : actual.longValue());
+            assertEquals(expected.headMap(from).size(), map.rank(from));
+        }
+
+        assertEquals(expected, map.toStandardMap());
+    }
+}
@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.MapBinaryFunction;
+import com.stefanmuenchow.functors.MapPredicate;
+import com.stefanmuenchow.functors.MapUnaryFunction;
+import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.UnaryFunction;
+
+public class SmartCacheMapTest {
+    private long time = 0;
+
+    private final CachePolicy.Ticker ticker = new CachePolicy.Ticker() {
+        @Override
+        public long read() {
+            return time;
+        }
+    };
+
+    @Test
+    public void testLruEviction() {
+        SmartCacheMap<Integer, String> cache = new SmartCacheMap<Integer, String>(CachePolicy.lru(3));
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+        assertEquals("a", cache.get(1));
+        cache.put(4, "d");
+
+        assertEquals(3, cache.size());
+        assertFalse(cache.containsKey(2));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(0, stats.getMissCount());
+        assertEquals(1, stats.getEvictionCount());
+
+        assertEquals(new SmartHashMap<Integer, String>(new SmartArrayList<Integer>(1, 3, 4),
+                new SmartArrayList<String>("a", "c", "d")), cache);
+    }
+
+    @Test
+    public void testBulkOperationsDoNotChangeRecency() {
+        SmartCacheMap<Integer, Integer> cache = new SmartCacheMap<Integer, Integer>(CachePolicy.lru(3));
+        cache.put(1, 10);
+        cache.put(2, 20);
+        cache.put(3, 30);
+
+        Integer sum = cache.reduce(0, new MapBinaryFunction<Integer, Integer, Integer>() {
+            @Override
+            public Integer apply(Integer akku, Integer key, Integer value) {
+                return akku + value;
+            }
+        });
+        assertEquals(Integer.valueOf(60), sum);
+        assertEquals(3, cache.keySet().size());
+        assertEquals(0, cache.stats().getRequestCount());
+
+        cache.put(4, 40);
+        assertFalse(cache.containsKey(1));
+
+        cache.filter(new MapPredicate<Integer, Integer>() {
+            @Override
+            public boolean test(Integer key, Integer value) {
+                return value != 30;
+            }
+        });
+        assertEquals(2, cache.size());
+        cache.put(5, 50);
+        cache.put(6, 60);
+        assertFalse(cache.containsKey(2));
+        assertTrue(cache.containsKey(4));
+    }
+
+    @Test
+    public void testWeigher() {
+        SmartCacheMap<String, String> cache = new SmartCacheMap<String, String>(CachePolicy.lru(10),
+                new MapUnaryFunction<Integer, String, String>() {
+                    @Override
+                    public Integer apply(String key, String val) {
+                        return val.length();
+                    }
+                });
+        cache.put("a", "12345");
+        cache.put("b", "1234");
+        assertEquals(2, cache.size());
+        cache.put("c", "123");
+        assertEquals(2, cache.size());
+        assertNull(cache.get("a"));
+        cache.put("b", "12345678");
+        assertEquals(1, cache.size());
+        assertEquals("12345678", cache.get("b"));
+    }
+
+    @Test
+    public void testTinyLfuKeepsFrequentEntries() {
+        SmartCacheMap<Integer, Integer> cache = new SmartCacheMap<Integer, Integer>(CachePolicy.tinyLfu(100));
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, i);
+        }
+
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get(i);
+            }
+        }
+
+        for (int i = 1000; i < 3000; i++) {
+            cache.put(i, i);
+        }
+
+        int retained = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.containsKey(i)) {
+                retained++;
+            }
+        }
+
+        assertTrue(cache.size() <= 100);
+        assertTrue("Only " + retained + " frequent entries retained", retained >= 45);
+    }
+
+    @Test
+    public void testExpiry() {
+        SmartCacheMap<String, Integer> cache = new SmartCacheMap<String, Integer>(CachePolicy.unbounded()
+                .expireAfterWrite(10, TimeUnit.NANOSECONDS).expireAfterAccess(4, TimeUnit.NANOSECONDS)
+                .withTicker(ticker));
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        time = 3;
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        time = 6;
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertNull(cache.get("b"));
+        assertFalse(cache.containsKey("b"));
+
+        time = 9;
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        time = 10;
+        assertNull(cache.get("a"));
+
+        CacheStats stats = cache.stats();
+        assertEquals(3, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(2, stats.getExpirationCount());
+        assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    public void testSizeSkipsExpiredEntries() {
+        SmartCacheMap<String, Integer> cache = new SmartCacheMap<String, Integer>(CachePolicy.unbounded()
+                .expireAfterWrite(10, TimeUnit.NANOSECONDS).withTicker(ticker));
+        cache.put("a", 1);
+        time = 5;
+        cache.put("b", 2);
+
+        time = 12;
+        assertEquals(1, cache.size());
+        assertEquals(cache.size(), cache.entrySet().size());
+        time = 20;
+        assertTrue(cache.isEmpty());
+        assertEquals(2, cache.stats().getExpirationCount());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        final SmartCacheMap<Integer, Integer> cache = new SmartCacheMap<Integer, Integer>(CachePolicy.tinyLfu(64));
+        Thread[] threads = new Thread[4];
+
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 20000; i++) {
+                        int key = (i * 7 + offset) % 200;
+                        if (cache.get(key) == null) {
+                            cache.put(key, key);
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(cache.size() <= 64);
+        assertEquals(4 * 20000, cache.stats().getRequestCount());
+    }
+
+    @Test
+    public void testMemoize() {
+        final int[] calls = new int[1];
+        MemoizedFunction<Integer, String> length = SmartCacheMap.memoize(new UnaryFunction<Integer, String>() {
+            @Override
+            public Integer apply(String input) {
+                calls[0]++;
+                return input == null ? null : input.length();
+            }
+        }, CachePolicy.lru(10));
+
+        assertEquals(new SmartArrayList<Integer>(1, 2, 1, 2, 1, null, null),
+                new SmartArrayList<String>("a", "bb", "a", "bb", "a", null, null).map(length));
+        assertEquals(3, calls[0]);
+        assertEquals(4, length.stats().getHitCount());
+        assertEquals(3, length.stats().getMissCount());
+    }
+
+    @Test
+    public void testMemoizeBinary() {
+        final int[] calls = new int[1];
+        MemoizedBinaryFunction<Integer, Integer> add = SmartCacheMap.memoize(new BinaryFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(Integer input1, Integer input2) {
+                calls[0]++;
+                return input1 + input2;
+            }
+        }, CachePolicy.lru(2));
+
+        assertEquals(Integer.valueOf(3), add.apply(1, 2));
+        assertEquals(Integer.valueOf(3), add.apply(1, 2));
+        assertEquals(Integer.valueOf(3), add.apply(2, 1));
+        assertEquals(Integer.valueOf(5), add.apply(2, 3));
+        assertEquals(Integer.valueOf(3), add.apply(1, 2));
+        assertEquals(4, calls[0]);
+        assertEquals(1, add.stats().getHitCount());
+        assertEquals(2, add.stats().getEvictionCount());
+    }
+
+    @Test
+    public void testMemoizePredicate() {
+        final int[] calls = new int[1];
+        MemoizedPredicate<Integer> isPrime = SmartCacheMap.memoizePredicate(new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer input) {
+                calls[0]++;
+                return BigInteger.valueOf(input).isProbablePrime(20);
+            }
+        }, CachePolicy.tinyLfu(100));
+
+        SmartList<Integer> numbers = new SmartArrayList<Integer>(7, 8, 7, 7, 8, 13);
+        assertEquals(4, numbers.count(isPrime));
+        assertTrue(numbers.exists(isPrime));
+        assertEquals(3, calls[0]);
+        assertEquals(4, isPrime.stats().getHitCount());
+    }
+}
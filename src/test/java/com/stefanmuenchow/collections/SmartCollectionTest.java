@@ -6,6 +6,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -13,11 +18,14 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.CombineFunction;
+import com.stefanmuenchow.functors.Functions;
 import com.stefanmuenchow.functors.Predicate;
 import com.stefanmuenchow.functors.UnaryFunction;
 import com.stefanmuenchow.functors.VoidFunction;
@@ -211,11 +219,190 @@ public class SmartCollectionTest {
 		assertEquals("Q: 12345", queue.reduce("Q: ", appendStr));
 	}
 
+	@Test
+	public void testGroupBy() {
+		UnaryFunction<Integer, Integer> mod2 = new UnaryFunction<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer input) {
+				return input % 2;
+			}
+		};
+		
+		SmartMap<Integer, SmartList<Integer>> groups = list.groupBy(mod2);
+		assertEquals(2, groups.size());
+		assertEquals(new SmartArrayList<Integer>(2, 4), groups.get(0));
+		assertEquals(new SmartArrayList<Integer>(1, 3, 5), groups.get(1));
+		assertEquals(groups, queue.groupBy(mod2));
+		assertEquals(0, new SmartArrayList<Integer>().groupBy(mod2).size());
+		
+		SmartMap<Integer, Integer> sums = set.groupBy(mod2, 0, Functions.<Integer>addFn());
+		assertEquals(Integer.valueOf(6), sums.get(0));
+		assertEquals(Integer.valueOf(9), sums.get(1));
+		
+		SmartMap<Integer, Integer> counts = queue.countBy(mod2);
+		assertEquals(Integer.valueOf(2), counts.get(0));
+		assertEquals(Integer.valueOf(3), counts.get(1));
+	}
+	
+	@Test
+	public void testParallelGroupBy() {
+		UnaryFunction<Integer, Integer> mod1000 = new UnaryFunction<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer input) {
+				return input % 1000;
+			}
+		};
+		
+		SmartList<Integer> input = new SmartArrayList<Integer>();
+		Random random = new Random(42);
+		for (int i = 0; i < 100000; i++) {
+			input.add(random.nextInt(1000000));
+		}
+		
+		SmartMap<Integer, SmartList<Integer>> groups = input.groupBy(mod1000);
+		assertEquals(1000, groups.size());
+		assertEquals(groups, input.parallelGroupBy(mod1000));
+		assertEquals(input.groupBy(mod1000, 0, Functions.<Integer>addFn()), 
+				input.parallelGroupBy(mod1000, 0, Functions.<Integer>addFn()));
+		assertEquals(Integer.valueOf(groups.get(7).size()), input.countBy(mod1000).get(7));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testHashJoin() {
+		SmartList<String> words = new SmartArrayList<String>("a", "bb", "ccc", "dd", "eeeeeee");
+		UnaryFunction<Integer, Integer> identity = new UnaryFunction<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer input) {
+				return input;
+			}
+		};
+		UnaryFunction<Integer, String> length = new UnaryFunction<Integer, String>() {
+			@Override
+			public Integer apply(String input) {
+				return input.length();
+			}
+		};
+		
+		SmartSet<Tuple<Integer, String>> expected = new SmartHashSet<Tuple<Integer, String>>(
+				new Tuple<Integer, String>(1, "a"), new Tuple<Integer, String>(2, "bb"),
+				new Tuple<Integer, String>(2, "dd"), new Tuple<Integer, String>(3, "ccc"));
+		assertEquals(expected, new SmartHashSet<Tuple<Integer, String>>(list.join(words, identity, length)));
+		assertEquals(expected, new SmartHashSet<Tuple<Integer, String>>(set.join(words.take(3), identity, length)
+				.addAllReturn(set.join(words.drop(3), identity, length))));
+		
+		SmartList<Tuple<Integer, String>> outer = list.leftOuterJoin(words.take(2), identity, length);
+		assertEquals(new SmartHashSet<Tuple<Integer, String>>(new Tuple<Integer, String>(1, "a"),
+				new Tuple<Integer, String>(2, "bb"), new Tuple<Integer, String>(3, null),
+				new Tuple<Integer, String>(4, null), new Tuple<Integer, String>(5, null)),
+				new SmartHashSet<Tuple<Integer, String>>(outer));
+		
+		SmartList<String> combined = words.join(queue, length, identity, new CombineFunction<String, String, Integer>() {
+			@Override
+			public String apply(String input1, Integer input2) {
+				return input1 + input2;
+			}
+		});
+		assertEquals(new SmartHashSet<String>("a1", "bb2", "ccc3", "dd2"), new SmartHashSet<String>(combined));
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testMapJoin() {
+		SmartMap<Integer, String> names = new SmartHashMap<Integer, String>();
+		names.put(2, "two");
+		names.put(4, "four");
+		names.put(6, "six");
+		UnaryFunction<Integer, Integer> identity = new UnaryFunction<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer input) {
+				return input;
+			}
+		};
+		
+		assertEquals(new SmartArrayList<Tuple<Integer, String>>(new Tuple<Integer, String>(2, "two"),
+				new Tuple<Integer, String>(4, "four")), list.join(names, identity));
+		assertEquals(5, list.leftOuterJoin(names, identity).size());
+		assertEquals(new SmartArrayList<Integer>(2, 4), list.semiJoin(names, identity));
+		assertEquals(new SmartLinkedQueue<Integer>(1, 3, 5), queue.antiJoin(names, identity));
+	}
+	
+	@Test
+	public void testSemiAndAntiJoin() {
+		SmartList<String> words = new SmartArrayList<String>("bb", "dd", "eeeeeee", "ffff");
+		UnaryFunction<Integer, Integer> identity = new UnaryFunction<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer input) {
+				return input;
+			}
+		};
+		UnaryFunction<Integer, String> length = new UnaryFunction<Integer, String>() {
+			@Override
+			public Integer apply(String input) {
+				return input.length();
+			}
+		};
+		
+		assertEquals(new SmartArrayList<Integer>(2, 4), list.semiJoin(words, identity, length));
+		assertEquals(new SmartHashSet<Integer>(1, 3, 5), set.antiJoin(words, identity, length));
+		assertEquals(new SmartLinkedQueue<Integer>(2), queue.semiJoin(words.take(1), identity, length));
+	}
+	
+	@Test
+	public void testMergeJoin() {
+		SmartList<Integer> left = new SmartArrayList<Integer>(1, 2, 2, 4, 7, 9);
+		SmartList<Integer> right = new SmartArrayList<Integer>(2, 3, 4, 4, 9, 10);
+		UnaryFunction<Integer, Integer> identity = new UnaryFunction<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer input) {
+				return input;
+			}
+		};
+		
+		SmartList<Integer> products = left.mergeJoin(right, identity, identity, new CombineFunction<Integer, Integer, Integer>() {
+			@Override
+			public Integer apply(Integer input1, Integer input2) {
+				return input1 * input2;
+			}
+		});
+		assertEquals(new SmartArrayList<Integer>(4, 4, 16, 16, 81), products);
+		assertEquals(new SmartHashSet<Tuple<Integer, Integer>>(left.join(right, identity, identity)),
+				new SmartHashSet<Tuple<Integer, Integer>>(left.mergeJoin(right, identity, identity)));
+		assertEquals(0, left.mergeJoin(new SmartArrayList<Integer>(), identity, identity).size());
+	}
+
 	@Test
 	public void testJoin() {
 		assertEquals("1 2 3 4 5", list.join(" "));
 		assertEquals("1 2 3 4 5", queue.join(" "));		
 		assertEquals("1 2 3 4 5".length(), set.join(" ").length());
+		assertEquals("", new SmartArrayList<Integer>().join(", "));
+	}
+
+	@Test
+	public void testJoinTo() throws IOException {
+		StringWriter writer = new StringWriter();
+		assertTrue(writer == list.joinTo(writer, ", "));
+		assertEquals("1, 2, 3, 4, 5", writer.toString());
+
+		UnaryFunction<String, Integer> square = new UnaryFunction<String, Integer>() {
+			@Override
+			public String apply(final Integer input) {
+				return Integer.toString(input * input);
+			}
+		};
+		assertEquals("[1;4;9;16;25]", list.joinTo(new StringBuilder(), ";", "[", "]", square).toString());
+		assertEquals("[]", new SmartArrayList<Integer>().joinTo(new StringBuilder(), ";", "[", "]", null)
+				.toString());
+
+		SmartList<String> words = new SmartArrayList<String>();
+		for (int i = 0; i < 3000; i++) {
+			words.add("w\u00e4rt" + i);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		long written = words.joinTo(Channels.newChannel(bytes), Charset.forName("UTF-8"), "\n", "", "\n", null);
+		assertEquals(bytes.size(), written);
+		assertEquals(words.join("\n") + "\n", new String(bytes.toByteArray(), "UTF-8"));
 	}
 
 	@Test
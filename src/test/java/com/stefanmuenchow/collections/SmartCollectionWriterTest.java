@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class SmartCollectionWriterTest {
+
+    private SmartCollectionReader roundTrip(final boolean compress) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SmartCollectionWriter writer = new SmartCollectionWriter(bytes, compress);
+        writer.writeList(new SmartArrayList<String>("a", null, "c"), Codecs.stringCodec());
+        writer.writeSet(new SmartHashSet<Integer>(1, 2, 3), Codecs.varIntCodec());
+        writer.writeSortedSet(new SmartTreeSet<Integer>(5, -3, 100000), Codecs.varIntCodec());
+        writer.writeQueue(new SmartLinkedQueue<Long>(3L, 1L, 2L), Codecs.varLongCodec());
+        writer.writeMap(new SmartHashMap<String, Integer>(new SmartArrayList<String>("x", "y"),
+                new SmartArrayList<Integer>(1, null)), Codecs.stringCodec(), Codecs.integerCodec());
+        writer.writeSortedMap(new SmartTreeMap<Integer, String>(new SmartArrayList<Integer>(3, 1, 2),
+                new SmartArrayList<String>("c", "a", "b")), Codecs.integerCodec(), Codecs.stringCodec());
+        writer.close();
+
+        return new SmartCollectionReader(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private void assertRoundTrip(final SmartCollectionReader reader) throws IOException {
+        assertEquals(new SmartArrayList<String>("a", null, "c"), reader.readList(Codecs.stringCodec()));
+        assertEquals(new SmartHashSet<Integer>(1, 2, 3), reader.readSet(Codecs.varIntCodec()));
+        assertEquals(new SmartTreeSet<Integer>(-3, 5, 100000), reader.readSortedSet(Codecs.varIntCodec()));
+        assertEquals(new SmartLinkedQueue<Long>(3L, 1L, 2L), reader.readQueue(Codecs.varLongCodec()));
+        assertEquals(new SmartHashMap<String, Integer>(new SmartArrayList<String>("x", "y"),
+                new SmartArrayList<Integer>(1, null)), reader.readMap(Codecs.stringCodec(), Codecs.integerCodec()));
+
+        SmartSortedMap<Integer, String> sorted = reader.readSortedMap(Codecs.integerCodec(), Codecs.stringCodec());
+        assertEquals(new SmartArrayList<Integer>(1, 2, 3), new SmartArrayList<Integer>(sorted.keySet()));
+        assertEquals(new SmartArrayList<String>("a", "b", "c"), new SmartArrayList<String>(sorted.values()));
+        reader.close();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        assertRoundTrip(roundTrip(false));
+    }
+
+    @Test
+    public void testCompressedRoundTrip() throws IOException {
+        assertRoundTrip(roundTrip(true));
+
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        SmartList<String> repetitive = new SmartArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            repetitive.add("value" + (i % 10));
+        }
+
+        SmartCollectionWriter writer = new SmartCollectionWriter(plain);
+        writer.writeList(repetitive, Codecs.stringCodec());
+        writer.close();
+        writer = new SmartCollectionWriter(compressed, true);
+        writer.writeList(repetitive, Codecs.stringCodec());
+        writer.close();
+        assertTrue(compressed.size() * 10 < plain.size());
+    }
+
+    @Test
+    public void testSortedWithComparator() throws IOException {
+        SmartTreeSet<Integer> reversed = new SmartTreeSet<Integer>(Collections.<Integer>reverseOrder());
+        reversed.addAll(new SmartArrayList<Integer>(1, 2, 3, 4));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SmartCollectionWriter writer = new SmartCollectionWriter(bytes);
+        writer.writeSortedSet(reversed, Codecs.integerCodec());
+        writer.writeSortedSet(reversed, Codecs.integerCodec());
+        writer.close();
+
+        SmartCollectionReader reader = new SmartCollectionReader(new ByteArrayInputStream(bytes.toByteArray()));
+        SmartSortedSet<Integer> same = reader.readSortedSet(Codecs.integerCodec(), Collections.<Integer>reverseOrder());
+        assertEquals(new SmartArrayList<Integer>(4, 3, 2, 1), new SmartArrayList<Integer>(same));
+        SmartSortedSet<Integer> natural = reader.readSortedSet(Codecs.integerCodec());
+        assertEquals(new SmartArrayList<Integer>(1, 2, 3, 4), new SmartArrayList<Integer>(natural));
+        reader.close();
+    }
+
+    @Test
+    public void testVarIntCodecs() throws IOException {
+        int[] ints = { 0, 1, -1, 63, -64, 64, 300, Integer.MAX_VALUE, Integer.MIN_VALUE };
+        long[] longs = { 0L, -1L, 1L << 40, Long.MAX_VALUE, Long.MIN_VALUE };
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int value : ints) {
+            Codecs.varIntCodec().write(value, out);
+        }
+        for (long value : longs) {
+            Codecs.varLongCodec().write(value, out);
+        }
+        assertEquals(1 + 1 + 1 + 1 + 1 + 2 + 2 + 5 + 5 + 1 + 1 + 6 + 10 + 10, bytes.size());
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (int value : ints) {
+            assertEquals(Integer.valueOf(value), Codecs.varIntCodec().read(in));
+        }
+        for (long value : longs) {
+            assertEquals(Long.valueOf(value), Codecs.varLongCodec().read(in));
+        }
+    }
+
+    @Test
+    public void testInvalidStreams() throws IOException {
+        try {
+            new SmartCollectionReader(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6 }));
+            fail();
+        } catch (IOException e) {
+            assertEquals("Not a smart collection stream", e.getMessage());
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SmartCollectionWriter writer = new SmartCollectionWriter(bytes);
+        writer.writeSet(new SmartHashSet<Integer>(1), Codecs.integerCodec());
+        writer.close();
+
+        SmartCollectionReader reader = new SmartCollectionReader(new ByteArrayInputStream(bytes.toByteArray()));
+        try {
+            reader.readList(Codecs.integerCodec());
+            fail();
+        } catch (IOException e) {
+            assertEquals("Expected a list but found a set", e.getMessage());
+        }
+    }
+}
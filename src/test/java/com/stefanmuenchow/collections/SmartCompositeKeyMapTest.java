@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SmartCompositeKeyMapTest {
+    private SmartCompositeKeyMap<String, Integer, String> map = null;
+
+    @Before
+    public void setUp() throws Exception {
+        map = new SmartCompositeKeyMap<String, Integer, String>();
+        map.put("a", 1, "a1");
+        map.put("a", 2, "a2");
+        map.put("b", 1, "b1");
+        map.put(null, 3, "null3");
+    }
+
+    @Test
+    public void testCompositeKeyAccess() {
+        assertEquals(4, map.size());
+        assertEquals("a2", map.getAt("a", 2));
+        assertEquals("null3", map.getAt(null, 3));
+        assertNull(map.getAt("b", 2));
+        assertTrue(map.containsKey("b", 1));
+
+        assertEquals("a2", map.put("a", 2, "A2"));
+        assertEquals("A2", map.get(new Tuple<String, Integer>("a", 2)));
+        assertEquals("b1", map.removeAt("b", 1));
+        assertFalse(map.containsKey(new Tuple<String, Integer>("b", 1)));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void testRowAndColumn() {
+        SmartMap<Integer, String> row = new SmartHashMap<Integer, String>();
+        row.put(1, "a1");
+        row.put(2, "a2");
+        assertEquals(row, map.row("a"));
+
+        SmartMap<String, String> column = new SmartHashMap<String, String>();
+        column.put("a", "a1");
+        column.put("b", "b1");
+        assertEquals(column, map.column(1));
+        assertTrue(map.row("c").isEmpty());
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        Iterator<Map.Entry<Tuple<String, Integer>, String>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Tuple<String, Integer>, String> entry = it.next();
+            if (entry.getKey().getSecond() == 1) {
+                it.remove();
+            } else {
+                entry.setValue(entry.getValue().toUpperCase());
+            }
+        }
+
+        assertEquals(2, map.size());
+        assertEquals("A2", map.getAt("a", 2));
+        assertEquals("NULL3", map.getAt(null, 3));
+    }
+
+    @Test
+    public void testRandomizedAgainstHashMap() {
+        SmartCompositeKeyMap<Integer, Integer, Integer> actual = new SmartCompositeKeyMap<Integer, Integer, Integer>();
+        Map<Tuple<Integer, Integer>, Integer> expected = new HashMap<Tuple<Integer, Integer>, Integer>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            int first = random.nextInt(40);
+            int second = random.nextInt(40);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(new Tuple<Integer, Integer>(first, second)),
+                        actual.removeAt(first, second));
+            } else {
+                assertEquals(expected.put(new Tuple<Integer, Integer>(first, second), i),
+                        actual.put(first, second, i));
+            }
+        }
+
+        assertEquals(expected, actual.toStandardMap());
+
+        Iterator<Tuple<Integer, Integer>> it = actual.keySet().iterator();
+        while (it.hasNext()) {
+            Tuple<Integer, Integer> key = it.next();
+            if (key.getFirst() < key.getSecond()) {
+                it.remove();
+                expected.remove(key);
+            }
+        }
+
+        assertEquals(expected, actual.toStandardMap());
+        assertEquals(expected.size(), actual.size());
+    }
+
+    @Test
+    public void testTupleHashSpreadsSymmetricPairs() {
+        Set<Integer> hashes = new HashSet<Integer>();
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 100; j++) {
+                hashes.add(new Tuple<Integer, Integer>(i, j).hashCode());
+            }
+        }
+
+        assertEquals(10000, hashes.size());
+        assertFalse(new Tuple<String, String>("x", "x").hashCode() == 0);
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.UnaryFunction;
+
+public class SmartIndexedListTest {
+    private static final UnaryFunction<Integer, String> LENGTH = new UnaryFunction<Integer, String>() {
+        @Override
+        public Integer apply(final String input) {
+            return input.length();
+        }
+    };
+
+    private static final UnaryFunction<Character, String> INITIAL = new UnaryFunction<Character, String>() {
+        @Override
+        public Character apply(final String input) {
+            return input.charAt(0);
+        }
+    };
+
+    private SmartIndexedList<String> words = null;
+
+    @Before
+    public void setUp() throws Exception {
+        words = new SmartIndexedList<String>(new SmartArrayList<String>("pear", "fig", "apple", "kiwi", "plum"));
+        words.addHashIndex("initial", INITIAL).addSortedIndex("length", LENGTH);
+    }
+
+    @Test
+    public void testFindBy() {
+        assertEquals(new SmartArrayList<String>("pear", "plum"), words.findBy("initial", 'p'));
+        assertEquals(new SmartArrayList<String>("pear", "kiwi", "plum"), words.findBy("length", 4));
+        assertTrue(words.findBy("initial", 'z').isEmpty());
+    }
+
+    @Test
+    public void testRangeBy() {
+        assertEquals(new SmartArrayList<String>("fig", "pear", "kiwi", "plum"), words.rangeBy("length", 3, 5));
+        assertTrue(words.rangeBy("length", 5, 5).isEmpty());
+        assertTrue(words.rangeBy("length", 6, 2).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRangeByOnHashIndex() {
+        words.rangeBy("initial", 'a', 'c');
+    }
+
+    @Test
+    public void testIndexesFollowModifications() {
+        words.add("peach");
+        words.set(1, "date");
+        words.remove("kiwi");
+        words.filter(new Predicate<String>() {
+            @Override
+            public boolean test(final String input) {
+                return !input.equals("plum");
+            }
+        });
+
+        ListIterator<String> it = words.listIterator();
+        while (it.hasNext()) {
+            if (it.next().equals("apple")) {
+                it.set("apricot");
+            }
+        }
+
+        assertEquals(new SmartArrayList<String>("pear", "date", "apricot", "peach"), new SmartArrayList<String>(words));
+        assertEquals(new SmartArrayList<String>("pear", "peach"), words.findBy("initial", 'p'));
+        assertEquals(new SmartArrayList<String>("apricot"), words.findBy("initial", 'a'));
+        assertEquals(new SmartArrayList<String>("pear", "date", "peach"), words.rangeBy("length", 4, 6));
+
+        words.subList(0, 2).clear();
+        assertEquals(new SmartArrayList<String>("peach"), words.findBy("initial", 'p'));
+
+        words.clear();
+        assertTrue(words.findBy("initial", 'p').isEmpty());
+    }
+
+    @Test
+    public void testRandomizedAgainstScan() {
+        SmartIndexedList<Integer> list = new SmartIndexedList<Integer>();
+        UnaryFunction<Integer, Integer> mod10 = new UnaryFunction<Integer, Integer>() {
+            @Override
+            public Integer apply(final Integer input) {
+                return input % 10;
+            }
+        };
+        list.addHashIndex("mod10", mod10);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            int op = random.nextInt(4);
+            if (op == 0 && !list.isEmpty()) {
+                list.remove(random.nextInt(list.size()));
+            } else if (op == 1 && !list.isEmpty()) {
+                list.set(random.nextInt(list.size()), random.nextInt(100));
+            } else {
+                list.add(random.nextInt(100));
+            }
+        }
+
+        for (int key = 0; key < 10; key++) {
+            final int k = key;
+            SmartList<Integer> expected = new SmartArrayList<Integer>(list).filter(new Predicate<Integer>() {
+                @Override
+                public boolean test(final Integer input) {
+                    return input % 10 == k;
+                }
+            });
+            assertEquals(new SmartHashSet<Integer>(expected), new SmartHashSet<Integer>(list.findBy("mod10", k)));
+            assertEquals(expected.size(), list.findBy("mod10", k).size());
+        }
+    }
+
+    @Test
+    public void testIndexedSet() {
+        SmartIndexedSet<String> set = new SmartIndexedSet<String>(new SmartArrayList<String>("pear", "fig", "plum"));
+        set.addHashIndex("initial", INITIAL);
+        set.add("peach");
+        set.add("pear");
+        set.remove("plum");
+
+        Iterator<String> it = set.iterator();
+        while (it.hasNext()) {
+            if (it.next().equals("fig")) {
+                it.remove();
+            }
+        }
+
+        assertEquals(new SmartArrayList<String>("pear", "peach"), set.findBy("initial", 'p'));
+        assertTrue(set.findBy("initial", 'f').isEmpty());
+        assertTrue(set.removeIndex("initial"));
+    }
+}
@@ -12,13 +12,19 @@ package com.stefanmuenchow.collections;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import com.stefanmuenchow.functors.CombineFunction;
 import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.ToIntFunction;
+import com.stefanmuenchow.functors.ToLongFunction;
 import com.stefanmuenchow.functors.UnaryFunction;
 
 public class SmartListTest {
@@ -264,6 +270,29 @@ public class SmartListTest {
 		assertEquals(expectedMap, resultMap2);
 	}
 
+	@Test
+	public void testZipWithFunction() {
+		CombineFunction<String, Integer, String> concatFn = new CombineFunction<String, Integer, String>() {
+			@Override
+			public String apply(Integer input1, String input2) {
+				return input1 + input2;
+			}
+		};
+		
+		assertEquals(new SmartArrayList<String>("4foo", "5bar"), 
+				new SmartArrayList<Integer>(4, 5, 6).zipWith(new SmartArrayList<String>("foo", "bar"), concatFn));
+		assertEquals(new SmartLinkedList<String>("4foo", "5bar"), 
+				new SmartLinkedList<Integer>(4, 5).zipWith(Arrays.asList("foo", "bar", "baz"), concatFn));
+		
+		SmartMap<Integer, String> expectedMap = new SmartHashMap<Integer, String>();
+		expectedMap.put(4, "foo");
+		expectedMap.put(5, "bar");
+		assertEquals(expectedMap, new SmartHashMap<Integer, String>(new SmartArrayList<Integer>(4, 5, 6), 
+				new SmartLinkedList<String>("foo", "bar")));
+		assertEquals(expectedMap, new SmartTreeMap<Integer, String>(new SmartLinkedList<Integer>(4, 5), 
+				new SmartArrayList<String>("foo", "bar", "baz")));
+	}
+
 	@Test
 	public void testGetIndicesList() {
 		assertEquals(new SmartArrayList<Integer>(0, 1, 2), 
@@ -315,4 +344,127 @@ public class SmartListTest {
 		assertEquals(new SmartLinkedList<Integer>(96, 69, 79, 94, 29), 
 				 smartList2.map(smartList1, addFn));
 	}
+	
+	@Test
+	public void testSort() {
+		assertEquals(new SmartArrayList<Integer>(9, 9, 10, 23, 56), 
+				smartList1.sortWith(Collections.<Integer>reverseOrder()).sortWith(null));
+		assertEquals(new SmartLinkedList<Integer>(87, 85, 56, 19, 13), 
+				smartList2.sortWith(Collections.<Integer>reverseOrder()));
+	}
+	
+	@Test
+	public void testSortBy() {
+		SmartList<String> words = new SmartArrayList<String>("pear", "fig", "apple", "kiwi", "plum");
+		assertEquals(new SmartArrayList<String>("fig", "pear", "kiwi", "plum", "apple"), 
+				words.sortBy(new UnaryFunction<Integer, String>() {
+					@Override
+					public Integer apply(String input) {
+						return input.length();
+					}
+				}));
+	}
+	
+	@Test
+	public void testSortByComputesKeysOnce() {
+		final int[] calls = new int[1];
+		SmartList<Integer> numbers = new SmartArrayList<Integer>(5, 3, 8, 1, 9, 2, 7);
+		numbers.sortBy(new UnaryFunction<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer input) {
+				calls[0]++;
+				return -input;
+			}
+		});
+		
+		assertEquals(new SmartArrayList<Integer>(9, 8, 7, 5, 3, 2, 1), numbers);
+		assertEquals(7, calls[0]);
+	}
+	
+	@Test
+	public void testParallelSortBy() {
+		UnaryFunction<Integer, Integer> mod1000 = new UnaryFunction<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer input) {
+				return input % 1000;
+			}
+		};
+		
+		SmartList<Integer> input = new SmartArrayList<Integer>();
+		Random random = new Random(42);
+		for (int i = 0; i < 100000; i++) {
+			input.add(random.nextInt(1000000));
+		}
+		
+		SmartList<Integer> expected = new SmartArrayList<Integer>(input).sortBy(mod1000);
+		assertEquals(expected, new SmartArrayList<Integer>(input).parallelSortBy(mod1000, true));
+		
+		SmartList<Integer> unstable = new SmartLinkedList<Integer>(input).parallelSortBy(mod1000, false);
+		assertEquals(expected.map(mod1000), new SmartArrayList<Integer>(unstable.map(mod1000)));
+		assertEquals(new SmartHashSet<Integer>(expected), new SmartHashSet<Integer>(unstable));
+	}
+	
+	@Test
+	public void testSortByIntKey() {
+		SmartList<Integer> input = new SmartArrayList<Integer>();
+		Random random = new Random(7);
+		for (int i = 0; i < 20000; i++) {
+			input.add(random.nextInt());
+		}
+		input.add(Integer.MIN_VALUE);
+		input.add(Integer.MAX_VALUE);
+		
+		SmartList<Integer> expected = new SmartArrayList<Integer>(input).sortBy(new UnaryFunction<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer input) {
+				return input >> 8;
+			}
+		});
+		
+		ToIntFunction<Integer> key = new ToIntFunction<Integer>() {
+			@Override
+			public int apply(Integer input) {
+				return input >> 8;
+			}
+		};
+		assertEquals(expected, new SmartArrayList<Integer>(input).sortByIntKey(key));
+		assertEquals(new SmartLinkedList<Integer>(expected), new SmartLinkedList<Integer>(input).sortByIntKey(key));
+		assertEquals(new SmartArrayList<Integer>(-4, 0, -1, 3, 2), 
+				new SmartArrayList<Integer>(3, 0, -1, 2, -4).sortByIntKey(new ToIntFunction<Integer>() {
+					@Override
+					public int apply(Integer input) {
+						return input / 2;
+					}
+				}));
+	}
+	
+	@Test
+	public void testSortByLongKey() {
+		SmartList<Long> input = new SmartArrayList<Long>();
+		Random random = new Random(7);
+		for (int i = 0; i < 20000; i++) {
+			input.add(1300000000000L + random.nextInt(1000000) * 1000L + i % 3);
+		}
+		input.add(Long.MIN_VALUE);
+		input.add(-1L);
+		input.add(Long.MAX_VALUE);
+		
+		UnaryFunction<Long, Long> seconds = new UnaryFunction<Long, Long>() {
+			@Override
+			public Long apply(Long input) {
+				return input / 1000;
+			}
+		};
+		SmartList<Long> expected = new SmartArrayList<Long>(input).sortBy(seconds);
+		
+		ToLongFunction<Long> key = new ToLongFunction<Long>() {
+			@Override
+			public long apply(Long input) {
+				return input / 1000;
+			}
+		};
+		assertEquals(expected, new SmartArrayList<Long>(input).sortByLongKey(key));
+		assertEquals(new SmartArrayList<Long>(input.take(100)).sortBy(seconds), 
+				new SmartArrayList<Long>(input.take(100)).sortByLongKey(key));
+	}
 }
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.stefanmuenchow.functors.UnaryFunction;
+
+public class SmartLoadingMapTest {
+    private final AtomicInteger loadedKeys = new AtomicInteger();
+
+    /** Stand-in for a backing store: squares all non-negative keys. */
+    private final UnaryFunction<Map<Integer, Integer>, Collection<Integer>> squares =
+            new UnaryFunction<Map<Integer, Integer>, Collection<Integer>>() {
+        @Override
+        public Map<Integer, Integer> apply(Collection<Integer> keys) {
+            Map<Integer, Integer> result = new HashMap<Integer, Integer>();
+            for (Integer key : keys) {
+                loadedKeys.incrementAndGet();
+                if (key >= 0) {
+                    result.put(key, key * key);
+                }
+            }
+
+            return result;
+        }
+    };
+
+    @Test
+    public void testGetLoadsMissingKeys() {
+        SmartLoadingMap<Integer, Integer> map = new SmartLoadingMap<Integer, Integer>(squares);
+        assertEquals(Integer.valueOf(9), map.get(3));
+        assertEquals(Integer.valueOf(9), map.get(3));
+        assertNull(map.get(-1));
+        assertEquals(Integer.valueOf(0), map.get(-1, 0));
+
+        assertEquals(1, map.size());
+        assertEquals(3, map.getLoadCount());
+    }
+
+    @Test
+    public void testGetAllLoadsInOneBatch() {
+        SmartLoadingMap<Integer, Integer> map = new SmartLoadingMap<Integer, Integer>(squares);
+        map.put(1, 100);
+
+        SmartMap<Integer, Integer> result = map.getAll(new SmartArrayList<Integer>(1, 2, 3, -4, 2));
+        assertEquals(new SmartHashMap<Integer, Integer>(new SmartArrayList<Integer>(1, 2, 3),
+                new SmartArrayList<Integer>(100, 4, 9)), result);
+        assertEquals(1, map.getLoadCount());
+        assertEquals(3, loadedKeys.get());
+        assertFalse(map.containsKey(-4));
+    }
+
+    @Test
+    public void testMaxBatchSize() {
+        SmartLoadingMap<Integer, Integer> map = new SmartLoadingMap<Integer, Integer>(squares,
+                0, TimeUnit.MILLISECONDS, 4);
+        SmartList<Integer> keys = new SmartArrayList<Integer>();
+        for (int i = 0; i < 10; i++) {
+            keys.add(i);
+        }
+
+        assertEquals(10, map.getAll(keys).size());
+        assertEquals(3, map.getLoadCount());
+    }
+
+    @Test
+    public void testConcurrentMissesAreCoalesced() throws InterruptedException {
+        final SmartLoadingMap<Integer, Integer> map = new SmartLoadingMap<Integer, Integer>(squares,
+                20, TimeUnit.MILLISECONDS, 1000);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < 20; i++) {
+                            int key = (i + offset) % 20;
+                            if (map.get(key) != key * key) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            };
+            threads[t].start();
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, errors.get());
+        assertEquals(20, loadedKeys.get());
+        assertTrue(map.getLoadCount() < 20);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLoaderFailure() {
+        SmartLoadingMap<Integer, Integer> map = new SmartLoadingMap<Integer, Integer>(
+                new UnaryFunction<Map<Integer, Integer>, Collection<Integer>>() {
+                    @Override
+                    public Map<Integer, Integer> apply(Collection<Integer> keys) {
+                        throw new IllegalStateException("Store not available");
+                    }
+                });
+        map.get(1);
+    }
+}
@@ -14,6 +14,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -27,6 +32,7 @@ import com.stefanmuenchow.functors.MapBinaryFunction;
 import com.stefanmuenchow.functors.MapPredicate;
 import com.stefanmuenchow.functors.MapUnaryFunction;
 import com.stefanmuenchow.functors.MapVoidFunction;
+import com.stefanmuenchow.functors.UnaryFunction;
 
 public class SmartMapTest {
     private SmartMap<Integer, String> smartMap1 = null;
@@ -296,6 +302,29 @@ public class SmartMapTest {
         
         assertEquals(expectedString, smartMap1.join(" ; ", " -> "));
         assertEquals(expectedString, smartMap2.join(" ; ", " -> "));
+        assertEquals("", new SmartHashMap<Integer, String>().join(" ; ", " -> "));
+    }
+
+    @Test
+    public void testJoinTo() throws IOException {
+        StringWriter writer = new StringWriter();
+        smartMap2.joinTo(writer, "&", "=");
+        assertEquals("1=Frodo&2=Sam&3=Merry&4=Pippin", writer.toString());
+
+        UnaryFunction<String, String> upper = new UnaryFunction<String, String>() {
+            @Override
+            public String apply(final String input) {
+                return input.toUpperCase();
+            }
+        };
+        assertEquals("{1: FRODO, 2: SAM, 3: MERRY, 4: PIPPIN}", smartMap2.joinTo(new StringBuilder(), ", ", ": ",
+                "{", "}", null, upper).toString());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long written = smartMap2.joinTo(Channels.newChannel(bytes), Charset.forName("UTF-8"), "\n", ",", "", "",
+                null, null);
+        assertEquals(bytes.size(), written);
+        assertEquals("1,Frodo\n2,Sam\n3,Merry\n4,Pippin", bytes.toString("UTF-8"));
     }
 
     @Test
@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.Predicate;
+
+public class SmartMappedRecordListTest {
+    private static final RecordCodec<Tuple<Long, Double>> TRADE_CODEC = new RecordCodec<Tuple<Long, Double>>() {
+
+        @Override
+        public int recordSize() {
+            return 16;
+        }
+
+        @Override
+        public void write(final Tuple<Long, Double> elem, final MappedRecord record) {
+            record.putLong(0, elem.getFirst());
+            record.putDouble(8, elem.getSecond());
+        }
+
+        @Override
+        public Tuple<Long, Double> read(final MappedRecord record) {
+            return new Tuple<Long, Double>(record.getLong(0), record.getDouble(8));
+        }
+    };
+
+    private static final Predicate<MappedRecord> EVEN_ID = new Predicate<MappedRecord>() {
+
+        @Override
+        public boolean test(final MappedRecord input) {
+            return input.getLong(0) % 2 == 0;
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file = null;
+    private SmartMappedRecordList<Tuple<Long, Double>> list = null;
+
+    private static Tuple<Long, Double> trade(final long id) {
+        return new Tuple<Long, Double>(id, id * 1.5);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(folder.getRoot(), "trades.rec");
+        list = new SmartMappedRecordList<Tuple<Long, Double>>(file, TRADE_CODEC, 160);
+        for (long i = 0; i < 100; i++) {
+            list.add(trade(i));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        list.close();
+    }
+
+    @Test
+    public void testAccessAcrossSegments() {
+        assertEquals(100, list.size());
+        assertEquals(trade(0), list.get(0));
+        assertEquals(trade(55), list.get(55));
+        assertEquals(trade(99), list.last());
+
+        list.set(42, trade(-1));
+        assertEquals(trade(-1), list.get(42));
+        assertEquals(42, list.record(42).getIndex());
+        assertEquals(-1L, list.record(42).getLong(0));
+    }
+
+    @Test
+    public void testReopen() {
+        list.remove(0);
+        list.close();
+        assertEquals(16 + 99 * 16, file.length());
+
+        list = new SmartMappedRecordList<Tuple<Long, Double>>(file, TRADE_CODEC);
+        assertEquals(99, list.size());
+        assertEquals(trade(1), list.head());
+        assertEquals(trade(99), list.last());
+
+        list.add(trade(100));
+        assertEquals(100, list.size());
+    }
+
+    @Test
+    public void testRecordMethods() {
+        assertEquals(50, list.countRecords(EVEN_ID));
+        double sum = list.reduceRecords(0.0, new BinaryFunction<Double, MappedRecord>() {
+
+            @Override
+            public Double apply(final Double input1, final MappedRecord input2) {
+                return input1 + input2.getDouble(8);
+            }
+        });
+        assertEquals(4950 * 1.5, sum, 1e-9);
+
+        Iterator<MappedRecord> it = list.recordIterator();
+        MappedRecord first = it.next();
+        assertTrue(first == it.next());
+
+        list.filterRecords(EVEN_ID);
+        assertEquals(50, list.size());
+        assertEquals(trade(98), list.last());
+    }
+
+    @Test
+    public void testRandomizedAgainstArrayList() {
+        List<Tuple<Long, Double>> expected = new ArrayList<Tuple<Long, Double>>(list);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            int op = random.nextInt(10);
+            long id = random.nextInt(1000);
+            if (op < 5 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, trade(id));
+                list.add(index, trade(id));
+            } else if (op < 8) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.remove(index));
+            } else {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, trade(id)), list.set(index, trade(id)));
+            }
+        }
+
+        assertEquals(expected, list.toStandardCollection());
+
+        list.subList(10, 20).clear();
+        expected.subList(10, 20).clear();
+        assertEquals(expected, list.toStandardCollection());
+    }
+}
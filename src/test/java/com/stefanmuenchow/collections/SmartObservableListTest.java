@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.Functions;
+import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.UnaryFunction;
+
+public class SmartObservableListTest {
+    private static final Predicate<Integer> EVEN = new Predicate<Integer>() {
+
+        @Override
+        public boolean test(final Integer input) {
+            return input % 2 == 0;
+        }
+    };
+
+    private static final UnaryFunction<Integer, Integer> MOD3 = new UnaryFunction<Integer, Integer>() {
+
+        @Override
+        public Integer apply(final Integer input) {
+            return input % 3;
+        }
+    };
+
+    private static final BinaryFunction<Integer, Integer> SUBTRACT = new BinaryFunction<Integer, Integer>() {
+
+        @Override
+        public Integer apply(final Integer input1, final Integer input2) {
+            return input1 - input2;
+        }
+    };
+
+    private SmartObservableList<Integer> list = null;
+
+    @Before
+    public void setUp() throws Exception {
+        list = new SmartObservableList<Integer>(new SmartArrayList<Integer>(1, 2, 3, 4, 5));
+    }
+
+    @Test
+    public void testListenerEvents() {
+        final StringBuilder events = new StringBuilder();
+        CollectionListener<Integer> listener = new CollectionListener<Integer>() {
+
+            @Override
+            public void added(final Integer elem) {
+                events.append("+").append(elem);
+            }
+
+            @Override
+            public void removed(final Integer elem) {
+                events.append("-").append(elem);
+            }
+
+            @Override
+            public void replaced(final Integer oldElem, final Integer newElem) {
+                events.append("~").append(oldElem).append(newElem);
+            }
+
+            @Override
+            public void cleared() {
+                events.append("!");
+            }
+        };
+
+        list.addListener(listener);
+        list.add(6);
+        list.remove(Integer.valueOf(1));
+        list.set(0, 7);
+
+        ListIterator<Integer> it = list.listIterator();
+        it.next();
+        it.remove();
+        it.add(8);
+
+        list.subList(0, 1).clear();
+        list.clear();
+        assertEquals("+6-1~27-7+8-8!", events.toString());
+
+        assertTrue(list.removeListener(listener));
+        list.add(1);
+        assertEquals("+6-1~27-7+8-8!", events.toString());
+    }
+
+    @Test
+    public void testLiveValues() {
+        LiveValue<Integer> evens = list.liveCount(EVEN);
+        LiveValue<Integer> sum = list.liveReduce(0, Functions.<Integer>addFn(), SUBTRACT);
+        LiveValue<Map<Integer, Integer>> byMod3 = list.liveCountBy(MOD3);
+        assertEquals(Integer.valueOf(2), evens.get());
+        assertEquals(Integer.valueOf(15), sum.get());
+        assertEquals(new SmartHashMap<Integer, Integer>(new SmartArrayList<Integer>(0, 1, 2),
+                new SmartArrayList<Integer>(1, 2, 2)), byMod3.get());
+
+        list.add(6);
+        list.set(0, 10);
+        list.remove(Integer.valueOf(3));
+        assertEquals(Integer.valueOf(4), evens.get());
+        assertEquals(Integer.valueOf(27), sum.get());
+        assertEquals(new SmartHashMap<Integer, Integer>(new SmartArrayList<Integer>(0, 1, 2),
+                new SmartArrayList<Integer>(1, 2, 2)), byMod3.get());
+
+        list.clear();
+        assertEquals(Integer.valueOf(0), evens.get());
+        assertEquals(Integer.valueOf(0), sum.get());
+        assertTrue(byMod3.get().isEmpty());
+
+        evens.close();
+        list.add(2);
+        assertEquals(Integer.valueOf(0), evens.get());
+        assertEquals(Integer.valueOf(2), sum.get());
+    }
+
+    @Test
+    public void testLiveCollections() {
+        LiveCollection<Integer> evens = list.liveFilter(EVEN);
+        LiveCollection<Integer> mod3 = list.liveMap(MOD3);
+        assertEquals(new SmartHashSet<Integer>(2, 4), new SmartHashSet<Integer>(evens));
+        assertEquals(5, mod3.size());
+
+        list.add(2);
+        list.remove(Integer.valueOf(4));
+        assertEquals(new SmartArrayList<Integer>(2, 2), new SmartArrayList<Integer>(evens));
+        assertTrue(mod3.contains(0));
+
+        list.remove(Integer.valueOf(3));
+        assertFalse(mod3.contains(0));
+
+        Iterator<Integer> it = evens.iterator();
+        it.next();
+        try {
+            it.remove();
+            assertTrue(false);
+        } catch (UnsupportedOperationException e) {
+            assertEquals(2, evens.size());
+        }
+    }
+
+    @Test
+    public void testRandomizedAgainstRecomputation() {
+        LiveValue<Integer> evens = list.liveCount(EVEN);
+        LiveValue<Integer> sum = list.liveReduce(0, Functions.<Integer>addFn(), SUBTRACT);
+        LiveCollection<Integer> mod3 = list.liveMap(MOD3);
+        LiveValue<Map<Integer, Integer>> byMod3 = list.liveCountBy(MOD3);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            int op = random.nextInt(10);
+            if (op < 5 || list.isEmpty()) {
+                list.add(random.nextInt(list.size() + 1), random.nextInt(100));
+            } else if (op < 8) {
+                list.remove(random.nextInt(list.size()));
+            } else if (op < 9) {
+                list.set(random.nextInt(list.size()), random.nextInt(100));
+            } else {
+                list.retainAll(new SmartArrayList<Integer>(random.nextInt(100), random.nextInt(100)));
+            }
+
+            assertEquals(list.count(EVEN), evens.get().intValue());
+            assertEquals(list.reduce(0, Functions.<Integer>addFn()), sum.get());
+            assertEquals(list.map(MOD3).sortWith(null), new SmartArrayList<Integer>(mod3).sortWith(null));
+            assertEquals(list.countBy(MOD3), byMod3.get());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.functors.MapBinaryFunction;
+import com.stefanmuenchow.functors.MapPredicate;
+
+public class SmartObservableMapTest {
+    private static final MapPredicate<String, Integer> POSITIVE = new MapPredicate<String, Integer>() {
+
+        @Override
+        public boolean test(final String key, final Integer val) {
+            return val > 0;
+        }
+    };
+
+    private static final MapBinaryFunction<Integer, String, Integer> ADD = new MapBinaryFunction<Integer, String, Integer>() {
+
+        @Override
+        public Integer apply(final Integer input1, final String input2key, final Integer input2val) {
+            return input1 + input2val;
+        }
+    };
+
+    private static final MapBinaryFunction<Integer, String, Integer> SUBTRACT = new MapBinaryFunction<Integer, String, Integer>() {
+
+        @Override
+        public Integer apply(final Integer input1, final String input2key, final Integer input2val) {
+            return input1 - input2val;
+        }
+    };
+
+    private SmartObservableMap<String, Integer> map = null;
+
+    @Before
+    public void setUp() throws Exception {
+        map = new SmartObservableMap<String, Integer>();
+        map.put("a", 1);
+        map.put("b", -2);
+        map.put("c", 3);
+    }
+
+    @Test
+    public void testListenerEvents() {
+        final StringBuilder events = new StringBuilder();
+        map.addListener(new MapListener<String, Integer>() {
+
+            @Override
+            public void added(final String key, final Integer value) {
+                events.append("+").append(key).append(value);
+            }
+
+            @Override
+            public void removed(final String key, final Integer value) {
+                events.append("-").append(key).append(value);
+            }
+
+            @Override
+            public void replaced(final String key, final Integer oldValue, final Integer newValue) {
+                events.append("~").append(key).append(oldValue).append(newValue);
+            }
+
+            @Override
+            public void cleared() {
+                events.append("!");
+            }
+        });
+
+        map.put("d", 4);
+        map.put("a", 5);
+        map.remove("b");
+        map.remove("x");
+        map.clear();
+        assertEquals("+d4~a15-b-2!", events.toString());
+    }
+
+    @Test
+    public void testLiveValues() {
+        LiveValue<Integer> positives = map.liveCount(POSITIVE);
+        LiveValue<Integer> sum = map.liveReduce(0, ADD, SUBTRACT);
+        assertEquals(Integer.valueOf(2), positives.get());
+        assertEquals(Integer.valueOf(2), sum.get());
+
+        map.put("b", 2);
+        map.put("d", -10);
+        map.keySet().remove("a");
+        assertEquals(Integer.valueOf(2), positives.get());
+        assertEquals(Integer.valueOf(-5), sum.get());
+
+        Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Integer> entry = it.next();
+            if (entry.getKey().equals("c")) {
+                it.remove();
+            } else {
+                entry.setValue(entry.getValue() * 2);
+            }
+        }
+
+        assertEquals(new SmartHashMap<String, Integer>(new SmartArrayList<String>("b", "d"),
+                new SmartArrayList<Integer>(4, -20)), map.toStandardMap());
+        assertEquals(Integer.valueOf(1), positives.get());
+        assertEquals(Integer.valueOf(-16), sum.get());
+    }
+}
@@ -13,9 +13,12 @@ package com.stefanmuenchow.collections;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.stefanmuenchow.functors.Predicates;
+
 public class SmartSetTest {
     private SmartSet<Integer> smartSet1 = null;
     private SmartSet<Integer> smartSet2 = null;
@@ -93,4 +96,16 @@ public class SmartSetTest {
     	assertEquals(new SmartTreeSet<Integer>(56, 23), 
     			smartSet2.difference(new SmartTreeSet<Integer>(9)));
     }
+    
+    @Test
+    public void testEqualsPredicatePushdown() {
+        assertEquals(Integer.valueOf(23), smartSet1.find(Predicates.equalsPred(23)));
+        assertEquals(1, smartSet1.count(Predicates.equalsPred(56)));
+        assertFalse(smartSet1.exists(Predicates.equalsPred(57)));
+        assertEquals(0, smartSet2.count(Predicates.and(Predicates.equalsPred(9), Predicates.evenPred())));
+
+        String stored = new String("stored");
+        SmartSet<String> strings = new SmartHashSet<String>(stored, "other");
+        assertSame(stored, strings.find(Predicates.equalsPred(new String("stored"))));
+    }
 }
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class SmartSetsTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIntersectAllHashed() {
+        SmartList<Set<Integer>> sets = new SmartArrayList<Set<Integer>>(
+                new SmartHashSet<Integer>(1, 2, 3, 4, 5, 6),
+                new SmartHashSet<Integer>(2, 4, 6, 8),
+                new SmartTreeSet<Integer>(4, 6, 7));
+
+        assertEquals(new SmartHashSet<Integer>(4, 6), SmartSets.intersectAll(sets));
+        assertEquals(new SmartHashSet<Integer>(1, 2, 3, 4, 5, 6), sets.get(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIntersectAllSorted() {
+        SmartList<Set<Integer>> sets = new SmartArrayList<Set<Integer>>(
+                new SmartTreeSet<Integer>(1, 3, 5, 7, 9, 11, 13, 15),
+                new SmartTreeSet<Integer>(3, 7, 11, 15, 19),
+                new SmartTreeSet<Integer>(0, 7, 8, 15, 100));
+
+        SmartSet<Integer> result = SmartSets.intersectAll(sets);
+        assertEquals(new SmartTreeSet<Integer>(7, 15), result);
+        assertTrue(result instanceof SmartSortedSet);
+
+        assertEquals(new SmartTreeSet<Integer>(), SmartSets.intersectAll(
+                new SmartArrayList<Set<Integer>>(new SmartTreeSet<Integer>(1, 2),
+                        new SmartTreeSet<Integer>(3, 4))));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIntersectAllReverseOrdering() {
+        SmartTreeSet<Integer> set1 = new SmartTreeSet<Integer>(Collections.<Integer>reverseOrder());
+        SmartTreeSet<Integer> set2 = new SmartTreeSet<Integer>(Collections.<Integer>reverseOrder());
+        set1.addAll(new SmartArrayList<Integer>(9, 7, 5, 3, 1));
+        set2.addAll(new SmartArrayList<Integer>(8, 7, 3, 2));
+
+        Iterator<Integer> it = SmartSets.intersectAllIterator(
+                new SmartArrayList<Set<Integer>>(set1, set2));
+        assertEquals(Integer.valueOf(7), it.next());
+        assertEquals(Integer.valueOf(3), it.next());
+        assertTrue(!it.hasNext());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUnionAll() {
+        SmartList<Set<Integer>> hashed = new SmartArrayList<Set<Integer>>(
+                new SmartHashSet<Integer>(1, 2),
+                new SmartHashSet<Integer>(2, 3, 4),
+                new SmartHashSet<Integer>(4, 5));
+        assertEquals(new SmartHashSet<Integer>(1, 2, 3, 4, 5), SmartSets.unionAll(hashed));
+
+        SmartList<Set<Integer>> sorted = new SmartArrayList<Set<Integer>>(
+                new SmartTreeSet<Integer>(5, 1),
+                new SmartTreeSet<Integer>(2, 5, 3),
+                new SmartTreeSet<Integer>(4, 1));
+        SmartList<Integer> ordered = new SmartArrayList<Integer>();
+        for (Iterator<Integer> it = SmartSets.unionAllIterator(sorted); it.hasNext();) {
+            ordered.add(it.next());
+        }
+        assertEquals(new SmartArrayList<Integer>(1, 2, 3, 4, 5), ordered);
+    }
+
+    @Test
+    public void testEmptyOperands() {
+        assertTrue(SmartSets.intersectAll(new SmartArrayList<Set<Integer>>()).isEmpty());
+        assertTrue(SmartSets.unionAll(new SmartArrayList<Set<Integer>>()).isEmpty());
+    }
+}
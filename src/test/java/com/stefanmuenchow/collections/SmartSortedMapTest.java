@@ -4,6 +4,9 @@ import static junit.framework.Assert.assertEquals;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.stefanmuenchow.functors.MapPredicate;
+import com.stefanmuenchow.functors.Predicates;
+
 public class SmartSortedMapTest {
 	private SmartSortedMap<Integer, String> smartSortedMap = null;
 	
@@ -40,4 +43,57 @@ public class SmartSortedMapTest {
 		
 		assertEquals(expected, smartSortedMap.smartTailMap(6));
 	}
+	
+	@Test
+	public void testSmartSubMapIsLiveView() {
+		SmartSortedMap<Integer, String> subMap = smartSortedMap.smartSubMap(3, 8);
+		subMap.put(5, "Yellow");
+		smartSortedMap.remove(6);
+		
+		assertEquals("Yellow", smartSortedMap.get(5));
+		assertEquals(2, subMap.size());
+		assertEquals(Integer.valueOf(5), subMap.lastKey());
+	}
+	
+	@Test
+	public void testCopy() {
+		SmartSortedMap<Integer, String> copy = smartSortedMap.smartHeadMap(5).copy();
+		copy.put(7, "Purple");
+		
+		assertEquals(3, copy.size());
+		assertEquals(4, smartSortedMap.size());
+	}
+	
+	@Test
+	public void testPushdownOnBoundedViews() {
+		SmartSortedMap<Integer, String> sub = smartSortedMap.smartSubMap(5, 8);
+		
+		assertEquals(1, sub.count(Predicates.<Integer, String>keyPred(Predicates.greaterThanPred(2))));
+		assertEquals(0, sub.count(Predicates.<Integer, String>keyPred(Predicates.greaterThanPred(9))));
+		assertEquals("Blue", sub.find(Predicates.<Integer, String>keyPred(Predicates.lessEqualThanPred(20))));
+		
+		sub.filter(Predicates.<Integer, String>keyPred(Predicates.rangePred(0, true, 7, false)));
+		assertEquals(1, sub.size());
+		
+		smartSortedMap.smartHeadMap(5).filter(Predicates.<Integer, String>keyPred(Predicates.greaterThanPred(8)));
+		assertEquals(new SmartTreeMap<Integer, String>(new SmartArrayList<Integer>(6, 10),
+				new SmartArrayList<String>("Blue", "Red")), smartSortedMap);
+	}
+	
+	@Test
+	public void testKeyPredicatePushdown() {
+		MapPredicate<Integer, String> small = Predicates.keyPred(Predicates.lessThanPred(6));
+		
+		assertEquals(2, smartSortedMap.count(small));
+		assertEquals("Green", smartSortedMap.find(small));
+		assertEquals("Blue", smartSortedMap.find(Predicates.<Integer, String>keyPred(Predicates.equalsPred(6))));
+		
+		smartSortedMap.filter(Predicates.<Integer, String>keyPred(Predicates.rangePred(3, true, 10, false)));
+		assertEquals(new SmartTreeMap<Integer, String>(new SmartArrayList<Integer>(3, 6),
+				new SmartArrayList<String>("Orange", "Blue")), smartSortedMap);
+		
+		SmartMap<Integer, String> hashed = new SmartHashMap<Integer, String>(smartSortedMap);
+		assertEquals("Orange", hashed.find(Predicates.<Integer, String>keyPred(Predicates.equalsPred(3))));
+		assertEquals(0, hashed.count(Predicates.<Integer, String>keyPred(Predicates.equalsPred(4))));
+	}
 }
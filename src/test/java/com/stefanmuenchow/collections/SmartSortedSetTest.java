@@ -1,9 +1,16 @@
 package com.stefanmuenchow.collections;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+
+import java.math.BigDecimal;
+
 import org.junit.Before;
 import org.junit.Test;
 
+import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.Predicates;
+
 public class SmartSortedSetTest {
 	private SmartSortedSet<Integer> smartSortedSet = null;
 
@@ -26,4 +33,84 @@ public class SmartSortedSetTest {
 	public void testSmartTailSet() {
 		assertEquals(new SmartTreeSet<Integer>(9, 12), smartSortedSet.smartTailSet(9));
 	}
+	
+	@Test
+	public void testSmartSubSetIsLiveView() {
+		SmartSortedSet<Integer> subSet = smartSortedSet.smartSubSet(3, 9);
+		subSet.add(5);
+		smartSortedSet.remove(8);
+		
+		assertEquals(new SmartTreeSet<Integer>(1, 3, 4, 5, 9, 12), smartSortedSet);
+		assertEquals(new SmartTreeSet<Integer>(3, 4, 5), subSet);
+	}
+	
+	@Test
+	public void testCopy() {
+		SmartSortedSet<Integer> copy = smartSortedSet.smartTailSet(9).copy();
+		copy.add(2);
+		
+		assertEquals(new SmartTreeSet<Integer>(2, 9, 12), copy);
+		assertEquals(6, smartSortedSet.size());
+	}
+	
+	@Test
+	public void testRangePredicatePushdown() {
+		final int[] calls = new int[1];
+		Predicate<Integer> counting = new Predicate<Integer>() {
+			@Override
+			public boolean test(Integer input) {
+				calls[0]++;
+				return input != 9;
+			}
+		};
+		Predicate<Integer> inRange = Predicates.and(Predicates.greaterThanPred(3), counting);
+		
+		assertEquals(3, smartSortedSet.count(inRange));
+		assertEquals(4, calls[0]);
+		assertEquals(Integer.valueOf(4), smartSortedSet.find(Predicates.greaterThanPred(3)));
+		assertEquals(Integer.valueOf(9), smartSortedSet.find(Predicates.equalsPred(9)));
+		assertEquals(2, smartSortedSet.count(Predicates.rangePred(3, true, 8, false)));
+		assertEquals(0, smartSortedSet.count(Predicates.rangePred(8, true, 3, false)));
+		assertEquals(false, smartSortedSet.exists(Predicates.rangePred(5, false, 7, true)));
+		
+		calls[0] = 0;
+		smartSortedSet.filter(Predicates.and(Predicates.lessEqualThanPred(9), counting));
+		assertEquals(new SmartTreeSet<Integer>(1, 3, 4, 8), smartSortedSet);
+		assertEquals(5, calls[0]);
+	}
+	
+	@Test
+	public void testPushdownOnBoundedViews() {
+		SmartTreeSet<Integer> set = new SmartTreeSet<Integer>(1, 3, 5, 7, 9, 11);
+		SmartSortedSet<Integer> sub = set.smartSubSet(5, 10);
+		
+		assertEquals(3, sub.count(Predicates.greaterThanPred(3)));
+		assertEquals(2, sub.count(Predicates.greaterThanPred(5)));
+		assertEquals(0, sub.count(Predicates.greaterThanPred(20)));
+		assertEquals(0, sub.count(Predicates.lessThanPred(2)));
+		assertEquals(Integer.valueOf(7), sub.find(Predicates.equalsPred(7)));
+		assertEquals(2, set.smartHeadSet(5).count(Predicates.greaterEqualThanPred(0)));
+		
+		sub.filter(Predicates.rangePred(2, true, 8, false));
+		assertEquals(new SmartTreeSet<Integer>(5, 7), sub);
+		assertEquals(new SmartTreeSet<Integer>(1, 3, 5, 7, 11), set);
+		
+		SmartSortedSet<Integer> head = set.smartHeadSet(6);
+		head.filter(Predicates.greaterThanPred(10));
+		assertEquals(0, head.size());
+		assertEquals(new SmartTreeSet<Integer>(7, 11), set);
+	}
+	
+	@Test
+	public void testPushdownMatchesScan() {
+		SmartTreeSet<Integer> set = new SmartTreeSet<Integer>(1, 2, 3);
+		assertFalse(set.exists(Predicates.<Number>equalsPred(2L)));
+		assertEquals(0, set.count(Predicates.<Number>equalsPred(2L)));
+		set.filter(Predicates.<Number>equalsPred(2L));
+		assertEquals(0, set.size());
+		
+		SmartTreeSet<BigDecimal> decimals = new SmartTreeSet<BigDecimal>(new BigDecimal("1.0"));
+		decimals.filter(Predicates.equalsPred(new BigDecimal("1.00")));
+		assertEquals(0, decimals.size());
+	}
 }
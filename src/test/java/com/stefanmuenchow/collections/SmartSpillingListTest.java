@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.stefanmuenchow.functors.Functions;
+import com.stefanmuenchow.functors.Predicate;
+import com.stefanmuenchow.functors.Predicates;
+import com.stefanmuenchow.functors.UnaryFunction;
+
+public class SmartSpillingListTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory = null;
+    private SmartSpillingList<Integer> list = null;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = folder.newFolder("spill");
+        list = new SmartSpillingList<Integer>(Codecs.integerCodec(), 100, 2, directory);
+        for (int i = 0; i < 1000; i++) {
+            list.add(i);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        list.close();
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void testSpillsSegments() {
+        assertEquals(1000, list.size());
+        assertEquals(7, directory.list().length);
+        assertEquals(7, ((SpillingList<Integer>) list.toStandardCollection()).spilledSegments());
+
+        assertEquals(Integer.valueOf(0), list.head());
+        assertEquals(Integer.valueOf(555), list.get(555));
+        assertEquals(Integer.valueOf(999), list.last());
+        assertEquals(Integer.valueOf(499500), list.reduce(Functions.<Integer>addFn()));
+    }
+
+    @Test
+    public void testSetIsWrittenBack() {
+        for (int i = 0; i < 1000; i += 50) {
+            list.set(i, -i);
+        }
+
+        int sum = 0;
+        for (int i = 0; i < 1000; i++) {
+            sum += list.get(i);
+        }
+
+        assertEquals(499500 - 2 * 19 * 500, sum);
+        assertEquals(Integer.valueOf(-950), list.get(950));
+    }
+
+    @Test
+    public void testFilterAndRemoveStream() {
+        list.filter(Predicates.<Integer>evenPred());
+        assertEquals(500, list.size());
+        assertEquals(Integer.valueOf(998), list.last());
+
+        list.remove(new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer input) {
+                return input >= 100;
+            }
+        });
+        assertEquals(50, list.size());
+        assertEquals(0, directory.list().length);
+        assertEquals(Integer.valueOf(98), list.get(49));
+    }
+
+    @Test
+    public void testMapAndTake() {
+        SmartSpillingList<String> strings = list.take(300).map(Functions.toStringFn(), Codecs.stringCodec());
+        assertEquals(300, strings.size());
+        assertEquals("299", strings.last());
+        assertEquals("150", strings.get(150));
+        strings.close();
+
+        SmartList<Integer> dropped = list.drop(995);
+        assertEquals(new SmartArrayList<Integer>(995, 996, 997, 998, 999), new SmartArrayList<Integer>(dropped));
+        ((SmartSpillingList<Integer>) dropped).close();
+    }
+
+    @Test
+    public void testInsertAndRemoveByIndex() {
+        List<Integer> expected = new ArrayList<Integer>(list);
+        list.add(150, -1);
+        expected.add(150, -1);
+        assertEquals(Integer.valueOf(999), list.remove(1000));
+        expected.remove(1000);
+        list.add(null);
+        expected.add(null);
+
+        assertEquals(expected, list.toStandardCollection());
+        assertEquals(1, list.count(new Predicate<Integer>() {
+            @Override
+            public boolean test(Integer input) {
+                return input == null;
+            }
+        }));
+    }
+
+    @Test
+    public void testRemoveElement() {
+        assertTrue(list.remove(Integer.valueOf(555)));
+        assertFalse(list.remove(Integer.valueOf(5555)));
+        list.removeReturn(0);
+
+        assertEquals(998, list.size());
+        assertEquals(Integer.valueOf(1), list.head());
+        assertEquals(Integer.valueOf(556), list.get(554));
+    }
+
+    @Test
+    public void testSerializableCodec() {
+        SmartSpillingList<ArrayList<String>> lists = new SmartSpillingList<ArrayList<String>>(
+                Codecs.<ArrayList<String>>serializableCodec(), 2, 1, directory);
+        for (int i = 0; i < 5; i++) {
+            ArrayList<String> elem = new ArrayList<String>();
+            elem.add("v" + i);
+            lists.add(elem);
+        }
+
+        SmartList<String> firsts = lists.map(new UnaryFunction<String, ArrayList<String>>() {
+            @Override
+            public String apply(ArrayList<String> input) {
+                return input.get(0);
+            }
+        });
+        assertEquals(new SmartArrayList<String>("v0", "v1", "v2", "v3", "v4"), firsts);
+        assertTrue(lists.get(1).contains("v1"));
+        lists.close();
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.functors.BinaryFunction;
+import com.stefanmuenchow.functors.DoublePredicate;
+import com.stefanmuenchow.functors.IntPredicate;
+import com.stefanmuenchow.functors.Predicate;
+
+public class SmartTableTest {
+    private static final IntPredicate SINCE_1970 = new IntPredicate() {
+
+        @Override
+        public boolean test(final int input) {
+            return input >= 1970;
+        }
+    };
+
+    private static final DoublePredicate LONG_ALBUM = new DoublePredicate() {
+
+        @Override
+        public boolean test(final double input) {
+            return input > 40.0;
+        }
+    };
+
+    private SmartTable albums = null;
+
+    @Before
+    public void setUp() throws Exception {
+        albums = new SmartTable().addObjectColumn("title").addObjectColumn("genre").addIntColumn("year")
+                .addDoubleColumn("minutes");
+        albums.addRow("Abbey Road", "Rock", 1969, 47.2);
+        albums.addRow("Kind of Blue", "Jazz", 1959, 45.7);
+        albums.addRow("Rumours", "Rock", 1977, 39.1);
+        albums.addRow("Thriller", "Pop", 1982, 42.2);
+        albums.addRow("Head Hunters", "Jazz", 1973, 41.9);
+    }
+
+    @Test
+    public void testAccess() {
+        assertEquals(5, albums.size());
+        assertEquals(new SmartArrayList<String>("title", "genre", "year", "minutes"), albums.columnNames());
+        assertEquals(1977, albums.getInt(2, "year"));
+        assertEquals(42.2, albums.getDouble(3, "minutes"), 0.0);
+        assertEquals("Kind of Blue", albums.<String>get(1, "title"));
+        assertEquals(Integer.valueOf(1982), albums.<Integer>get(3, "year"));
+
+        albums.setInt(2, "year", 1976);
+        albums.set(2, "minutes", 40);
+        assertEquals(1976, albums.getInt(2, "year"));
+        assertEquals(40.0, albums.getDouble(2, "minutes"), 0.0);
+
+        try {
+            albums.getLong(0, "year");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Column year is not a long column", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFilterChain() {
+        SmartTable recent = albums.filterInt("year", SINCE_1970);
+        assertEquals(3, recent.size());
+        assertEquals("Rumours", recent.<String>get(0, "title"));
+
+        SmartTable recentLong = recent.filterDouble("minutes", LONG_ALBUM);
+        assertEquals(2, recentLong.size());
+        assertEquals("Thriller", recentLong.<String>get(0, "title"));
+        assertEquals(1982 + 1973, recentLong.sumInt("year"));
+
+        SmartTable jazz = recentLong.filter("genre", new Predicate<String>() {
+
+            @Override
+            public boolean test(final String input) {
+                return input.equals("Jazz");
+            }
+        });
+        assertEquals(1, jazz.size());
+        assertEquals("Head Hunters", jazz.rows().get(0).<String>get("title"));
+
+        jazz.setDouble(0, "minutes", 42.0);
+        assertEquals(42.0, albums.getDouble(4, "minutes"), 0.0);
+    }
+
+    @Test
+    public void testCountAndReduce() {
+        assertEquals(3, albums.countInt("year", SINCE_1970));
+        assertEquals(4, albums.countDouble("minutes", LONG_ALBUM));
+        assertEquals(47.2 + 45.7 + 39.1 + 42.2 + 41.9, albums.sumDouble("minutes"), 1e-9);
+
+        String titles = albums.filterInt("year", SINCE_1970).reduce("title", "",
+                new BinaryFunction<String, String>() {
+
+                    @Override
+                    public String apply(final String input1, final String input2) {
+                        return input1 + input2.charAt(0);
+                    }
+                });
+        assertEquals("RTH", titles);
+    }
+
+    @Test
+    public void testProjection() {
+        SmartTable years = albums.filterInt("year", SINCE_1970).select("year", "title");
+        assertEquals(new SmartArrayList<String>("year", "title"), years.columnNames());
+        assertEquals("[year=1977, title=Rumours]", years.rows().get(0).toString());
+
+        try {
+            years.getDouble(0, "minutes");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown column: minutes", e.getMessage());
+        }
+
+        try {
+            years.addRow(2000, "New");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertTrue(albums.size() == 5);
+        }
+    }
+
+    @Test
+    public void testGrowthAndLateColumns() {
+        SmartTable all = albums.select("title", "year");
+        for (int i = 0; i < 1000; i++) {
+            albums.addRow("Album " + i, "Pop", 2000 + i % 20, 30.0 + i % 30);
+        }
+
+        assertEquals(1005, albums.size());
+        assertEquals(1005, all.size());
+        assertEquals(2019, all.getInt(1004, "year"));
+
+        albums.addLongColumn("sales");
+        assertEquals(0L, albums.getLong(1004, "sales"));
+        assertEquals(0L, albums.sumLong("sales"));
+    }
+}
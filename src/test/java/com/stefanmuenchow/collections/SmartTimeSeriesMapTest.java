@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.stefanmuenchow.functors.MapBinaryFunction;
+
+public class SmartTimeSeriesMapTest {
+    private SmartTimeSeriesMap series = null;
+
+    @Before
+    public void setUp() throws Exception {
+        series = new SmartTimeSeriesMap();
+        for (int i = 0; i < 10; i++) {
+            series.append(1000 + i * 10, i);
+        }
+    }
+
+    @Test
+    public void testAppendAndGet() {
+        assertEquals(10, series.size());
+        assertEquals(Double.valueOf(3), series.get(1030L));
+        assertNull(series.get(1031L));
+        assertEquals(-1.0, series.valueAt(1031, -1), 0.0);
+        assertEquals(Long.valueOf(1000), series.firstKey());
+        assertEquals(Long.valueOf(1090), series.lastKey());
+
+        series.append(1090, 42.5);
+        assertEquals(10, series.size());
+        assertEquals(42.5, series.valueAt(1090, 0), 0.0);
+    }
+
+    @Test
+    public void testOutOfOrderPoints() {
+        series.put(995L, -1.0);
+        series.put(1015L, 1.5);
+        series.put(1020L, 20.0);
+        assertEquals(Double.valueOf(4), series.remove(1040L));
+
+        SmartList<Long> keys = new SmartArrayList<Long>(series.keySet());
+        assertEquals(new SmartArrayList<Long>(995L, 1000L, 1010L, 1015L, 1020L, 1030L, 1050L, 1060L, 1070L, 1080L, 1090L), keys);
+        assertEquals(Double.valueOf(20.0), series.get(1020L));
+    }
+
+    @Test
+    public void testCursorAndReduce() {
+        TimeSeriesCursor cursor = series.cursor(1025, 1055);
+        assertTrue(cursor.next());
+        assertEquals(1030, cursor.timestamp());
+        assertEquals(3.0, cursor.value(), 0.0);
+        assertTrue(cursor.next());
+        assertTrue(cursor.next());
+        assertEquals(1050, cursor.timestamp());
+        assertTrue(!cursor.next());
+
+        Double sum = series.smartSubMap(1020L, 1050L).reduce(0.0, new MapBinaryFunction<Double, Long, Double>() {
+            @Override
+            public Double apply(Double akku, Long key, Double value) {
+                return akku + value;
+            }
+        });
+        assertEquals(2.0 + 3.0 + 4.0, sum, 0.0);
+    }
+
+    @Test
+    public void testDownsample() {
+        SmartList<TimeSeriesBucket> buckets = series.downsample(1000, 1100, 30);
+        assertEquals(4, buckets.size());
+        assertEquals(1030, buckets.get(1).getStart());
+        assertEquals(3, buckets.get(1).getCount());
+        assertEquals(3.0, buckets.get(1).getMin(), 0.0);
+        assertEquals(5.0, buckets.get(1).getMax(), 0.0);
+        assertEquals(4.0, buckets.get(1).getAverage(), 0.0);
+        assertEquals(1, buckets.get(3).getCount());
+
+        TimeSeriesBucket summary = series.summarize(0, 2000);
+        assertEquals(10, summary.getCount());
+        assertEquals(45.0, summary.getSum(), 0.0);
+    }
+
+    @Test
+    public void testDownsampleFromBeginningOfTime() {
+        SmartList<TimeSeriesBucket> buckets = series.downsample(Long.MIN_VALUE, 1100, 30);
+        assertEquals(4, buckets.size());
+        assertEquals(982, buckets.get(0).getStart());
+        assertEquals(2, buckets.get(0).getCount());
+        assertEquals(1072, buckets.get(3).getStart());
+        assertEquals(2, buckets.get(3).getCount());
+
+        buckets = series.downsample(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(1, buckets.size());
+        assertEquals(-1, buckets.get(0).getStart());
+        assertEquals(10, buckets.get(0).getCount());
+
+        TimeSeriesBucket summary = series.summarize(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, summary.getWidth());
+        assertEquals(10, summary.getCount());
+        assertEquals(0, series.summarize(2000, 0).getWidth());
+    }
+
+    @Test
+    public void testLiveSubMap() {
+        SmartTimeSeriesMap sub = series.smartSubMap(1020L, 1060L);
+        assertEquals(4, sub.size());
+        assertEquals(Long.valueOf(1050), sub.lastKey());
+
+        sub.put(1025L, 7.0);
+        assertEquals(Double.valueOf(7.0), series.get(1025L));
+        sub.clear();
+        assertEquals(6, series.size());
+        assertTrue(sub.isEmpty());
+
+        SmartTimeSeriesMap copy = series.smartTailMap(1070L).copy();
+        copy.append(2000, 1);
+        assertEquals(6, series.size());
+        assertEquals(4, copy.size());
+    }
+
+    @Test
+    public void testCompression() {
+        SmartTimeSeriesMap regular = new SmartTimeSeriesMap();
+        for (int i = 0; i < 10000; i++) {
+            regular.append(1300000000000L + i * 1000L, 20.0 + (i % 4) * 0.5);
+        }
+
+        assertEquals(10000, regular.size());
+        assertTrue(regular.compressedSize() < 10000 * 4);
+        assertEquals(20.5, regular.valueAt(1300000000000L + 5001 * 1000L, 0), 0.0);
+    }
+
+    @Test
+    public void testRandomizedAgainstTreeMap() {
+        SmartTimeSeriesMap map = new SmartTimeSeriesMap();
+        TreeMap<Long, Double> expected = new TreeMap<Long, Double>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(5000) * 7L - 10000;
+            int op = random.nextInt(10);
+            if (op == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else if (op < 4) {
+                double value = random.nextGaussian() * 1000;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            } else {
+                long next = expected.isEmpty() ? 0 : expected.lastKey() + random.nextInt(100000) + 1;
+                double value = random.nextInt(3) == 0 ? Double.NaN : random.nextDouble();
+                expected.put(next, value);
+                map.append(next, value);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Iterator<Map.Entry<Long, Double>> it = map.entrySet().iterator();
+        for (Map.Entry<Long, Double> entry : expected.entrySet()) {
+            assertEquals(entry, it.next());
+        }
+
+        long from = expected.firstKey() + 5000;
+        long to = expected.lastKey() - 5000;
+        assertEquals(expected.subMap(from, to), map.subMap(from, to));
+        assertEquals(expected.subMap(from, to).size(), map.smartSubMap(from, to).size());
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) Stefan Münchow. All rights reserved.
+ * The use and distribution terms for this software are covered by the
+ * Eclipse Public License 1.0 (http://opensource.org/licenses/eclipse-1.0.php)
+ * which can be found in the file epl-v10.html at the root of this distribution.
+ * By using this software in any fashion, you are agreeing to be bound by
+ * the terms of this license.
+ * You must not remove this notice, or any other, from this software.
+ **/
+
+package com.stefanmuenchow.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class UnrolledLinkedListTest {
+
+    @Test
+    public void testDequeOperations() {
+        UnrolledLinkedList<Integer> list = new UnrolledLinkedList<Integer>();
+        assertNull(list.poll());
+        assertNull(list.peekLast());
+
+        for (int i = 0; i < 100; i++) {
+            list.addLast(i);
+            list.addFirst(-i - 1);
+        }
+
+        assertEquals(200, list.size());
+        assertEquals(Integer.valueOf(-100), list.getFirst());
+        assertEquals(Integer.valueOf(99), list.getLast());
+        assertEquals(Integer.valueOf(0), list.get(100));
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(-100 + i), list.poll());
+            assertEquals(Integer.valueOf(99 - i), list.pollLast());
+        }
+
+        assertTrue(list.isEmpty());
+        list.push(1);
+        list.offer(2);
+        assertEquals(Integer.valueOf(1), list.pop());
+        assertEquals(Integer.valueOf(2), list.element());
+    }
+
+    @Test
+    public void testDescendingAndOccurrences() {
+        UnrolledLinkedList<Integer> list = new UnrolledLinkedList<Integer>(
+                new SmartArrayList<Integer>(1, 2, 3, 2, 1));
+        assertTrue(list.removeLastOccurrence(2));
+        assertTrue(list.removeFirstOccurrence(1));
+        assertFalse(list.removeLastOccurrence(7));
+        assertEquals(new SmartArrayList<Integer>(2, 3, 1), new SmartArrayList<Integer>(list));
+
+        Iterator<Integer> it = list.descendingIterator();
+        assertEquals(Integer.valueOf(1), it.next());
+        it.remove();
+        assertEquals(Integer.valueOf(3), it.next());
+        assertEquals(new LinkedList<Integer>(new SmartArrayList<Integer>(2, 3)), list);
+    }
+
+    @Test
+    public void testRandomizedAgainstLinkedList() {
+        UnrolledLinkedList<Integer> actual = new UnrolledLinkedList<Integer>();
+        LinkedList<Integer> expected = new LinkedList<Integer>();
+        Random random = new Random(42);
+
+        for (int round = 0; round < 20000; round++) {
+            int value = random.nextInt(1000);
+            switch (random.nextInt(9)) {
+            case 0:
+                actual.addFirst(value);
+                expected.addFirst(value);
+                break;
+            case 1:
+                actual.addLast(value);
+                expected.addLast(value);
+                break;
+            case 2:
+                assertEquals(expected.pollFirst(), actual.pollFirst());
+                break;
+            case 3:
+                assertEquals(expected.pollLast(), actual.pollLast());
+                break;
+            case 4: {
+                int index = random.nextInt(expected.size() + 1);
+                actual.add(index, value);
+                expected.add(index, value);
+                break;
+            }
+            case 5:
+                if (!expected.isEmpty()) {
+                    int index = random.nextInt(expected.size());
+                    assertEquals(expected.remove(index), actual.remove(index));
+                }
+                break;
+            case 6:
+                if (!expected.isEmpty()) {
+                    int index = random.nextInt(expected.size());
+                    assertEquals(expected.set(index, value), actual.set(index, value));
+                }
+                break;
+            case 7: {
+                int index = random.nextInt(expected.size() + 1);
+                ListIterator<Integer> expectedIt = expected.listIterator(index);
+                ListIterator<Integer> actualIt = actual.listIterator(index);
+                for (int step = 0; step < 40; step++) {
+                    int op = random.nextInt(5);
+                    if (op == 0 && expectedIt.hasNext()) {
+                        assertEquals(expectedIt.next(), actualIt.next());
+                        if (random.nextBoolean()) {
+                            expectedIt.remove();
+                            actualIt.remove();
+                        }
+                    } else if (op == 1 && expectedIt.hasPrevious()) {
+                        assertEquals(expectedIt.previous(), actualIt.previous());
+                        if (random.nextBoolean()) {
+                            expectedIt.remove();
+                            actualIt.remove();
+                        } else {
+                            expectedIt.set(-value);
+                            actualIt.set(-value);
+                        }
+                    } else if (op == 2) {
+                        expectedIt.add(value + step);
+                        actualIt.add(value + step);
+                    }
+
+                    assertEquals(expectedIt.nextIndex(), actualIt.nextIndex());
+                }
+                break;
+            }
+            default:
+                if (random.nextInt(50) == 0) {
+                    actual.clear();
+                    expected.clear();
+                }
+            }
+
+            assertEquals(expected.size(), actual.size());
+            if (round % 100 == 0) {
+                assertEquals(expected, actual);
+            }
+        }
+
+        assertEquals(expected, actual);
+    }
+}